@@ -0,0 +1,41 @@
+package io.sphere.client;
+
+import io.sphere.internal.Defaults;
+import net.jcip.annotations.Immutable;
+
+/** Resources reserved for a group of services, so that a burst of requests to one group
+ *  can't starve the others. See {@link io.sphere.client.shop.ServiceGroup}.
+ *
+ *  <p>Requests over the concurrency limit wait in a queue. When the queue is full, requests fail with
+ *  {@link ConcurrencyLimitExceededException}. */
+@Immutable
+public final class BulkheadConfig {
+    private final int maxConnections;
+    private final int maxConcurrentRequests;
+    private final int maxQueueSize;
+
+    /** @param maxConnections Size of the group's own HTTP connection pool.
+     *  @param maxConcurrentRequests Maximum number of the group's requests in flight. */
+    public BulkheadConfig(int maxConnections, int maxConcurrentRequests) {
+        this(maxConnections, maxConcurrentRequests, Defaults.bulkheadMaxQueueSize);
+    }
+
+    /** @param maxConnections Size of the group's own HTTP connection pool.
+     *  @param maxConcurrentRequests Maximum number of the group's requests in flight.
+     *  @param maxQueueSize Maximum number of the group's requests waiting to be sent. */
+    public BulkheadConfig(int maxConnections, int maxConcurrentRequests, int maxQueueSize) {
+        if (maxConnections < 1) throw new IllegalArgumentException("maxConnections must be at least 1.");
+        if (maxConcurrentRequests < 1) throw new IllegalArgumentException("maxConcurrentRequests must be at least 1.");
+        if (maxQueueSize < 0) throw new IllegalArgumentException("maxQueueSize must not be negative.");
+        this.maxConnections = maxConnections;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /** Size of the group's own HTTP connection pool. */
+    public int getMaxConnections() { return maxConnections; }
+    /** Maximum number of the group's requests in flight. */
+    public int getMaxConcurrentRequests() { return maxConcurrentRequests; }
+    /** Maximum number of the group's requests waiting to be sent. */
+    public int getMaxQueueSize() { return maxQueueSize; }
+}
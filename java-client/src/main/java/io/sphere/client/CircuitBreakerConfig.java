@@ -0,0 +1,70 @@
+package io.sphere.client;
+
+import io.sphere.internal.Defaults;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/** Configuration of the circuit breakers that stop sending requests to failing groups of endpoints.
+ *
+ *  <p>A circuit breaker opens when, among the last {@link #getWindowSize() windowSize} requests, the rate of
+ *  failed or slow requests reaches the configured threshold. While open, requests fail immediately with
+ *  {@link CircuitBreakerOpenException}. After {@link #getOpenDurationMs() openDurationMs}, a few probe requests
+ *  are let through: if they all succeed the circuit breaker closes, otherwise it opens again. */
+@Immutable
+public final class CircuitBreakerConfig {
+    private final int windowSize;
+    private final int minimumRequests;
+    private final int failureRatePercent;
+    private final long slowRequestThresholdMs;
+    private final int slowRequestRatePercent;
+    private final long openDurationMs;
+    private final int halfOpenProbes;
+
+    private CircuitBreakerConfig(Builder builder) {
+        if (builder.windowSize < 1) throw new IllegalArgumentException("windowSize must be at least 1.");
+        if (builder.halfOpenProbes < 1) throw new IllegalArgumentException("halfOpenProbes must be at least 1.");
+        this.windowSize = builder.windowSize;
+        this.minimumRequests = Math.min(builder.minimumRequests, builder.windowSize);
+        this.failureRatePercent = builder.failureRatePercent;
+        this.slowRequestThresholdMs = builder.slowRequestThresholdMs;
+        this.slowRequestRatePercent = builder.slowRequestRatePercent;
+        this.openDurationMs = builder.openDurationMs;
+        this.halfOpenProbes = builder.halfOpenProbes;
+    }
+
+    /** Number of most recent requests the failure and slow request rates are computed from. */
+    public int getWindowSize() { return windowSize; }
+    /** Minimum number of recorded requests before the circuit breaker can open. */
+    public int getMinimumRequests() { return minimumRequests; }
+    /** Percentage of failed requests (connection errors, 5xx, OverCapacity) that opens the circuit breaker. */
+    public int getFailureRatePercent() { return failureRatePercent; }
+    /** Requests taking longer than this are considered slow. */
+    public long getSlowRequestThresholdMs() { return slowRequestThresholdMs; }
+    /** Percentage of slow requests that opens the circuit breaker. */
+    public int getSlowRequestRatePercent() { return slowRequestRatePercent; }
+    /** How long the circuit breaker stays open before letting probe requests through. */
+    public long getOpenDurationMs() { return openDurationMs; }
+    /** Number of successful probe requests needed to close the circuit breaker again. */
+    public int getHalfOpenProbes() { return halfOpenProbes; }
+
+    @NotThreadSafe
+    public static class Builder {
+        private int windowSize = Defaults.circuitBreakerWindowSize;
+        private int minimumRequests = Defaults.circuitBreakerMinimumRequests;
+        private int failureRatePercent = Defaults.circuitBreakerFailureRatePercent;
+        private long slowRequestThresholdMs = Defaults.circuitBreakerSlowRequestThresholdMs;
+        private int slowRequestRatePercent = Defaults.circuitBreakerSlowRequestRatePercent;
+        private long openDurationMs = Defaults.circuitBreakerOpenDurationMs;
+        private int halfOpenProbes = Defaults.circuitBreakerHalfOpenProbes;
+
+        public Builder setWindowSize(int windowSize) { this.windowSize = windowSize; return this; }
+        public Builder setMinimumRequests(int minimumRequests) { this.minimumRequests = minimumRequests; return this; }
+        public Builder setFailureRatePercent(int percent) { this.failureRatePercent = percent; return this; }
+        public Builder setSlowRequestThresholdMs(long thresholdMs) { this.slowRequestThresholdMs = thresholdMs; return this; }
+        public Builder setSlowRequestRatePercent(int percent) { this.slowRequestRatePercent = percent; return this; }
+        public Builder setOpenDurationMs(long durationMs) { this.openDurationMs = durationMs; return this; }
+        public Builder setHalfOpenProbes(int probes) { this.halfOpenProbes = probes; return this; }
+
+        public CircuitBreakerConfig build() { return new CircuitBreakerConfig(this); }
+    }
+}
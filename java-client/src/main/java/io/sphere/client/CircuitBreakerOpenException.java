@@ -0,0 +1,17 @@
+package io.sphere.client;
+
+/** Exception thrown instead of sending a request when the backend endpoints of a group (e.g. products or carts)
+ *  have recently been failing or responding slowly.
+ *
+ *  <p>The request was not sent. Applications can catch this exception to fall back to cached content. */
+public class CircuitBreakerOpenException extends SphereClientException {
+    private final String endpointGroup;
+
+    public CircuitBreakerOpenException(String endpointGroup) {
+        super("Circuit breaker open for endpoint group '" + endpointGroup + "', request not sent.");
+        this.endpointGroup = endpointGroup;
+    }
+
+    /** The group of endpoints the request was sent to, e.g. {@code product-projections} or {@code carts}. */
+    public String getEndpointGroup() { return endpointGroup; }
+}
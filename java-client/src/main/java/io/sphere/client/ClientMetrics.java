@@ -0,0 +1,74 @@
+package io.sphere.client;
+
+import com.google.common.base.Supplier;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Counters and gauges describing the work done by a {@link io.sphere.client.shop.SphereClient}.
+ *
+ *  <p>Counters only ever grow. Gauges are sampled whenever they are read.
+ *  Metric names are defined by the components that report them, e.g. {@code requests.coalesced}. */
+@ThreadSafe
+public final class ClientMetrics {
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<String, AtomicLong>();
+    private final ConcurrentMap<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<String, Supplier<? extends Number>>();
+
+    /** Increments a counter by one. */
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    /** Increments a counter by given amount. */
+    public void add(String name, long amount) {
+        counter(name).addAndGet(amount);
+    }
+
+    /** Registers a gauge, replacing any previously registered gauge of the same name. */
+    public void registerGauge(String name, Supplier<? extends Number> gauge) {
+        if (gauge == null) throw new NullPointerException("gauge");
+        gauges.put(name, gauge);
+    }
+
+    /** Current value of a counter, or 0 if the counter was never incremented. */
+    public long getCount(String name) {
+        AtomicLong counter = counters.get(name);
+        return counter == null ? 0 : counter.get();
+    }
+
+    /** Current value of a gauge, or 0 if no such gauge is registered. */
+    public long getGauge(String name) {
+        Supplier<? extends Number> gauge = gauges.get(name);
+        return gauge == null ? 0 : gauge.get().longValue();
+    }
+
+    /** A snapshot of all counters and gauges, sorted by name. */
+    public Map<String, Long> getAll() {
+        Map<String, Long> all = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> counter: counters.entrySet()) {
+            all.put(counter.getKey(), counter.getValue().get());
+        }
+        for (Map.Entry<String, Supplier<? extends Number>> gauge: gauges.entrySet()) {
+            all.put(gauge.getKey(), gauge.getValue().get().longValue());
+        }
+        return all;
+    }
+
+    @Override public String toString() {
+        return "ClientMetrics" + getAll();
+    }
+
+    private AtomicLong counter(String name) {
+        AtomicLong counter = counters.get(name);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = counters.putIfAbsent(name, newCounter);
+            if (counter == null) counter = newCounter;
+        }
+        return counter;
+    }
+}
@@ -7,6 +7,7 @@ import io.sphere.client.exceptions.SphereException;
 import net.jcip.annotations.Immutable;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
 
 /** Request that sends a commands to the Sphere backend. */
 @Immutable
@@ -19,4 +20,9 @@ public interface CommandRequest<T> {
 
     /** Transforms a generic error result from the Sphere backend into a specific error, depending on the use case. */
     CommandRequest<T> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError);
+
+    /** Returns a request that fails with {@link RequestTimeoutException} if it doesn't complete within given time.
+     *  The time starts running when the request is executed.
+     *  Note that the backend might apply a command even if the request timed out. */
+    CommandRequest<T> timeout(long timeout, TimeUnit unit);
 }
@@ -0,0 +1,67 @@
+package io.sphere.client;
+
+import io.sphere.internal.Defaults;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/** Configuration of the adaptive limit on the number of concurrent requests.
+ *
+ *  <p>The limit adapts to the backend using AIMD (additive increase, multiplicative decrease): it grows by one
+ *  for every limit's worth of fast responses, and shrinks by the {@link #getBackoffRatio() backoff ratio} when
+ *  a request fails or takes longer than {@link #getRttTolerance() rttTolerance} times the average response time.
+ *  Requests over the limit wait in a queue. When the queue is full, requests fail with
+ *  {@link ConcurrencyLimitExceededException}. */
+@Immutable
+public final class ConcurrencyLimitConfig {
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final double rttTolerance;
+    private final double backoffRatio;
+
+    private ConcurrencyLimitConfig(Builder builder) {
+        if (builder.minLimit < 1 || builder.maxLimit < builder.minLimit)
+            throw new IllegalArgumentException("Invalid limits: min " + builder.minLimit + ", max " + builder.maxLimit);
+        if (builder.backoffRatio <= 0 || builder.backoffRatio >= 1)
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1.");
+        this.initialLimit = Math.max(builder.minLimit, Math.min(builder.maxLimit, builder.initialLimit));
+        this.minLimit = builder.minLimit;
+        this.maxLimit = builder.maxLimit;
+        this.maxQueueSize = builder.maxQueueSize;
+        this.rttTolerance = builder.rttTolerance;
+        this.backoffRatio = builder.backoffRatio;
+    }
+
+    /** Number of concurrent requests allowed at startup. */
+    public int getInitialLimit() { return initialLimit; }
+    /** Lower bound of the limit. */
+    public int getMinLimit() { return minLimit; }
+    /** Upper bound of the limit. */
+    public int getMaxLimit() { return maxLimit; }
+    /** Maximum number of requests waiting for the number of concurrent requests to drop below the limit. */
+    public int getMaxQueueSize() { return maxQueueSize; }
+    /** Requests taking longer than this multiple of the average response time make the limit shrink. */
+    public double getRttTolerance() { return rttTolerance; }
+    /** Factor the limit is multiplied by when it shrinks. */
+    public double getBackoffRatio() { return backoffRatio; }
+
+    @NotThreadSafe
+    public static class Builder {
+        private int initialLimit = Defaults.concurrencyInitialLimit;
+        private int minLimit = Defaults.concurrencyMinLimit;
+        private int maxLimit = Defaults.concurrencyMaxLimit;
+        private int maxQueueSize = Defaults.concurrencyMaxQueueSize;
+        private double rttTolerance = Defaults.concurrencyRttTolerance;
+        private double backoffRatio = Defaults.concurrencyBackoffRatio;
+
+        public Builder setInitialLimit(int limit) { this.initialLimit = limit; return this; }
+        public Builder setMinLimit(int limit) { this.minLimit = limit; return this; }
+        public Builder setMaxLimit(int limit) { this.maxLimit = limit; return this; }
+        public Builder setMaxQueueSize(int size) { this.maxQueueSize = size; return this; }
+        public Builder setRttTolerance(double tolerance) { this.rttTolerance = tolerance; return this; }
+        public Builder setBackoffRatio(double ratio) { this.backoffRatio = ratio; return this; }
+
+        public ConcurrencyLimitConfig build() { return new ConcurrencyLimitConfig(this); }
+    }
+}
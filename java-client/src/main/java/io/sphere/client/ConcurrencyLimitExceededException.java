@@ -0,0 +1,11 @@
+package io.sphere.client;
+
+/** Exception thrown instead of sending a request when too many requests are already in flight
+ *  and the queue of waiting requests is full.
+ *
+ *  <p>The request was not sent. This usually means the backend is responding slowly. */
+public class ConcurrencyLimitExceededException extends SphereClientException {
+    public ConcurrencyLimitExceededException(int limit, int queueSize) {
+        super("Too many concurrent requests: " + limit + " in flight and " + queueSize + " waiting. Request not sent.");
+    }
+}
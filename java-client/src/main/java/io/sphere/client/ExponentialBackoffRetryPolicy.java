@@ -0,0 +1,42 @@
+package io.sphere.client;
+
+import net.jcip.annotations.Immutable;
+
+import java.util.Random;
+
+/** Retries with exponentially growing delays and full jitter.
+ *
+ *  <p>The delay before retry {@code n} is chosen uniformly at random between 0 and
+ *  {@code min(maxDelayMs, baseDelayMs * 2^(n-1))}, so that clients failing at the same time
+ *  don't retry at the same time. */
+@Immutable
+public final class ExponentialBackoffRetryPolicy implements RetryPolicy {
+    private static final Random random = new Random();
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    /** @param maxAttempts Maximum number of attempts, including the first one.
+     *  @param baseDelayMs Upper bound of the delay before the first retry.
+     *  @param maxDelayMs Upper bound of the delay before any retry. */
+    public ExponentialBackoffRetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        if (baseDelayMs < 0 || maxDelayMs < baseDelayMs)
+            throw new IllegalArgumentException("Invalid delays: base " + baseDelayMs + ", max " + maxDelayMs);
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public long getRetryDelayMs(int retry) {
+        if (retry >= maxAttempts) return -1;
+        // shift at most 30 bits to prevent overflow
+        long maxDelay = Math.min(maxDelayMs, baseDelayMs << Math.min(retry - 1, 30));
+        return (long)(random.nextDouble() * (maxDelay + 1));
+    }
+
+    public int getMaxAttempts() { return maxAttempts; }
+    public long getBaseDelayMs() { return baseDelayMs; }
+    public long getMaxDelayMs() { return maxDelayMs; }
+}
@@ -0,0 +1,29 @@
+package io.sphere.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Request that fetches multiple objects by their ids.
+ *  <p>Use {@link #fetch} or {@link #fetchAsync} to execute the request. */
+public interface FetchByIdsRequest<T> {
+    /** Executes the request and returns the found objects by id, in the order of the requested ids.
+     *  Ids of objects that were not found are not contained in the result,
+     *  so {@code Optional.fromNullable(result.get(id))} is what {@code byId(id).fetch()} would return. */
+    Map<String, T> fetch();
+
+    /** Executes the request asynchronously and returns a future providing the found objects by id.
+     *  Ids of objects that were not found are not contained in the result. */
+    ListenableFuture<Map<String, T>> fetchAsync();
+
+    /** Requests {@linkplain io.sphere.client.model.Reference Reference fields} to be expanded in the returned objects.
+     *  See {@link FetchRequest#expand}.
+     *
+     *  @param paths The paths to be expanded, such as 'categories[*]'. */
+    FetchByIdsRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link RequestTimeoutException} if it doesn't complete within given time.
+     *  The time starts running when the request is executed and includes any retries. */
+    FetchByIdsRequest<T> timeout(long timeout, TimeUnit unit);
+}
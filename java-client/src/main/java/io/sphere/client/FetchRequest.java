@@ -3,6 +3,8 @@ package io.sphere.client;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.util.concurrent.TimeUnit;
+
 /** Request that fetches a single object.
  *  <p>Use {@link #fetch} or {@link #fetchAsync} to execute the request. */
 public interface FetchRequest<T> {
@@ -43,4 +45,8 @@ public interface FetchRequest<T> {
      *
      *  @param paths The paths to be expanded, such as 'customerGroup' */
     FetchRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link RequestTimeoutException} if it doesn't complete within given time.
+     *  The time starts running when the request is executed and includes any retries. */
+    FetchRequest<T> timeout(long timeout, TimeUnit unit);
 }
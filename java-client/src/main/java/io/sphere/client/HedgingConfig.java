@@ -0,0 +1,55 @@
+package io.sphere.client;
+
+import io.sphere.internal.Defaults;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.NotThreadSafe;
+
+/** Configuration of hedged read requests.
+ *
+ *  <p>If a GET request takes longer than the given {@link #getPercentile() percentile} of recent response times
+ *  of the same group of endpoints, a second identical request is sent. The first response is used and the
+ *  other request is cancelled. The number of hedged requests is capped at a percentage of all requests. */
+@Immutable
+public final class HedgingConfig {
+    private final int percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final int maxHedgeRatePercent;
+
+    private HedgingConfig(Builder builder) {
+        if (builder.percentile < 1 || builder.percentile > 99)
+            throw new IllegalArgumentException("percentile must be between 1 and 99.");
+        if (builder.minDelayMs < 0 || builder.maxDelayMs < builder.minDelayMs)
+            throw new IllegalArgumentException("Invalid delays: min " + builder.minDelayMs + ", max " + builder.maxDelayMs);
+        if (builder.maxHedgeRatePercent < 0 || builder.maxHedgeRatePercent > 100)
+            throw new IllegalArgumentException("maxHedgeRatePercent must be between 0 and 100.");
+        this.percentile = builder.percentile;
+        this.minDelayMs = builder.minDelayMs;
+        this.maxDelayMs = builder.maxDelayMs;
+        this.maxHedgeRatePercent = builder.maxHedgeRatePercent;
+    }
+
+    /** Percentile of recent response times after which a hedged request is sent. */
+    public int getPercentile() { return percentile; }
+    /** Lower bound of the delay before a hedged request is sent. */
+    public long getMinDelayMs() { return minDelayMs; }
+    /** Upper bound of the delay before a hedged request is sent. Also used until enough response times are known. */
+    public long getMaxDelayMs() { return maxDelayMs; }
+    /** Maximum number of hedged requests, as a percentage of all requests. */
+    public int getMaxHedgeRatePercent() { return maxHedgeRatePercent; }
+
+    @NotThreadSafe
+    public static class Builder {
+        private int percentile = Defaults.hedgingPercentile;
+        private long minDelayMs = Defaults.hedgingMinDelayMs;
+        private long maxDelayMs = Defaults.hedgingMaxDelayMs;
+        private int maxHedgeRatePercent = Defaults.hedgingMaxRatePercent;
+
+        public Builder setPercentile(int percentile) { this.percentile = percentile; return this; }
+        public Builder setMinDelayMs(long delayMs) { this.minDelayMs = delayMs; return this; }
+        public Builder setMaxDelayMs(long delayMs) { this.maxDelayMs = delayMs; return this; }
+        public Builder setMaxHedgeRatePercent(int percent) { this.maxHedgeRatePercent = percent; return this; }
+
+        public HedgingConfig build() { return new HedgingConfig(this); }
+    }
+}
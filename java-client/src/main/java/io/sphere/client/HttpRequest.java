@@ -0,0 +1,85 @@
+package io.sphere.client;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.Immutable;
+
+import java.util.Map;
+
+/** An HTTP request to be sent by an {@link HttpTransport}. */
+@Immutable
+public final class HttpRequest {
+    /** Value of the timeout that means the default timeout of the transport. */
+    public static final int defaultTimeout = -1;
+
+    private final String method;
+    private final String url;
+    private final String rawQuery;
+    private final ImmutableListMultimap<String, String> queryParams;
+    private final ImmutableMap<String, String> headers;
+    private final byte[] body;
+    private final int timeoutMs;
+
+    /** @param url The URL, which can already contain an encoded query string.
+     *  @param queryParams Query parameters appended to the URL, not encoded.
+     *  @param body The request body, null if there is none. Not copied, so it must not be modified afterwards.
+     *  @param timeoutMs Time after which the request is aborted, or {@link #defaultTimeout}. */
+    public HttpRequest(String method, String url, ListMultimap<String, String> queryParams, Map<String, String> headers,
+                       byte[] body, int timeoutMs) {
+        this(method, url, "", queryParams, headers, body, timeoutMs);
+    }
+
+    /** @param url The URL without a query string.
+     *  @param rawQuery An encoded query string without the leading '?', sent as is before the query parameters.
+     *                  Empty if there is none.
+     *  @param queryParams Query parameters appended to the URL, not encoded.
+     *  @param body The request body, null if there is none. Not copied, so it must not be modified afterwards.
+     *  @param timeoutMs Time after which the request is aborted, or {@link #defaultTimeout}. */
+    public HttpRequest(String method, String url, String rawQuery, ListMultimap<String, String> queryParams,
+                       Map<String, String> headers, byte[] body, int timeoutMs) {
+        if (method == null) throw new NullPointerException("method");
+        if (url == null) throw new NullPointerException("url");
+        if (rawQuery == null) throw new NullPointerException("rawQuery");
+        this.method = method;
+        this.url = url;
+        this.rawQuery = rawQuery;
+        this.queryParams = ImmutableListMultimap.copyOf(queryParams);
+        this.headers = ImmutableMap.copyOf(headers);
+        this.body = body;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** The HTTP method, e.g. GET or POST. */
+    public String getMethod() { return method; }
+    /** The URL without the {@linkplain #getRawQuery raw query} and the {@linkplain #getQueryParams query parameters}. */
+    public String getUrl() { return url; }
+    /** Encoded query string without the leading '?', to be sent as is. Empty if there is none. */
+    public String getRawQuery() { return rawQuery; }
+    /** Query parameters appended to the URL, not encoded. */
+    public ImmutableListMultimap<String, String> getQueryParams() { return queryParams; }
+    /** Request headers. */
+    public ImmutableMap<String, String> getHeaders() { return headers; }
+    /** The request body, null if there is none. Must not be modified. */
+    public byte[] getBody() { return body; }
+    /** Time after which the request is aborted, in milliseconds, or {@link #defaultTimeout}. */
+    public int getTimeoutMs() { return timeoutMs; }
+
+    /** The URL including the raw query, if any. */
+    public String getUrlWithRawQuery() {
+        return rawQuery.isEmpty() ? url : url + "?" + rawQuery;
+    }
+
+    /** The URL including the raw query and the encoded query parameters. */
+    public String getEncodedUrl() {
+        StringBuilder encoded = new StringBuilder(getUrlWithRawQuery());
+        boolean hasQuery = encoded.indexOf("?") >= 0;
+        for (Map.Entry<String, String> param: queryParams.entries()) {
+            encoded.append(hasQuery ? '&' : '?').append(Util.encodeQueryParam(param.getKey())).append('=')
+                   .append(Util.encodeQueryParam(param.getValue()));
+            hasQuery = true;
+        }
+        return encoded.toString();
+    }
+}
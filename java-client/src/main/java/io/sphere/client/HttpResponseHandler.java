@@ -0,0 +1,34 @@
+package io.sphere.client;
+
+import java.util.List;
+import java.util.Map;
+
+/** Receives the response to a request sent by an {@link HttpTransport} as it arrives:
+ *  the status, the headers, then the body in parts.
+ *
+ *  <p>A handler is used for a single request and its methods are never called concurrently. */
+public interface HttpResponseHandler<T> {
+    /** Tells the transport whether to go on passing the response to the handler. */
+    enum State {
+        CONTINUE,
+        /** Skips the rest of the response, the transport calls {@link #onCompleted} next. */
+        ABORT
+    }
+
+    /** Called first, with the status code of the response.
+     *  Can be called again if the transport resends the request, which starts the response over. */
+    State onStatusReceived(int statusCode) throws Exception;
+
+    /** Called with the response headers, whose names are case insensitive. */
+    State onHeadersReceived(Map<String, List<String>> headers) throws Exception;
+
+    /** Called for each part of the response body, in order.
+     *  The array belongs to the handler, the transport does not modify it afterwards. */
+    State onBodyPartReceived(byte[] bodyPart) throws Exception;
+
+    /** Called once the response is complete. The returned value is the result of the request. */
+    T onCompleted() throws Exception;
+
+    /** Called when the request fails. */
+    void onThrowable(Throwable t);
+}
@@ -0,0 +1,22 @@
+package io.sphere.client;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.io.IOException;
+
+/** Sends HTTP requests for the client. All requests of a client, including token requests, go through
+ *  a transport, so the HTTP stack can be replaced without touching anything else.
+ *
+ *  <p>Responses are streamed to an {@link HttpResponseHandler} as they arrive: status, headers, then the body in parts.
+ *  An application can provide its own transport using {@link io.sphere.client.shop.SphereClientConfig.Builder#setTransport}. */
+public interface HttpTransport {
+    /** Sends given request and streams the response to given handler.
+     *
+     *  <p>The returned future completes with the result of the handler's {@code onCompleted}, or fails after
+     *  passing the error to the handler's {@code onThrowable}. Cancelling the future aborts the request.
+     *  A request that takes longer than its timeout fails with a {@link java.util.concurrent.TimeoutException}. */
+    <T> ListenableFuture<T> execute(HttpRequest request, HttpResponseHandler<T> responseHandler) throws IOException;
+
+    /** Closes all connections and releases all threads. Requests in progress fail. */
+    void close();
+}
@@ -0,0 +1,23 @@
+package io.sphere.client;
+
+import java.util.Locale;
+
+/** A search whose static filters, facets, sort and page size were encoded once, when it was prepared
+ *  from a {@link SearchTemplate}. Creating requests from it doesn't evaluate or encode the static part again.
+ *
+ *  <p>Add the dynamic parts, such as facet values selected by the user or the page, to the returned requests:
+ *  <pre>{@code
+ *  SearchResult<Product> result = shoes.search(locale).filter(selectedColors).page(page).fetch();
+ *  }</pre>
+ *
+ *  Prepared searches are thread-safe and meant to be kept for the lifetime of the application. */
+public interface PreparedSearch<T> {
+    /** Creates a search request with the prepared parameters. */
+    SearchRequest<T> search(Locale locale);
+
+    /** Creates a search request with the prepared parameters, using the default locale of the Sphere client. */
+    SearchRequest<T> search();
+
+    /** The encoded query string of the prepared parameters, for debugging purposes. */
+    String getQueryString();
+}
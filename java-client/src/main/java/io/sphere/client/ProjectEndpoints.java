@@ -30,12 +30,23 @@ public class ProjectEndpoints {
         this.projectUrl = projectUrl;
     }
 
+    /** The group of endpoints given URL belongs to, e.g. {@code product-projections} or {@code carts}.
+     *  Returns {@code other} for URLs outside of this project. */
+    public String endpointGroup(String url) {
+        if (!url.startsWith(projectUrl + "/")) return "other";
+        String path = url.substring(projectUrl.length() + 1);
+        int end = 0;
+        while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '?') end++;
+        return end == 0 ? "other" : path.substring(0, end);
+    }
+
     public class ProductEndpoints {
         public String root()                               { return projectUrl + "/product-projections"; }
         public String byId(String id)                      { return root() + "/" + id; }
         public String bySlug(Locale locale, String slug)   { return root() + "?where=" + Util.urlEncode("slug("
                                                                            + Util.toLanguageTag(locale) + "=\"" + slug + "\")"); }
         public String search()                             { return root() + "/search"; }
+        public String byIds(Iterable<String> ids)          { return root() + idsQuery(ids); }
     }
 
     public class CategoryEndpoints {
@@ -148,6 +159,15 @@ public class ProjectEndpoints {
         return "?where=" + Util.urlEncode("productId=\"" + productId + "\"");
     }
 
+    private String idsQuery(Iterable<String> ids) {
+        StringBuilder quoted = new StringBuilder();
+        for (String id: ids) {
+            if (quoted.length() > 0) quoted.append(", ");
+            quoted.append('"').append(id).append('"');
+        }
+        return "?where=" + Util.urlEncode("id in (" + quoted + ")");
+    }
+
     private String referenceComparisonExpression(String referenceFieldName, Reference reference) {
         return referenceFieldName + "(typeId=\"" + reference.getTypeId() + "\" and id=\"" + reference.getId() + "\")";
     }
@@ -0,0 +1,55 @@
+package io.sphere.client;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import net.jcip.annotations.Immutable;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/** Position in the results of a query sorted by id, for keyset pagination with {@link QueryRequest#fetchAfter}.
+ *
+ *  <p>Unlike page numbers, a cursor stays valid while objects are created or deleted, and fetching the page after it
+ *  is equally fast no matter how deep into the results it is. To resume a long running export after a restart,
+ *  persist the {@link #getLastId() last id} and continue with {@link #after}. */
+@Immutable
+public final class QueryCursor {
+    private static final QueryCursor start = new QueryCursor(null);
+
+    @Nullable private final String lastId;
+
+    private QueryCursor(@Nullable String lastId) {
+        this.lastId = lastId;
+    }
+
+    /** The position before the first result. */
+    @Nonnull public static QueryCursor start() { return start; }
+
+    /** The position after the object with given id. */
+    @Nonnull public static QueryCursor after(String lastId) {
+        if (Strings.isNullOrEmpty(lastId)) throw new IllegalArgumentException("lastId can't be empty.");
+        return new QueryCursor(lastId);
+    }
+
+    /** The id of the last object before this position, or {@code absent} at the start. */
+    @Nonnull public Optional<String> getLastId() { return Optional.fromNullable(lastId); }
+
+    @Override public String toString() {
+        return lastId == null ? "[start]" : "[after id: " + lastId + "]";
+    }
+
+    // ---------------------------
+    // equals() and hashCode()
+    // ---------------------------
+
+    @Override public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QueryCursor that = (QueryCursor)o;
+        return lastId == null ? that.lastId == null : lastId.equals(that.lastId);
+    }
+
+    @Override public int hashCode() {
+        return lastId == null ? 0 : lastId.hashCode();
+    }
+}
@@ -1,7 +1,12 @@
 package io.sphere.client;
 
 import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.model.CursorPage;
 import io.sphere.client.model.QueryResult;
+import org.reactivestreams.Publisher;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /** Request that uses a Sphere query API to fetch objects satisfying some conditions. */
 public interface QueryRequest<T> {
@@ -11,6 +16,39 @@ public interface QueryRequest<T> {
     /** Executes the request asynchronously and returns a future providing the result. */
     ListenableFuture<QueryResult<T>> fetchAsync();
 
+    /** Fetches all results, starting at the {@linkplain #page page} set on this request, and returns them
+     *  in order as a lazy iterator. Pages are requested in parallel ahead of the iteration, up to 4 at a time,
+     *  so only that many pages are held in memory. Use this instead of fetching pages one by one in a loop.
+     *
+     *  <p>The iterator blocks while waiting for a page and throws a {@link SphereClientException} if fetching
+     *  a page fails. */
+    Iterator<T> fetchAll();
+
+    /** Fetches all results as a lazy iterator, see {@link #fetchAll()}.
+     *  @param prefetchPages Maximum number of pages requested in parallel ahead of the iteration. */
+    Iterator<T> fetchAll(int prefetchPages);
+
+    /** Fetches the page of results after given cursor, sorted by id. Starting with {@link QueryCursor#start()},
+     *  continue with the {@linkplain CursorPage#getNextCursor next cursor} of every page until
+     *  a page {@linkplain CursorPage#isLast is the last}.
+     *
+     *  <p>Pages are fetched by id ({@code where id > lastId}) instead of by offset, so deep pages are as fast as
+     *  the first one, and objects created or deleted meanwhile don't make other objects skip or repeat.
+     *  The {@linkplain #page page} set on this request is ignored. */
+    CursorPage<T> fetchAfter(QueryCursor cursor);
+
+    /** Fetches the page of results after given cursor asynchronously, see {@link #fetchAfter}. */
+    ListenableFuture<CursorPage<T>> fetchAfterAsync(QueryCursor cursor);
+
+    /** Publishes all results as a Reactive Streams {@link Publisher}, starting at the {@linkplain #page page}
+     *  set on this request, in order.
+     *  A page is only requested once the subscriber has requested more results than are left of the previous page,
+     *  so at most one page is held in memory per subscription. Use this to stream large result sets, e.g. in exports.
+     *
+     *  <p>Every subscription fetches the results from the start. Failures are passed to {@code onError}
+     *  as {@link SphereClientException}. */
+    Publisher<T> publisher();
+
     /** Sets the page number for paging through results. Page numbers start at zero. */
     QueryRequest<T> page(int page);
 
@@ -47,4 +85,8 @@ public interface QueryRequest<T> {
      *
      *  @param paths The paths to be expanded, such as 'customerGroup'. */
     QueryRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link RequestTimeoutException} if it doesn't complete within given time.
+     *  The time starts running when the request is executed and includes any retries. */
+    QueryRequest<T> timeout(long timeout, TimeUnit unit);
 }
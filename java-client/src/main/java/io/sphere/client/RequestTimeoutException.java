@@ -0,0 +1,22 @@
+package io.sphere.client;
+
+/** Exception thrown when a request didn't complete within its timeout.
+ *
+ *  <p>The HTTP request was aborted and its connection closed. The backend might have processed the request
+ *  anyway, so commands (e.g. cart updates) might have been applied. */
+public class RequestTimeoutException extends SphereClientException {
+    private final String url;
+    private final long timeoutMs;
+
+    public RequestTimeoutException(String url, long timeoutMs) {
+        super("Request timed out after " + timeoutMs + "ms: " + url);
+        this.url = url;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /** The URL of the request that timed out. */
+    public String getUrl() { return url; }
+
+    /** The timeout of the request, in milliseconds. */
+    public long getTimeoutMs() { return timeoutMs; }
+}
@@ -0,0 +1,13 @@
+package io.sphere.client;
+
+/** Decides whether and when a failed request is retried.
+ *
+ *  <p>As configured for the client, only idempotent GET requests (fetch, query and search) are retried.
+ *  A request is considered failed on a connection error or when the backend responds with 5xx.
+ *  Update commands can also be retried after a ConcurrentModification error,
+ *  see {@link UpdateRequest#retryOnConflict}. */
+public interface RetryPolicy {
+    /** Delay in milliseconds before given retry, or a negative number to give up.
+     *  @param retry 1 for the first retry (the second attempt), 2 for the second retry etc. */
+    long getRetryDelayMs(int retry);
+}
@@ -4,6 +4,10 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.sphere.client.facets.expressions.FacetExpression;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.model.SearchResult;
+import org.reactivestreams.Publisher;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /** Request that uses a Sphere search API to fetch objects satisfying some conditions (including fulltext search)
  * and provide faceting functionality. Search is currently only supported for products. */
@@ -14,6 +18,27 @@ public interface SearchRequest<T> {
     /** Executes the request asynchronously and returns a future providing the result. */
     ListenableFuture<SearchResult<T>> fetchAsync();
 
+    /** Fetches all results, starting at the {@linkplain #page page} set on this request, and returns them
+     *  in order as a lazy iterator. Pages are requested in parallel ahead of the iteration, up to 4 at a time,
+     *  so only that many pages are held in memory. Use this instead of fetching pages one by one in a loop.
+     *
+     *  <p>The iterator blocks while waiting for a page and throws a {@link SphereClientException} if fetching
+     *  a page fails. */
+    Iterator<T> fetchAll();
+
+    /** Fetches all results as a lazy iterator, see {@link #fetchAll()}.
+     *  @param prefetchPages Maximum number of pages requested in parallel ahead of the iteration. */
+    Iterator<T> fetchAll(int prefetchPages);
+
+    /** Publishes all results as a Reactive Streams {@link Publisher}, starting at the {@linkplain #page page}
+     *  set on this request, in order.
+     *  A page is only requested once the subscriber has requested more results than are left of the previous page,
+     *  so at most one page is held in memory per subscription. Use this to stream large result sets, e.g. in exports.
+     *
+     *  <p>Every subscription fetches the results from the start. Failures are passed to {@code onError}
+     *  as {@link SphereClientException}. */
+    Publisher<T> publisher();
+
     /** Sets the page number for paging through results. Page numbers start at zero. */
     SearchRequest<T> page(int page);
 
@@ -38,4 +63,8 @@ public interface SearchRequest<T> {
      *
      * @param sort Specifies how products should be sorted. */
     SearchRequest<T> sort(ProductSort sort);
+
+    /** Fails the request with {@link RequestTimeoutException} if it doesn't complete within given time.
+     *  The time starts running when the request is executed and includes any retries. */
+    SearchRequest<T> timeout(long timeout, TimeUnit unit);
 }
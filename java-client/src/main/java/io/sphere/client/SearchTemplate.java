@@ -0,0 +1,86 @@
+package io.sphere.client;
+
+import io.sphere.client.facets.expressions.FacetExpression;
+import io.sphere.client.filters.expressions.FilterExpression;
+import io.sphere.internal.Defaults;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.SearchUtil;
+import static io.sphere.internal.util.ListUtil.list;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** The static part of a search that is the same for every request, such as the filters and facets of a listing page.
+ *  Compiled once into a {@link PreparedSearch}, see {@link io.sphere.client.shop.ProductService#prepareSearch}.
+ *
+ *  <p>Example:
+ *  <pre>{@code
+ *  PreparedSearch<Product> shoes = sphere.products().prepareSearch(new SearchTemplate()
+ *      .filter(new FilterExpressions.CategoriesOrSubcategories(shoesCategory))
+ *      .facet(new FacetExpressions.StringAttribute.Terms("color"))
+ *      .sort(ProductSort.price.asc)
+ *      .pageSize(24));
+ *  }</pre> */
+public class SearchTemplate {
+    private final List<QueryParam> queryParams = new ArrayList<QueryParam>();
+    private int pageSize = Defaults.pageSize;
+
+    /** Filters products by given constraints. */
+    public SearchTemplate filter(FilterExpression filter, FilterExpression... filters) {
+        return filter(list(filter, filters));
+    }
+
+    /** Filters products by given constraints. */
+    public SearchTemplate filter(Iterable<FilterExpression> filters) {
+        for (FilterExpression filter: filters) {
+            if (filter == null) {
+                Log.warn("Null filter passed to SearchTemplate.filter(), ignoring.");
+                continue;  // be tolerant in what we accept
+            }
+            addQueryParams(filter.createQueryParams());
+        }
+        return this;
+    }
+
+    /** Requests aggregated counts to be calculated for given facet expressions. */
+    public SearchTemplate facet(FacetExpression facet, FacetExpression... facets) {
+        return facet(list(facet, facets));
+    }
+
+    /** Requests aggregated counts to be calculated for given facet expressions. */
+    public SearchTemplate facet(Iterable<FacetExpression> facets) {
+        for (FacetExpression facet: facets) {
+            if (facet == null) {
+                Log.warn("Null facet passed to SearchTemplate.facet(), ignoring.");
+                continue;  // be tolerant in what we accept
+            }
+            addQueryParams(facet.createQueryParams());
+        }
+        return this;
+    }
+
+    /** Sorts products. When this method is not used, products are implicitly sorted by relevance. */
+    public SearchTemplate sort(ProductSort sort) {
+        QueryParam qp = SearchUtil.createSortParam(sort);
+        if (qp != null) queryParams.add(qp);
+        return this;
+    }
+
+    /** Sets the size of a page for paging through results. When page size is not set, the default of 25 is used. */
+    public SearchTemplate pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    private void addQueryParams(List<QueryParam> params) {
+        for (QueryParam qp: params) {
+            if (qp != null) queryParams.add(qp);
+        }
+    }
+
+    /** The query parameters of the filters, facets and sort, in the order they were added. */
+    public List<QueryParam> getQueryParams() { return new ArrayList<QueryParam>(queryParams); }
+
+    /** The size of a page. */
+    public int getPageSize() { return pageSize; }
+}
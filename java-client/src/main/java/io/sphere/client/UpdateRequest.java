@@ -0,0 +1,27 @@
+package io.sphere.client;
+
+import com.google.common.base.Function;
+import io.sphere.client.exceptions.SphereBackendException;
+import io.sphere.client.exceptions.SphereException;
+import net.jcip.annotations.Immutable;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/** Request that updates a versioned object in the Sphere backend, and can be sent again with the latest version
+ *  of the object after a conflict. */
+@Immutable
+public interface UpdateRequest<T> extends CommandRequest<T> {
+    @Override UpdateRequest<T> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError);
+
+    @Override UpdateRequest<T> timeout(long timeout, TimeUnit unit);
+
+    /** Returns a request that recovers from {@link SphereError.ConcurrentModification ConcurrentModification} errors,
+     *  i.e. when the object was modified by someone else since its version was read.
+     *  The latest version of the object is fetched and the same update actions are sent again,
+     *  as often and with the delays decided by given policy.
+     *
+     *  <p>The actions are applied to the latest state of the object, which might differ from the state the
+     *  caller has seen. Only use this for actions that are still valid then, e.g. adding a line item. */
+    UpdateRequest<T> retryOnConflict(RetryPolicy retryPolicy);
+}
@@ -0,0 +1,31 @@
+package io.sphere.client.model;
+
+import io.sphere.client.QueryCursor;
+import net.jcip.annotations.Immutable;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/** A page of results fetched with {@link io.sphere.client.QueryRequest#fetchAfter}. */
+@Immutable
+public class CursorPage<T> {
+    @Nonnull private final List<T> results;
+    @Nonnull private final QueryCursor nextCursor;
+    private final boolean isLast;
+
+    public CursorPage(Collection<T> results, QueryCursor nextCursor, boolean isLast) {
+        if (nextCursor == null) throw new NullPointerException("nextCursor");
+        this.results = new ArrayList<T>(results);
+        this.nextCursor = nextCursor;
+        this.isLast = isLast;
+    }
+
+    /** The results of this page, sorted by id. */
+    @Nonnull public List<T> getResults() { return results; }
+    /** The position after the last result of this page, where the next page starts. */
+    @Nonnull public QueryCursor getNextCursor() { return nextCursor; }
+    /** True if there are no further results after this page. */
+    public boolean isLast() { return isLast; }
+}
@@ -1,27 +1,39 @@
 package io.sphere.client.oauth;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.Futures;
 import com.ning.http.client.AsyncHttpClient;
-import com.ning.http.client.Realm;
 import com.ning.http.client.Response;
+import com.ning.http.util.Base64;
 import com.google.common.util.concurrent.ListenableFuture;
-import io.sphere.client.SphereClientException;
+import io.sphere.client.HttpRequest;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.HttpTransport;
 import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.map.ObjectMapper;
 import io.sphere.client.AuthorizationException;
-import io.sphere.internal.ListenableFutureAdapter;
+import io.sphere.internal.request.AsyncHttpClientTransport;
 import io.sphere.internal.util.Log;
 import io.sphere.internal.util.Util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 public class OAuthClient {
-    private AsyncHttpClient httpClient;
+    private HttpTransport transport;
 
     public OAuthClient(AsyncHttpClient httpClient) {
-        this.httpClient = httpClient;
+        this(httpClient == null ? null : new AsyncHttpClientTransport(httpClient));
+    }
+
+    public OAuthClient(HttpTransport transport) {
+        this.transport = transport;
     }
 
     /** Asynchronously gets access and refresh tokens for given user from the authorization server
@@ -30,19 +42,19 @@ public class OAuthClient {
             final String tokenEndpoint, final String clientId, final String clientSecret, final String scope)
     {
         try {
-            Realm basicAuthRealm = new Realm.RealmBuilder()
-                       .setPrincipal(clientId)
-                       .setPassword(clientSecret)
-                       .setScheme(Realm.AuthScheme.BASIC)
-                       .build();
-            final AsyncHttpClient.BoundRequestBuilder requestBuilder = httpClient.preparePost(tokenEndpoint)
-                    .setRealm(basicAuthRealm)
-                    .setHeader("Content-Type", "application/x-www-form-urlencoded")
-                    .addQueryParameter("grant_type", "client_credentials")
-                    .addQueryParameter("scope", scope);
-            return Futures.transform(new ListenableFutureAdapter<Response>(requestBuilder.execute()), new Function<Response, Tokens>() {
-                public Tokens apply(Response resp) {
-                    return parseResponse(resp, requestBuilder);
+            String basicAuth = Base64.encode((clientId + ":" + clientSecret).getBytes(Charsets.UTF_8.name()));
+            final HttpRequest request = new HttpRequest(
+                    "POST",
+                    tokenEndpoint,
+                    ImmutableListMultimap.of("grant_type", "client_credentials", "scope", scope),
+                    ImmutableMap.of(
+                            "Authorization", "Basic " + basicAuth,
+                            "Content-Type", "application/x-www-form-urlencoded"),
+                    null,
+                    HttpRequest.defaultTimeout);
+            return Futures.transform(transport.execute(request, new TokenResponseHandler()), new Function<TokenResponse, Tokens>() {
+                public Tokens apply(TokenResponse resp) {
+                    return parseResponse(resp.statusCode, resp.body, request.getMethod() + " " + Util.getDecodedUrl(request));
                 }
             });
         } catch (IOException e) {
@@ -54,14 +66,27 @@ public class OAuthClient {
      *  @param resp Response from the authorization service.
      *  @param requestBuilder The request, used for error reporting. */
     protected Tokens parseResponse(Response resp, AsyncHttpClient.BoundRequestBuilder requestBuilder) {
+        try {
+            return parseResponse(
+                    resp.getStatusCode(), resp.getResponseBody(Charsets.UTF_8.name()), Util.requestToString(requestBuilder.build()));
+        } catch (IOException e) {
+            throw Util.toSphereException(e);
+        }
+    }
+
+    /** Parses Tokens from a response from the backend authorization service.
+     *  @param statusCode Status code of the response from the authorization service.
+     *  @param body Body of the response from the authorization service.
+     *  @param request Method and URL of the request, used for error reporting. */
+    protected Tokens parseResponse(int statusCode, String body, String request) {
         try {
             if (Log.isDebugEnabled()) {
-                Log.debug(Util.requestToString(requestBuilder.build()) + "\n(auth server response not logged for security reasons)");
+                Log.debug(request + "\n(auth server response not logged for security reasons)");
             }
-            if (resp.getStatusCode() != 200) {
-                throw new AuthorizationException(Util.requestResponseToString(requestBuilder.build(), resp));
+            if (statusCode != 200) {
+                throw new AuthorizationException(request + " :\n" + statusCode + " " + body);
             }
-            JsonNode json = new ObjectMapper().readValue(resp.getResponseBody(), JsonNode.class);
+            JsonNode json = new ObjectMapper().readValue(body, JsonNode.class);
             String accessToken = json.path("access_token").getTextValue();
             boolean hasExpiresIn = json.path("expires_in").isNumber();
             Optional<Long> expiresIn = hasExpiresIn ? Optional.of(json.path("expires_in").getLongValue()) : Optional.<Long>absent();
@@ -71,4 +96,45 @@ public class OAuthClient {
             throw Util.toSphereException(e);
         }
     }
+
+    /** The status and body of a response from the authorization service. */
+    private static class TokenResponse {
+        final int statusCode;
+        final String body;
+
+        TokenResponse(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+    }
+
+    /** Collects the small response of the authorization service. */
+    private static class TokenResponseHandler implements HttpResponseHandler<TokenResponse> {
+        private int statusCode;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        @Override public State onStatusReceived(int statusCode) throws Exception {
+            // reset, in case the underlying connection retried the request
+            this.statusCode = statusCode;
+            this.body.reset();
+            return State.CONTINUE;
+        }
+
+        @Override public State onHeadersReceived(Map<String, List<String>> headers) throws Exception {
+            return State.CONTINUE;
+        }
+
+        @Override public State onBodyPartReceived(byte[] bodyPart) throws Exception {
+            body.write(bodyPart);
+            return State.CONTINUE;
+        }
+
+        @Override public void onThrowable(Throwable t) {
+            Log.debug("[oauth] Token request failed: " + t.getMessage());
+        }
+
+        @Override public TokenResponse onCompleted() throws Exception {
+            return new TokenResponse(statusCode, body.toString(Charsets.UTF_8.name()));
+        }
+    }
 }
@@ -4,6 +4,7 @@ import java.util.Currency;
 import io.sphere.client.CommandRequest;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.QueryRequest;
+import io.sphere.client.UpdateRequest;
 import io.sphere.client.model.VersionedId;
 import io.sphere.client.shop.model.Cart;
 import io.sphere.client.shop.model.CartUpdate;
@@ -14,6 +15,11 @@ public interface CartService {
     /** Creates a request that finds a cart by given id. */
     FetchRequest<Cart> byId(String id);
 
+    /** Creates a request that finds a cart by given id. If the client caches carts, a cached cart of given version
+     *  is returned without a request to the backend, see {@link io.sphere.client.shop.SphereClientConfig#getCartCacheMaxSize()}.
+     *  Otherwise, the latest version of the cart is fetched. */
+    FetchRequest<Cart> byId(VersionedId cartId);
+
     /** Finds the active cart for given customer. */
     FetchRequest<Cart> forCustomer(String customerId);
 
@@ -32,7 +38,16 @@ public interface CartService {
     /** Creates an anonymous cart in the backend. */
     public CommandRequest<Cart> createCart(Currency currency, Cart.InventoryMode inventoryMode);
 
+    /** Creates a cart in the backend with the actions of given update already applied, using a single request.
+     *
+     *  @param customerId The customer the cart belongs to, or null for an anonymous cart.
+     *  @param country The country of the cart, or null.
+     *  @throws IllegalArgumentException If the update can't be applied when creating a cart,
+     *          see {@link CartUpdate#isApplicableOnCreate()}. */
+    public CommandRequest<Cart> createCart(
+            Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode, CartUpdate initialUpdate);
+
     /** Updates a cart in the backend. */
-    public CommandRequest<Cart> updateCart(VersionedId cartId, CartUpdate update);
+    public UpdateRequest<Cart> updateCart(VersionedId cartId, CartUpdate update);
 
 }
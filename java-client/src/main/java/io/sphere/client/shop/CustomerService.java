@@ -3,6 +3,7 @@ package io.sphere.client.shop;
 import io.sphere.client.CommandRequest;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.QueryRequest;
+import io.sphere.client.UpdateRequest;
 import io.sphere.client.model.VersionedId;
 import io.sphere.client.shop.model.Customer;
 import io.sphere.client.shop.model.CustomerName;
@@ -73,7 +74,7 @@ public interface CustomerService {
     CommandRequest<Customer> changePassword(VersionedId customerId, String currentPassword, String newPassword);
 
     /** Updates a customer. */
-    CommandRequest<Customer> update(VersionedId customerId, CustomerUpdate customerUpdate);
+    UpdateRequest<Customer> update(VersionedId customerId, CustomerUpdate customerUpdate);
 
     /** Sets a new password for a customer.
      *
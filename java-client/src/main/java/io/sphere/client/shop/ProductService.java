@@ -1,10 +1,14 @@
 package io.sphere.client.shop;
 
+import io.sphere.client.FetchByIdsRequest;
 import io.sphere.client.FetchRequest;
+import io.sphere.client.PreparedSearch;
+import io.sphere.client.SearchTemplate;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.SearchRequest;
 import io.sphere.client.shop.model.Product;
 
+import java.util.Collection;
 import java.util.Locale;
 
 /** Sphere HTTP API for working with products in a given project. */
@@ -12,6 +16,10 @@ public interface ProductService {
     /** Finds a product by id. */
     FetchRequest<Product> byId(String id);
 
+    /** Finds multiple products by id, using one query per chunk of ids instead of one request per product.
+     *  The queries are sent in parallel. */
+    FetchByIdsRequest<Product> byIds(Collection<String> ids);
+
     /** Finds a product by slug. */
     FetchRequest<Product> bySlug(Locale locale, String slug);
 
@@ -35,4 +43,8 @@ public interface ProductService {
     /** Finds products satisfying given constraints.
      *  @param filters Filters describing a query. The filters are used in conjunction (AND). */
     SearchRequest<Product> filter(Locale locale, Iterable<FilterExpression> filters);
+
+    /** Encodes the static filters, facets, sort and page size of a search once, so that they can be reused
+     *  by many requests, e.g. one for every view of a listing page. */
+    PreparedSearch<Product> prepareSearch(SearchTemplate template);
 }
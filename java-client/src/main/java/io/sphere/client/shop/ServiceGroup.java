@@ -0,0 +1,14 @@
+package io.sphere.client.shop;
+
+/** Groups of services that can be isolated from each other using bulkheads,
+ *  see {@link SphereClientConfig.Builder#setBulkhead(ServiceGroup, io.sphere.client.BulkheadConfig)}. */
+public enum ServiceGroup {
+    /** Products, search, reviews, comments, inventory, shipping methods and tax categories. */
+    Catalog,
+    /** Carts and orders. */
+    Checkout,
+    /** Customers and customer login. */
+    Customers,
+    /** Work done in the background: refreshing the category tree and OAuth access tokens. */
+    Background
+}
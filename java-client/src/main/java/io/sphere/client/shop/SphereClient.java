@@ -1,27 +1,54 @@
 package io.sphere.client.shop;
 
+import io.sphere.client.BulkheadConfig;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.ConcurrencyLimitConfig;
 import io.sphere.client.Endpoints;
+import io.sphere.client.HttpTransport;
 import io.sphere.client.ProjectEndpoints;
 import io.sphere.client.oauth.ClientCredentials;
 import io.sphere.client.oauth.OAuthClient;
 import io.sphere.internal.*;
 import io.sphere.internal.oauth.SphereClientCredentials;
+import io.sphere.internal.request.AsyncHttpClientTransport;
+import io.sphere.internal.request.BasicRequestFactory;
 import io.sphere.internal.request.BasicRequestFactoryImpl;
+import io.sphere.internal.request.BulkheadRequestFactory;
+import io.sphere.internal.request.CachingRequestFactory;
+import io.sphere.internal.request.CircuitBreakingRequestFactory;
+import io.sphere.internal.request.CoalescingRequestFactory;
+import io.sphere.internal.request.ConcurrencyLimitingRequestFactory;
+import io.sphere.internal.request.HedgingRequestFactory;
 import io.sphere.internal.request.ProductRequestFactoryImpl;
 import io.sphere.internal.request.RequestFactory;
 import io.sphere.internal.request.RequestFactoryImpl;
+import io.sphere.internal.request.RetryingRequestFactory;
+import io.sphere.internal.util.Concurrent;
 import io.sphere.internal.util.Log;
+import io.sphere.internal.util.TokenBucket;
 import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
 import net.jcip.annotations.Immutable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 /** The main access point to Sphere HTTP APIs.
  *  It is essentially just a configured set of services. */
 @Immutable
 final public class SphereClient {
     private final SphereClientConfig config;
-    private final AsyncHttpClient    httpClient;
     private final ClientCredentials  clientCredentials;
+    private final ClientMetrics      metrics;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService callbackExecutor;
+    private final List<HttpTransport> transports;
     private final ProductService        productService;
     private final CategoryTree          categoryTree;
     private final CartService           cartService;
@@ -50,9 +77,60 @@ final public class SphereClient {
                         InventoryService inventoryService,
                         ShippingMethodService shippingMethodService,
                         TaxCategoryService taxCategoryService) {
+        this(config, httpClient, clientCredentials, new ClientMetrics(), null, productService, categoryTree, cartService,
+             orderService, customerService, commentService, reviewService, inventoryService, shippingMethodService,
+             taxCategoryService);
+    }
+
+    /** Creates an instance of SphereClient that reports to given metrics.
+     *
+     *  @param scheduler Timer used by the services for delayed work such as retries, shut down together
+     *                   with the client. Can be null if no service needs it. */
+    public SphereClient(SphereClientConfig config,
+                        AsyncHttpClient httpClient,
+                        ClientCredentials clientCredentials,
+                        ClientMetrics metrics,
+                        ScheduledExecutorService scheduler,
+                        ProductService productService,
+                        CategoryTree categoryTree,
+                        CartService cartService,
+                        OrderService orderService,
+                        CustomerService customerService,
+                        CommentService commentService,
+                        ReviewService reviewService,
+                        InventoryService inventoryService,
+                        ShippingMethodService shippingMethodService,
+                        TaxCategoryService taxCategoryService) {
+        this(config, clientCredentials, metrics, scheduler, null,
+             httpClient == null ?
+                     Collections.<HttpTransport>emptyList() :
+                     Collections.<HttpTransport>singletonList(new AsyncHttpClientTransport(httpClient)),
+             productService, categoryTree, cartService, orderService, customerService, commentService, reviewService,
+             inventoryService, shippingMethodService, taxCategoryService);
+    }
+
+    private SphereClient(SphereClientConfig config,
+                         ClientCredentials clientCredentials,
+                         ClientMetrics metrics,
+                         ScheduledExecutorService scheduler,
+                         ExecutorService callbackExecutor,
+                         List<HttpTransport> transports,
+                         ProductService productService,
+                         CategoryTree categoryTree,
+                         CartService cartService,
+                         OrderService orderService,
+                         CustomerService customerService,
+                         CommentService commentService,
+                         ReviewService reviewService,
+                         InventoryService inventoryService,
+                         ShippingMethodService shippingMethodService,
+                         TaxCategoryService taxCategoryService) {
         this.config            = config;
-        this.httpClient        = httpClient;
         this.clientCredentials = clientCredentials;
+        this.metrics           = metrics;
+        this.scheduler         = scheduler;
+        this.callbackExecutor  = callbackExecutor;
+        this.transports        = transports;
         this.productService        =   productService;
         this.categoryTree          = categoryTree;
         this.cartService           = cartService;
@@ -67,27 +145,69 @@ final public class SphereClient {
 
     /** Creates an instance of SphereClient. */
     public static SphereClient create(SphereClientConfig config) {
-        final AsyncHttpClient httpClient = new AsyncHttpClient();
+        final boolean ownTransports = !config.getTransport().isPresent();   // a provided transport is closed by the application
+        final HttpTransport transport = ownTransports ?
+                createTransport(config, config.getMaxConnectionsTotal()) :
+                config.getTransport().get();
+        Map<ServiceGroup, HttpTransport> bulkheadTransports = new EnumMap<ServiceGroup, HttpTransport>(ServiceGroup.class);
+        for (Map.Entry<ServiceGroup, BulkheadConfig> bulkhead: config.getBulkheads().entrySet()) {
+            bulkheadTransports.put(bulkhead.getKey(), ownTransports ?
+                    createTransport(config, bulkhead.getValue().getMaxConnections()) :
+                    transport);
+        }
         ProjectEndpoints projectEndpoints = Endpoints.forProject(
                 config.getCoreHttpServiceUrl(),
                 config.getProjectKey());
+        HttpTransport oauthTransport = bulkheadTransports.containsKey(ServiceGroup.Background) ?
+                bulkheadTransports.get(ServiceGroup.Background) :
+                transport;
+        ClientMetrics metrics = new ClientMetrics();
+        // All background work (token and category refresh, retries, hedged requests) shares a single scheduler.
+        ScheduledExecutorService scheduler = config.getScheduler().isPresent() ?
+                config.getScheduler().get() :
+                Concurrent.scheduler("Sphere-scheduler", config.getSchedulerThreads());
+        Concurrent.registerSchedulerMetrics(scheduler, metrics);
+        // Responses are parsed off the IO threads of the HTTP client, unless configured otherwise.
+        ExecutorService ownCallbackExecutor = !config.getCallbackExecutor().isPresent() && config.getCallbackThreads() > 0 ?
+                Concurrent.callbackExecutor("Sphere-callback", config.getCallbackThreads()) :
+                null;
+        Executor callbackExecutor = config.getCallbackExecutor().isPresent() ?
+                Concurrent.orCallerThread(config.getCallbackExecutor().get()) :
+                ownCallbackExecutor != null ? Concurrent.orCallerThread(ownCallbackExecutor) : null;
         ClientCredentials clientCredentials = SphereClientCredentials.createAndBeginRefreshInBackground(
                 config,
-                new OAuthClient(httpClient));
-        RequestFactory requestFactory = new RequestFactoryImpl(new BasicRequestFactoryImpl(
-                httpClient,
-                clientCredentials));
+                new OAuthClient(oauthTransport),
+                metrics,
+                scheduler);
+        RequestFactory requestFactory = new RequestFactoryImpl(createBasicRequestFactory(
+                config, transport, bulkheadTransports, clientCredentials, projectEndpoints, scheduler, callbackExecutor,
+                metrics), scheduler, metrics);
         CategoryTree categoryTree = CategoryTreeImpl.createAndBeginBuildInBackground(
-                new CategoriesImpl(requestFactory, projectEndpoints), config.getDefaultLocale());
+                new CategoriesImpl(requestFactory, projectEndpoints), config.getDefaultLocale(), scheduler);
+        CartService cartService = new CartServiceImpl(requestFactory, projectEndpoints);
+        if (config.getCartUpdateCoalescingWindowMs() >= 0) {
+            cartService = new CoalescingCartService(cartService, config.getCartUpdateCoalescingWindowMs(), scheduler, metrics);
+        }
+        if (config.getCartCacheMaxSize() > 0) {
+            cartService = new CachingCartService(cartService, config.getCartCacheMaxSize(), metrics);
+        }
+        List<HttpTransport> transports = new ArrayList<HttpTransport>();
+        if (ownTransports) {
+            transports.addAll(bulkheadTransports.values());
+            transports.add(transport);
+        }
         return new SphereClient(
             config,
-            httpClient,
             clientCredentials,
+            metrics,
+            config.getScheduler().isPresent() ? null : scheduler,   // a provided scheduler is shut down by the application
+            ownCallbackExecutor,
+            transports,
             new ProductServiceImpl(
                     new ProductRequestFactoryImpl(requestFactory, categoryTree), config.getApiMode(), projectEndpoints,
                                                   config.getDefaultLocale()),
             categoryTree,
-            new CartServiceImpl(requestFactory, projectEndpoints),
+            cartService,
             new OrderServiceImpl(requestFactory, projectEndpoints),
             new CustomerServiceImpl(requestFactory, projectEndpoints),
             new CommentServiceImpl(requestFactory, projectEndpoints),
@@ -98,13 +218,98 @@ final public class SphereClient {
         );
     }
 
+    /** Creates HTTP requests, with the configured transport features layered on top of each other.
+     *  Listed from the outermost: coalescing, retries, hedging, concurrency limit, circuit breakers, cache, bulkheads. */
+    private static BasicRequestFactory createBasicRequestFactory(
+            SphereClientConfig config, HttpTransport transport, Map<ServiceGroup, HttpTransport> bulkheadTransports,
+            ClientCredentials clientCredentials, ProjectEndpoints projectEndpoints,
+            ScheduledExecutorService scheduler, Executor callbackExecutor, ClientMetrics metrics) {
+        BasicRequestFactory basicRequestFactory = new BasicRequestFactoryImpl(
+                transport,
+                clientCredentials,
+                config.isCompressionEnabled(),
+                config.getRequestCompressionThreshold(),
+                callbackExecutor);
+        if (!bulkheadTransports.isEmpty()) {
+            Map<ServiceGroup, BasicRequestFactory> groupFactories = new EnumMap<ServiceGroup, BasicRequestFactory>(ServiceGroup.class);
+            for (Map.Entry<ServiceGroup, HttpTransport> groupTransport: bulkheadTransports.entrySet()) {
+                BulkheadConfig bulkhead = config.getBulkhead(groupTransport.getKey()).get();
+                int limit = bulkhead.getMaxConcurrentRequests();
+                groupFactories.put(groupTransport.getKey(), new ConcurrencyLimitingRequestFactory(
+                        new BasicRequestFactoryImpl(
+                                groupTransport.getValue(),
+                                clientCredentials,
+                                config.isCompressionEnabled(),
+                                config.getRequestCompressionThreshold(),
+                                callbackExecutor),
+                        new ConcurrencyLimitConfig.Builder()
+                                .setInitialLimit(limit).setMinLimit(limit).setMaxLimit(limit)
+                                .setMaxQueueSize(bulkhead.getMaxQueueSize())
+                                .build(),
+                        metrics,
+                        "bulkhead." + groupTransport.getKey().name().toLowerCase()));
+            }
+            basicRequestFactory = new BulkheadRequestFactory(basicRequestFactory, groupFactories, projectEndpoints);
+        }
+        if (config.getResponseCacheMaxBytes() > 0) {
+            basicRequestFactory = new CachingRequestFactory(basicRequestFactory, config.getResponseCacheMaxBytes(), metrics);
+        }
+        if (config.getCircuitBreakerConfig().isPresent()) {
+            basicRequestFactory = new CircuitBreakingRequestFactory(
+                    basicRequestFactory, projectEndpoints, config.getCircuitBreakerConfig().get(), metrics);
+        }
+        if (config.getConcurrencyLimitConfig().isPresent()) {
+            basicRequestFactory = new ConcurrencyLimitingRequestFactory(
+                    basicRequestFactory, config.getConcurrencyLimitConfig().get(), metrics);
+        }
+        if (config.getHedgingConfig().isPresent()) {
+            basicRequestFactory = new HedgingRequestFactory(
+                    basicRequestFactory, projectEndpoints, config.getHedgingConfig().get(), scheduler, metrics);
+        }
+        if (config.getRetryPolicy().isPresent()) {
+            basicRequestFactory = new RetryingRequestFactory(
+                    basicRequestFactory,
+                    config.getRetryPolicy().get(),
+                    new TokenBucket(config.getRetryBudgetPerSecond(), config.getRetryBudgetBurst()),
+                    scheduler,
+                    metrics);
+        }
+        if (config.isRequestCoalescingEnabled()) {
+            basicRequestFactory = new CoalescingRequestFactory(basicRequestFactory, scheduler, metrics);
+        }
+        return basicRequestFactory;
+    }
+
+    /** Creates the transport for HTTP requests, allowing given number of connections. */
+    private static HttpTransport createTransport(SphereClientConfig config, int maxConnectionsTotal) {
+        return new AsyncHttpClientTransport(new AsyncHttpClient(createHttpClientConfig(config, maxConnectionsTotal)));
+    }
+
+    /** Configures connection pooling and timeouts of an underlying HTTP client.
+     *  URLs are sent as is, as they are encoded by the client, see {@link AsyncHttpClientTransport}. */
+    private static AsyncHttpClientConfig createHttpClientConfig(SphereClientConfig config, int maxConnectionsTotal) {
+        return new AsyncHttpClientConfig.Builder()
+                .setAllowPoolingConnection(true)
+                .setMaximumConnectionsTotal(maxConnectionsTotal)
+                .setMaximumConnectionsPerHost(config.getMaxConnectionsPerHost())
+                .setConnectionTimeoutInMs(config.getConnectTimeoutMs())
+                .setRequestTimeoutInMs(config.getRequestTimeoutMs())
+                .setIdleConnectionTimeoutInMs(config.getIdleConnectionTimeoutMs())
+                .setIdleConnectionInPoolTimeoutInMs(config.getIdleConnectionInPoolTimeoutMs())
+                .setIOThreadMultiplier(config.getIoThreadMultiplier())
+                .setUseRawUrl(true)
+                .build();
+    }
+
     /** Closes HTTP connections and shuts down internal thread pools.
      *
      * <p>You should call this method right before your application exits, otherwise background threads created by the
      * SphereClient might prevent the process from terminating. */
     public void shutdown() {
         Log.info("Shutting down SphereClient.");
-        if (httpClient != null) httpClient.close();
+        if (scheduler != null) scheduler.shutdownNow();
+        for (HttpTransport transport: transports) transport.close();
+        if (callbackExecutor != null) callbackExecutor.shutdown();
         if (clientCredentials instanceof SphereClientCredentials) ((SphereClientCredentials)clientCredentials).shutdown();
         if (categoryTree instanceof CategoryTreeImpl) ((CategoryTreeImpl)categoryTree).shutdown();
     }
@@ -112,6 +317,9 @@ final public class SphereClient {
     /** Configuration of the client. */
     public SphereClientConfig getConfig() { return this.config; }
 
+    /** Counters and gauges describing the work done by this client. */
+    public ClientMetrics metrics() { return this.metrics; }
+
     /** Provides access to shop's products. */
     public ProductService products() { return productService; }
 
@@ -1,9 +1,21 @@
 package io.sphere.client.shop;
 
+import com.google.common.base.Optional;
+import io.sphere.client.BulkheadConfig;
+import io.sphere.client.CircuitBreakerConfig;
+import io.sphere.client.ConcurrencyLimitConfig;
+import io.sphere.client.HedgingConfig;
+import io.sphere.client.HttpTransport;
+import io.sphere.client.RetryPolicy;
 import io.sphere.client.SphereClientException;
 import io.sphere.internal.Defaults;
 import net.jcip.annotations.*;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 /** The configuration for a {@link SphereClient}.
  *
@@ -23,6 +35,33 @@ final public class SphereClientConfig {
     private final String coreHttpServiceUrl;
     private final String authHttpServiceUrl;
     private final Locale defaultLocale;
+    private final double tokenRefreshFraction;
+    private final long tokenWaitTimeoutMs;
+    private final HttpTransport transport;
+    private final int maxConnectionsTotal;
+    private final int maxConnectionsPerHost;
+    private final int connectTimeoutMs;
+    private final int requestTimeoutMs;
+    private final int idleConnectionTimeoutMs;
+    private final int idleConnectionInPoolTimeoutMs;
+    private final int ioThreadMultiplier;
+    private final int schedulerThreads;
+    private final ScheduledExecutorService scheduler;
+    private final int callbackThreads;
+    private final Executor callbackExecutor;
+    private final boolean compressionEnabled;
+    private final int requestCompressionThreshold;
+    private final boolean requestCoalescingEnabled;
+    private final int responseCacheMaxBytes;
+    private final RetryPolicy retryPolicy;
+    private final double retryBudgetPerSecond;
+    private final int retryBudgetBurst;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final HedgingConfig hedgingConfig;
+    private final ConcurrencyLimitConfig concurrencyLimitConfig;
+    private final Map<ServiceGroup, BulkheadConfig> bulkheads;
+    private final long cartUpdateCoalescingWindowMs;
+    private final int cartCacheMaxSize;
 
     private SphereClientConfig(Builder builder) {
         validateProjectKey(builder.projectKey);
@@ -33,6 +72,33 @@ final public class SphereClientConfig {
         this.coreHttpServiceUrl = builder.coreHttpServiceUrl;
         this.authHttpServiceUrl = builder.authHttpServiceUrl;
         this.defaultLocale = builder.defaultLocale;
+        this.tokenRefreshFraction = builder.tokenRefreshFraction;
+        this.tokenWaitTimeoutMs = builder.tokenWaitTimeoutMs;
+        this.transport = builder.transport;
+        this.maxConnectionsTotal = builder.maxConnectionsTotal;
+        this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
+        this.connectTimeoutMs = builder.connectTimeoutMs;
+        this.requestTimeoutMs = builder.requestTimeoutMs;
+        this.idleConnectionTimeoutMs = builder.idleConnectionTimeoutMs;
+        this.idleConnectionInPoolTimeoutMs = builder.idleConnectionInPoolTimeoutMs;
+        this.ioThreadMultiplier = builder.ioThreadMultiplier;
+        this.schedulerThreads = builder.schedulerThreads;
+        this.scheduler = builder.scheduler;
+        this.callbackThreads = builder.callbackThreads;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.compressionEnabled = builder.compressionEnabled;
+        this.requestCompressionThreshold = builder.requestCompressionThreshold;
+        this.requestCoalescingEnabled = builder.requestCoalescingEnabled;
+        this.responseCacheMaxBytes = builder.responseCacheMaxBytes;
+        this.retryPolicy = builder.retryPolicy;
+        this.retryBudgetPerSecond = builder.retryBudgetPerSecond;
+        this.retryBudgetBurst = builder.retryBudgetBurst;
+        this.circuitBreakerConfig = builder.circuitBreakerConfig;
+        this.hedgingConfig = builder.hedgingConfig;
+        this.concurrencyLimitConfig = builder.concurrencyLimitConfig;
+        this.bulkheads = Collections.unmodifiableMap(new EnumMap<ServiceGroup, BulkheadConfig>(builder.bulkheads));
+        this.cartUpdateCoalescingWindowMs = builder.cartUpdateCoalescingWindowMs;
+        this.cartCacheMaxSize = builder.cartCacheMaxSize;
     }
 
     public static boolean isValidProjectKey(String projectKey) {
@@ -66,6 +132,72 @@ final public class SphereClientConfig {
     /** The default Locale for this project. Note that this can be be overridden for many methods. */
     public Locale getDefaultLocale() { return this.defaultLocale; }
 
+    /** Fraction of the lifetime of an OAuth access token after which the token is refreshed in the background. */
+    public double getTokenRefreshFraction() { return tokenRefreshFraction; }
+    /** Maximum time a request waits for an access token when there is none, e.g. right after startup, in milliseconds. */
+    public long getTokenWaitTimeoutMs() { return tokenWaitTimeoutMs; }
+
+    /** Transport for all HTTP requests, provided and closed by the application. Bulkheads share it and only limit
+     *  the number of concurrent requests. Absent means the client creates its own transports
+     *  based on AsyncHttpClient and closes them on {@link SphereClient#shutdown}. */
+    public Optional<HttpTransport> getTransport() { return Optional.fromNullable(transport); }
+    /** Maximum number of open HTTP connections in total. -1 means no limit. */
+    public int getMaxConnectionsTotal() { return maxConnectionsTotal; }
+    /** Maximum number of open HTTP connections to a single host. -1 means no limit. */
+    public int getMaxConnectionsPerHost() { return maxConnectionsPerHost; }
+    /** Timeout for establishing an HTTP connection, in milliseconds. */
+    public int getConnectTimeoutMs() { return connectTimeoutMs; }
+    /** Timeout for an HTTP request to be completed, in milliseconds. */
+    public int getRequestTimeoutMs() { return requestTimeoutMs; }
+    /** Time after which an idle connection is closed while a request is in progress, in milliseconds. */
+    public int getIdleConnectionTimeoutMs() { return idleConnectionTimeoutMs; }
+    /** Time after which an idle connection kept alive in the connection pool is closed, in milliseconds. */
+    public int getIdleConnectionInPoolTimeoutMs() { return idleConnectionInPoolTimeoutMs; }
+    /** Number of HTTP IO threads per CPU core. */
+    public int getIoThreadMultiplier() { return ioThreadMultiplier; }
+    /** Number of threads of the scheduler created by the client, if no scheduler is {@linkplain #getScheduler provided}. */
+    public int getSchedulerThreads() { return schedulerThreads; }
+    /** Scheduler for background work, provided and shut down by the application.
+     *  Absent means the client creates its own scheduler and shuts it down on {@link SphereClient#shutdown}. */
+    public Optional<ScheduledExecutorService> getScheduler() { return Optional.fromNullable(scheduler); }
+    /** Number of threads of the pool created by the client for parsing responses and running callbacks,
+     *  if no executor is {@linkplain #getCallbackExecutor provided}. 0 means responses are parsed on the IO threads. */
+    public int getCallbackThreads() { return callbackThreads; }
+    /** Executor for parsing responses and running callbacks, provided and shut down by the application.
+     *  Absent means the client creates its own pool of {@link #getCallbackThreads} threads. */
+    public Optional<Executor> getCallbackExecutor() { return Optional.fromNullable(callbackExecutor); }
+    /** If true, responses are requested gzip compressed and large request bodies are sent gzip compressed. */
+    public boolean isCompressionEnabled() { return compressionEnabled; }
+    /** Request bodies larger than this number of bytes are gzip compressed, if compression is enabled. */
+    public int getRequestCompressionThreshold() { return requestCompressionThreshold; }
+    /** If true, concurrent identical GET requests share a single HTTP request and its result. */
+    public boolean isRequestCoalescingEnabled() { return requestCoalescingEnabled; }
+    /** Maximum total size of GET responses cached for revalidation using ETag / Last-Modified, in bytes.
+     *  0 means no caching. */
+    public int getResponseCacheMaxBytes() { return responseCacheMaxBytes; }
+    /** Policy for retrying failed read requests. Absent means no retries. */
+    public Optional<RetryPolicy> getRetryPolicy() { return Optional.fromNullable(retryPolicy); }
+    /** Rate at which the retry budget shared by all requests is refilled. */
+    public double getRetryBudgetPerSecond() { return retryBudgetPerSecond; }
+    /** Maximum number of retries that can be sent in a burst. */
+    public int getRetryBudgetBurst() { return retryBudgetBurst; }
+    /** Circuit breakers per group of endpoints. Absent means no circuit breakers. */
+    public Optional<CircuitBreakerConfig> getCircuitBreakerConfig() { return Optional.fromNullable(circuitBreakerConfig); }
+    /** Hedging of slow read requests. Absent means no hedging. */
+    public Optional<HedgingConfig> getHedgingConfig() { return Optional.fromNullable(hedgingConfig); }
+    /** Adaptive limit of concurrent requests. Absent means no limit. */
+    public Optional<ConcurrencyLimitConfig> getConcurrencyLimitConfig() { return Optional.fromNullable(concurrencyLimitConfig); }
+    /** Resources reserved for given group of services. Absent means the group shares the default connection pool. */
+    public Optional<BulkheadConfig> getBulkhead(ServiceGroup group) { return Optional.fromNullable(bulkheads.get(group)); }
+    /** Resources reserved for groups of services, see {@link #getBulkhead}. */
+    public Map<ServiceGroup, BulkheadConfig> getBulkheads() { return bulkheads; }
+    /** Time during which concurrent updates of the same cart are collected and sent as a single update, in milliseconds.
+     *  -1 means every update is sent on its own. */
+    public long getCartUpdateCoalescingWindowMs() { return cartUpdateCoalescingWindowMs; }
+    /** Maximum number of carts kept in memory, so that a cart whose version didn't change can be fetched
+     *  without a request. 0 means carts are not cached. */
+    public int getCartCacheMaxSize() { return cartCacheMaxSize; }
+
     @NotThreadSafe
     public static class Builder {
         private String projectKey;
@@ -75,6 +207,33 @@ final public class SphereClientConfig {
         private String coreHttpServiceUrl = Defaults.coreHttpServiceUrl;
         private String authHttpServiceUrl = Defaults.authHttpServiceUrl;
         private final Locale defaultLocale;
+        private double tokenRefreshFraction = Defaults.tokenRefreshFraction;
+        private long tokenWaitTimeoutMs = Defaults.tokenWaitTimeoutMs;
+        private HttpTransport transport = null;
+        private int maxConnectionsTotal = Defaults.maxConnectionsTotal;
+        private int maxConnectionsPerHost = Defaults.maxConnectionsPerHost;
+        private int connectTimeoutMs = Defaults.connectTimeoutMs;
+        private int requestTimeoutMs = Defaults.requestTimeoutMs;
+        private int idleConnectionTimeoutMs = Defaults.idleConnectionTimeoutMs;
+        private int idleConnectionInPoolTimeoutMs = Defaults.idleConnectionInPoolTimeoutMs;
+        private int ioThreadMultiplier = Defaults.ioThreadMultiplier;
+        private int schedulerThreads = Defaults.schedulerThreads;
+        private ScheduledExecutorService scheduler = null;
+        private int callbackThreads = Defaults.callbackThreads;
+        private Executor callbackExecutor = null;
+        private boolean compressionEnabled = Defaults.compressionEnabled;
+        private int requestCompressionThreshold = Defaults.requestCompressionThreshold;
+        private boolean requestCoalescingEnabled = Defaults.requestCoalescingEnabled;
+        private int responseCacheMaxBytes = Defaults.responseCacheMaxBytes;
+        private RetryPolicy retryPolicy = null;
+        private double retryBudgetPerSecond = Defaults.retryBudgetPerSecond;
+        private int retryBudgetBurst = Defaults.retryBudgetBurst;
+        private CircuitBreakerConfig circuitBreakerConfig = null;
+        private HedgingConfig hedgingConfig = null;
+        private ConcurrencyLimitConfig concurrencyLimitConfig = null;
+        private final EnumMap<ServiceGroup, BulkheadConfig> bulkheads = new EnumMap<ServiceGroup, BulkheadConfig>(ServiceGroup.class);
+        private long cartUpdateCoalescingWindowMs = Defaults.cartUpdateCoalescingWindowMs;
+        private int cartCacheMaxSize = Defaults.cartCacheMaxSize;
 
         public Builder(String projectKey, String clientId, String clientSecret, Locale defaultLocale) {
             this.projectKey = projectKey;
@@ -89,6 +248,39 @@ final public class SphereClientConfig {
         public Builder setApiMode(ApiMode apiMode) { this.apiMode = apiMode; return this; }
         public Builder setCoreHttpServiceUrl(String url) { this.coreHttpServiceUrl = url; return this; }
         public Builder setAuthHttpServiceUrl(String url) { this.authHttpServiceUrl = url; return this; }
+        public Builder setTokenRefreshFraction(double fraction) { this.tokenRefreshFraction = fraction; return this; }
+        public Builder setTokenWaitTimeoutMs(long timeoutMs) { this.tokenWaitTimeoutMs = timeoutMs; return this; }
+        public Builder setTransport(HttpTransport transport) { this.transport = transport; return this; }
+        public Builder setMaxConnectionsTotal(int maxConnections) { this.maxConnectionsTotal = maxConnections; return this; }
+        public Builder setMaxConnectionsPerHost(int maxConnections) { this.maxConnectionsPerHost = maxConnections; return this; }
+        public Builder setConnectTimeoutMs(int timeoutMs) { this.connectTimeoutMs = timeoutMs; return this; }
+        public Builder setRequestTimeoutMs(int timeoutMs) { this.requestTimeoutMs = timeoutMs; return this; }
+        public Builder setIdleConnectionTimeoutMs(int timeoutMs) { this.idleConnectionTimeoutMs = timeoutMs; return this; }
+        public Builder setIdleConnectionInPoolTimeoutMs(int timeoutMs) { this.idleConnectionInPoolTimeoutMs = timeoutMs; return this; }
+        public Builder setIoThreadMultiplier(int multiplier) { this.ioThreadMultiplier = multiplier; return this; }
+        public Builder setSchedulerThreads(int threads) { this.schedulerThreads = threads; return this; }
+        public Builder setScheduler(ScheduledExecutorService scheduler) { this.scheduler = scheduler; return this; }
+        public Builder setCallbackThreads(int threads) { this.callbackThreads = threads; return this; }
+        public Builder setCallbackExecutor(Executor executor) { this.callbackExecutor = executor; return this; }
+        public Builder setCompressionEnabled(boolean enabled) { this.compressionEnabled = enabled; return this; }
+        public Builder setRequestCompressionThreshold(int bytes) { this.requestCompressionThreshold = bytes; return this; }
+        public Builder setRequestCoalescingEnabled(boolean enabled) { this.requestCoalescingEnabled = enabled; return this; }
+        public Builder setResponseCacheMaxBytes(int maxBytes) { this.responseCacheMaxBytes = maxBytes; return this; }
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) { this.retryPolicy = retryPolicy; return this; }
+        public Builder setRetryBudget(double retriesPerSecond, int burst) {
+            this.retryBudgetPerSecond = retriesPerSecond; this.retryBudgetBurst = burst; return this;
+        }
+        public Builder setCircuitBreakerConfig(CircuitBreakerConfig config) { this.circuitBreakerConfig = config; return this; }
+        public Builder setHedgingConfig(HedgingConfig config) { this.hedgingConfig = config; return this; }
+        public Builder setConcurrencyLimitConfig(ConcurrencyLimitConfig config) { this.concurrencyLimitConfig = config; return this; }
+        public Builder setBulkhead(ServiceGroup group, BulkheadConfig config) {
+            if (config == null) bulkheads.remove(group); else bulkheads.put(group, config); return this;
+        }
+        public Builder setBulkhead(ServiceGroup group, int maxConnections, int maxConcurrentRequests) {
+            return setBulkhead(group, new BulkheadConfig(maxConnections, maxConcurrentRequests));
+        }
+        public Builder setCartUpdateCoalescingWindowMs(long windowMs) { this.cartUpdateCoalescingWindowMs = windowMs; return this; }
+        public Builder setCartCacheMaxSize(int maxSize) { this.cartCacheMaxSize = maxSize; return this; }
 
         public SphereClientConfig build() { return new SphereClientConfig(this); }
     }
@@ -97,6 +97,17 @@ public class CartUpdate extends Update<CartCommands.CartUpdateAction> {
         return this;
     }
 
+    /** Returns true if all actions of this update can be applied when creating a cart, so that the cart can be created
+     *  with the update in a single request, see
+     *  {@link io.sphere.client.shop.CartService#createCart(java.util.Currency, String, CountryCode, Cart.InventoryMode, CartUpdate)}.
+     *  This is the case for adding line items and setting the customer email, the addresses or the country. */
+    public boolean isApplicableOnCreate() {
+        for (CartCommands.CartUpdateAction action: getActions()) {
+            if (!CartCommands.CreateCart.isApplicableOnCreate(action)) return false;
+        }
+        return true;
+    }
+
     private void assertNotNegative(int quantity) {
         if (quantity < 0) throw new IllegalArgumentException("Negative quantity not allowed.");
     }
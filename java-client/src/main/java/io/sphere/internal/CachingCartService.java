@@ -0,0 +1,218 @@
+package io.sphere.internal;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.neovisionaries.i18n.CountryCode;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.CommandRequest;
+import io.sphere.client.FetchRequest;
+import io.sphere.client.QueryRequest;
+import io.sphere.client.RetryPolicy;
+import io.sphere.client.SphereResult;
+import io.sphere.client.UpdateRequest;
+import io.sphere.client.exceptions.SphereBackendException;
+import io.sphere.client.exceptions.SphereException;
+import io.sphere.client.model.VersionedId;
+import io.sphere.client.shop.CartService;
+import io.sphere.client.shop.model.Cart;
+import io.sphere.client.shop.model.CartUpdate;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+import javax.annotation.Nonnull;
+import java.util.Currency;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/** Keeps the carts returned by the backend in memory, so that a cart whose version is known can be
+ *  {@linkplain #byId(VersionedId) fetched} without a request.
+ *
+ *  <p>The cache is filled from the responses of creating, updating and fetching carts and holds the latest known
+ *  version of each cart. A cached cart is only returned for the exact version requested: any change of the cart
+ *  increments its version, so a cart that was modified is fetched from the backend again.
+ *
+ *  <p>The cache is bounded by the number of carts, least recently used carts are evicted first. */
+@ThreadSafe
+public class CachingCartService implements CartService {
+    /** Number of carts fetched by version that were served from the cache. */
+    public static final String cacheHits = "carts.cache.hits";
+    /** Number of carts fetched by version that were not in the cache. */
+    public static final String cacheMisses = "carts.cache.misses";
+    /** Number of cached carts. */
+    public static final String cacheSize = "carts.cache.size";
+
+    private final CartService underlying;
+    private final ClientMetrics metrics;
+    private final ConcurrentMap<String, Cart> carts;
+
+    /** @param maxSize Maximum number of cached carts. */
+    public CachingCartService(CartService underlying, int maxSize, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (metrics == null) throw new NullPointerException("metrics");
+        if (maxSize <= 0) throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        this.underlying = underlying;
+        this.metrics = metrics;
+        Cache<String, Cart> cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        this.carts = cache.asMap();
+        metrics.registerGauge(cacheSize, new Supplier<Long>() {
+            public Long get() { return (long)carts.size(); }
+        });
+    }
+
+    @Override public FetchRequest<Cart> byId(String id) { return underlying.byId(id); }
+
+    @Override public FetchRequest<Cart> byId(VersionedId cartId) {
+        if (cartId == null) throw new NullPointerException("cartId");
+        return new CachedFetchRequest(cartId, underlying.byId(cartId), false);
+    }
+
+    @Override public FetchRequest<Cart> forCustomer(String customerId) { return underlying.forCustomer(customerId); }
+
+    @Override public QueryRequest<Cart> all() { return underlying.all(); }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, String customerId, Cart.InventoryMode inventoryMode) {
+        return new CachingCommandRequest(underlying.createCart(currency, customerId, inventoryMode));
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode) {
+        return new CachingCommandRequest(underlying.createCart(currency, customerId, country, inventoryMode));
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, CountryCode country, Cart.InventoryMode inventoryMode) {
+        return new CachingCommandRequest(underlying.createCart(currency, country, inventoryMode));
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, Cart.InventoryMode inventoryMode) {
+        return new CachingCommandRequest(underlying.createCart(currency, inventoryMode));
+    }
+
+    @Override public CommandRequest<Cart> createCart(
+            Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode, CartUpdate initialUpdate) {
+        return new CachingCommandRequest(underlying.createCart(currency, customerId, country, inventoryMode, initialUpdate));
+    }
+
+    @Override public UpdateRequest<Cart> updateCart(VersionedId cartId, CartUpdate update) {
+        return new CachingUpdateRequest(underlying.updateCart(cartId, update));
+    }
+
+    /** Returns the cached cart if it has given version, otherwise null. */
+    private Cart getCached(VersionedId cartId) {
+        Cart cart = carts.get(cartId.getId());
+        return cart != null && cart.getIdAndVersion().getVersion() == cartId.getVersion() ? cart : null;
+    }
+
+    /** Caches given cart, unless a newer version of the cart is cached already. */
+    private void put(Cart cart) {
+        String id = cart.getIdAndVersion().getId();
+        while (true) {
+            Cart cached = carts.putIfAbsent(id, cart);
+            if (cached == null) return;
+            if (cached.getIdAndVersion().getVersion() >= cart.getIdAndVersion().getVersion()) return;
+            if (carts.replace(id, cached, cart)) return;
+        }
+    }
+
+    private final Function<SphereResult<Cart>, SphereResult<Cart>> cacheResult = new Function<SphereResult<Cart>, SphereResult<Cart>>() {
+        public SphereResult<Cart> apply(SphereResult<Cart> result) {
+            if (result.isSuccess()) put(result.getValue());
+            return result;
+        }
+    };
+
+    @Immutable
+    private class CachedFetchRequest implements FetchRequest<Cart> {
+        private final VersionedId cartId;
+        private final FetchRequest<Cart> request;
+        /** Carts with expanded references are neither served from nor put into the cache. */
+        private final boolean expanded;
+
+        CachedFetchRequest(VersionedId cartId, FetchRequest<Cart> request, boolean expanded) {
+            this.cartId = cartId;
+            this.request = request;
+            this.expanded = expanded;
+        }
+
+        @Override public Optional<Cart> fetch() {
+            return Util.sync(fetchAsync());
+        }
+
+        @Override public ListenableFuture<Optional<Cart>> fetchAsync() {
+            if (expanded) return request.fetchAsync();
+            Cart cached = getCached(cartId);
+            if (cached != null) {
+                metrics.increment(cacheHits);
+                Log.trace("[cart] Serving cached cart " + cartId);
+                return Futures.immediateFuture(Optional.of(cached));
+            }
+            metrics.increment(cacheMisses);
+            return Futures.transform(request.fetchAsync(), new Function<Optional<Cart>, Optional<Cart>>() {
+                public Optional<Cart> apply(Optional<Cart> cart) {
+                    if (cart.isPresent()) put(cart.get());
+                    return cart;
+                }
+            });
+        }
+
+        @Override public FetchRequest<Cart> expand(String... paths) {
+            return new CachedFetchRequest(cartId, request.expand(paths), expanded || paths.length > 0);
+        }
+
+        @Override public FetchRequest<Cart> timeout(long timeout, TimeUnit unit) {
+            return new CachedFetchRequest(cartId, request.timeout(timeout, unit), expanded);
+        }
+    }
+
+    @Immutable
+    private class CachingCommandRequest implements CommandRequest<Cart> {
+        private final CommandRequest<Cart> request;
+
+        CachingCommandRequest(CommandRequest<Cart> request) {
+            this.request = request;
+        }
+
+        @Override public Cart execute() {
+            return Util.syncResult(executeAsync());
+        }
+
+        @Override public ListenableFuture<SphereResult<Cart>> executeAsync() {
+            return Futures.transform(request.executeAsync(), cacheResult);
+        }
+
+        @Override public CommandRequest<Cart> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError) {
+            return new CachingCommandRequest(request.withErrorHandling(transformError));
+        }
+
+        @Override public CommandRequest<Cart> timeout(long timeout, TimeUnit unit) {
+            return new CachingCommandRequest(request.timeout(timeout, unit));
+        }
+    }
+
+    @Immutable
+    private class CachingUpdateRequest extends CachingCommandRequest implements UpdateRequest<Cart> {
+        private final UpdateRequest<Cart> update;
+
+        CachingUpdateRequest(UpdateRequest<Cart> update) {
+            super(update);
+            this.update = update;
+        }
+
+        @Override public UpdateRequest<Cart> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError) {
+            return new CachingUpdateRequest(update.withErrorHandling(transformError));
+        }
+
+        @Override public UpdateRequest<Cart> timeout(long timeout, TimeUnit unit) {
+            return new CachingUpdateRequest(update.timeout(timeout, unit));
+        }
+
+        @Override public UpdateRequest<Cart> retryOnConflict(RetryPolicy retryPolicy) {
+            return new CachingUpdateRequest(update.retryOnConflict(retryPolicy));
+        }
+    }
+}
@@ -5,6 +5,7 @@ import io.sphere.client.CommandRequest;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.ProjectEndpoints;
 import io.sphere.client.QueryRequest;
+import io.sphere.client.UpdateRequest;
 import io.sphere.client.model.QueryResult;
 import io.sphere.client.model.VersionedId;
 import io.sphere.client.shop.ApiMode;
@@ -15,7 +16,11 @@ import io.sphere.internal.command.CartCommands;
 import io.sphere.internal.command.Command;
 import io.sphere.internal.command.UpdateCommand;
 import io.sphere.internal.request.RequestFactory;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.neovisionaries.i18n.CountryCode;
 import org.codehaus.jackson.type.TypeReference;
 
@@ -35,6 +40,10 @@ public class CartServiceImpl implements CartService {
                 new TypeReference<Cart>() {});
     }
 
+    @Override public FetchRequest<Cart> byId(VersionedId cartId) {
+        return byId(cartId.getId());
+    }
+
     @Override public FetchRequest<Cart> forCustomer(String customerId) {
         return requestFactory.createFetchRequest(
                 endpoints.carts.forCustomer(customerId),
@@ -69,10 +78,33 @@ public class CartServiceImpl implements CartService {
         return createCart(currency, null, country, inventoryMode);
     }
 
-    @Override public CommandRequest<Cart> updateCart(VersionedId cartId, CartUpdate update) {
+    @Override public CommandRequest<Cart> createCart(
+            Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode, CartUpdate initialUpdate) {
+        if (initialUpdate == null) throw new NullPointerException("initialUpdate");
         return createCommandRequest(
+                endpoints.carts.root(),
+                new CartCommands.CreateCart(currency, customerId, country, inventoryMode, initialUpdate));
+    }
+
+    @Override public UpdateRequest<Cart> updateCart(final VersionedId cartId, CartUpdate update) {
+        return requestFactory.createUpdateRequest(
                 endpoints.carts.byId(cartId.getId()),
-                new UpdateCommand<CartCommands.CartUpdateAction>(cartId.getVersion(), update));
+                new UpdateCommand<CartCommands.CartUpdateAction>(cartId.getVersion(), update),
+                new Supplier<ListenableFuture<Optional<Integer>>>() {
+                    public ListenableFuture<Optional<Integer>> get() { return latestVersion(cartId.getId()); }
+                },
+                new TypeReference<Cart>() {});
+    }
+
+    /** Fetches the current version of a cart, for updates sent again after a conflict. */
+    private ListenableFuture<Optional<Integer>> latestVersion(String cartId) {
+        return Futures.transform(byId(cartId).fetchAsync(), new Function<Optional<Cart>, Optional<Integer>>() {
+            public Optional<Integer> apply(Optional<Cart> cart) {
+                return cart.isPresent() ?
+                        Optional.of(cart.get().getIdAndVersion().getVersion()) :
+                        Optional.<Integer>absent();
+            }
+        });
     }
 
     /** Helper to save some repetitive code. */
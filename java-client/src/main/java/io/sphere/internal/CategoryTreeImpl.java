@@ -1,6 +1,10 @@
 package io.sphere.internal;
 
 import com.google.common.base.Optional;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.model.QueryResult;
 import io.sphere.client.model.products.BackendCategory;
 import io.sphere.internal.util.Concurrent;
 import io.sphere.internal.util.Log;
@@ -12,6 +16,7 @@ import net.jcip.annotations.GuardedBy;
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /** Fetches and builds the category tree in the background.
  *  Blocks on first read if the tree is still being fetched.  */
@@ -24,15 +29,31 @@ public class CategoryTreeImpl implements CategoryTree {
     private Optional<ValidationE<CategoryCache>> categoriesResult = Optional.absent();
 
     /** Allows at most one rebuild operation running in the background. */
-    private final ThreadPoolExecutor refreshExecutor = Concurrent.singleTaskExecutor("Sphere-CategoryTree-refresh");
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    /** Builds the tree once the categories are fetched, so that HTTP IO threads are not held up. */
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
 
-    private CategoryTreeImpl(Categories categoryService, Locale locale) {
+    private CategoryTreeImpl(Categories categoryService, Locale locale, ScheduledExecutorService scheduler, boolean ownsScheduler) {
+        if (scheduler == null) throw new NullPointerException("scheduler");
         this.categoryService = categoryService;
         this.locale = locale;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
     }
 
     public static CategoryTreeImpl createAndBeginBuildInBackground(Categories categoryService, Locale locale) {
-        CategoryTreeImpl categoryTree = new CategoryTreeImpl(categoryService, locale);
+        return createAndBeginBuildInBackground(
+                new CategoryTreeImpl(categoryService, locale, Concurrent.scheduler("Sphere-CategoryTree-refresh", 1), true));
+    }
+
+    /** @param scheduler Builds the tree in the background. Not shut down by {@link #shutdown}. */
+    public static CategoryTreeImpl createAndBeginBuildInBackground(
+            Categories categoryService, Locale locale, ScheduledExecutorService scheduler) {
+        return createAndBeginBuildInBackground(new CategoryTreeImpl(categoryService, locale, scheduler, false));
+    }
+
+    private static CategoryTreeImpl createAndBeginBuildInBackground(CategoryTreeImpl categoryTree) {
         categoryTree.beginRebuild();
         return categoryTree;
     }
@@ -60,31 +81,34 @@ public class CategoryTreeImpl implements CategoryTree {
 
     /** Starts rebuild in the background. */
     private void beginRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;   // another rebuild is already in progress, ignore this one
+        }
+        Log.debug("[cache] Refreshing category tree.");
+        ListenableFuture<QueryResult<BackendCategory>> categories;
         try {
-            Log.debug("[cache] Refreshing category tree.");
-            refreshExecutor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    List<BackendCategory> categories;
-                    try {
-                        categories = categoryService.all().
-                                page(0).
-                                pageSize(Defaults.maxNumberOfCategoriesToFetchAtOnce).
-                                fetch().getResults();
-                    } catch (Exception e) {
-                        update(null, locale, e);
-                        return;
-                    }
-                    update(categories, locale, null);
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            // another rebuild is already in progress, ignore this one
+            categories = categoryService.all().
+                    page(0).
+                    pageSize(Defaults.maxNumberOfCategoriesToFetchAtOnce).
+                    fetchAsync();
+        } catch (Exception e) {
+            categories = Futures.immediateFailedFuture(e);
         }
+        Futures.addCallback(categories, new FutureCallback<QueryResult<BackendCategory>>() {
+            public void onSuccess(QueryResult<BackendCategory> result) {
+                // allow new rebuilds first, so that readers woken up by update() can retry on error
+                rebuilding.set(false);
+                update(result.getResults(), locale, null);
+            }
+            public void onFailure(Throwable t) {
+                rebuilding.set(false);
+                update(null, locale, t);
+            }
+        }, scheduler);
     }
 
     /** Sets result after rebuild. */
-    private void update(List<BackendCategory> backendCategories, Locale locale, Exception e) {
+    private void update(List<BackendCategory> backendCategories, Locale locale, Throwable e) {
         CategoryCache categoriesCache = null;
         if (e != null) {
             Log.error("[cache] Couldn't initialize category tree", e);
@@ -104,8 +128,8 @@ public class CategoryTreeImpl implements CategoryTree {
         }
     }
 
-    /** Shuts down internal thread pools. */
+    /** Shuts down internal thread pools. A scheduler passed in from outside is left running. */
     public void shutdown() {
-        refreshExecutor.shutdownNow();
+        if (ownsScheduler) scheduler.shutdownNow();
     }
 }
@@ -0,0 +1,357 @@
+package io.sphere.internal;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.neovisionaries.i18n.CountryCode;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.CommandRequest;
+import io.sphere.client.FetchRequest;
+import io.sphere.client.QueryRequest;
+import io.sphere.client.RequestTimeoutException;
+import io.sphere.client.RetryPolicy;
+import io.sphere.client.SphereResult;
+import io.sphere.client.UpdateRequest;
+import io.sphere.client.exceptions.SphereBackendException;
+import io.sphere.client.exceptions.SphereException;
+import io.sphere.client.model.VersionedId;
+import io.sphere.client.shop.CartService;
+import io.sphere.client.shop.model.Cart;
+import io.sphere.client.shop.model.CartUpdate;
+import io.sphere.internal.request.RequestExecutor;
+import io.sphere.internal.request.SphereResultRaw;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Merges concurrent updates of the same cart into a single update request.
+ *
+ *  <p>Updates of a cart arriving within a short window are sent as one {@link CartUpdate}, with the actions
+ *  in the order the updates arrived. Only one update request per cart is in flight at a time. Updates arriving
+ *  meanwhile are sent as soon as it completes, using the version it returned. This avoids the ConcurrentModification
+ *  errors of updates sent at the same time with the same version, e.g. on a double click.
+ *
+ *  <p>All updates sent together get the same result: if one of the actions fails, none of them are applied.
+ *  The time of each update starts running when it is executed, so waiting for the window or for the update
+ *  in flight counts towards its timeout. Updates that run out of time while waiting fail with a
+ *  {@link RequestTimeoutException}; the request uses the earliest deadline and the first {@linkplain UpdateRequest#retryOnConflict conflict retry policy}
+ *  of the updates it contains. */
+@ThreadSafe
+public class CoalescingCartService implements CartService {
+    /** Number of update requests sent. */
+    public static final String updateRequests = "carts.updates.requests";
+    /** Number of updates that were sent together with another update. */
+    public static final String coalescedUpdates = "carts.updates.coalesced";
+
+    private final CartService underlying;
+    private final long windowMs;
+    private final ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+    /** Carts with updates waiting or in flight. */
+    @GuardedBy("carts") private final Map<String, CartUpdates> carts = new HashMap<String, CartUpdates>();
+
+    /** @param windowMs Time during which updates of a cart are collected before they are sent. */
+    public CoalescingCartService(CartService underlying, long windowMs, ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (scheduler == null) throw new NullPointerException("scheduler");
+        if (metrics == null) throw new NullPointerException("metrics");
+        if (windowMs < 0) throw new IllegalArgumentException("Coalescing window can't be negative: " + windowMs);
+        this.underlying = underlying;
+        this.windowMs = windowMs;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    @Override public FetchRequest<Cart> byId(String id) { return underlying.byId(id); }
+
+    @Override public FetchRequest<Cart> byId(VersionedId cartId) { return underlying.byId(cartId); }
+
+    @Override public FetchRequest<Cart> forCustomer(String customerId) { return underlying.forCustomer(customerId); }
+
+    @Override public QueryRequest<Cart> all() { return underlying.all(); }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, String customerId, Cart.InventoryMode inventoryMode) {
+        return underlying.createCart(currency, customerId, inventoryMode);
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode) {
+        return underlying.createCart(currency, customerId, country, inventoryMode);
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, CountryCode country, Cart.InventoryMode inventoryMode) {
+        return underlying.createCart(currency, country, inventoryMode);
+    }
+
+    @Override public CommandRequest<Cart> createCart(Currency currency, Cart.InventoryMode inventoryMode) {
+        return underlying.createCart(currency, inventoryMode);
+    }
+
+    @Override public CommandRequest<Cart> createCart(
+            Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode, CartUpdate initialUpdate) {
+        return underlying.createCart(currency, customerId, country, inventoryMode, initialUpdate);
+    }
+
+    @Override public UpdateRequest<Cart> updateCart(VersionedId cartId, CartUpdate update) {
+        if (cartId == null) throw new NullPointerException("cartId");
+        if (update == null) throw new NullPointerException("update");
+        return new CoalescedUpdateRequest(cartId, update, null, RequestExecutor.noTimeout, null);
+    }
+
+    /** Adds an update to the updates waiting for given cart. */
+    private void enqueue(final PendingUpdate update) {
+        final String cartId = update.cartId.getId();
+        if (update.deadlineNanos != RequestExecutor.noTimeout) scheduleTimeout(update);
+        // an update cancelled while waiting is not sent
+        update.result.addListener(new Runnable() {
+            public void run() { if (update.result.isCancelled()) removeWaiting(update); }
+        }, MoreExecutors.sameThreadExecutor());
+        synchronized (carts) {
+            CartUpdates cart = carts.get(cartId);
+            if (cart == null) {
+                cart = new CartUpdates();
+                carts.put(cartId, cart);
+            }
+            cart.waiting.add(update);
+            if (cart.inFlight || cart.scheduled) return;
+            cart.scheduled = true;
+        }
+        try {
+            scheduler.schedule(new Runnable() {
+                public void run() { windowClosed(cartId); }
+            }, windowMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            windowClosed(cartId);   // the client is shutting down, send right away
+        }
+    }
+
+    /** Fails the update if it is still waiting when its deadline passes. Once sent, the request carries the deadline. */
+    private void scheduleTimeout(final PendingUpdate update) {
+        final ScheduledFuture<?> timer;
+        try {
+            timer = scheduler.schedule(new Runnable() {
+                public void run() {
+                    if (removeWaiting(update)) update.timedOut();
+                }
+            }, update.deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return;   // shutting down, the update is sent right away
+        }
+        update.result.addListener(new Runnable() {
+            public void run() { timer.cancel(false); }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /** Removes an update that is waiting to be sent. Returns false if it was sent already. */
+    private boolean removeWaiting(PendingUpdate update) {
+        synchronized (carts) {
+            CartUpdates cart = carts.get(update.cartId.getId());
+            return cart != null && cart.waiting.remove(update);
+        }
+    }
+
+    private void windowClosed(String cartId) {
+        List<PendingUpdate> batch;
+        synchronized (carts) {
+            CartUpdates cart = carts.get(cartId);
+            cart.scheduled = false;
+            if (cart.inFlight) return;  // sent when the update in flight completes
+            if (cart.waiting.isEmpty()) {
+                // already sent together with updates that were waiting for a previous request
+                carts.remove(cartId);
+                return;
+            }
+            batch = cart.takeWaiting();
+        }
+        send(cartId, batch);
+    }
+
+    /** Sends given updates as a single request. The cart must be marked as in flight. */
+    private void send(final String cartId, List<PendingUpdate> updates) {
+        final List<PendingUpdate> batch = new ArrayList<PendingUpdate>(updates.size());
+        long now = System.nanoTime();
+        for (PendingUpdate update: updates) {
+            if (update.result.isCancelled()) continue;
+            // the timer of the update didn't get to run yet
+            if (update.deadlineNanos != RequestExecutor.noTimeout && update.deadlineNanos - now <= 0) update.timedOut();
+            else batch.add(update);
+        }
+        if (batch.isEmpty()) {
+            List<PendingUpdate> next = completed(cartId, -1);
+            if (next != null) send(cartId, next);
+            return;
+        }
+        int version;
+        synchronized (carts) {
+            version = carts.get(cartId).version;
+        }
+        CartUpdate merged = new CartUpdate();
+        long deadlineNanos = RequestExecutor.noTimeout;
+        RetryPolicy conflictRetryPolicy = null;
+        for (PendingUpdate update: batch) {
+            if (conflictRetryPolicy == null) conflictRetryPolicy = update.conflictRetryPolicy;
+            merged.addAll(update.update);
+            version = Math.max(version, update.cartId.getVersion());
+            if (update.deadlineNanos != RequestExecutor.noTimeout &&
+                    (deadlineNanos == RequestExecutor.noTimeout || update.deadlineNanos - deadlineNanos < 0)) {
+                deadlineNanos = update.deadlineNanos;
+            }
+        }
+        metrics.increment(updateRequests);
+        if (batch.size() > 1) {
+            metrics.add(coalescedUpdates, batch.size());
+            Log.debug("[cart] Sending " + batch.size() + " updates of cart " + cartId + " as a single update.");
+        }
+        ListenableFuture<SphereResult<Cart>> result;
+        try {
+            UpdateRequest<Cart> request = underlying.updateCart(VersionedId.create(cartId, version), merged);
+            // the earliest deadline of the updates, which have been waiting since they were executed
+            if (deadlineNanos != RequestExecutor.noTimeout) {
+                request = request.timeout(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            if (conflictRetryPolicy != null) request = request.retryOnConflict(conflictRetryPolicy);
+            result = request.executeAsync();
+        } catch (RuntimeException e) {
+            result = Futures.immediateFailedFuture(e);
+        }
+        Futures.addCallback(result, new FutureCallback<SphereResult<Cart>>() {
+            public void onSuccess(SphereResult<Cart> cart) {
+                List<PendingUpdate> next = completed(cartId, cart.isSuccess() ? cart.getValue().getIdAndVersion().getVersion() : -1);
+                for (PendingUpdate update: batch) {
+                    update.result.set(update.withSpecificError(cart));
+                }
+                if (next != null) send(cartId, next);
+            }
+            public void onFailure(Throwable t) {
+                List<PendingUpdate> next = completed(cartId, -1);
+                for (PendingUpdate update: batch) {
+                    update.result.setException(t);
+                }
+                if (next != null) send(cartId, next);
+            }
+        });
+    }
+
+    /** Called when the update in flight completes. Returns the updates to send next, or null if there are none.
+     *  @param version The version of the updated cart, or -1 if the update failed. */
+    private List<PendingUpdate> completed(String cartId, int version) {
+        synchronized (carts) {
+            CartUpdates cart = carts.get(cartId);
+            cart.version = Math.max(cart.version, version);
+            if (cart.waiting.isEmpty()) {
+                cart.inFlight = false;
+                if (!cart.scheduled) carts.remove(cartId);
+                return null;
+            }
+            return cart.takeWaiting();
+        }
+    }
+
+    /** Updates of a single cart that are waiting or in flight. */
+    private static class CartUpdates {
+        final List<PendingUpdate> waiting = new ArrayList<PendingUpdate>();
+        /** Whether a request is in flight, in which case waiting updates are sent once it completes. */
+        boolean inFlight;
+        /** Whether the end of the coalescing window is scheduled. */
+        boolean scheduled;
+        /** Version of the cart returned by the last successful update, -1 if not known. */
+        int version = -1;
+
+        /** Takes all waiting updates, to be sent by the caller. */
+        List<PendingUpdate> takeWaiting() {
+            List<PendingUpdate> batch = new ArrayList<PendingUpdate>(waiting);
+            waiting.clear();
+            inFlight = true;
+            return batch;
+        }
+    }
+
+    /** An update of a cart, waiting to be sent. */
+    private static class PendingUpdate {
+        final VersionedId cartId;
+        final CartUpdate update;
+        final Function<SphereBackendException, SphereException> transformError;
+        final long timeoutNanos;
+        /** The deadline in terms of System.nanoTime(), or {@link RequestExecutor#noTimeout}. */
+        final long deadlineNanos;
+        final RetryPolicy conflictRetryPolicy;
+        final SettableFuture<SphereResult<Cart>> result = SettableFuture.create();
+
+        /** The time of the update starts running when it is created, i.e. when the request is executed. */
+        PendingUpdate(VersionedId cartId, CartUpdate update, Function<SphereBackendException, SphereException> transformError,
+                      long timeoutNanos, RetryPolicy conflictRetryPolicy) {
+            this.cartId = cartId;
+            this.update = update;
+            this.transformError = transformError;
+            this.timeoutNanos = timeoutNanos;
+            this.deadlineNanos = timeoutNanos == RequestExecutor.noTimeout ? RequestExecutor.noTimeout : System.nanoTime() + timeoutNanos;
+            this.conflictRetryPolicy = conflictRetryPolicy;
+        }
+
+        /** Fails the update that ran out of time before it was sent. */
+        void timedOut() {
+            result.setException(new RequestTimeoutException("carts/" + cartId.getId(), TimeUnit.NANOSECONDS.toMillis(timeoutNanos)));
+        }
+
+        /** The result shared by all updates sent together, with the error handling of this update. */
+        SphereResult<Cart> withSpecificError(SphereResult<Cart> result) {
+            if (result.isSuccess() || transformError == null) return result;
+            return SphereResult.withSpecificError(SphereResultRaw.<Cart>error(result.getGenericError()), transformError);
+        }
+    }
+
+    private class CoalescedUpdateRequest implements UpdateRequest<Cart> {
+        private final VersionedId cartId;
+        private final CartUpdate update;
+        private final Function<SphereBackendException, SphereException> transformError;
+        private final long timeoutNanos;
+        private final RetryPolicy conflictRetryPolicy;
+
+        CoalescedUpdateRequest(VersionedId cartId, CartUpdate update, Function<SphereBackendException, SphereException> transformError,
+                               long timeoutNanos, RetryPolicy conflictRetryPolicy) {
+            this.cartId = cartId;
+            this.update = update;
+            this.transformError = transformError;
+            this.timeoutNanos = timeoutNanos;
+            this.conflictRetryPolicy = conflictRetryPolicy;
+        }
+
+        @Override public Cart execute() {
+            return Util.syncResult(executeAsync());
+        }
+
+        @Override public ListenableFuture<SphereResult<Cart>> executeAsync() {
+            PendingUpdate pending = new PendingUpdate(cartId, update, transformError, timeoutNanos, conflictRetryPolicy);
+            enqueue(pending);
+            return pending.result;
+        }
+
+        @Override public UpdateRequest<Cart> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError) {
+            if (transformError == null) throw new NullPointerException("transformError");
+            return new CoalescedUpdateRequest(cartId, update, transformError, timeoutNanos, conflictRetryPolicy);
+        }
+
+        @Override public UpdateRequest<Cart> timeout(long timeout, TimeUnit unit) {
+            return new CoalescedUpdateRequest(cartId, update, transformError, RequestExecutor.timeoutNanos(timeout, unit), conflictRetryPolicy);
+        }
+
+        @Override public UpdateRequest<Cart> retryOnConflict(RetryPolicy retryPolicy) {
+            if (retryPolicy == null) throw new NullPointerException("retryPolicy");
+            return new CoalescedUpdateRequest(cartId, update, transformError, timeoutNanos, retryPolicy);
+        }
+    }
+}
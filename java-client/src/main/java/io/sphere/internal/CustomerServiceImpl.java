@@ -19,6 +19,9 @@ import io.sphere.internal.request.RequestFactory;
 import static io.sphere.internal.util.Util.getSingleError;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.codehaus.jackson.type.TypeReference;
 
 public class CustomerServiceImpl extends ProjectScopedAPI implements CustomerService {
@@ -125,10 +128,14 @@ public class CustomerServiceImpl extends ProjectScopedAPI implements CustomerSer
         });
     }
 
-    @Override public CommandRequest<Customer> update(VersionedId customerId, CustomerUpdate customerUpdate) {
-        return createCommandRequest(
+    @Override public UpdateRequest<Customer> update(final VersionedId customerId, CustomerUpdate customerUpdate) {
+        return requestFactory.createUpdateRequest(
                 endpoints.customers.byId(customerId.getId()),
-                new UpdateCommand<CustomerCommands.CustomerUpdateAction>(customerId.getVersion(), customerUpdate));
+                new UpdateCommand<CustomerCommands.CustomerUpdateAction>(customerId.getVersion(), customerUpdate),
+                new Supplier<ListenableFuture<Optional<Integer>>>() {
+                    public ListenableFuture<Optional<Integer>> get() { return latestVersion(customerId.getId()); }
+                },
+                new TypeReference<Customer>() {});
     }
 
     @Override public CommandRequest<CustomerToken> createPasswordResetToken(String email) {
@@ -159,6 +166,17 @@ public class CustomerServiceImpl extends ProjectScopedAPI implements CustomerSer
     // Helpers to save some repetitive code
     // ---------------------------------------
 
+    /** Fetches the current version of a customer, for updates sent again after a conflict. */
+    private ListenableFuture<Optional<Integer>> latestVersion(String customerId) {
+        return Futures.transform(byId(customerId).fetchAsync(), new Function<Optional<Customer>, Optional<Integer>>() {
+            public Optional<Integer> apply(Optional<Customer> customer) {
+                return customer.isPresent() ?
+                        Optional.of(customer.get().getIdAndVersion().getVersion()) :
+                        Optional.<Integer>absent();
+            }
+        });
+    }
+
     private CommandRequest<Customer> createCommandRequest(String url, Command command) {
         return requestFactory.createCommandRequest(url, command, new TypeReference<Customer>() {});
     }
@@ -9,14 +9,33 @@ public class Defaults {
     /** Default page size when paging through results. */
     public static final int pageSize = 25;
 
+    /** Number of pages requested in parallel ahead of the iteration by {@code fetchAll()}. */
+    public static final int prefetchPages = 4;
+
     /** Amount of time indicating that an OAuth token is about to expire and should be refreshed.
      *  See {@link io.sphere.internal.oauth.SphereClientCredentials}. */
     public static final long tokenAboutToExpireMs = 60*1000L;  // 1 minute
 
+    /** Fraction of the lifetime of an OAuth token after which the token is refreshed in the background. */
+    public static final double tokenRefreshFraction = 0.8;
+
+    /** Maximum time a request waits for an OAuth token when there is none, e.g. right after startup. */
+    public static final long tokenWaitTimeoutMs = 30*1000L;  // 30 seconds
+
+    /** Delay of the first retry of a failed OAuth token refresh, doubled with each further failure. */
+    public static final long tokenRefreshRetryInitialMs = 1000L;  // 1 second
+
+    /** Maximum delay between retries of a failed OAuth token refresh. */
+    public static final long tokenRefreshRetryMaxMs = 60*1000L;  // 1 minute
+
     /** Size of a single chunk that should be enough to fetch all categories from the backend.
      *  See {@link CategoryTreeImpl}. */
     public static final int maxNumberOfCategoriesToFetchAtOnce = 20000;
 
+    /** Maximum number of ids in a single query of {@link io.sphere.client.shop.ProductService#byIds},
+     *  keeps the URLs well below common length limits. */
+    public static final int maxIdsPerQuery = 50;
+
     /** Filter type used if not explicitly specified. */
     public static final FilterType filterType = FilterType.RESULTS_AND_FACETS;
 
@@ -26,6 +45,105 @@ public class Defaults {
     /** Inventory mode used when none specified. */
     public static final Cart.InventoryMode cartInventoryMode = Cart.InventoryMode.None;
 
+    /** Time during which concurrent updates of a cart are collected and sent as a single update.
+     *  -1 means updates are sent as they come. See {@link io.sphere.internal.CoalescingCartService}. */
+    public static final long cartUpdateCoalescingWindowMs = -1;
+
+    /** Maximum number of carts kept in memory to be fetched by version without a request.
+     *  0 means carts are not cached. See {@link io.sphere.internal.CachingCartService}. */
+    public static final int cartCacheMaxSize = 0;
+
+    // ------------------------------------------------------------------------------
+    // HTTP transport (the same values AsyncHttpClient uses when nothing is configured)
+    // ------------------------------------------------------------------------------
+
+    /** Maximum number of open connections in total. -1 means no limit. */
+    public static final int maxConnectionsTotal = -1;
+
+    /** Maximum number of open connections to a single host. -1 means no limit. */
+    public static final int maxConnectionsPerHost = -1;
+
+    /** Timeout for establishing a connection. */
+    public static final int connectTimeoutMs = 60*1000;  // 1 minute
+
+    /** Timeout for a request to be completed. */
+    public static final int requestTimeoutMs = 60*1000;  // 1 minute
+
+    /** Time after which an idle connection is closed while a request is in progress. */
+    public static final int idleConnectionTimeoutMs = 60*1000;  // 1 minute
+
+    /** Time after which an idle connection kept alive in the pool is closed. */
+    public static final int idleConnectionInPoolTimeoutMs = 60*1000;  // 1 minute
+
+    /** Number of IO threads per CPU core. */
+    public static final int ioThreadMultiplier = 2;
+
+    /** Number of threads running background work such as token refresh, retries and hedged requests. */
+    public static final int schedulerThreads = 1;
+
+    /** Number of threads parsing responses and running callbacks, instead of the IO threads.
+     *  0 means responses are parsed on the IO threads. */
+    public static final int callbackThreads = Runtime.getRuntime().availableProcessors();
+
+    /** Whether gzip compression of HTTP responses and large request bodies is used. */
+    public static final boolean compressionEnabled = false;
+
+    /** Request bodies larger than this (in bytes) are gzip compressed, if compression is enabled. */
+    public static final int requestCompressionThreshold = 4*1024;  // 4 KiB
+
+    /** Whether concurrent identical GET requests share a single HTTP request. */
+    public static final boolean requestCoalescingEnabled = false;
+
+    /** Maximum total size of GET responses cached for revalidation using ETag / Last-Modified, in bytes.
+     *  0 means no caching. */
+    public static final int responseCacheMaxBytes = 0;
+
+    /** Upper bound of the delay before the first retry of a failed read request.
+     *  See {@link io.sphere.client.ExponentialBackoffRetryPolicy}. */
+    public static final long retryBaseDelayMs = 100;
+
+    /** Upper bound of the delay before any retry of a failed read request. */
+    public static final long retryMaxDelayMs = 2*1000;  // 2 seconds
+
+    /** Rate at which the retry budget shared by all requests is refilled. */
+    public static final double retryBudgetPerSecond = 10;
+
+    /** Maximum number of retries that can be sent in a burst. */
+    public static final int retryBudgetBurst = 20;
+
+    /** Upper bound of the delay before the first retry of an update that failed with a ConcurrentModification error.
+     *  See {@link io.sphere.client.UpdateRequest#retryOnConflict}. */
+    public static final long conflictRetryBaseDelayMs = 20;
+
+    /** Upper bound of the delay before any retry of an update that failed with a ConcurrentModification error. */
+    public static final long conflictRetryMaxDelayMs = 500;
+
+    // Circuit breakers, see io.sphere.client.CircuitBreakerConfig
+    public static final int circuitBreakerWindowSize = 20;
+    public static final int circuitBreakerMinimumRequests = 10;
+    public static final int circuitBreakerFailureRatePercent = 50;
+    public static final long circuitBreakerSlowRequestThresholdMs = 10*1000;  // 10 seconds
+    public static final int circuitBreakerSlowRequestRatePercent = 80;
+    public static final long circuitBreakerOpenDurationMs = 10*1000;  // 10 seconds
+    public static final int circuitBreakerHalfOpenProbes = 3;
+
+    // Hedged requests, see io.sphere.client.HedgingConfig
+    public static final int hedgingPercentile = 95;
+    public static final long hedgingMinDelayMs = 10;
+    public static final long hedgingMaxDelayMs = 1000;  // 1 second
+    public static final int hedgingMaxRatePercent = 5;
+
+    // Adaptive concurrency limit, see io.sphere.client.ConcurrencyLimitConfig
+    public static final int concurrencyInitialLimit = 20;
+    public static final int concurrencyMinLimit = 2;
+    public static final int concurrencyMaxLimit = 200;
+    public static final int concurrencyMaxQueueSize = 100;
+    public static final double concurrencyRttTolerance = 2.0;
+    public static final double concurrencyBackoffRatio = 0.9;
+
+    // Bulkheads, see io.sphere.client.BulkheadConfig
+    public static final int bulkheadMaxQueueSize = 50;
+
     public static final String coreHttpServiceUrl = "https://api-v0.sphere.io/";
     public static final String authHttpServiceUrl = "https://auth-v0.sphere.io/";
 }
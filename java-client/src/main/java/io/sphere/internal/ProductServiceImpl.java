@@ -1,7 +1,11 @@
 package io.sphere.internal;
 
 import io.sphere.internal.request.ProductRequestFactory;
+import io.sphere.internal.util.Util;
+import io.sphere.client.FetchByIdsRequest;
 import io.sphere.client.FetchRequest;
+import io.sphere.client.PreparedSearch;
+import io.sphere.client.SearchTemplate;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.ProjectEndpoints;
 import io.sphere.client.shop.ApiMode;
@@ -11,9 +15,15 @@ import io.sphere.client.shop.model.Product;
 import static io.sphere.internal.util.ListUtil.list;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import net.jcip.annotations.Immutable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 @Immutable
 public final class ProductServiceImpl extends ProjectScopedAPI implements ProductService {
@@ -32,6 +42,16 @@ public final class ProductServiceImpl extends ProjectScopedAPI implements Produc
         return requestFactory.createFetchRequest(endpoints.products.byId(id), this.apiMode);
     }
 
+    @Override public FetchByIdsRequest<Product> byIds(Collection<String> ids) {
+        if (ids == null) throw new NullPointerException("ids");
+        Set<String> distinctIds = new LinkedHashSet<String>(ids);
+        List<String> queryUrls = new ArrayList<String>();
+        for (List<String> chunk: Iterables.partition(distinctIds, Defaults.maxIdsPerQuery)) {
+            queryUrls.add(endpoints.products.byIds(chunk));
+        }
+        return requestFactory.createFetchByIdsRequest(distinctIds, queryUrls, Defaults.maxIdsPerQuery, this.apiMode);
+    }
+
     @Override public FetchRequest<Product> bySlug(Locale locale, String slug) {
         return requestFactory.createFetchRequestBasedOnQuery(endpoints.products.bySlug(locale, slug), this.apiMode);
     }
@@ -62,4 +82,39 @@ public final class ProductServiceImpl extends ProjectScopedAPI implements Produc
     @Override public SearchRequest<Product> filter(Locale locale, Iterable<FilterExpression> filters) {
         return requestFactory.createSearchRequest(endpoints.products.search(), this.apiMode, filters, locale);
     }
+
+    @Override public PreparedSearch<Product> prepareSearch(SearchTemplate template) {
+        return new PreparedProductSearch(Util.encodeQueryString(template.getQueryParams()), template.getPageSize());
+    }
+
+    /** The static query parameters are part of the URL, so requests only add the dynamic ones.
+     *  The transport sends the encoded static part as is, see {@link io.sphere.client.HttpRequest#getRawQuery}. */
+    @Immutable
+    private final class PreparedProductSearch implements PreparedSearch<Product> {
+        private final String queryString;
+        private final String url;
+        private final int pageSize;
+
+        PreparedProductSearch(String queryString, int pageSize) {
+            this.queryString = queryString;
+            this.url = queryString.isEmpty() ? endpoints.products.search() : endpoints.products.search() + "?" + queryString;
+            this.pageSize = pageSize;
+        }
+
+        @Override public SearchRequest<Product> search(Locale locale) {
+            return requestFactory.createSearchRequest(url, apiMode, noFilters, locale).pageSize(pageSize);
+        }
+
+        @Override public SearchRequest<Product> search() {
+            return search(defaultLocale);
+        }
+
+        @Override public String getQueryString() {
+            return queryString;
+        }
+
+        @Override public String toString() {
+            return "PreparedSearch[" + queryString + "]";
+        }
+    }
 }
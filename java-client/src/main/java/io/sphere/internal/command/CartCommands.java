@@ -1,6 +1,8 @@
 package io.sphere.internal.command;
 
+import java.util.ArrayList;
 import java.util.Currency;
+import java.util.List;
 import io.sphere.client.model.ReferenceId;
 import io.sphere.client.shop.model.*;
 import com.neovisionaries.i18n.CountryCode;
@@ -14,6 +16,10 @@ public class CartCommands {
         private String customerId;
         private CountryCode country;
         private Cart.InventoryMode inventoryMode;
+        private String customerEmail;
+        private Address shippingAddress;
+        private Address billingAddress;
+        private List<LineItemDraft> lineItems = new ArrayList<LineItemDraft>();
 
         public CreateCart(Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode) {
             this.currency = currency;
@@ -23,10 +29,70 @@ public class CartCommands {
 
         }
 
+        /** Creates a cart with the actions of given update already applied.
+         *  @throws IllegalArgumentException If the update contains an action that can't be applied
+         *          when creating a cart, see {@link #isApplicableOnCreate(CartUpdateAction)}. */
+        public CreateCart(Currency currency, String customerId, CountryCode country, Cart.InventoryMode inventoryMode,
+                          Update<CartUpdateAction> initialUpdate) {
+            this(currency, customerId, country, inventoryMode);
+            for (CartUpdateAction action: initialUpdate.getActions()) {
+                if (action instanceof AddLineItem) {
+                    AddLineItem a = (AddLineItem)action;
+                    lineItems.add(new LineItemDraft(a.getProductId(), a.getVariantId(), a.getQuantity()));
+                } else if (action instanceof AddLineItemFromMasterVariant) {
+                    AddLineItemFromMasterVariant a = (AddLineItemFromMasterVariant)action;
+                    lineItems.add(new LineItemDraft(a.getProductId(), null, a.getQuantity()));
+                } else if (action instanceof SetCustomerEmail) {
+                    this.customerEmail = ((SetCustomerEmail)action).getEmail();
+                } else if (action instanceof SetShippingAddress) {
+                    this.shippingAddress = ((SetShippingAddress)action).getAddress();
+                } else if (action instanceof SetBillingAddress) {
+                    this.billingAddress = ((SetBillingAddress)action).getAddress();
+                } else if (action instanceof SetCountry) {
+                    this.country = ((SetCountry)action).getCountry();
+                } else {
+                    throw new IllegalArgumentException("Action '" + action.getAction() + "' can't be applied when creating a cart.");
+                }
+            }
+        }
+
+        /** Returns true if given action can be sent as a part of the command that creates a cart:
+         *  adding line items, setting the customer email, the addresses or the country. */
+        public static boolean isApplicableOnCreate(CartUpdateAction action) {
+            return action instanceof AddLineItemFromMasterVariant ||
+                   action instanceof SetCustomerEmail ||
+                   action instanceof SetShippingAddress ||
+                   action instanceof SetBillingAddress ||
+                   action instanceof SetCountry;
+        }
+
         public Currency getCurrency() { return currency; }
         public String getCustomerId() { return customerId; }
         public Cart.InventoryMode getInventoryMode() { return inventoryMode; }
         public CountryCode getCountry() { return country; }
+        public String getCustomerEmail() { return customerEmail; }
+        public Address getShippingAddress() { return shippingAddress; }
+        public Address getBillingAddress() { return billingAddress; }
+        public List<LineItemDraft> getLineItems() { return lineItems; }
+    }
+
+    /** A line item added to a cart when the cart is created. */
+    @Immutable
+    public static final class LineItemDraft {
+        private final String productId;
+        private final Integer variantId;
+        private final int quantity;
+
+        /** @param variantId The id of the variant, or null for the master variant. */
+        public LineItemDraft(String productId, Integer variantId, int quantity) {
+            this.productId = productId;
+            this.variantId = variantId;
+            this.quantity = quantity;
+        }
+
+        public String getProductId() { return productId; }
+        public Integer getVariantId() { return variantId; }
+        public int getQuantity() { return quantity; }
     }
 
     @Immutable
@@ -14,5 +14,10 @@ public abstract class Update<A extends UpdateAction> {
         this.actions.add(action);
     }
 
+    /** Adds all actions of given update, after the actions already added to this one. */
+    public void addAll(Update<A> other) {
+        this.actions.addAll(other.getActions());
+    }
+
     protected List<A> getActions() { return actions; }
 }
@@ -17,6 +17,11 @@ public class UpdateCommand<A extends UpdateAction> implements Command {
         this(version, update.getActions());
     }
 
+    /** The same update actions, applied to given version of the object. */
+    public UpdateCommand<A> withVersion(int version) {
+        return new UpdateCommand<A>(version, actions);
+    }
+
     public int getVersion() { return version; }
 
     public List<A> getActions() { return actions; }
@@ -2,13 +2,15 @@ package io.sphere.internal.oauth;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import net.jcip.annotations.Immutable;
 
 /** Helper class for {@link SphereClientCredentials}. */
-public class AccessToken {
-    private String accessToken;
-    private Optional<Long> originalExpiresInSeconds;
+@Immutable
+public final class AccessToken {
+    private final String accessToken;
+    private final Optional<Long> originalExpiresInSeconds;
     /** Time the tokens stored inside this instance were last refreshed, in System.currentTimeMillis(). */
-    private long updatedTimestamp;
+    private final long updatedTimestamp;
 
     public AccessToken(String accessToken, Optional<Long> originalExpiresInSeconds, long updatedTimestamp) {
         this.accessToken = accessToken;
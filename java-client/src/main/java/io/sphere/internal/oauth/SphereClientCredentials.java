@@ -1,5 +1,9 @@
 package io.sphere.internal.oauth;
 
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.ClientMetrics;
 import io.sphere.client.SphereClientException;
 import io.sphere.client.oauth.ClientCredentials;
 import io.sphere.client.shop.SphereClientConfig;
@@ -9,136 +13,222 @@ import io.sphere.client.oauth.OAuthClient;
 import io.sphere.client.oauth.Tokens;
 import io.sphere.client.Endpoints;
 import io.sphere.internal.util.Log;
-import com.google.common.base.Optional;
 import io.sphere.internal.util.Util;
 import io.sphere.internal.util.ValidationE;
 import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.Immutable;
 import net.jcip.annotations.ThreadSafe;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** Holds OAuth access tokens for accessing protected Sphere HTTP API endpoints.
- *  Refreshes the access token as needed automatically. */
+ *  Refreshes the access token as needed automatically.
+ *
+ *  <p>The current token is an immutable snapshot read without locking, so that requests don't contend
+ *  for the token. The token is refreshed in the background after a configured fraction of its lifetime.
+ *  Requests only wait when there is no usable token, e.g. right after startup.
+ *
+ *  <p>When a refresh fails, the current token is kept as long as it is valid and the refresh is retried
+ *  with exponential backoff. The error is only returned to requests when there is no usable token. */
 @ThreadSafe
 public final class SphereClientCredentials implements ClientCredentials {
+    /** Number of times a request had to wait for an access token. */
+    public static final String tokenWaits = "oauth.tokenWaits";
+    /** Total time requests spent waiting for an access token, in milliseconds. */
+    public static final String tokenWaitMs = "oauth.tokenWaitMs";
+
+    /** Tokens with less validity than this are not sent, as they could expire on the way. */
+    private static final long minRemainingMs = 2000;
+
     private final String tokenEndpoint;
     private final String projectKey;
     private final String clientId;
     private final String clientSecret;
     private final OAuthClient oauthClient;
+    private final double refreshFraction;
+    private final long waitTimeoutMs;
+    private final ClientMetrics metrics;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
 
-    private final Object accessTokenLock = new Object();
-
-    @GuardedBy("accessTokenLock")
-    private Optional<ValidationE<AccessToken>> accessTokenResult = Optional.absent();
+    /** The current token or the error of the last refresh. Null until the first refresh completes. */
+    private volatile TokenSnapshot snapshot = null;
+    /** Used only by requests waiting for a token, never on the hot path. */
+    private final Object waitLock = new Object();
 
     /** Allows at most one refresh operation running in the background. */
-    private final ThreadPoolExecutor refreshExecutor = Concurrent.singleTaskExecutor("Sphere-ClientCredentials-refresh");
-    private final Timer refreshTimer = new Timer("Sphere-ClientCredentials-refreshTimer", /*isDaemon*/true);
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    /** Number of refreshes that failed in a row, determines the delay of the next retry. */
+    private final AtomicInteger failedRefreshes = new AtomicInteger(0);
+    /** The scheduled refresh, so that there's never more than one. */
+    @GuardedBy("this") private ScheduledFuture<?> refreshTimer;
 
     /** Creates an instance of ClientCredentials based on config. */
     public static SphereClientCredentials createAndBeginRefreshInBackground(SphereClientConfig config, OAuthClient oauthClient) {
+        return createAndBeginRefreshInBackground(config, oauthClient, new ClientMetrics());
+    }
+
+    /** Creates an instance of ClientCredentials based on config, reporting to given metrics. */
+    public static SphereClientCredentials createAndBeginRefreshInBackground(
+            SphereClientConfig config, OAuthClient oauthClient, ClientMetrics metrics) {
+        return createAndBeginRefreshInBackground(
+                config, oauthClient, metrics, Concurrent.scheduler("Sphere-ClientCredentials-refresh", 1), true);
+    }
+
+    /** Creates an instance of ClientCredentials based on config, reporting to given metrics.
+     *  @param scheduler Schedules the token refreshes. Not shut down by {@link #shutdown}. */
+    public static SphereClientCredentials createAndBeginRefreshInBackground(
+            SphereClientConfig config, OAuthClient oauthClient, ClientMetrics metrics, ScheduledExecutorService scheduler) {
+        return createAndBeginRefreshInBackground(config, oauthClient, metrics, scheduler, false);
+    }
+
+    private static SphereClientCredentials createAndBeginRefreshInBackground(
+            SphereClientConfig config, OAuthClient oauthClient, ClientMetrics metrics,
+            ScheduledExecutorService scheduler, boolean ownsScheduler) {
         String tokenEndpoint = Endpoints.tokenEndpoint(config.getAuthHttpServiceUrl());
         SphereClientCredentials credentials = new SphereClientCredentials(
-                oauthClient, tokenEndpoint, config.getProjectKey(), config.getClientId(), config.getClientSecret());
+                oauthClient, tokenEndpoint, config.getProjectKey(), config.getClientId(), config.getClientSecret(),
+                config.getTokenRefreshFraction(), config.getTokenWaitTimeoutMs(), metrics, scheduler, ownsScheduler);
         credentials.beginRefresh();
         return credentials;
     }
 
-    private SphereClientCredentials(OAuthClient oauthClient, String tokenEndpoint, String projectKey, String clientId, String clientSecret) {
+    private SphereClientCredentials(
+            OAuthClient oauthClient, String tokenEndpoint, String projectKey, String clientId, String clientSecret,
+            double refreshFraction, long waitTimeoutMs, ClientMetrics metrics,
+            ScheduledExecutorService scheduler, boolean ownsScheduler) {
+        if (refreshFraction <= 0 || refreshFraction >= 1)
+            throw new IllegalArgumentException("Token refresh fraction must be between 0 and 1: " + refreshFraction);
+        if (metrics == null) throw new NullPointerException("metrics");
+        if (scheduler == null) throw new NullPointerException("scheduler");
         this.oauthClient  = oauthClient;
         this.tokenEndpoint = tokenEndpoint;
         this.projectKey = projectKey;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
+        this.refreshFraction = refreshFraction;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
     }
 
     public String getAccessToken() {
-        synchronized (accessTokenLock) {
-            Optional<ValidationE<AccessToken>> tokenResult = waitForToken();
-            if (!tokenResult.isPresent()) {
-                // Shouldn't happen as the timer should refresh the token soon enough.
-                Log.warn("[oauth] Access token expired, blocking until a new one is available.");
-                beginRefresh();
-                tokenResult = waitForToken();
-                if (!tokenResult.isPresent()) {
-                    throw new SphereClientException("Access token expired immediately after refresh.");
-                }
-            }
-            if (tokenResult.get().isError()) {
-                beginRefresh();   // retry on error (essential to recover from backend errors)
-                throw tokenResult.get().getError();
-            }
-            return tokenResult.get().getValue().getAccessToken();
+        TokenSnapshot current = snapshot;
+        if (current == null || current.isExpired()) {
+            current = waitForToken(current);
+        } else if (current.shouldRefresh()) {
+            beginRefresh();   // normally done by the timer already, in which case this is a no-op
+        }
+        if (current.result.isError()) {
+            throw current.result.getError();   // the refresh is retried by the timer
         }
+        return current.result.getValue().getAccessToken();
     }
 
-    /** If there is an access token present, checks whether it's not expired yet and returns it.
-     *  If the token already expired, clears the token.
-     *  Called only from {@link #getAccessToken()} so {@link #accessTokenLock} is already acquired. */
-    private Optional<ValidationE<AccessToken>> waitForToken() {
-        while (!accessTokenResult.isPresent()) {
-            try {
-                accessTokenLock.wait();
-            } catch (InterruptedException e) { }
-        }
-        if (accessTokenResult.get().isError()) {
-            return accessTokenResult;
+    /** Blocks until a token newer than given one is available, at most for the configured wait timeout. */
+    private TokenSnapshot waitForToken(TokenSnapshot stale) {
+        if (stale != null) {
+            // Shouldn't happen as the timer should refresh the token soon enough.
+            Log.warn("[oauth] Access token expired, blocking until a new one is available.");
+            beginRefresh();
         }
-        Optional<Long> remainingMs = accessTokenResult.get().getValue().getRemaniningMs();
-        if (remainingMs.isPresent()) {
-            // Have some tolerance here so that we don't send tokens with 100ms validity to the server,
-            // expiring "on the way".
-            if (remainingMs.get() <= 2000) {
-                // if the token expired, clear it
-                accessTokenResult = Optional.absent();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        try {
+            synchronized (waitLock) {
+                while (true) {
+                    TokenSnapshot current = snapshot;
+                    if (current != null && current != stale && !current.isExpired()) return current;
+                    if (current != null && current != stale && current.result.isError()) return current;
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        throw new SphereClientException("Timed out after " + waitTimeoutMs + "ms waiting for an access token.");
+                    }
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(waitLock, remainingNanos);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SphereClientException("Interrupted while waiting for an access token.", e);
+                    }
+                }
             }
+        } finally {
+            metrics.increment(tokenWaits);
+            metrics.add(tokenWaitMs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         }
-        return accessTokenResult;
     }
 
-    /** Asynchronously refreshes the tokens contained in this instance. */
+    /** Asynchronously refreshes the tokens contained in this instance.
+     *  Doesn't block any thread while waiting for the authorization server. */
     private void beginRefresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;   // another refresh is already in progress, ignore this one
+        }
+        Log.debug("[oauth] Refreshing access token.");
+        ListenableFuture<Tokens> tokens;
         try {
-            refreshExecutor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    Log.debug("[oauth] Refreshing access token.");
-                    Tokens tokens;
-                    try {
-                        tokens = oauthClient.getTokensForClient(tokenEndpoint, clientId, clientSecret, "manage_project:" + projectKey).get();
-                    } catch (Exception e) {
-                        update(null, e);
-                        return;
-                    }
-                    update(tokens, null);
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            // another refresh is already in progress, ignore this one
+            tokens = oauthClient.getTokensForClient(tokenEndpoint, clientId, clientSecret, "manage_project:" + projectKey);
+        } catch (Exception e) {
+            tokens = Futures.immediateFailedFuture(e);
         }
+        Futures.addCallback(tokens, new FutureCallback<Tokens>() {
+            public void onSuccess(Tokens tokens) {
+                // allow new refreshes first, so that requests woken up by update() can retry on error
+                refreshing.set(false);
+                update(tokens, null);
+            }
+            public void onFailure(Throwable t) {
+                refreshing.set(false);
+                update(null, t);
+            }
+        });
     }
 
-    private void update(Tokens tokens, Exception e) {
-        synchronized (accessTokenLock) {
-            try {
-                if (e == null) {
-                    AccessToken newToken = new AccessToken(tokens.getAccessToken(), tokens.getExpiresIn(), System.currentTimeMillis());
-                    this.accessTokenResult = Optional.of(ValidationE.<AccessToken>success(newToken));
-                    Log.debug("[oauth] Refreshed access token.");
-                    scheduleNextRefresh(tokens);
-                } else {
-                    this.accessTokenResult = Optional.of(ValidationE.<AccessToken>error(Util.toSphereException(e)));
-                    Log.error("[oauth] Failed to refresh access token.", e);
-                }
-            } finally {
-                accessTokenLock.notifyAll();
+    private void update(Tokens tokens, Throwable e) {
+        if (e == null) {
+            failedRefreshes.set(0);
+            AccessToken newToken = new AccessToken(tokens.getAccessToken(), tokens.getExpiresIn(), System.currentTimeMillis());
+            this.snapshot = new TokenSnapshot(ValidationE.<AccessToken>success(newToken), refreshAtMs(newToken));
+            Log.debug("[oauth] Refreshed access token.");
+            scheduleNextRefresh(tokens);
+        } else {
+            long retryDelayMs = retryDelayMs(failedRefreshes.incrementAndGet());
+            TokenSnapshot current = this.snapshot;
+            if (current != null && current.isUsable()) {
+                // keep the token, requests shouldn't fail while it is valid
+                this.snapshot = new TokenSnapshot(current.result, System.currentTimeMillis() + retryDelayMs);
+                Log.warn("[oauth] Failed to refresh access token, retrying in " + retryDelayMs + "ms.", e);
+            } else {
+                this.snapshot = new TokenSnapshot(
+                        ValidationE.<AccessToken>error(Util.toSphereException(e)), System.currentTimeMillis() + retryDelayMs);
+                Log.error("[oauth] Failed to refresh access token, retrying in " + retryDelayMs + "ms.", e);
             }
+            scheduleRefresh(retryDelayMs);
+        }
+        synchronized (waitLock) {
+            waitLock.notifyAll();
         }
     }
 
+    /** The time after which a token should be refreshed, in System.currentTimeMillis(). */
+    private long refreshAtMs(AccessToken token) {
+        if (!token.getOriginalExpiresInSeconds().isPresent()) return Long.MAX_VALUE;
+        return token.getUpdatedTimestamp() + refreshDelayMs(token.getOriginalExpiresInSeconds().get());
+    }
+
+    private long refreshDelayMs(long expiresInSeconds) {
+        return (long)(expiresInSeconds * 1000 * refreshFraction);
+    }
+
+    /** Doubles the delay with each failed refresh, up to {@link Defaults#tokenRefreshRetryMaxMs}. */
+    private static long retryDelayMs(int failedRefreshes) {
+        long delayMs = Defaults.tokenRefreshRetryInitialMs << Math.min(failedRefreshes - 1, 20);
+        return Math.min(delayMs, Defaults.tokenRefreshRetryMaxMs);
+    }
+
     private void scheduleNextRefresh(Tokens tokens) {
         if (!tokens.getExpiresIn().isPresent()) {
             Log.warn("[oauth] Authorization server did not provide expires_in for the access token.");
@@ -147,20 +237,55 @@ public final class SphereClientCredentials implements ClientCredentials {
         if (tokens.getExpiresIn().get() * 1000 < Defaults.tokenAboutToExpireMs) {
             Log.warn("[oauth] Authorization server returned an access token with a very short validity of " +
                     tokens.getExpiresIn().get() + "s!");
-            return;
         }
-        long refreshTimeout = tokens.getExpiresIn().get() * 1000 - Defaults.tokenAboutToExpireMs;
+        long refreshTimeout = refreshDelayMs(tokens.getExpiresIn().get());
         Log.debug("[oauth] Scheduling next token refresh " + refreshTimeout / 1000 + "s from now.");
-        refreshTimer.schedule(new TimerTask() {
-            public void run() {
-                beginRefresh();
-            }
-        }, refreshTimeout);
+        scheduleRefresh(refreshTimeout);
     }
 
-    /** Shuts down internal thread pools. */
+    /** Replaces the scheduled refresh, if any. */
+    private synchronized void scheduleRefresh(long delayMs) {
+        if (refreshTimer != null) refreshTimer.cancel(false);
+        try {
+            refreshTimer = scheduler.schedule(new Runnable() {
+                public void run() {
+                    beginRefresh();
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // shut down
+        }
+    }
+
+    /** Shuts down internal thread pools. A scheduler passed in from outside is left running. */
     public void shutdown() {
-        refreshExecutor.shutdownNow();
-        refreshTimer.cancel();
+        if (ownsScheduler) scheduler.shutdownNow();
+    }
+
+    /** The result of a token refresh, replaced as a whole on every refresh. */
+    @Immutable
+    private static final class TokenSnapshot {
+        final ValidationE<AccessToken> result;
+        final long refreshAtMs;
+
+        TokenSnapshot(ValidationE<AccessToken> result, long refreshAtMs) {
+            this.result = result;
+            this.refreshAtMs = refreshAtMs;
+        }
+
+        boolean shouldRefresh() {
+            return System.currentTimeMillis() >= refreshAtMs;
+        }
+
+        /** A token that can still be sent. */
+        boolean isUsable() {
+            return result.isSuccess() && !isExpired();
+        }
+
+        boolean isExpired() {
+            if (result.isError()) return false;
+            Long remainingMs = result.getValue().getRemaniningMs().orNull();
+            return remainingMs != null && remainingMs <= minRemainingMs;
+        }
     }
 }
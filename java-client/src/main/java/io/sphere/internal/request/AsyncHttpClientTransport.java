@@ -0,0 +1,127 @@
+package io.sphere.internal.request;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.ning.http.client.AsyncHandler;
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.HttpResponseBodyPart;
+import com.ning.http.client.HttpResponseHeaders;
+import com.ning.http.client.HttpResponseStatus;
+import io.sphere.client.HttpRequest;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.HttpTransport;
+import io.sphere.internal.ListenableFutureAdapter;
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.IOException;
+import java.util.Map;
+
+/** Sends requests using AsyncHttpClient.
+ *
+ *  <p>The HTTP client should be configured with {@code setUseRawUrl(true)}. Otherwise it decodes the
+ *  {@linkplain HttpRequest#getRawQuery raw query} of each request and encodes it again. */
+@ThreadSafe
+public class AsyncHttpClientTransport implements HttpTransport {
+    private final AsyncHttpClient httpClient;
+
+    public AsyncHttpClientTransport(AsyncHttpClient httpClient) {
+        if (httpClient == null) throw new NullPointerException("httpClient");
+        this.httpClient = httpClient;
+    }
+
+    public <T> ListenableFuture<T> execute(HttpRequest request, HttpResponseHandler<T> responseHandler) throws IOException {
+        AsyncHttpClient.BoundRequestBuilder builder;
+        if (httpClient.getConfig().isUseRawUrl()) {
+            // The URL is sent as is, so the raw query is not decoded and encoded again on every request.
+            builder = prepare(request.getMethod(), request.getEncodedUrl());
+        } else {
+            builder = prepare(request.getMethod(), request.getUrlWithRawQuery());
+            for (Map.Entry<String, String> param: request.getQueryParams().entries()) {
+                builder.addQueryParameter(param.getKey(), param.getValue());
+            }
+        }
+        for (Map.Entry<String, String> header: request.getHeaders().entrySet()) {
+            builder.setHeader(header.getKey(), header.getValue());
+        }
+        if (request.getBody() != null) {
+            builder.setBody(request.getBody());
+        }
+        if (request.getTimeoutMs() != HttpRequest.defaultTimeout) {
+            setRequestTimeout(builder, request.getTimeoutMs());
+        }
+        return withCancellation(new ListenableFutureAdapter<T>(builder.execute(new ResponseHandlerAdapter<T>(responseHandler))));
+    }
+
+    /** A future that fails with a CancellationException once cancelled, as specified by {@link HttpTransport}.
+     *  The futures of AsyncHttpClient instead complete the response handler when {@code get} is called. */
+    private static <T> ListenableFuture<T> withCancellation(final ListenableFuture<T> response) {
+        final SettableFuture<T> result = SettableFuture.create();
+        Futures.addCallback(response, new FutureCallback<T>() {
+            public void onSuccess(T value) { result.set(value); }
+            public void onFailure(Throwable t) { result.setException(t); }
+        });
+        result.addListener(new Runnable() {
+            public void run() { if (result.isCancelled()) response.cancel(true); }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
+    }
+
+    /** Makes the HTTP client abort the request and close the connection when the timeout expires.
+     *  PerRequestConfig is deprecated, but AsyncHttpClient 1.7 has no replacement: RequestBuilder only gets
+     *  {@code setRequestTimeout} in 1.8. The class is referenced by its full name as importing it warns too. */
+    @SuppressWarnings("deprecation")
+    private static void setRequestTimeout(AsyncHttpClient.BoundRequestBuilder builder, int timeoutMs) {
+        com.ning.http.client.PerRequestConfig perRequestConfig = new com.ning.http.client.PerRequestConfig();
+        perRequestConfig.setRequestTimeoutInMs(timeoutMs);
+        builder.setPerRequestConfig(perRequestConfig);
+    }
+
+    /** Passes the response parts of AsyncHttpClient to a response handler. */
+    private static class ResponseHandlerAdapter<T> implements AsyncHandler<T> {
+        private final HttpResponseHandler<T> handler;
+
+        ResponseHandlerAdapter(HttpResponseHandler<T> handler) {
+            this.handler = handler;
+        }
+
+        @Override public STATE onStatusReceived(HttpResponseStatus responseStatus) throws Exception {
+            return toState(handler.onStatusReceived(responseStatus.getStatusCode()));
+        }
+
+        @Override public STATE onHeadersReceived(HttpResponseHeaders responseHeaders) throws Exception {
+            return toState(handler.onHeadersReceived(responseHeaders.getHeaders()));
+        }
+
+        @Override public STATE onBodyPartReceived(HttpResponseBodyPart bodyPart) throws Exception {
+            // copies the bytes out of the connection's buffer
+            return toState(handler.onBodyPartReceived(bodyPart.getBodyPartBytes()));
+        }
+
+        @Override public void onThrowable(Throwable t) {
+            handler.onThrowable(t);
+        }
+
+        @Override public T onCompleted() throws Exception {
+            return handler.onCompleted();
+        }
+
+        private static STATE toState(HttpResponseHandler.State state) {
+            return state == HttpResponseHandler.State.CONTINUE ? STATE.CONTINUE : STATE.ABORT;
+        }
+    }
+
+    private AsyncHttpClient.BoundRequestBuilder prepare(String method, String url) {
+        if (method.equals("GET")) return httpClient.prepareGet(url);
+        if (method.equals("POST")) return httpClient.preparePost(url);
+        if (method.equals("PUT")) return httpClient.preparePut(url);
+        if (method.equals("DELETE")) return httpClient.prepareDelete(url);
+        throw new IllegalArgumentException("Unsupported HTTP method: " + method);
+    }
+
+    public void close() {
+        httpClient.close();
+    }
+}
@@ -1,25 +1,63 @@
 package io.sphere.internal.request;
 
 import com.ning.http.client.AsyncHttpClient;
+import io.sphere.client.HttpTransport;
 import io.sphere.client.oauth.ClientCredentials;
 
+import java.util.concurrent.Executor;
+
 /** Creates real GET and POST requests for {@link io.sphere.internal.request.RequestFactoryImpl}.
  *  Can be mocked in tests. */
 public class BasicRequestFactoryImpl implements BasicRequestFactory {
-    private final AsyncHttpClient httpClient;
+    private final HttpTransport transport;
     private final ClientCredentials credentials;
+    private final boolean compressionEnabled;
+    private final int requestCompressionThreshold;
+    private final Executor callbackExecutor;
 
     public BasicRequestFactoryImpl(AsyncHttpClient httpClient, ClientCredentials credentials) {
-        this.httpClient = httpClient;
+        this(httpClient, credentials, false, RequestHolderImpl.noRequestCompression);
+    }
+
+    /** @param compressionEnabled If true, responses are requested gzip compressed.
+     *  @param requestCompressionThreshold Request bodies larger than this number of bytes are sent gzip compressed
+     *                                     if compression is enabled. */
+    public BasicRequestFactoryImpl(
+            AsyncHttpClient httpClient, ClientCredentials credentials, boolean compressionEnabled, int requestCompressionThreshold) {
+        this(new AsyncHttpClientTransport(httpClient), credentials, compressionEnabled, requestCompressionThreshold, null);
+    }
+
+    /** @param compressionEnabled If true, responses are requested gzip compressed.
+     *  @param requestCompressionThreshold Request bodies larger than this number of bytes are sent gzip compressed
+     *                                     if compression is enabled.
+     *  @param callbackExecutor Parses responses instead of the IO threads of the transport. Can be null. */
+    public BasicRequestFactoryImpl(
+            HttpTransport transport, ClientCredentials credentials, boolean compressionEnabled, int requestCompressionThreshold,
+            Executor callbackExecutor) {
+        if (transport == null) throw new NullPointerException("transport");
+        this.transport = transport;
         this.credentials = credentials;
+        this.compressionEnabled = compressionEnabled;
+        this.requestCompressionThreshold = compressionEnabled ? requestCompressionThreshold : RequestHolderImpl.noRequestCompression;
+        this.callbackExecutor = callbackExecutor;
     }
 
     public <T> RequestHolder<T> createGet(String url) {
-        return new RequestHolderImpl<T>(SetCredentials.forRequest(httpClient.prepareGet(url), credentials));
+        return SetCredentials.forRequest(acceptGzip(
+                new RequestHolderImpl<T>(transport, "GET", url, requestCompressionThreshold, callbackExecutor)),
+                credentials);
     }
 
     public <T> RequestHolder<T> createPost(String url) {
-        return new RequestHolderImpl<T>(
-                SetCredentials.forRequest(httpClient.preparePost(url).setHeader("Content-Type", "application/json"), credentials));
+        return SetCredentials.forRequest(acceptGzip(
+                new RequestHolderImpl<T>(transport, "POST", url, requestCompressionThreshold, callbackExecutor)
+                        .setHeader("Content-Type", "application/json")),
+                credentials);
+    }
+
+    /** Asks the backend to send a gzip compressed response, if compression is enabled.
+     *  The body is decompressed by {@link JsonResponseHandler}. */
+    private <T> RequestHolder<T> acceptGzip(RequestHolder<T> requestHolder) {
+        return compressionEnabled ? requestHolder.setHeader("Accept-Encoding", "gzip") : requestHolder;
     }
 }
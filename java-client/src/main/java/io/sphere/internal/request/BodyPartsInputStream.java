@@ -0,0 +1,45 @@
+package io.sphere.internal.request;
+
+import java.io.InputStream;
+import java.util.List;
+
+/** Reads a list of byte arrays as one continuous stream, without copying them. */
+class BodyPartsInputStream extends InputStream {
+    private final List<byte[]> parts;
+    private int partIndex = 0;
+    private int position = 0;
+
+    BodyPartsInputStream(List<byte[]> parts) {
+        this.parts = parts;
+    }
+
+    /** Moves to the next non-exhausted part. Returns false if there is no more data. */
+    private boolean ensureData() {
+        while (partIndex < parts.size()) {
+            if (position < parts.get(partIndex).length) return true;
+            partIndex++;
+            position = 0;
+        }
+        return false;
+    }
+
+    @Override public int read() {
+        if (!ensureData()) return -1;
+        return parts.get(partIndex)[position++] & 0xff;
+    }
+
+    @Override public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) return 0;
+        if (!ensureData()) return -1;
+        byte[] part = parts.get(partIndex);
+        int count = Math.min(length, part.length - position);
+        System.arraycopy(part, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    @Override public int available() {
+        if (!ensureData()) return 0;
+        return parts.get(partIndex).length - position;
+    }
+}
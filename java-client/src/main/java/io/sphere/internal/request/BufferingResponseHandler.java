@@ -0,0 +1,64 @@
+package io.sphere.internal.request;
+
+import io.sphere.client.HttpResponseHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Buffers an HTTP response on an IO thread of the HTTP client, so that the actual response handler
+ *  can parse it later on another thread, see {@link #replay}.
+ *
+ *  <p>Failures are passed to the actual handler right away. */
+class BufferingResponseHandler<T> implements HttpResponseHandler<BufferingResponseHandler<T>> {
+    private final HttpResponseHandler<SphereResultRaw<T>> handler;
+    private int status = -1;
+    private Map<String, List<String>> headers;
+    private final List<byte[]> bodyParts = new ArrayList<byte[]>();
+
+    BufferingResponseHandler(HttpResponseHandler<SphereResultRaw<T>> handler) {
+        this.handler = handler;
+    }
+
+    @Override public State onStatusReceived(int statusCode) throws Exception {
+        // reset, in case the underlying connection retried the request
+        this.status = statusCode;
+        this.headers = null;
+        this.bodyParts.clear();
+        return State.CONTINUE;
+    }
+
+    @Override public State onHeadersReceived(Map<String, List<String>> headers) throws Exception {
+        this.headers = headers;
+        return State.CONTINUE;
+    }
+
+    @Override public State onBodyPartReceived(byte[] bodyPart) throws Exception {
+        bodyParts.add(bodyPart);
+        return State.CONTINUE;
+    }
+
+    @Override public void onThrowable(Throwable t) {
+        handler.onThrowable(t);
+    }
+
+    @Override public BufferingResponseHandler<T> onCompleted() throws Exception {
+        return this;
+    }
+
+    /** Passes the buffered response to the actual handler, the same way the HTTP client would have. */
+    SphereResultRaw<T> replay() throws Exception {
+        try {
+            if (status != -1 && handler.onStatusReceived(status) == State.CONTINUE &&
+                    (headers == null || handler.onHeadersReceived(headers) == State.CONTINUE)) {
+                for (byte[] bodyPart: bodyParts) {
+                    if (handler.onBodyPartReceived(bodyPart) != State.CONTINUE) break;
+                }
+            }
+            return handler.onCompleted();
+        } catch (Exception e) {
+            handler.onThrowable(e);
+            throw e;
+        }
+    }
+}
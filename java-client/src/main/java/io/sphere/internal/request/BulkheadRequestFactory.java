@@ -0,0 +1,65 @@
+package io.sphere.internal.request;
+
+import com.google.common.collect.ImmutableMap;
+import io.sphere.client.ProjectEndpoints;
+import io.sphere.client.shop.ServiceGroup;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/** Isolates groups of services from each other by sending their requests through separate request factories,
+ *  each typically with its own connection pool and concurrency limit.
+ *
+ *  <p>Requests of a group that has no factory of its own go through the default factory. */
+@ThreadSafe
+public class BulkheadRequestFactory implements BasicRequestFactory {
+    /** Maps the first path segment of a request URL, see {@link ProjectEndpoints#endpointGroup}, to a service group. */
+    private static final Map<String, ServiceGroup> serviceGroups = ImmutableMap.<String, ServiceGroup>builder()
+            .put("product-projections", ServiceGroup.Catalog)
+            .put("reviews", ServiceGroup.Catalog)
+            .put("comments", ServiceGroup.Catalog)
+            .put("inventory", ServiceGroup.Catalog)
+            .put("shipping-methods", ServiceGroup.Catalog)
+            .put("tax-categories", ServiceGroup.Catalog)
+            .put("carts", ServiceGroup.Checkout)
+            .put("orders", ServiceGroup.Checkout)
+            .put("customers", ServiceGroup.Customers)
+            .put("login", ServiceGroup.Customers)
+            .put("categories", ServiceGroup.Background)
+            .build();
+
+    private final BasicRequestFactory defaultFactory;
+    private final Map<ServiceGroup, BasicRequestFactory> groupFactories;
+    private final ProjectEndpoints endpoints;
+
+    public BulkheadRequestFactory(
+            BasicRequestFactory defaultFactory, Map<ServiceGroup, BasicRequestFactory> groupFactories, ProjectEndpoints endpoints) {
+        if (defaultFactory == null) throw new NullPointerException("defaultFactory");
+        if (groupFactories == null) throw new NullPointerException("groupFactories");
+        if (endpoints == null) throw new NullPointerException("endpoints");
+        this.defaultFactory = defaultFactory;
+        this.groupFactories = new EnumMap<ServiceGroup, BasicRequestFactory>(ServiceGroup.class);
+        this.groupFactories.putAll(groupFactories);
+        this.endpoints = endpoints;
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return factoryFor(url).createGet(url);
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return factoryFor(url).createPost(url);
+    }
+
+    /** The service group a request URL belongs to, or null if it doesn't belong to any group. */
+    public ServiceGroup serviceGroup(String url) {
+        return serviceGroups.get(endpoints.endpointGroup(url));
+    }
+
+    private BasicRequestFactory factoryFor(String url) {
+        ServiceGroup group = serviceGroup(url);
+        BasicRequestFactory factory = group == null ? null : groupFactories.get(group);
+        return factory != null ? factory : defaultFactory;
+    }
+}
@@ -0,0 +1,165 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.Immutable;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.List;
+import java.util.Map;
+
+/** Revalidates GET responses using HTTP validators instead of downloading and parsing them again.
+ *
+ *  <p>Successful GET responses carrying an {@code ETag} or {@code Last-Modified} header are cached per URL
+ *  together with their parsed result. Subsequent requests to the same URL are sent as conditional requests
+ *  and on {@code 304 Not Modified} the cached result is returned without parsing anything.
+ *
+ *  <p>The cache is bounded by the total size of the cached response bodies, least recently used
+ *  entries are evicted first. */
+@ThreadSafe
+public class CachingRequestFactory implements BasicRequestFactory {
+    /** Number of requests answered from the cache after the backend confirmed the cached result is up to date. */
+    public static final String cacheHits = "cache.hits";
+    /** Number of conditional requests sent for a cached result. */
+    public static final String cacheRevalidations = "cache.revalidations";
+    /** Number of GET requests that had no cached result. */
+    public static final String cacheMisses = "cache.misses";
+    /** Approximate size of the cached response bodies, in bytes. */
+    public static final String cacheSizeBytes = "cache.sizeBytes";
+
+    private final BasicRequestFactory underlying;
+    private final ClientMetrics metrics;
+    private final Cache<String, CacheEntry> cache;
+
+    /** @param maxBytes Maximum total size of the cached response bodies. */
+    public CachingRequestFactory(BasicRequestFactory underlying, long maxBytes, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.metrics = metrics;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher(new Weigher<String, CacheEntry>() {
+                    public int weigh(String url, CacheEntry entry) { return entry.sizeBytes; }
+                })
+                .build();
+        metrics.registerGauge(cacheSizeBytes, new Supplier<Long>() {
+            public Long get() {
+                long size = 0;
+                for (CacheEntry entry: cache.asMap().values()) size += entry.sizeBytes;
+                return size;
+            }
+        });
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new CachingRequestHolder<T>(underlying.<T>createGet(url));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return underlying.createPost(url);
+    }
+
+    private class CachingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        CachingRequestHolder(RequestHolder<T> delegate) {
+            super(delegate);
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(final Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            final String url = getUrl();
+            final CacheEntry cached = cache.getIfPresent(url);
+            if (cached != null) {
+                metrics.increment(cacheRevalidations);
+                if (cached.etag != null) delegate.setHeader("If-None-Match", cached.etag);
+                if (cached.lastModified != null) delegate.setHeader("If-Modified-Since", cached.lastModified);
+            } else {
+                metrics.increment(cacheMisses);
+            }
+            return delegate.executeRequest(new Supplier<HttpResponseHandler<SphereResultRaw<T>>>() {
+                public HttpResponseHandler<SphereResultRaw<T>> get() {
+                    return new RevalidatingHandler<T>(responseHandlers.get(), url, cached);
+                }
+            });
+        }
+    }
+
+    /** Returns the cached result on 304, otherwise passes the response through and caches the result. */
+    private class RevalidatingHandler<T> implements HttpResponseHandler<SphereResultRaw<T>> {
+        private final HttpResponseHandler<SphereResultRaw<T>> handler;
+        private final String url;
+        private final CacheEntry cached;
+        private int status;
+        private boolean notModified;
+        private String etag;
+        private String lastModified;
+        private int sizeBytes;
+
+        RevalidatingHandler(HttpResponseHandler<SphereResultRaw<T>> handler, String url, CacheEntry cached) {
+            this.handler = handler;
+            this.url = url;
+            this.cached = cached;
+        }
+
+        @Override public State onStatusReceived(int statusCode) throws Exception {
+            this.status = statusCode;
+            this.notModified = status == 304 && cached != null;
+            this.sizeBytes = 0;
+            return notModified ? State.CONTINUE : handler.onStatusReceived(statusCode);
+        }
+
+        @Override public State onHeadersReceived(Map<String, List<String>> headers) throws Exception {
+            this.etag = Strings.emptyToNull(Util.getFirstHeader(headers, "ETag"));
+            this.lastModified = Strings.emptyToNull(Util.getFirstHeader(headers, "Last-Modified"));
+            return notModified ? State.CONTINUE : handler.onHeadersReceived(headers);
+        }
+
+        @Override public State onBodyPartReceived(byte[] bodyPart) throws Exception {
+            if (notModified) return State.CONTINUE;
+            sizeBytes += bodyPart.length;
+            return handler.onBodyPartReceived(bodyPart);
+        }
+
+        @Override public void onThrowable(Throwable t) {
+            handler.onThrowable(t);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override public SphereResultRaw<T> onCompleted() throws Exception {
+            if (notModified) {
+                metrics.increment(cacheHits);
+                Log.trace("[cache] Not modified: " + url);
+                return (SphereResultRaw<T>)cached.result;
+            }
+            SphereResultRaw<T> result = handler.onCompleted();
+            if (status == 200 && result.isSuccess() && (etag != null || lastModified != null)) {
+                cache.put(url, new CacheEntry(etag, lastModified, result, sizeBytes));
+            } else if (cached != null) {
+                cache.invalidate(url);
+            }
+            return result;
+        }
+    }
+
+    @Immutable
+    private static final class CacheEntry {
+        final String etag;
+        final String lastModified;
+        final SphereResultRaw<?> result;
+        final int sizeBytes;
+
+        CacheEntry(String etag, String lastModified, SphereResultRaw<?> result, int sizeBytes) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.result = result;
+            this.sizeBytes = sizeBytes;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.sphere.internal.request;
+
+import io.sphere.client.CircuitBreakerConfig;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/** Tracks the outcomes of recent requests to a group of endpoints and decides whether to let requests through. */
+@ThreadSafe
+class CircuitBreaker {
+    enum State {
+        /** Requests are sent. */
+        CLOSED,
+        /** Requests fail immediately. */
+        OPEN,
+        /** A limited number of probe requests are sent to find out whether the backend recovered. */
+        HALF_OPEN
+    }
+
+    /** Notified of state changes, while holding the lock of the circuit breaker. */
+    interface Listener {
+        void onStateChange(State from, State to);
+    }
+
+    private final CircuitBreakerConfig config;
+    private final Listener listener;
+
+    @GuardedBy("this") private State state = State.CLOSED;
+    @GuardedBy("this") private long openedAtNanos;
+    /** Outcomes of the most recent requests, used as a ring buffer. */
+    @GuardedBy("this") private final boolean[] failed;
+    @GuardedBy("this") private final boolean[] slow;
+    @GuardedBy("this") private int recorded;
+    @GuardedBy("this") private int next;
+    @GuardedBy("this") private int probesSent;
+    @GuardedBy("this") private int probesSucceeded;
+
+    CircuitBreaker(CircuitBreakerConfig config, Listener listener) {
+        this.config = config;
+        this.listener = listener;
+        this.failed = new boolean[config.getWindowSize()];
+        this.slow = new boolean[config.getWindowSize()];
+    }
+
+    synchronized State getState() { return state; }
+
+    /** Returns true if a request can be sent. Every permitted request must be followed by a call to
+     *  {@link #record}, or to {@link #release} if its outcome tells nothing about the backend. */
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < config.getOpenDurationMs() * 1000000L) return false;
+            transition(State.HALF_OPEN);
+            probesSent = 0;
+            probesSucceeded = 0;
+        }
+        if (probesSent >= config.getHalfOpenProbes()) return false;
+        probesSent++;
+        return true;
+    }
+
+    /** Records the outcome of a request. */
+    synchronized void record(boolean isFailure, long durationMs) {
+        boolean isSlow = durationMs > config.getSlowRequestThresholdMs();
+        switch (state) {
+            case CLOSED:
+                failed[next] = isFailure;
+                slow[next] = isSlow;
+                next = (next + 1) % failed.length;
+                if (recorded < failed.length) recorded++;
+                if (recorded >= config.getMinimumRequests() && isOverThreshold()) open();
+                break;
+            case HALF_OPEN:
+                if (isFailure || isSlow) {
+                    open();
+                } else if (++probesSucceeded >= config.getHalfOpenProbes()) {
+                    recorded = 0;
+                    next = 0;
+                    transition(State.CLOSED);
+                }
+                break;
+            default:
+                // a request sent before the circuit breaker opened
+        }
+    }
+
+    /** Releases a request without recording an outcome, as it tells nothing about the backend, e.g. a cancelled
+     *  request. Frees the probe slot of the request, so that another probe can be sent. */
+    synchronized void release() {
+        if (state == State.HALF_OPEN && probesSent > 0) probesSent--;
+    }
+
+    @GuardedBy("this") private boolean isOverThreshold() {
+        int failures = 0;
+        int slowRequests = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (failed[i]) failures++;
+            if (slow[i]) slowRequests++;
+        }
+        return failures * 100 >= config.getFailureRatePercent() * recorded ||
+               slowRequests * 100 >= config.getSlowRequestRatePercent() * recorded;
+    }
+
+    @GuardedBy("this") private void open() {
+        openedAtNanos = System.nanoTime();
+        transition(State.OPEN);
+    }
+
+    @GuardedBy("this") private void transition(State newState) {
+        State oldState = state;
+        state = newState;
+        listener.onStateChange(oldState, newState);
+    }
+}
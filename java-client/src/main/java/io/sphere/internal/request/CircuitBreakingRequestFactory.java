@@ -0,0 +1,122 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.CircuitBreakerConfig;
+import io.sphere.client.CircuitBreakerOpenException;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.ProjectEndpoints;
+import io.sphere.client.RequestTimeoutException;
+import io.sphere.internal.util.Log;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Stops sending requests to a group of endpoints (e.g. products, carts) that keeps failing or responding slowly,
+ *  giving an overloaded backend time to recover.
+ *
+ *  <p>Each endpoint group has its own {@link CircuitBreaker}. Requests rejected by an open circuit breaker
+ *  fail with {@link CircuitBreakerOpenException} without being sent.
+ *
+ *  <p>For each group, reports the gauge {@code circuitBreaker.<group>.state} (0 closed, 1 open, 2 half open)
+ *  and the counters {@code circuitBreaker.<group>.opened} and {@code circuitBreaker.<group>.rejected}. */
+@ThreadSafe
+public class CircuitBreakingRequestFactory implements BasicRequestFactory {
+    private final BasicRequestFactory underlying;
+    private final ProjectEndpoints endpoints;
+    private final CircuitBreakerConfig config;
+    private final ClientMetrics metrics;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    public CircuitBreakingRequestFactory(
+            BasicRequestFactory underlying, ProjectEndpoints endpoints, CircuitBreakerConfig config, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (endpoints == null) throw new NullPointerException("endpoints");
+        if (config == null) throw new NullPointerException("config");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.endpoints = endpoints;
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new CircuitBreakingRequestHolder<T>(underlying.<T>createGet(url), endpoints.endpointGroup(url));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return new CircuitBreakingRequestHolder<T>(underlying.<T>createPost(url), endpoints.endpointGroup(url));
+    }
+
+    private CircuitBreaker circuitBreaker(final String group) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(group);
+        if (circuitBreaker != null) return circuitBreaker;
+        final CircuitBreaker newCircuitBreaker = new CircuitBreaker(config, new CircuitBreaker.Listener() {
+            public void onStateChange(CircuitBreaker.State from, CircuitBreaker.State to) {
+                if (to == CircuitBreaker.State.OPEN) {
+                    metrics.increment("circuitBreaker." + group + ".opened");
+                    Log.warn("[circuit-breaker] Opened for " + group + ", failing requests for " + config.getOpenDurationMs() + "ms.");
+                } else {
+                    Log.info("[circuit-breaker] " + group + ": " + from + " -> " + to);
+                }
+            }
+        });
+        circuitBreaker = circuitBreakers.putIfAbsent(group, newCircuitBreaker);
+        if (circuitBreaker != null) return circuitBreaker;
+        metrics.registerGauge("circuitBreaker." + group + ".state", new Supplier<Integer>() {
+            public Integer get() { return newCircuitBreaker.getState().ordinal(); }
+        });
+        return newCircuitBreaker;
+    }
+
+    private class CircuitBreakingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        private final String group;
+
+        CircuitBreakingRequestHolder(RequestHolder<T> delegate, String group) {
+            super(delegate);
+            this.group = group;
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            final CircuitBreaker circuitBreaker = circuitBreaker(group);
+            if (!circuitBreaker.tryAcquire()) {
+                metrics.increment("circuitBreaker." + group + ".rejected");
+                return Futures.immediateFailedFuture(new CircuitBreakerOpenException(group));
+            }
+            final long startNanos = System.nanoTime();
+            ListenableFuture<SphereResultRaw<T>> response;
+            try {
+                response = delegate.executeRequest(responseHandlers);
+            } catch (Exception e) {
+                recordFailure(circuitBreaker, e, 0);
+                throw e;
+            }
+            Futures.addCallback(response, new FutureCallback<SphereResultRaw<T>>() {
+                public void onSuccess(SphereResultRaw<T> result) {
+                    circuitBreaker.record(result.isError() && ServerErrors.isServerError(result.getError()), elapsedMs());
+                }
+                public void onFailure(Throwable t) {
+                    recordFailure(circuitBreaker, t, elapsedMs());
+                }
+                private long elapsedMs() {
+                    return (System.nanoTime() - startNanos) / 1000000L;
+                }
+            });
+            return response;
+        }
+    }
+
+    /** Counts connection failures and timeouts, like {@link RetryingRequestFactory}. Other failures, e.g. a cancelled
+     *  request, an unparseable response or a request rejected by a bulkhead, tell nothing about the backend. */
+    private static void recordFailure(CircuitBreaker circuitBreaker, Throwable t, long elapsedMs) {
+        if (ServerErrors.isTransportError(t) || t instanceof RequestTimeoutException) {
+            circuitBreaker.record(true, elapsedMs);
+        } else {
+            circuitBreaker.release();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.RequestTimeoutException;
+import io.sphere.internal.util.Log;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Shares a single HTTP request between concurrent identical GET requests.
+ *
+ *  <p>While a GET request is in flight, all GET requests to the same URL (including query string and API mode)
+ *  get the parsed result of that request instead of sending their own.
+ *  POST requests are never coalesced.
+ *
+ *  <p>Each caller can cancel its own request without affecting the others. The shared HTTP request is aborted
+ *  once all callers have cancelled. A request only joins a request in flight that can't time out before its own
+ *  {@linkplain RequestHolder#setDeadline deadline}, and fails with a {@link RequestTimeoutException} at its own
+ *  deadline if that comes first. */
+@ThreadSafe
+public class CoalescingRequestFactory implements BasicRequestFactory {
+    /** Number of GET requests that were answered by a request already in flight. */
+    public static final String coalescedRequests = "requests.coalesced";
+    /** Number of distinct GET requests currently in flight. */
+    public static final String inFlightRequests = "requests.coalescing.inFlight";
+
+    private final BasicRequestFactory underlying;
+    private final ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<String, InFlight>();
+
+    /** @param scheduler Times out requests that joined a request in flight with a later deadline. */
+    public CoalescingRequestFactory(BasicRequestFactory underlying, ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (scheduler == null) throw new NullPointerException("scheduler");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+        metrics.registerGauge(inFlightRequests, new Supplier<Integer>() {
+            public Integer get() { return inFlight.size(); }
+        });
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new CoalescingRequestHolder<T>(underlying.<T>createGet(url));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return underlying.createPost(url);
+    }
+
+    /** A GET request in flight, shared by its callers until all of them have cancelled. */
+    private final class InFlight {
+        final String key;
+        final boolean hasDeadline;
+        final long deadlineNanos;
+        final SettableFuture<SphereResultRaw<?>> shared = SettableFuture.create();
+        volatile ListenableFuture<?> response;
+        @GuardedBy("this") private int callers = 1;
+        @GuardedBy("this") private boolean abandoned;
+
+        InFlight(String key, boolean hasDeadline, long deadlineNanos) {
+            this.key = key;
+            this.hasDeadline = hasDeadline;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /** Adds a caller, unless the request was abandoned by all its callers or can time out before given deadline. */
+        synchronized boolean join(boolean hasDeadline, long deadlineNanos) {
+            if (abandoned) return false;
+            if (this.hasDeadline && (!hasDeadline || deadlineNanos - this.deadlineNanos > 0)) return false;
+            callers++;
+            return true;
+        }
+
+        /** Removes a caller that stopped waiting for the result. Aborts the request when it was the last one. */
+        void leave() {
+            synchronized (this) {
+                if (--callers > 0 || shared.isDone()) return;
+                abandoned = true;
+            }
+            inFlight.remove(key, this);
+            Log.debug("[coalesce] All callers cancelled, aborting: " + key);
+            ListenableFuture<?> current = response;
+            if (current != null) current.cancel(true);
+        }
+    }
+
+    private class CoalescingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        private boolean hasDeadline;
+        private long deadlineNanos;
+
+        CoalescingRequestHolder(RequestHolder<T> delegate) {
+            super(delegate);
+        }
+
+        @Override public CoalescingRequestHolder<T> setDeadline(long deadlineNanos) {
+            super.setDeadline(deadlineNanos);
+            this.hasDeadline = true;
+            this.deadlineNanos = deadlineNanos;
+            return this;
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            final String key = getMethod() + " " + getUrl();
+            final InFlight request = new InFlight(key, hasDeadline, deadlineNanos);
+            InFlight existing = inFlight.putIfAbsent(key, request);
+            if (existing != null) {
+                long timeoutMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+                if (hasDeadline && timeoutMs <= 0) {
+                    return Futures.immediateFailedFuture(new RequestTimeoutException(getUrl(), 0));
+                }
+                if (existing.join(hasDeadline, deadlineNanos)) {
+                    metrics.increment(coalescedRequests);
+                    Log.debug("[coalesce] Joining request in flight: " + key);
+                    return resultOf(existing, hasDeadline ? timeoutMs : RequestExecutor.noTimeout);
+                }
+                // the request in flight can time out first, or all its callers are gone
+                return delegate.executeRequest(responseHandlers);
+            }
+            final ListenableFuture<SphereResultRaw<T>> response;
+            try {
+                response = delegate.executeRequest(responseHandlers);
+            } catch (Exception e) {
+                inFlight.remove(key, request);
+                request.shared.setException(e);
+                throw e;
+            }
+            request.response = response;
+            Futures.addCallback(response, new FutureCallback<SphereResultRaw<T>>() {
+                public void onSuccess(SphereResultRaw<T> result) {
+                    // remove first so that requests arriving from now on get a fresh result
+                    inFlight.remove(key, request);
+                    request.shared.set(result);
+                }
+                public void onFailure(Throwable t) {
+                    inFlight.remove(key, request);
+                    request.shared.setException(t);
+                }
+            });
+            // the sender's own deadline is applied by the underlying request
+            return resultOf(request, RequestExecutor.noTimeout);
+        }
+
+        /** A future of the shared result that is owned by a single caller, so that cancelling it
+         *  doesn't affect other callers.
+         *  @param timeoutMs Time after which the caller stops waiting, or {@link RequestExecutor#noTimeout}. */
+        @SuppressWarnings("unchecked")
+        private ListenableFuture<SphereResultRaw<T>> resultOf(final InFlight request, final long timeoutMs) {
+            final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+            Futures.addCallback(request.shared, new FutureCallback<SphereResultRaw<?>>() {
+                public void onSuccess(SphereResultRaw<?> sharedResult) {
+                    result.set((SphereResultRaw<T>)sharedResult);
+                }
+                public void onFailure(Throwable t) {
+                    result.setException(t);
+                }
+            });
+            ScheduledFuture<?> timer = null;
+            if (timeoutMs != RequestExecutor.noTimeout) {
+                try {
+                    timer = scheduler.schedule(new Runnable() {
+                        public void run() { result.setException(new RequestTimeoutException(getUrl(), timeoutMs)); }
+                    }, timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    result.setException(e);   // the client is shutting down
+                }
+            }
+            final ScheduledFuture<?> timeout = timer;
+            result.addListener(new Runnable() {
+                public void run() {
+                    if (timeout != null) timeout.cancel(false);
+                    // cancelled or timed out before the shared result arrived
+                    if (!request.shared.isDone()) request.leave();
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            return result;
+        }
+    }
+}
@@ -18,13 +18,17 @@ import org.codehaus.jackson.type.TypeReference;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Immutable
 public class CommandRequestImpl<T> implements CommandRequest<T>, TestableRequest {
+    private static final ObjectWriter jsonWriter = new ObjectMapper().writer();
+
     final RequestHolder<T> requestHolder;
     final Command command;
     final TypeReference<T> jsonParserTypeRef;
     final @Nullable Function<SphereBackendException, SphereException> transformError;
+    final long timeoutNanos;
 
     public CommandRequestImpl(
             @Nonnull RequestHolder<T> requestHolder,
@@ -38,19 +42,34 @@ public class CommandRequestImpl<T> implements CommandRequest<T>, TestableRequest
             @Nonnull Command command,
             @Nonnull TypeReference<T> jsonParserTypeRef,
             Function<SphereBackendException, SphereException> transformError)
+    {
+        this(requestHolder, command, jsonParserTypeRef, transformError, RequestExecutor.noTimeout);
+    }
+
+    CommandRequestImpl(
+            @Nonnull RequestHolder<T> requestHolder,
+            @Nonnull Command command,
+            @Nonnull TypeReference<T> jsonParserTypeRef,
+            Function<SphereBackendException, SphereException> transformError,
+            long timeoutNanos)
     {
         if (requestHolder == null) throw new NullPointerException("requestHolder");
         if (command == null) throw new NullPointerException("command");
         if (jsonParserTypeRef == null) throw new NullPointerException("jsonParserTypeRef");
-        ObjectWriter jsonWriter = new ObjectMapper().writer();
+        this.requestHolder = requestHolder.setBody(toJson(command));
+        this.command = command;
+        this.jsonParserTypeRef = jsonParserTypeRef;
+        this.transformError = transformError;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /** Serializes a command to the JSON sent to the backend. */
+    static String toJson(Command command) {
         try {
-            this.requestHolder = requestHolder.setBody(jsonWriter.writeValueAsString(command));
+            return jsonWriter.writeValueAsString(command);
         } catch (IOException e) {
             throw Util.toSphereException(e);
         }
-        this.command = command;
-        this.jsonParserTypeRef = jsonParserTypeRef;
-        this.transformError = transformError;
     }
 
     @Override public T execute() {
@@ -58,7 +77,13 @@ public class CommandRequestImpl<T> implements CommandRequest<T>, TestableRequest
     }
 
     @Override public ListenableFuture<SphereResult<T>> executeAsync() {
-        return Futures.transform(RequestExecutor.execute(requestHolder, jsonParserTypeRef), new Function<SphereResultRaw<T>, SphereResult<T>>() {
+        RequestExecutor.startTimeout(requestHolder, timeoutNanos);
+        return withSpecificError(RequestExecutor.execute(requestHolder, jsonParserTypeRef));
+    }
+
+    /** Applies the {@linkplain #withErrorHandling error handling} of this request to given result. */
+    ListenableFuture<SphereResult<T>> withSpecificError(ListenableFuture<SphereResultRaw<T>> rawResult) {
+        return Futures.transform(rawResult, new Function<SphereResultRaw<T>, SphereResult<T>>() {
             public SphereResult<T> apply(SphereResultRaw<T> rawResult) {
                 return SphereResult.withSpecificError(rawResult, transformError);
             }
@@ -67,7 +92,13 @@ public class CommandRequestImpl<T> implements CommandRequest<T>, TestableRequest
 
     @Override public CommandRequest<T> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError) {
         if (requestHolder == null) throw new NullPointerException("transformError");
-        return new CommandRequestImpl<T>(this.requestHolder, this.command, this.jsonParserTypeRef, transformError);
+        return new CommandRequestImpl<T>(this.requestHolder, this.command, this.jsonParserTypeRef, transformError, this.timeoutNanos);
+    }
+
+    @Override public CommandRequest<T> timeout(long timeout, TimeUnit unit) {
+        return new CommandRequestImpl<T>(
+                this.requestHolder, this.command, this.jsonParserTypeRef, this.transformError,
+                RequestExecutor.timeoutNanos(timeout, unit));
     }
 
     /** The command object that will be sent, for testing purposes. */
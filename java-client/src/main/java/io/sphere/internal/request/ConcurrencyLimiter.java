@@ -0,0 +1,86 @@
+package io.sphere.internal.request;
+
+import io.sphere.client.ConcurrencyLimitConfig;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+
+/** Limits the number of concurrent tasks, adapting the limit to measured response times (AIMD).
+ *  See {@link ConcurrencyLimitConfig}. */
+@ThreadSafe
+class ConcurrencyLimiter {
+    /** Weight of a new response time in the exponentially weighted average. */
+    private static final double rttSmoothing = 0.05;
+
+    private final ConcurrencyLimitConfig config;
+
+    @GuardedBy("this") private double limit;
+    @GuardedBy("this") private int inFlight;
+    @GuardedBy("this") private double averageRttMs = -1;
+    @GuardedBy("this") private final Queue<Runnable> queue = new LinkedList<Runnable>();
+
+    ConcurrencyLimiter(ConcurrencyLimitConfig config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+    }
+
+    /** Runs the task right away if under the limit, otherwise queues it.
+     *  Every task run must be followed by {@link #release} or {@link #releaseUnused}.
+     *  @return False if the queue is full and the task was rejected. */
+    boolean submit(Runnable task) {
+        synchronized (this) {
+            if (inFlight >= (int)limit) {
+                if (queue.size() >= config.getMaxQueueSize()) return false;
+                queue.add(task);
+                return true;
+            }
+            inFlight++;
+        }
+        task.run();
+        return true;
+    }
+
+    /** Removes a task that is still waiting in the queue, e.g. because it was cancelled.
+     *  @return False if the task is not queued, because it has already been run. */
+    synchronized boolean remove(Runnable task) {
+        return queue.remove(task);
+    }
+
+    /** Records the outcome of a task and runs queued tasks if the limit allows. */
+    void release(long rttMs, boolean isFailure) {
+        synchronized (this) {
+            boolean isSlow = averageRttMs >= 0 && rttMs > averageRttMs * config.getRttTolerance();
+            if (isFailure || isSlow) {
+                limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+            } else if (inFlight * 2 >= limit) {
+                // only grow while the limit is actually used
+                limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+            }
+            if (!isFailure) {
+                averageRttMs = averageRttMs < 0 ? rttMs : averageRttMs * (1 - rttSmoothing) + rttMs * rttSmoothing;
+            }
+        }
+        releaseUnused();
+    }
+
+    /** Frees a slot without affecting the limit, e.g. for a task that didn't send a request. */
+    void releaseUnused() {
+        List<Runnable> next = new ArrayList<Runnable>();
+        synchronized (this) {
+            inFlight--;
+            while (inFlight < (int)limit && !queue.isEmpty()) {
+                inFlight++;
+                next.add(queue.poll());
+            }
+        }
+        for (Runnable task: next) task.run();
+    }
+
+    synchronized int getLimit() { return (int)limit; }
+    synchronized int getInFlight() { return inFlight; }
+    synchronized int getQueueSize() { return queue.size(); }
+}
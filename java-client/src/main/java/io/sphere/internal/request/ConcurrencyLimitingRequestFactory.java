@@ -0,0 +1,129 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.ConcurrencyLimitConfig;
+import io.sphere.client.ConcurrencyLimitExceededException;
+import io.sphere.client.HttpResponseHandler;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Limits the number of requests in flight, so that a slow backend doesn't make requests pile up in the client.
+ *
+ *  <p>The limit adapts to measured response times, see {@link ConcurrencyLimitConfig}. Requests over the limit
+ *  are queued; when the queue is full they fail with {@link ConcurrencyLimitExceededException}. */
+@ThreadSafe
+public class ConcurrencyLimitingRequestFactory implements BasicRequestFactory {
+    /** Current limit of concurrent requests. */
+    public static final String concurrencyLimit = "concurrency.limit";
+    /** Number of requests in flight. */
+    public static final String concurrencyInFlight = "concurrency.inFlight";
+    /** Number of requests waiting for the number of requests in flight to drop below the limit. */
+    public static final String concurrencyQueued = "concurrency.queued";
+    /** Number of requests rejected because the queue was full. */
+    public static final String concurrencyRejected = "concurrency.rejected";
+
+    private final BasicRequestFactory underlying;
+    private final ClientMetrics metrics;
+    private final ConcurrencyLimiter limiter;
+    private final String rejectedMetric;
+
+    public ConcurrencyLimitingRequestFactory(BasicRequestFactory underlying, ConcurrencyLimitConfig config, ClientMetrics metrics) {
+        this(underlying, config, metrics, "concurrency");
+    }
+
+    /** @param metricsPrefix Prefix of the reported metrics, e.g. {@code concurrency} for
+     *                       {@code concurrency.limit}, {@code concurrency.inFlight} etc. */
+    public ConcurrencyLimitingRequestFactory(
+            BasicRequestFactory underlying, ConcurrencyLimitConfig config, ClientMetrics metrics, String metricsPrefix) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (config == null) throw new NullPointerException("config");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.metrics = metrics;
+        this.limiter = new ConcurrencyLimiter(config);
+        this.rejectedMetric = metricsPrefix + ".rejected";
+        metrics.registerGauge(metricsPrefix + ".limit", new Supplier<Integer>() {
+            public Integer get() { return limiter.getLimit(); }
+        });
+        metrics.registerGauge(metricsPrefix + ".inFlight", new Supplier<Integer>() {
+            public Integer get() { return limiter.getInFlight(); }
+        });
+        metrics.registerGauge(metricsPrefix + ".queued", new Supplier<Integer>() {
+            public Integer get() { return limiter.getQueueSize(); }
+        });
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new ConcurrencyLimitingRequestHolder<T>(underlying.<T>createGet(url));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return new ConcurrencyLimitingRequestHolder<T>(underlying.<T>createPost(url));
+    }
+
+    private class ConcurrencyLimitingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        ConcurrencyLimitingRequestHolder(RequestHolder<T> delegate) {
+            super(delegate);
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(final Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+            final AtomicReference<ListenableFuture<SphereResultRaw<T>>> sent = new AtomicReference<ListenableFuture<SphereResultRaw<T>>>();
+            final Runnable task = new Runnable() {
+                public void run() {
+                    if (result.isCancelled()) {
+                        limiter.releaseUnused();
+                        return;
+                    }
+                    final long startNanos = System.nanoTime();
+                    ListenableFuture<SphereResultRaw<T>> response;
+                    try {
+                        response = delegate.executeRequest(responseHandlers);
+                    } catch (Exception e) {
+                        limiter.releaseUnused();
+                        result.setException(e);
+                        return;
+                    }
+                    sent.set(response);
+                    Futures.addCallback(response, new FutureCallback<SphereResultRaw<T>>() {
+                        public void onSuccess(SphereResultRaw<T> response) {
+                            boolean isFailure = response.isError() && ServerErrors.isServerError(response.getError());
+                            limiter.release((System.nanoTime() - startNanos) / 1000000L, isFailure);
+                            result.set(response);
+                        }
+                        public void onFailure(Throwable t) {
+                            if (t instanceof CancellationException) limiter.releaseUnused();
+                            else limiter.release((System.nanoTime() - startNanos) / 1000000L, true);
+                            result.setException(t);
+                        }
+                    });
+                    if (result.isCancelled()) response.cancel(true);
+                }
+            };
+            if (!limiter.submit(task)) {
+                metrics.increment(rejectedMetric);
+                return Futures.immediateFailedFuture(
+                        new ConcurrencyLimitExceededException(limiter.getLimit(), limiter.getQueueSize()));
+            }
+            // cancelling the result, e.g. by a hedged request that won, aborts the HTTP request
+            // or frees its place in the queue
+            result.addListener(new Runnable() {
+                public void run() {
+                    if (!result.isCancelled()) return;
+                    if (limiter.remove(task)) return;
+                    ListenableFuture<SphereResultRaw<T>> response = sent.get();
+                    if (response != null) response.cancel(true);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.RetryPolicy;
+import io.sphere.internal.command.UpdateCommand;
+import io.sphere.internal.util.Log;
+import net.jcip.annotations.Immutable;
+import org.codehaus.jackson.type.TypeReference;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/** Replays an update command with the latest version of the updated object after it failed
+ *  with a ConcurrentModification error, see {@link io.sphere.client.UpdateRequest#retryOnConflict}. */
+@Immutable
+public class ConflictRecovery<T> {
+    /** Number of update commands sent again after a ConcurrentModification error. */
+    public static final String conflictRetries = "commands.conflicts.retries";
+    /** Number of update commands that succeeded after being sent again. */
+    public static final String conflictsRecovered = "commands.conflicts.recovered";
+    /** Number of update commands that still failed with a ConcurrentModification error when the retry policy gave up. */
+    public static final String conflictsExhausted = "commands.conflicts.exhausted";
+
+    private final Supplier<RequestHolder<T>> requestHolders;
+    private final UpdateCommand<?> command;
+    private final Supplier<ListenableFuture<Optional<Integer>>> latestVersion;
+    private final @Nullable ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+
+    /** @param requestHolders Creates the POST request for each attempt.
+     *  @param latestVersion Fetches the current version of the updated object, absent if it doesn't exist anymore.
+     *  @param scheduler Timer for the delays decided by the retry policy, or null to send the command again right away. */
+    public ConflictRecovery(
+            Supplier<RequestHolder<T>> requestHolders, UpdateCommand<?> command,
+            Supplier<ListenableFuture<Optional<Integer>>> latestVersion,
+            @Nullable ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (requestHolders == null) throw new NullPointerException("requestHolders");
+        if (command == null) throw new NullPointerException("command");
+        if (latestVersion == null) throw new NullPointerException("latestVersion");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.requestHolders = requestHolders;
+        this.command = command;
+        this.latestVersion = latestVersion;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    /** Executes the first attempt using given request, and further attempts after conflicts as decided by the policy.
+     *  All attempts share the deadline of the first request.
+     *  @param deadlineNanos The deadline of all attempts, or {@link RequestExecutor#noTimeout}. */
+    public ListenableFuture<SphereResultRaw<T>> execute(
+            RequestHolder<T> firstRequest, TypeReference<T> jsonParserTypeRef, RetryPolicy retryPolicy, long deadlineNanos) {
+        final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+        final Attempts attempts = new Attempts(jsonParserTypeRef, retryPolicy, deadlineNanos, result);
+        result.addListener(new Runnable() {
+            public void run() { if (result.isCancelled()) attempts.cancel(); }
+        }, MoreExecutors.sameThreadExecutor());
+        attempts.attempt(firstRequest, 1);
+        return result;
+    }
+
+    private class Attempts {
+        final TypeReference<T> jsonParserTypeRef;
+        final RetryPolicy retryPolicy;
+        final long deadlineNanos;
+        final SettableFuture<SphereResultRaw<T>> result;
+        /** The request or the fetch of the latest version in progress, aborted when the result is cancelled. */
+        volatile Future<?> currentAttempt;
+        /** The timer of the next retry, cancelled when the result is cancelled. */
+        volatile Future<?> retryTimer;
+
+        Attempts(TypeReference<T> jsonParserTypeRef, RetryPolicy retryPolicy, long deadlineNanos, SettableFuture<SphereResultRaw<T>> result) {
+            this.jsonParserTypeRef = jsonParserTypeRef;
+            this.retryPolicy = retryPolicy;
+            this.deadlineNanos = deadlineNanos;
+            this.result = result;
+        }
+
+        /** Stops the attempts after the result was cancelled. */
+        void cancel() {
+            Future<?> attempt = currentAttempt;
+            if (attempt != null) attempt.cancel(true);
+            Future<?> timer = retryTimer;
+            if (timer != null) timer.cancel(false);
+        }
+
+        /** Remembers given step so that it is aborted when the result is cancelled, including right before. */
+        private <F extends Future<?>> F track(F attempt) {
+            currentAttempt = attempt;
+            if (result.isCancelled()) attempt.cancel(true);
+            return attempt;
+        }
+
+        void attempt(final RequestHolder<T> request, final int attempt) {
+            if (result.isCancelled()) return;
+            if (deadlineNanos != RequestExecutor.noTimeout) request.setDeadline(deadlineNanos);
+            Futures.addCallback(track(RequestExecutor.execute(request, jsonParserTypeRef)), new FutureCallback<SphereResultRaw<T>>() {
+                public void onSuccess(SphereResultRaw<T> response) {
+                    if (result.isCancelled()) return;
+                    if (response.isError() && response.getError().getStatusCode() == 409) {
+                        if (!scheduleRetry(attempt, response)) {
+                            metrics.increment(conflictsExhausted);
+                            result.set(response);
+                        }
+                        return;
+                    }
+                    if (attempt > 1 && response.isSuccess()) metrics.increment(conflictsRecovered);
+                    result.set(response);
+                }
+                public void onFailure(Throwable t) {
+                    result.setException(t);
+                }
+            });
+        }
+
+        /** Schedules fetching the latest version and sending the command again, if allowed by the retry policy. */
+        private boolean scheduleRetry(final int attempt, final SphereResultRaw<T> conflict) {
+            if (result.isCancelled()) return false;
+            long delayMs = retryPolicy.getRetryDelayMs(attempt);
+            if (delayMs < 0) return false;
+            if (scheduler != null) {
+                try {
+                    retryTimer = scheduler.schedule(new Runnable() {
+                        public void run() { retry(attempt, conflict); }
+                    }, delayMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    return false;   // shutting down
+                }
+                if (result.isCancelled()) retryTimer.cancel(false);
+            }
+            metrics.increment(conflictRetries);
+            Log.debug("[conflict] Retry " + attempt + " in " + delayMs + "ms with the latest version: " + conflict.getError().getMessage());
+            // without a timer, send again right away
+            if (scheduler == null) retry(attempt, conflict);
+            return true;
+        }
+
+        private void retry(final int attempt, final SphereResultRaw<T> conflict) {
+            if (result.isCancelled()) return;
+            ListenableFuture<Optional<Integer>> version;
+            try {
+                version = latestVersion.get();
+            } catch (RuntimeException e) {
+                version = Futures.immediateFailedFuture(e);
+            }
+            Futures.addCallback(track(version), new FutureCallback<Optional<Integer>>() {
+                public void onSuccess(Optional<Integer> version) {
+                    if (!version.isPresent()) {
+                        // deleted in the meantime, there's nothing to update
+                        result.set(conflict);
+                        return;
+                    }
+                    RequestHolder<T> request;
+                    try {
+                        request = requestHolders.get().setBody(CommandRequestImpl.toJson(command.withVersion(version.get())));
+                    } catch (RuntimeException e) {
+                        result.setException(e);
+                        return;
+                    }
+                    attempt(request, attempt + 1);
+                }
+                public void onFailure(Throwable t) {
+                    Log.warn("[conflict] Could not fetch the latest version to retry the update: " + t.getMessage());
+                    result.set(conflict);
+                }
+            });
+        }
+    }
+}
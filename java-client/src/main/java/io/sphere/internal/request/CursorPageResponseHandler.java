@@ -0,0 +1,37 @@
+package io.sphere.internal.request;
+
+import io.sphere.client.QueryCursor;
+import io.sphere.client.model.CursorPage;
+import io.sphere.client.model.QueryResult;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.type.TypeReference;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Parses a page of query results sorted by id and reads the id of the last result from the JSON,
+ *  so that the next page can continue after it. */
+public class CursorPageResponseHandler<T> extends JsonResponseHandler<CursorPage<T>> {
+    private final QueryCursor cursor;
+    private final TypeReference<QueryResult<T>> jsonParserTypeRef;
+
+    /** @param cursor The cursor the page was fetched for. */
+    public CursorPageResponseHandler(
+            RequestHolder<CursorPage<T>> requestHolder, QueryCursor cursor, TypeReference<QueryResult<T>> jsonParserTypeRef) {
+        super(requestHolder, null);
+        this.cursor = cursor;
+        this.jsonParserTypeRef = jsonParserTypeRef;
+    }
+
+    @Override protected CursorPage<T> parse(InputStream body) throws IOException {
+        JsonNode json = jsonParser.readTree(body);
+        QueryResult<T> result = jsonParser.readValue(jsonParser.treeAsTokens(json), jsonParserTypeRef);
+        JsonNode results = json.path("results");
+        if (results.size() == 0) {
+            return new CursorPage<T>(result.getResults(), cursor, true);
+        }
+        QueryCursor next = QueryCursor.after(results.get(results.size() - 1).path("id").getTextValue());
+        // the total counts the results after the cursor
+        return new CursorPage<T>(result.getResults(), next, result.getTotal() <= result.getCount());
+    }
+}
@@ -10,6 +10,8 @@ import io.sphere.client.FetchRequest;
 import io.sphere.client.QueryRequest;
 import io.sphere.client.model.QueryResult;
 
+import java.util.concurrent.TimeUnit;
+
 /** Request that fetches a single object, implemented using a query endpoint.
  * Used when fetching products by slug. */
 public class FetchRequestBasedOnQuery<T> implements FetchRequest<T>  {
@@ -41,6 +43,11 @@ public class FetchRequestBasedOnQuery<T> implements FetchRequest<T>  {
         return this;
     }
 
+    @Override public FetchRequest<T> timeout(long timeout, TimeUnit unit) {
+        underlyingQueryRequest = this.underlyingQueryRequest.timeout(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     public QueryRequest<T> getUnderlyingQueryRequest() {
         return underlyingQueryRequest;
@@ -7,9 +7,12 @@ import io.sphere.client.FetchRequest;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.codehaus.jackson.type.TypeReference;
 
+import java.util.concurrent.TimeUnit;
+
 public class FetchRequestImpl<T> implements FetchRequest<T>, TestableRequest {
     RequestHolder<T> requestHolder;
     TypeReference<T> jsonParserTypeRef;
+    private long timeoutNanos = RequestExecutor.noTimeout;
 
     public FetchRequestImpl(RequestHolder<T> requestHolder, TypeReference<T> jsonParserTypeRef) {
         this.requestHolder = requestHolder;
@@ -21,6 +24,7 @@ public class FetchRequestImpl<T> implements FetchRequest<T>, TestableRequest {
     }
 
     @Override public ListenableFuture<Optional<T>> fetchAsync() {
+        RequestExecutor.startTimeout(requestHolder, timeoutNanos);
         return RequestExecutor.executeAndHandleError(requestHolder, 404, jsonParserTypeRef);
     }
 
@@ -31,6 +35,11 @@ public class FetchRequestImpl<T> implements FetchRequest<T>, TestableRequest {
         return this;
     }
 
+    @Override public FetchRequest<T> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = RequestExecutor.timeoutNanos(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     @Override public TestableRequestHolder getRequestHolder() {
         return requestHolder;
@@ -7,10 +7,13 @@ import io.sphere.client.FetchRequest;
 import com.google.common.util.concurrent.ListenableFuture;
 import org.codehaus.jackson.type.TypeReference;
 
+import java.util.concurrent.TimeUnit;
+
 public class FetchRequestWithErrorHandling<T> implements FetchRequest<T>, TestableRequest {
     RequestHolder<T> requestHolder;
     int handledErrorStatus;
     TypeReference<T> jsonParserTypeRef;
+    private long timeoutNanos = RequestExecutor.noTimeout;
 
     public FetchRequestWithErrorHandling(RequestHolder<T> requestHolder, int handledErrorStatus, TypeReference<T> jsonParserTypeRef) {
         if (requestHolder == null) throw new NullPointerException("requestHolder");
@@ -25,6 +28,7 @@ public class FetchRequestWithErrorHandling<T> implements FetchRequest<T>, Testab
     }
 
     @Override public ListenableFuture<Optional<T>> fetchAsync() {
+        RequestExecutor.startTimeout(requestHolder, timeoutNanos);
         return RequestExecutor.executeAndHandleError(requestHolder, handledErrorStatus, jsonParserTypeRef);
     }
 
@@ -35,6 +39,11 @@ public class FetchRequestWithErrorHandling<T> implements FetchRequest<T>, Testab
         return this;
     }
 
+    @Override public FetchRequest<T> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = RequestExecutor.timeoutNanos(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     @Override public TestableRequestHolder getRequestHolder() {
         return requestHolder;
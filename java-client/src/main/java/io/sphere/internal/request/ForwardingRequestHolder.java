@@ -0,0 +1,43 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.HttpResponseHandler;
+
+/** Base class for request holders that add behavior around another request holder. */
+public abstract class ForwardingRequestHolder<T> implements RequestHolder<T> {
+    protected final RequestHolder<T> delegate;
+
+    protected ForwardingRequestHolder(RequestHolder<T> delegate) {
+        if (delegate == null) throw new NullPointerException("delegate");
+        this.delegate = delegate;
+    }
+
+    public ForwardingRequestHolder<T> addQueryParameter(String name, String value) {
+        delegate.addQueryParameter(name, value);
+        return this;
+    }
+
+    public ForwardingRequestHolder<T> setBody(String requestBody) {
+        delegate.setBody(requestBody);
+        return this;
+    }
+
+    public ForwardingRequestHolder<T> setHeader(String name, String value) {
+        delegate.setHeader(name, value);
+        return this;
+    }
+
+    public ForwardingRequestHolder<T> setDeadline(long deadlineNanos) {
+        delegate.setDeadline(deadlineNanos);
+        return this;
+    }
+
+    public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+        return delegate.executeRequest(responseHandlers);
+    }
+
+    public String getMethod() { return delegate.getMethod(); }
+    public String getUrl() { return delegate.getUrl(); }
+    public String getBody() { return delegate.getBody(); }
+}
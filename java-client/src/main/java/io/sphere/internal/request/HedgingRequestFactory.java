@@ -0,0 +1,213 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.HedgingConfig;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.ProjectEndpoints;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.TokenBucket;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Cuts the tail latency of GET requests by sending a second, hedged request when the first one is slow.
+ *
+ *  <p>The delay is the configured percentile of recent response times of original requests of the same endpoint group.
+ *  Whichever request responds first wins, the other one is cancelled. A server error only wins if the other
+ *  request failed as well. Hedged requests are capped
+ *  at a percentage of all requests so that the extra load stays bounded. POST requests are never hedged. */
+@ThreadSafe
+public class HedgingRequestFactory implements BasicRequestFactory {
+    /** Number of hedged requests sent. */
+    public static final String hedgedRequests = "requests.hedged";
+    /** Number of hedged requests that responded before the original request. */
+    public static final String hedgedRequestsWon = "requests.hedged.won";
+    /** Number of hedged requests not sent because of the hedge rate cap. */
+    public static final String hedgedRequestsRateLimited = "requests.hedged.rateLimited";
+
+    /** Maximum number of hedged requests that can be sent in a burst. */
+    private static final int maxHedgeBurst = 10;
+
+    private final BasicRequestFactory underlying;
+    private final ProjectEndpoints endpoints;
+    private final HedgingConfig config;
+    private final ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+    /** Every request deposits a fraction of a token, every hedged request takes a whole token. */
+    private final TokenBucket hedgeBudget = new TokenBucket(0, maxHedgeBurst, /*initialTokens*/0);
+    private final ConcurrentMap<String, LatencyTracker> latencies = new ConcurrentHashMap<String, LatencyTracker>();
+
+    public HedgingRequestFactory(
+            BasicRequestFactory underlying, ProjectEndpoints endpoints, HedgingConfig config,
+            ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (endpoints == null) throw new NullPointerException("endpoints");
+        if (config == null) throw new NullPointerException("config");
+        if (scheduler == null) throw new NullPointerException("scheduler");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.endpoints = endpoints;
+        this.config = config;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new HedgingRequestHolder<T>(underlying.<T>createGet(url), latencyTracker(endpoints.endpointGroup(url)));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return underlying.createPost(url);
+    }
+
+    private LatencyTracker latencyTracker(String group) {
+        LatencyTracker tracker = latencies.get(group);
+        if (tracker != null) return tracker;
+        LatencyTracker newTracker = new LatencyTracker(config.getPercentile());
+        tracker = latencies.putIfAbsent(group, newTracker);
+        return tracker != null ? tracker : newTracker;
+    }
+
+    private long hedgeDelayMs(LatencyTracker tracker) {
+        long percentile = tracker.getPercentileMs();
+        if (percentile < 0) return config.getMaxDelayMs();
+        return Math.max(config.getMinDelayMs(), Math.min(config.getMaxDelayMs(), percentile));
+    }
+
+    private class HedgingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        private final LatencyTracker latencyTracker;
+
+        HedgingRequestHolder(RequestHolder<T> delegate, LatencyTracker latencyTracker) {
+            super(delegate);
+            this.latencyTracker = latencyTracker;
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(final Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            hedgeBudget.deposit(config.getMaxHedgeRatePercent() / 100.0);
+            final Race<T> race = new Race<T>(latencyTracker);
+            race.result.addListener(new Runnable() {
+                public void run() {
+                    // cancelled by the caller: abort all requests of the race, not just the one that would lose
+                    if (race.result.isCancelled()) race.cancelAllExcept(null);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            race.add(delegate.executeRequest(responseHandlers), false);
+            final ScheduledFuture<?> hedgeTimer;
+            try {
+                hedgeTimer = scheduler.schedule(new Runnable() {
+                    public void run() {
+                        if (race.result.isDone()) return;
+                        if (!hedgeBudget.tryAcquire()) {
+                            metrics.increment(hedgedRequestsRateLimited);
+                            return;
+                        }
+                        metrics.increment(hedgedRequests);
+                        Log.debug("[hedge] Sending hedged request: " + getUrl());
+                        try {
+                            race.add(delegate.executeRequest(responseHandlers), true);
+                        } catch (Exception e) {
+                            Log.debug("[hedge] Hedged request failed: " + e.getMessage());  // the original is still running
+                        }
+                    }
+                }, hedgeDelayMs(latencyTracker), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return race.result;   // shutting down
+            }
+            race.result.addListener(new Runnable() {
+                public void run() { hedgeTimer.cancel(false); }
+            }, MoreExecutors.sameThreadExecutor());
+            return race.result;
+        }
+    }
+
+    /** The original request and possibly a hedged request: the first response that is not a server error wins. */
+    private class Race<T> {
+        final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+        private final LatencyTracker latencyTracker;
+        private final long startNanos = System.nanoTime();
+        @GuardedBy("this") private final List<ListenableFuture<SphereResultRaw<T>>> requests =
+                new ArrayList<ListenableFuture<SphereResultRaw<T>>>(2);
+        @GuardedBy("this") private int pending;
+        @GuardedBy("this") private boolean decided;
+        /** A server error response, used if the other request fails as well. */
+        @GuardedBy("this") private SphereResultRaw<T> serverError;
+
+        Race(LatencyTracker latencyTracker) {
+            this.latencyTracker = latencyTracker;
+        }
+
+        void add(final ListenableFuture<SphereResultRaw<T>> request, final boolean isHedge) {
+            synchronized (this) {
+                requests.add(request);
+                pending++;
+            }
+            if (result.isDone()) {
+                request.cancel(true);   // lost before it started
+                return;
+            }
+            Futures.addCallback(request, new FutureCallback<SphereResultRaw<T>>() {
+                public void onSuccess(SphereResultRaw<T> response) {
+                    if (!isHedge) latencyTracker.record(elapsedMs());
+                    synchronized (Race.this) {
+                        if (decided) return;
+                        if (response.isError() && ServerErrors.isServerError(response.getError()) && pending > 1) {
+                            // the other request can still succeed
+                            pending--;
+                            serverError = response;
+                            return;
+                        }
+                        decided = true;
+                    }
+                    // cancel the loser first, so that callers never see it still running
+                    cancelAllExcept(request);
+                    if (isHedge) {
+                        // the original request took at least this long, which is what the hedge delay is based on
+                        latencyTracker.record(elapsedMs());
+                        metrics.increment(hedgedRequestsWon);
+                    }
+                    result.set(response);
+                }
+                public void onFailure(Throwable t) {
+                    SphereResultRaw<T> otherResponse;
+                    synchronized (Race.this) {
+                        // if the other request is still running, it can still succeed
+                        if (decided || --pending > 0) return;
+                        decided = true;
+                        otherResponse = serverError;
+                    }
+                    if (otherResponse != null) result.set(otherResponse);
+                    else result.setException(t);
+                }
+            });
+        }
+
+        private long elapsedMs() {
+            return (System.nanoTime() - startNanos) / 1000000L;
+        }
+
+        /** Cancels all requests except given one, or all requests if the winner is null. */
+        void cancelAllExcept(ListenableFuture<SphereResultRaw<T>> winner) {
+            List<ListenableFuture<SphereResultRaw<T>>> losers;
+            synchronized (this) {
+                losers = new ArrayList<ListenableFuture<SphereResultRaw<T>>>(requests);
+            }
+            for (ListenableFuture<SphereResultRaw<T>> loser: losers) {
+                if (loser != winner) loser.cancel(true);
+            }
+        }
+    }
+}
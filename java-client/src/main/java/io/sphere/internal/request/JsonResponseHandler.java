@@ -0,0 +1,123 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.exceptions.SphereBackendException;
+import io.sphere.client.exceptions.SphereException;
+import io.sphere.internal.errors.SphereErrorResponse;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.Util;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.type.TypeReference;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/** Collects the chunks of an HTTP response as they arrive and parses the JSON body directly from them.
+ *
+ *  <p>Unlike {@link com.ning.http.client.AsyncCompletionHandler}, the chunks are never copied into
+ *  a single contiguous body: the parser reads them in place as one stream.
+ *  Jackson 1.x has no non-blocking parser, so parsing starts when the last chunk has arrived.
+ *  Gzip compressed responses are decompressed as a stream while parsing. */
+public class JsonResponseHandler<T> implements HttpResponseHandler<SphereResultRaw<T>> {
+    protected static final ObjectMapper jsonParser = new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private static final TypeReference<SphereErrorResponse> errorResponseJsonTypeRef = new TypeReference<SphereErrorResponse>() {};
+
+    private final RequestHolder<T> requestHolder;
+    private final TypeReference<T> jsonParserTypeRef;
+
+    private int status;
+    private boolean isGzip;
+    private final List<byte[]> bodyParts = new ArrayList<byte[]>();
+
+    public JsonResponseHandler(RequestHolder<T> requestHolder, TypeReference<T> jsonParserTypeRef) {
+        this.requestHolder = requestHolder;
+        this.jsonParserTypeRef = jsonParserTypeRef;
+    }
+
+    @Override public State onStatusReceived(int statusCode) throws Exception {
+        // reset, in case the underlying connection retried the request
+        this.bodyParts.clear();
+        this.status = statusCode;
+        return State.CONTINUE;
+    }
+
+    @Override public State onHeadersReceived(Map<String, List<String>> headers) throws Exception {
+        this.isGzip = "gzip".equalsIgnoreCase(Util.getFirstHeader(headers, "Content-Encoding"));
+        return State.CONTINUE;
+    }
+
+    @Override public State onBodyPartReceived(byte[] bodyPart) throws Exception {
+        if (bodyPart.length > 0) {
+            bodyParts.add(bodyPart);
+        }
+        return State.CONTINUE;
+    }
+
+    @Override public void onThrowable(Throwable t) {
+        Log.debug("[http] Request failed: " + requestHolder.getUrl() + ": " + t.getMessage());
+    }
+
+    @Override public SphereResultRaw<T> onCompleted() throws Exception {
+        if (status / 100 != 2) {
+            SphereErrorResponse errorResponse = null;
+            try {
+                errorResponse = jsonParser.readValue(getResponseBodyAsStream(), errorResponseJsonTypeRef);
+            } catch (Exception e) {
+                // This can only happen when the backend and SDK don't match.
+                Log.error(
+                        "Can't parse backend response: \n[" + status + "]\n" + getResponseBody() +
+                        "\n\nRequest: " + requestHolderToString(requestHolder));
+                throw new SphereException("Can't parse backend response.", e);
+            }
+            if (Log.isErrorEnabled()) {
+                Log.error(errorResponse + "\n\nRequest: " + requestHolderToString(requestHolder));
+            }
+            return SphereResultRaw.<T>error(new SphereBackendException(requestHolder.getUrl(), errorResponse));
+        } else {
+            if (Log.isTraceEnabled()) {
+                Log.trace(requestHolderToString(requestHolder) + "\n" +
+                        "=> " + status + "\n" +
+                        Util.prettyPrintJsonStringSecure(getResponseBody()) + "\n");
+            } else if (Log.isDebugEnabled()) {
+                Log.debug(requestHolderToString(requestHolder));
+            }
+            return SphereResultRaw.<T>success(parse(getResponseBodyAsStream()));
+        }
+    }
+
+    /** Parses the body of a successful response. */
+    protected T parse(InputStream body) throws IOException {
+        return jsonParser.<T>readValue(body, jsonParserTypeRef);
+    }
+
+    /** Reads the received body chunks in place, decompressing them if needed. */
+    private InputStream getResponseBodyAsStream() throws IOException {
+        InputStream body = new BodyPartsInputStream(bodyParts);
+        return isGzip && !bodyParts.isEmpty() ? new GZIPInputStream(body) : body;
+    }
+
+    /** Decodes the body as a String. Only used for logging. */
+    private String getResponseBody() throws IOException {
+        return new String(ByteStreams.toByteArray(getResponseBodyAsStream()), Charsets.UTF_8.name());
+    }
+
+    private static <T> String requestHolderToString(RequestHolder<T> requestHolder) {
+        try {
+            return requestHolder.getMethod() + " " +
+                   requestHolder.getUrl() +
+                   (Strings.isNullOrEmpty(requestHolder.getBody()) ?
+                           "" :
+                           "\n" + Util.prettyPrintJsonStringSecure(requestHolder.getBody()));
+        } catch(IOException e) {
+            throw Util.toSphereException(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.sphere.internal.request;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Arrays;
+
+/** Keeps the most recent response times and computes their percentiles. */
+@ThreadSafe
+class LatencyTracker {
+    /** Number of response times kept. */
+    private static final int sampleSize = 200;
+    /** Percentiles are recomputed after this many new samples. */
+    private static final int recomputeEvery = 20;
+
+    private final int percentile;
+
+    @GuardedBy("this") private final long[] samples = new long[sampleSize];
+    @GuardedBy("this") private int count;
+    @GuardedBy("this") private int next;
+    @GuardedBy("this") private int sinceRecompute;
+    @GuardedBy("this") private long cachedPercentile = -1;
+
+    LatencyTracker(int percentile) {
+        this.percentile = percentile;
+    }
+
+    synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+        if (++sinceRecompute >= recomputeEvery) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedPercentile = sorted[Math.min(count - 1, count * percentile / 100)];
+            sinceRecompute = 0;
+        }
+    }
+
+    /** The percentile of recent response times, or -1 if there are not enough samples yet. */
+    synchronized long getPercentileMs() {
+        return cachedPercentile;
+    }
+}
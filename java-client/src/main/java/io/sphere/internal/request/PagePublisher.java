@@ -0,0 +1,155 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.model.QueryResult;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.ThreadSafe;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Publishes the results of all pages of a query or search, in order.
+ *
+ *  <p>A page is only requested once the subscriber has requested more results than are buffered,
+ *  so at most one page is held in memory per subscription. The first page's total determines the last page. */
+@ThreadSafe
+public class PagePublisher<T> implements Publisher<T> {
+    private final Function<Integer, ListenableFuture<QueryResult<T>>> fetchPage;
+    private final int firstPage;
+    private final int pageSize;
+
+    /** @param fetchPage Sends the request for a page with given number. */
+    public PagePublisher(Function<Integer, ListenableFuture<QueryResult<T>>> fetchPage, int firstPage, int pageSize) {
+        if (fetchPage == null) throw new NullPointerException("fetchPage");
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        this.fetchPage = fetchPage;
+        this.firstPage = firstPage;
+        this.pageSize = pageSize;
+    }
+
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) throw new NullPointerException("subscriber");
+        subscriber.onSubscribe(new PageSubscription(subscriber));
+    }
+
+    private class PageSubscription implements Subscription {
+        private final Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        /** Makes sure only one thread at a time emits, see {@link #drain}. */
+        private final AtomicInteger drainRequests = new AtomicInteger();
+        private final Queue<T> buffer = new ConcurrentLinkedQueue<T>();
+        private volatile ListenableFuture<QueryResult<T>> pageInFlight;
+        private volatile int nextPage = firstPage;
+        private volatile int lastPage = Integer.MAX_VALUE;   // unknown until the first page arrives
+        private volatile Throwable error;
+        private volatile boolean cancelled;
+        private boolean done;   // only accessed while draining
+
+        PageSubscription(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Number of requested elements must be positive: " + n);
+            } else {
+                long current;
+                do {
+                    current = demand.get();
+                } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+            }
+            drain();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            ListenableFuture<QueryResult<T>> page = pageInFlight;
+            if (page != null) page.cancel(true);
+            drain();
+        }
+
+        /** Emits as many buffered results as requested and fetches the next page when the buffer runs out.
+         *  Called from the subscriber and from page callbacks. Calls that arrive while another thread
+         *  is draining make that thread loop again instead of emitting concurrently. */
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) return;
+            int missed = 1;
+            do {
+                drainOnce();
+                missed = drainRequests.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            if (done) return;
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (error != null) {
+                finish();
+                subscriber.onError(error);
+                return;
+            }
+            long requested = demand.get();
+            long emitted = 0;
+            T result;
+            while (emitted < requested && !cancelled && (result = buffer.poll()) != null) {
+                subscriber.onNext(result);
+                emitted++;
+            }
+            if (emitted > 0 && requested != Long.MAX_VALUE) demand.addAndGet(-emitted);
+            if (cancelled || !buffer.isEmpty() || pageInFlight != null) return;
+            if (nextPage > lastPage) {
+                finish();
+                subscriber.onComplete();
+            } else if (demand.get() > 0) {
+                fetchNextPage();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            buffer.clear();
+        }
+
+        private void fetchNextPage() {
+            final ListenableFuture<QueryResult<T>> page;
+            try {
+                page = fetchPage.apply(nextPage++);
+            } catch (RuntimeException e) {
+                // the request couldn't be sent, report it to the subscriber instead of throwing from request()
+                finish();
+                subscriber.onError(Util.toSphereException(e));
+                return;
+            }
+            pageInFlight = page;
+            Futures.addCallback(page, new FutureCallback<QueryResult<T>>() {
+                public void onSuccess(QueryResult<T> result) {
+                    if (lastPage == Integer.MAX_VALUE) {
+                        lastPage = (result.getTotal() + pageSize - 1) / pageSize - 1;
+                    }
+                    if (result.getResults().isEmpty()) {
+                        lastPage = -1;   // the result set shrank while paging
+                    }
+                    buffer.addAll(result.getResults());
+                    pageInFlight = null;
+                    drain();
+                }
+                public void onFailure(Throwable t) {
+                    if (!cancelled) error = Util.toSphereException(t);
+                    pageInFlight = null;
+                    drain();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.model.QueryResult;
+import io.sphere.internal.util.Util;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/** Iterates over the results of all pages of a query or search, in order.
+ *
+ *  <p>The first page is requested right away. Once it arrives, its total determines the remaining pages,
+ *  and up to {@code prefetchPages} of them are kept in flight ahead of the iteration. At most that many pages
+ *  plus the current one are held in memory. */
+@NotThreadSafe
+public class PrefetchingPageIterator<T> extends AbstractIterator<T> {
+    private final Function<Integer, ListenableFuture<QueryResult<T>>> fetchPage;
+    private final int pageSize;
+    private final int prefetchPages;
+    private final Deque<ListenableFuture<QueryResult<T>>> pages = new ArrayDeque<ListenableFuture<QueryResult<T>>>();
+    private int nextPage;
+    private int lastPage = Integer.MAX_VALUE;   // unknown until the first page arrives
+    private boolean totalKnown;
+    private Iterator<T> current = Iterators.emptyIterator();
+
+    /** @param fetchPage Sends the request for a page with given number. Called from the iterating thread. */
+    public PrefetchingPageIterator(
+            Function<Integer, ListenableFuture<QueryResult<T>>> fetchPage, int firstPage, int pageSize, int prefetchPages) {
+        if (fetchPage == null) throw new NullPointerException("fetchPage");
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        if (prefetchPages <= 0) throw new IllegalArgumentException("Number of prefetched pages must be positive: " + prefetchPages);
+        this.fetchPage = fetchPage;
+        this.nextPage = firstPage;
+        this.pageSize = pageSize;
+        this.prefetchPages = prefetchPages;
+        requestPages();
+    }
+
+    @Override protected T computeNext() {
+        while (!current.hasNext()) {
+            if (pages.isEmpty()) return endOfData();
+            QueryResult<T> page = awaitNextPage();
+            if (!totalKnown) {
+                totalKnown = true;
+                lastPage = (page.getTotal() + pageSize - 1) / pageSize - 1;
+            }
+            if (page.getResults().isEmpty()) {
+                // the result set shrank during the iteration
+                cancelPages();
+                return endOfData();
+            }
+            requestPages();
+            current = page.getResults().iterator();
+        }
+        return current.next();
+    }
+
+    private QueryResult<T> awaitNextPage() {
+        try {
+            return Util.sync(pages.poll());
+        } catch (RuntimeException e) {
+            cancelPages();
+            throw e;
+        }
+    }
+
+    /** Keeps the configured number of pages in flight, or just the first one while the total is unknown. */
+    private void requestPages() {
+        int inFlight = totalKnown ? prefetchPages : 1;
+        while (pages.size() < inFlight && nextPage <= lastPage) {
+            pages.add(fetchPage.apply(nextPage++));
+        }
+    }
+
+    private void cancelPages() {
+        for (ListenableFuture<QueryResult<T>> page: pages) {
+            page.cancel(true);
+        }
+        pages.clear();
+        lastPage = -1;
+    }
+}
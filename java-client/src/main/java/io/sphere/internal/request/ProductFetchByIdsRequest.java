@@ -0,0 +1,92 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.FetchByIdsRequest;
+import io.sphere.client.QueryRequest;
+import io.sphere.client.model.QueryResult;
+import io.sphere.client.model.products.BackendProduct;
+import io.sphere.client.shop.CategoryTree;
+import io.sphere.client.shop.model.Product;
+import io.sphere.internal.ProductConversion;
+import io.sphere.internal.util.Util;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Fetches products by ids using one query per chunk of ids, all sent in parallel.
+ *  Transforms results of type {@link BackendProduct} to {@link Product}. */
+public class ProductFetchByIdsRequest implements FetchByIdsRequest<Product> {
+    private final ImmutableList<String> ids;
+    private final List<QueryRequest<BackendProduct>> underlyingRequests;
+    private final CategoryTree categoryTree;
+
+    /** @param ids The requested ids, without duplicates.
+     *  @param underlyingRequests One query per chunk of the ids, each with a page size large enough for the chunk. */
+    public ProductFetchByIdsRequest(
+            @Nonnull Iterable<String> ids, @Nonnull List<QueryRequest<BackendProduct>> underlyingRequests, CategoryTree categoryTree) {
+        if (ids == null) throw new NullPointerException("ids");
+        if (underlyingRequests == null) throw new NullPointerException("underlyingRequests");
+        this.ids = ImmutableList.copyOf(ids);
+        this.underlyingRequests = new ArrayList<QueryRequest<BackendProduct>>(underlyingRequests);
+        this.categoryTree = categoryTree;
+    }
+
+    @Override public Map<String, Product> fetch() {
+        return Util.sync(fetchAsync());
+    }
+
+    @Override public ListenableFuture<Map<String, Product>> fetchAsync() {
+        List<ListenableFuture<QueryResult<BackendProduct>>> chunks = new ArrayList<ListenableFuture<QueryResult<BackendProduct>>>();
+        for (QueryRequest<BackendProduct> request: underlyingRequests) {
+            chunks.add(request.fetchAsync());
+        }
+        return Futures.transform(Futures.allAsList(chunks), new Function<List<QueryResult<BackendProduct>>, Map<String, Product>>() {
+            @Override public Map<String, Product> apply(List<QueryResult<BackendProduct>> results) {
+                Map<String, BackendProduct> found = new HashMap<String, BackendProduct>();
+                for (QueryResult<BackendProduct> result: results) {
+                    for (BackendProduct product: result.getResults()) {
+                        found.put(product.getId(), product);
+                    }
+                }
+                ImmutableMap.Builder<String, Product> products = ImmutableMap.builder();
+                for (String id: ids) {
+                    BackendProduct product = found.get(id);
+                    if (product != null) products.put(id, ProductConversion.fromBackendProduct(product, categoryTree));
+                }
+                return products.build();
+            }
+        });
+    }
+
+    @Override public ProductFetchByIdsRequest expand(String... paths) {
+        for (QueryRequest<BackendProduct> request: underlyingRequests) {
+            request.expand(paths);
+        }
+        return this;
+    }
+
+    @Override public ProductFetchByIdsRequest timeout(long timeout, TimeUnit unit) {
+        for (QueryRequest<BackendProduct> request: underlyingRequests) {
+            request.timeout(timeout, unit);
+        }
+        return this;
+    }
+
+    // testing purposes
+    public List<QueryRequest<BackendProduct>> getUnderlyingRequests() {
+        return underlyingRequests;
+    }
+
+    // logging and debugging purposes
+    @Override public String toString() {
+        return underlyingRequests.toString();
+    }
+}
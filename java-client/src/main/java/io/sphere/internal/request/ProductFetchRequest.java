@@ -15,6 +15,7 @@ import io.sphere.internal.util.Util;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /** Transforms results of type {@link BackendProduct} to {@link Product}. */
 public class ProductFetchRequest implements FetchRequest<Product>  {
@@ -46,6 +47,11 @@ public class ProductFetchRequest implements FetchRequest<Product>  {
         return this;
     }
 
+    @Override public ProductFetchRequest timeout(long timeout, TimeUnit unit) {
+        underlyingRequest = underlyingRequest.timeout(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     public FetchRequest<BackendProduct> getUnderlyingRequest() {
         return underlyingRequest;
@@ -1,5 +1,6 @@
 package io.sphere.internal.request;
 
+import io.sphere.client.FetchByIdsRequest;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.SearchRequest;
 import io.sphere.client.filters.expressions.FilterExpression;
@@ -17,6 +18,12 @@ public interface ProductRequestFactory {
     /** Creates a request that fetches a single {@link Product}, implemented using a query endpoint. */
     FetchRequest<Product> createFetchRequestBasedOnQuery(String url, ApiMode apiMode);
 
+    /** Creates a request that fetches multiple {@link Product products} by id, using one query per chunk of ids.
+     *  @param ids The requested ids, without duplicates.
+     *  @param queryUrls One query URL per chunk of the ids.
+     *  @param idsPerQuery Maximum number of ids in a chunk. */
+    FetchByIdsRequest<Product> createFetchByIdsRequest(Iterable<String> ids, Iterable<String> queryUrls, int idsPerQuery, ApiMode apiMode);
+
     /** Creates a request that uses search to query for multiple {@link Product products}. */
     SearchRequest<Product> createSearchRequest(String url, ApiMode apiMode, Iterable<FilterExpression> filters, Locale loc);
 
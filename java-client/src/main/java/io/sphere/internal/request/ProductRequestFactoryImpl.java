@@ -1,7 +1,9 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Optional;
+import io.sphere.client.FetchByIdsRequest;
 import io.sphere.client.FetchRequest;
+import io.sphere.client.QueryRequest;
 import io.sphere.client.SearchRequest;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.model.QueryResult;
@@ -13,6 +15,8 @@ import io.sphere.client.shop.model.Product;
 import org.codehaus.jackson.type.TypeReference;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 
 /** Converts products from the raw {@link io.sphere.client.model.products.BackendProduct} to {@link Product}. */
@@ -39,6 +43,15 @@ public class ProductRequestFactoryImpl implements ProductRequestFactory {
         return new ProductFetchRequest(underlyingRequestFactory.createFetchRequestBasedOnQuery(url, Optional.of(apiMode), queryProductTypeRef), categoryTree);
     }
 
+    @Override public FetchByIdsRequest<Product> createFetchByIdsRequest(
+            Iterable<String> ids, Iterable<String> queryUrls, int idsPerQuery, ApiMode apiMode) {
+        List<QueryRequest<BackendProduct>> queries = new ArrayList<QueryRequest<BackendProduct>>();
+        for (String url: queryUrls) {
+            queries.add(underlyingRequestFactory.createQueryRequest(url, Optional.of(apiMode), queryProductTypeRef).pageSize(idsPerQuery));
+        }
+        return new ProductFetchByIdsRequest(ids, queries, categoryTree);
+    }
+
     @Override public SearchRequest<Product> createSearchRequest(String url, ApiMode apiMode, Iterable<FilterExpression> filters, Locale locale) {
         return new ProductSearchRequest(underlyingRequestFactory.createSearchRequest(url, Optional.of(apiMode), filters, searchProductTypeRef, locale), categoryTree);
     }
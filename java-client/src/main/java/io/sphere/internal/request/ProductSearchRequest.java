@@ -1,6 +1,7 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.sphere.internal.ProductConversion;
@@ -13,10 +14,16 @@ import io.sphere.client.model.SearchResult;
 import io.sphere.client.shop.CategoryTree;
 import io.sphere.client.shop.model.Product;
 import io.sphere.client.model.products.BackendProduct;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
 /** Transforms results from {@link BackendProduct} to {@link Product}. */
 public class ProductSearchRequest implements SearchRequest<Product> {
     private SearchRequest<BackendProduct> underlyingRequest;
@@ -40,6 +47,38 @@ public class ProductSearchRequest implements SearchRequest<Product> {
         });
     }
 
+    @Override public Iterator<Product> fetchAll() {
+        return convertProducts(underlyingRequest.fetchAll(), categoryTree);
+    }
+
+    @Override public Iterator<Product> fetchAll(int prefetchPages) {
+        return convertProducts(underlyingRequest.fetchAll(prefetchPages), categoryTree);
+    }
+
+    @Override public Publisher<Product> publisher() {
+        final Publisher<BackendProduct> products = underlyingRequest.publisher();
+        return new Publisher<Product>() {
+            @Override public void subscribe(final Subscriber<? super Product> subscriber) {
+                products.subscribe(new Subscriber<BackendProduct>() {
+                    @Override public void onSubscribe(Subscription subscription) { subscriber.onSubscribe(subscription); }
+                    @Override public void onNext(BackendProduct product) {
+                        subscriber.onNext(ProductConversion.fromBackendProduct(product, categoryTree));
+                    }
+                    @Override public void onError(Throwable t) { subscriber.onError(t); }
+                    @Override public void onComplete() { subscriber.onComplete(); }
+                });
+            }
+        };
+    }
+
+    private static Iterator<Product> convertProducts(Iterator<BackendProduct> products, final CategoryTree categoryTree) {
+        return Iterators.transform(products, new Function<BackendProduct, Product>() {
+            @Override public Product apply(BackendProduct product) {
+                return ProductConversion.fromBackendProduct(product, categoryTree);
+            }
+        });
+    }
+
     private static SearchResult<Product> convertProducts(SearchResult<BackendProduct> res, CategoryTree categoryTree) {
         return SearchResultUtil.transform(
                 res,
@@ -81,6 +120,11 @@ public class ProductSearchRequest implements SearchRequest<Product> {
         return this;
     }
 
+    @Override public SearchRequest<Product> timeout(long timeout, TimeUnit unit) {
+        underlyingRequest = underlyingRequest.timeout(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     public SearchRequest<BackendProduct> getUnderlyingRequest() {
         return underlyingRequest;
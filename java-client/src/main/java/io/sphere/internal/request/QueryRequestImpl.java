@@ -2,20 +2,38 @@ package io.sphere.internal.request;
 
 import io.sphere.internal.Defaults;
 import io.sphere.internal.util.Util;
+import io.sphere.client.QueryCursor;
+import io.sphere.client.QueryParam;
 import io.sphere.client.QueryRequest;
+import io.sphere.client.HttpResponseHandler;
 
+import com.google.common.base.Function;
+import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.model.CursorPage;
 import io.sphere.client.model.QueryResult;
+import org.reactivestreams.Publisher;
 import org.codehaus.jackson.type.TypeReference;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 public class QueryRequestImpl<T> implements QueryRequest<T>, TestableRequest {
     RequestHolder<QueryResult<T>> requestHolder;
     TypeReference<QueryResult<T>> jsonParserTypeRef;
+    /** Creates request holders for the pages fetched by {@link #fetchAll}. */
+    private final Supplier<RequestHolder<QueryResult<T>>> requestHolders;
+    /** Parameters added to the request, repeated for every page fetched by {@link #fetchAll}. */
+    private final List<QueryParam> queryParams = new ArrayList<QueryParam>();
+    private long timeoutNanos = RequestExecutor.noTimeout;
     private int pageSize = Defaults.pageSize;
     private int page = 0;
 
-    public QueryRequestImpl(RequestHolder<QueryResult<T>> requestHolder, TypeReference<QueryResult<T>> jsonParserTypeRef) {
-        this.requestHolder = requestHolder;
+    public QueryRequestImpl(Supplier<RequestHolder<QueryResult<T>>> requestHolders, TypeReference<QueryResult<T>> jsonParserTypeRef) {
+        this.requestHolders = requestHolders;
+        this.requestHolder = requestHolders.get();
         this.jsonParserTypeRef = jsonParserTypeRef;
     }
 
@@ -36,18 +54,86 @@ public class QueryRequestImpl<T> implements QueryRequest<T>, TestableRequest {
     }
 
     @Override public ListenableFuture<QueryResult<T>> fetchAsync() {
+        return fetchPage(requestHolder, this.page);
+    }
+
+    private ListenableFuture<QueryResult<T>> fetchPage(RequestHolder<QueryResult<T>> requestHolder, int page) {
         requestHolder.addQueryParameter("limit", Integer.toString(this.pageSize));
-        requestHolder.addQueryParameter("offset", Integer.toString(this.page * this.pageSize));
+        requestHolder.addQueryParameter("offset", Integer.toString(page * this.pageSize));
+        RequestExecutor.startTimeout(requestHolder, timeoutNanos);
         return RequestExecutor.executeAndThrowOnError(requestHolder, jsonParserTypeRef);
     }
 
+    @Override public Iterator<T> fetchAll() {
+        return fetchAll(Defaults.prefetchPages);
+    }
+
+    @Override public Iterator<T> fetchAll(int prefetchPages) {
+        return new PrefetchingPageIterator<T>(pages(), this.page, this.pageSize, prefetchPages);
+    }
+
+    @Override public Publisher<T> publisher() {
+        return new PagePublisher<T>(pages(), this.page, this.pageSize);
+    }
+
+    /** Fetches pages of this query, each with a new request. */
+    private Function<Integer, ListenableFuture<QueryResult<T>>> pages() {
+        return new Function<Integer, ListenableFuture<QueryResult<T>>>() {
+            public ListenableFuture<QueryResult<T>> apply(Integer page) {
+                return fetchPage(QueryRequestImpl.this.<QueryResult<T>>newRequestHolder(), page);
+            }
+        };
+    }
+
+    @Override public CursorPage<T> fetchAfter(QueryCursor cursor) {
+        return Util.sync(fetchAfterAsync(cursor));
+    }
+
+    @Override public ListenableFuture<CursorPage<T>> fetchAfterAsync(final QueryCursor cursor) {
+        if (cursor == null) throw new NullPointerException("cursor");
+        final RequestHolder<CursorPage<T>> cursorRequestHolder = newRequestHolder();
+        cursorRequestHolder.addQueryParameter("sort", "id asc");
+        if (cursor.getLastId().isPresent()) {
+            // combined with the where predicates of the query using AND
+            cursorRequestHolder.addQueryParameter("where", "id > \"" + cursor.getLastId().get() + "\"");
+        }
+        cursorRequestHolder.addQueryParameter("limit", Integer.toString(this.pageSize));
+        RequestExecutor.startTimeout(cursorRequestHolder, timeoutNanos);
+        return RequestExecutor.executeAndThrowOnError(cursorRequestHolder, new Supplier<HttpResponseHandler<SphereResultRaw<CursorPage<T>>>>() {
+            public HttpResponseHandler<SphereResultRaw<CursorPage<T>>> get() {
+                return new CursorPageResponseHandler<T>(cursorRequestHolder, cursor, jsonParserTypeRef);
+            }
+        });
+    }
+
+    /** A new request holder for this query, with the parameters added so far.
+     *  The type of the result is only determined by the response handler the request is executed with. */
+    @SuppressWarnings("unchecked")
+    private <R> RequestHolder<R> newRequestHolder() {
+        RequestHolder<R> requestHolder = (RequestHolder<R>)requestHolders.get();
+        for (QueryParam qp: queryParams) {
+            requestHolder.addQueryParameter(qp.getName(), qp.getValue());
+        }
+        return requestHolder;
+    }
+
     @Override public QueryRequest<T> expand(String... paths) {
         for (String path: paths) {
-            requestHolder.addQueryParameter("expand", path);
+            addQueryParam(new QueryParam("expand", path));
         }
         return this;
     }
 
+    private void addQueryParam(QueryParam qp) {
+        requestHolder.addQueryParameter(qp.getName(), qp.getValue());
+        queryParams.add(qp);
+    }
+
+    @Override public QueryRequest<T> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = RequestExecutor.timeoutNanos(timeout, unit);
+        return this;
+    }
+
     @Override public TestableRequestHolder getRequestHolder() {
         return requestHolder;
     }
@@ -1,28 +1,33 @@
 package io.sphere.internal.request;
 
-import com.google.common.base.Charsets;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.ning.http.client.AsyncCompletionHandler;
-import com.ning.http.client.Response;
-import io.sphere.client.exceptions.SphereException;
-import io.sphere.internal.errors.SphereErrorResponse;
-import io.sphere.internal.util.Log;
+import io.sphere.client.HttpResponseHandler;
 import io.sphere.internal.util.Util;
 import io.sphere.client.exceptions.SphereBackendException;
-import org.codehaus.jackson.map.DeserializationConfig;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.type.TypeReference;
 
 import javax.annotation.Nullable;
-import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class RequestExecutor {
-    private static final ObjectMapper jsonParser = new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    private static final TypeReference<SphereErrorResponse> errorResponseJsonTypeRef = new TypeReference<SphereErrorResponse>() {};
+    /** Value of a request timeout that means no timeout. */
+    public static final long noTimeout = -1;
+
+    /** Converts a timeout passed to a request to nanoseconds. */
+    public static long timeoutNanos(long timeout, TimeUnit unit) {
+        if (timeout < 0) throw new IllegalArgumentException("Timeout can't be negative: " + timeout);
+        if (unit == null) throw new NullPointerException("unit");
+        return unit.toNanos(timeout);
+    }
+
+    /** Sets the deadline of a request that is about to be executed, unless there is no timeout. */
+    public static void startTimeout(RequestHolder<?> requestHolder, long timeoutNanos) {
+        if (timeoutNanos != noTimeout) requestHolder.setDeadline(System.nanoTime() + timeoutNanos);
+    }
 
     /** Executes request and parses JSON response.
      *
@@ -34,7 +39,23 @@ public class RequestExecutor {
     public static <T> ListenableFuture<T> executeAndThrowOnError(
             final RequestHolder<T> requestHolder, final TypeReference<T> jsonParserTypeRef)
     {
-        return Futures.transform(execute(requestHolder, jsonParserTypeRef), new Function<SphereResultRaw<T>, T>() {
+        return throwOnError(execute(requestHolder, jsonParserTypeRef));
+    }
+
+    /** Executes request and parses the response with handlers created by given supplier.
+     *  Throws a {@link SphereBackendException} on any response with status other than 2xx. */
+    public static <T> ListenableFuture<T> executeAndThrowOnError(
+            final RequestHolder<T> requestHolder, final Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers)
+    {
+        try {
+            return throwOnError(requestHolder.executeRequest(responseHandlers));
+        } catch (Exception e) {
+            throw Util.toSphereException(e);
+        }
+    }
+
+    private static <T> ListenableFuture<T> throwOnError(ListenableFuture<SphereResultRaw<T>> result) {
+        return Futures.transform(result, new Function<SphereResultRaw<T>, T>() {
             public T apply(@Nullable SphereResultRaw<T> result) {
                 if (result.isError()) {
                     throw Util.toSphereException(result.getError());
@@ -71,50 +92,13 @@ public class RequestExecutor {
     public static <T> ListenableFuture<SphereResultRaw<T>> execute(final RequestHolder<T> requestHolder, final TypeReference<T> jsonParserTypeRef)
     {
         try {
-            return requestHolder.executeRequest(new AsyncCompletionHandler<SphereResultRaw<T>>() {
-                public SphereResultRaw<T> onCompleted(Response response) throws Exception {
-                    int status = response.getStatusCode();
-                    String body = response.getResponseBody(Charsets.UTF_8.name());
-                    if (status / 100 != 2) {
-                        SphereErrorResponse errorResponse = null;
-                        try {
-                            errorResponse = jsonParser.readValue(body, errorResponseJsonTypeRef);
-                        } catch (Exception e) {
-                            // This can only happen when the backend and SDK don't match.
-                            Log.error(
-                                    "Can't parse backend response: \n[" + status + "]\n" + body + "\n\nRequest: " + requestHolderToString(requestHolder));
-                            throw new SphereException("Can't parse backend response.", e);
-                        }
-                        if (Log.isErrorEnabled()) {
-                            Log.error(errorResponse + "\n\nRequest: " + requestHolderToString(requestHolder));
-                        }
-                        return SphereResultRaw.<T>error(new SphereBackendException(requestHolder.getUrl(), errorResponse));
-                    } else {
-                        if (Log.isTraceEnabled()) {
-                            Log.trace(requestHolderToString(requestHolder) + "\n" +
-                                    "=> " + response.getStatusCode() + "\n" +
-                                    Util.prettyPrintJsonStringSecure(body) + "\n");
-                        } else if (Log.isDebugEnabled()) {
-                            Log.debug(requestHolderToString(requestHolder));
-                        }
-                        return SphereResultRaw.<T>success(jsonParser.<T>readValue(body, jsonParserTypeRef));
-                    }
+            return requestHolder.executeRequest(new Supplier<HttpResponseHandler<SphereResultRaw<T>>>() {
+                public HttpResponseHandler<SphereResultRaw<T>> get() {
+                    return new JsonResponseHandler<T>(requestHolder, jsonParserTypeRef);
                 }
             });
         } catch (Exception e) {
             throw Util.toSphereException(e);
         }
     }
-
-    private static <T> String requestHolderToString(RequestHolder<T> requestHolder) {
-        try {
-            return requestHolder.getMethod() + " " +
-                   requestHolder.getUrl() +
-                   (Strings.isNullOrEmpty(requestHolder.getBody()) ?
-                           "" :
-                           "\n" + Util.prettyPrintJsonStringSecure(requestHolder.getBody()));
-        } catch(IOException e) {
-            throw Util.toSphereException(e);
-        }
-    }
 }
@@ -1,7 +1,10 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.sphere.internal.command.Command;
+import io.sphere.internal.command.UpdateCommand;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.QueryRequest;
@@ -11,6 +14,7 @@ import io.sphere.client.model.SearchResult;
 import io.sphere.client.shop.ApiMode;
 import org.codehaus.jackson.type.TypeReference;
 import io.sphere.client.CommandRequest;
+import io.sphere.client.UpdateRequest;
 
 import java.util.Locale;
 
@@ -45,4 +49,11 @@ public interface RequestFactory {
 
     /** Creates a request that issues a command to be executed. */
     <T> CommandRequest<T> createCommandRequest(String url, Command command, TypeReference<T> jsonParserTypeRef);
+
+    /** Creates a request that updates a versioned object, which can be {@linkplain UpdateRequest#retryOnConflict sent again}
+     *  with the latest version after a conflict.
+     *  @param latestVersion Fetches the current version of the object, absent if it doesn't exist anymore. */
+    <T> UpdateRequest<T> createUpdateRequest(
+            String url, UpdateCommand<?> command, Supplier<ListenableFuture<Optional<Integer>>> latestVersion,
+            TypeReference<T> jsonParserTypeRef);
 }
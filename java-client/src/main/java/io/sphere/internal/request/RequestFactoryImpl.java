@@ -1,7 +1,11 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.ClientMetrics;
 import io.sphere.internal.command.Command;
+import io.sphere.internal.command.UpdateCommand;
 import io.sphere.client.FetchRequest;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.model.QueryResult;
@@ -12,16 +16,33 @@ import io.sphere.client.shop.ApiMode;
 import net.jcip.annotations.Immutable;
 import org.codehaus.jackson.type.TypeReference;
 import io.sphere.client.CommandRequest;
+import io.sphere.client.UpdateRequest;
 
+import javax.annotation.Nullable;
 import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
 
 /** Creates specialized requests based on basic GET and POST requests. */
 @Immutable
 public class RequestFactoryImpl implements RequestFactory {
 
     private final BasicRequestFactory basic;
+    private final @Nullable ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+
+    /** Creates a factory without a timer, whose update requests are {@linkplain UpdateRequest#retryOnConflict sent again}
+     *  right away after a conflict, without the delays of the retry policy. */
     public RequestFactoryImpl(BasicRequestFactory basic) {
+        this(basic, null, new ClientMetrics());
+    }
+
+    /** @param scheduler Timer for the delays before update commands are sent again after a conflict, or null to send
+     *                   them again right away. */
+    public RequestFactoryImpl(BasicRequestFactory basic, @Nullable ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (metrics == null) throw new NullPointerException("metrics");
         this.basic = basic;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
     }
 
     // -----------------
@@ -45,12 +66,12 @@ public class RequestFactoryImpl implements RequestFactory {
 
     @Override public <T> QueryRequest<T> createQueryRequest(
             String url, Optional<ApiMode> apiMode, TypeReference<QueryResult<T>> jsonParserTypeRef) {
-        return new QueryRequestImpl<T>(withApiMode(basic.<QueryResult<T>>createGet(url), apiMode), jsonParserTypeRef);
+        return new QueryRequestImpl<T>(this.<QueryResult<T>>gets(url, apiMode), jsonParserTypeRef);
     }
 
     @Override public <T> SearchRequest<T> createSearchRequest(
             String url, Optional<ApiMode> apiMode, Iterable<FilterExpression> filters, TypeReference<SearchResult<T>> jsonParserTypeRef, Locale locale) {
-        return new SearchRequestImpl<T>(withApiMode(basic.<SearchResult<T>>createGet(url), apiMode), jsonParserTypeRef, locale).filter(filters);
+        return new SearchRequestImpl<T>(this.<SearchResult<T>>gets(url, apiMode), jsonParserTypeRef, locale).filter(filters);
     }
 
     // -----------------
@@ -62,10 +83,29 @@ public class RequestFactoryImpl implements RequestFactory {
         return new CommandRequestImpl<T>(basic.<T>createPost(url), command, jsonParserTypeRef);
     }
 
+    @Override public <T> UpdateRequest<T> createUpdateRequest(
+            final String url, UpdateCommand<?> command, Supplier<ListenableFuture<Optional<Integer>>> latestVersion,
+            TypeReference<T> jsonParserTypeRef) {
+        Supplier<RequestHolder<T>> posts = new Supplier<RequestHolder<T>>() {
+            public RequestHolder<T> get() { return basic.createPost(url); }
+        };
+        return new UpdateRequestImpl<T>(posts.get(), command, jsonParserTypeRef,
+                new ConflictRecovery<T>(posts, command, latestVersion, scheduler, metrics));
+    }
+
     // -----------------------------------
     // API mode helper (staging / live)
     // -----------------------------------
 
+    /** Creates a new GET request holder on every call, e.g. for every page fetched by {@code fetchAll()}. */
+    private <T> Supplier<RequestHolder<T>> gets(final String url, final Optional<ApiMode> apiMode) {
+        return new Supplier<RequestHolder<T>>() {
+            public RequestHolder<T> get() {
+                return withApiMode(basic.<T>createGet(url), apiMode);
+            }
+        };
+    }
+
     private <T> RequestHolder<T> withApiMode(RequestHolder<T> requestHolder, Optional<ApiMode> apiMode) {
         return apiMode.isPresent() ?
                 requestHolder.addQueryParameter("staged", apiMode.get() == ApiMode.Staged ? "true" : "false") :
@@ -1,7 +1,8 @@
 package io.sphere.internal.request;
 
-import com.ning.http.client.AsyncCompletionHandler;
+import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.HttpResponseHandler;
 import io.sphere.client.SphereResult;
 
 /** Abstraction over HTTP request execution. Allows for mocking in tests. */
@@ -14,6 +15,15 @@ public interface RequestHolder<T> extends TestableRequestHolder {
     /** Sets a body for this request. */
     RequestHolder<T> setBody(String requestBody);
 
-    /** Executes a request to a server. */
-    ListenableFuture<SphereResultRaw<T>> executeRequest(AsyncCompletionHandler<SphereResultRaw<T>> onResponse) throws Exception;
+    /** Sets an HTTP header of this request, replacing any previous value. */
+    RequestHolder<T> setHeader(String name, String value);
+
+    /** Sets the time by which the request has to complete, in terms of {@link System#nanoTime()}.
+     *  If the deadline passes, the request fails with {@link io.sphere.client.RequestTimeoutException}.
+     *  The deadline applies to every HTTP request sent by {@link #executeRequest}, e.g. to retries. */
+    RequestHolder<T> setDeadline(long deadlineNanos);
+
+    /** Executes a request to a server.
+     *  @param responseHandlers Creates the handler of the response, once for every HTTP request sent. */
+    ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception;
 }
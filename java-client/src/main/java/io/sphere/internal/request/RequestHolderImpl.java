@@ -1,67 +1,184 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Charsets;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
-import com.ning.http.client.AsyncHttpClient;
-import com.ning.http.client.AsyncCompletionHandler;
-import com.ning.http.client.FluentStringsMap;
-import io.sphere.client.SphereResult;
-import io.sphere.internal.ListenableFutureAdapter;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.HttpRequest;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.HttpTransport;
+import io.sphere.client.RequestTimeoutException;
 import io.sphere.internal.Version;
 import io.sphere.internal.util.Util;
 
-import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 import java.util.Map;
 
-/** A request holder that does real HTTP requests. Can be mocked in tests. */
+/** A request holder that does real HTTP requests, using an {@link HttpTransport}. Can be mocked in tests. */
 public class RequestHolderImpl<T> implements RequestHolder<T> {
-    private final AsyncHttpClient.BoundRequestBuilder httpRequestBuilder;
+    /** Value of the request compression threshold that turns off compression of request bodies. */
+    public static final int noRequestCompression = -1;
 
-    public RequestHolderImpl(AsyncHttpClient.BoundRequestBuilder httpRequestBuilder) {
-        this.httpRequestBuilder = httpRequestBuilder;
-        this.httpRequestBuilder.setHeader("User-Agent", "Sphere Java client, version " + Version.version);
-        this.httpRequestBuilder.setBodyEncoding(Charsets.UTF_8.name());
+    private final HttpTransport transport;
+    private final String method;
+    private final String url;
+    private final String rawQuery;
+    private final int requestCompressionThreshold;
+    private final Executor callbackExecutor;
+    private final ListMultimap<String, String> queryParams = LinkedListMultimap.create();
+    private final Map<String, String> headers = new LinkedHashMap<String, String>();
+    private String body;
+    private byte[] bodyBytes;
+    private boolean hasDeadline;
+    private long deadlineNanos;
+
+    public RequestHolderImpl(HttpTransport transport, String method, String url) {
+        this(transport, method, url, noRequestCompression, null);
+    }
+
+    /** @param requestCompressionThreshold Request bodies larger than this number of bytes are sent gzip compressed.
+     *                                     Use {@link #noRequestCompression} to never compress.
+     *  @param callbackExecutor Parses responses and runs everything chained to the returned futures, so that
+     *                          the IO threads of the HTTP client are not held up. Null to parse on the IO threads. */
+    public RequestHolderImpl(
+            HttpTransport transport, String method, String url, int requestCompressionThreshold, Executor callbackExecutor) {
+        if (transport == null) throw new NullPointerException("transport");
+        this.transport = transport;
+        this.method = method;
+        // An encoded query string in the URL, e.g. of a prepared search, is kept apart so that it's sent as is.
+        int queryStart = url.indexOf('?');
+        this.url = queryStart < 0 ? url : url.substring(0, queryStart);
+        this.rawQuery = queryStart < 0 ? "" : url.substring(queryStart + 1);
+        this.requestCompressionThreshold = requestCompressionThreshold;
+        this.callbackExecutor = callbackExecutor;
+        this.headers.put("User-Agent", "Sphere Java client, version " + Version.version);
     }
 
     public RequestHolderImpl<T> addQueryParameter(String name, String value) {
-        httpRequestBuilder.addQueryParameter(name, value);
+        queryParams.put(name, value);
         return this;
     }
 
     public RequestHolderImpl<T> setBody(String requestBody) {
-        httpRequestBuilder.setBody(requestBody);
+        this.body = requestBody;
+        try {
+            byte[] bytes = requestBody.getBytes(Charsets.UTF_8.name());
+            if (requestCompressionThreshold != noRequestCompression && bytes.length > requestCompressionThreshold) {
+                headers.put("Content-Encoding", "gzip");
+                this.bodyBytes = gzip(bytes);
+            } else {
+                this.bodyBytes = bytes;
+            }
+        } catch (IOException e) {
+            throw Util.toSphereException(e);
+        }
         return this;
     }
 
-    public ListenableFuture<SphereResultRaw<T>> executeRequest(AsyncCompletionHandler<SphereResultRaw<T>> onResponse) throws Exception {
-        // Send HTTP request
-        return new ListenableFutureAdapter<SphereResultRaw<T>>(httpRequestBuilder.execute(onResponse));
+    public RequestHolderImpl<T> setHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public RequestHolderImpl<T> setDeadline(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+        return this;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+        gzip.write(bytes);
+        gzip.close();
+        return compressed.toByteArray();
+    }
+
+    public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+        if (!hasDeadline) {
+            return send(responseHandlers.get(), HttpRequest.defaultTimeout);
+        }
+        long timeoutMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (timeoutMs <= 0) {
+            // e.g. waited in a queue or for a retry until the deadline passed
+            return Futures.immediateFailedFuture(new RequestTimeoutException(getUrl(), 0));
+        }
+        // The transport aborts the request when the timeout expires.
+        return reportTimeout(send(responseHandlers.get(), (int)Math.min(timeoutMs, Integer.MAX_VALUE)), timeoutMs);
+    }
+
+    private HttpRequest toHttpRequest(int timeoutMs) {
+        return new HttpRequest(method, url, rawQuery, queryParams, headers, bodyBytes, timeoutMs);
+    }
+
+    /** Sends the HTTP request. The response is parsed on the callback executor, if there is one. */
+    private ListenableFuture<SphereResultRaw<T>> send(HttpResponseHandler<SphereResultRaw<T>> responseHandler, int timeoutMs) throws IOException {
+        if (callbackExecutor == null) {
+            return transport.execute(toHttpRequest(timeoutMs), responseHandler);
+        }
+        ListenableFuture<BufferingResponseHandler<T>> buffered =
+                transport.execute(toHttpRequest(timeoutMs), new BufferingResponseHandler<T>(responseHandler));
+        return Futures.transform(buffered, new Function<BufferingResponseHandler<T>, SphereResultRaw<T>>() {
+            public SphereResultRaw<T> apply(BufferingResponseHandler<T> response) {
+                try {
+                    return response.replay();
+                } catch (Exception e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+        }, callbackExecutor);
+    }
+
+    /** Fails with a {@link RequestTimeoutException} instead of the transport's TimeoutException. */
+    private ListenableFuture<SphereResultRaw<T>> reportTimeout(
+            final ListenableFuture<SphereResultRaw<T>> response, final long timeoutMs) {
+        final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+        Futures.addCallback(response, new FutureCallback<SphereResultRaw<T>>() {
+            public void onSuccess(SphereResultRaw<T> value) {
+                result.set(value);
+            }
+            public void onFailure(Throwable t) {
+                result.setException(t instanceof TimeoutException ? new RequestTimeoutException(getUrl(), timeoutMs) : t);
+            }
+        });
+        result.addListener(new Runnable() {
+            public void run() { if (result.isCancelled()) response.cancel(true); }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
     }
 
     /** The URL the request will be sent to, for debugging purposes. */
     public String getUrl() {
-        return Util.getDecodedUrl(httpRequestBuilder.build());
+        return Util.getDecodedUrl(toHttpRequest(HttpRequest.defaultTimeout));
     }
 
     /** The HTTP method of the request, for debugging purposes. */
     public String getMethod() {
-        return httpRequestBuilder.build().getMethod();
+        return method;
     }
 
-    /** The body of the request, for debugging purposes. */
+    /** The body of the request (before compression), for debugging purposes. */
     public String getBody() {
-        return httpRequestBuilder.build().getStringData();
+        return body;
     }
 
     /** The query parameters of the request, for debugging purposes. */
     public Multimap<String, String> getQueryParams() {
-        FluentStringsMap params = httpRequestBuilder.build().getQueryParams();
-        Multimap<String, String> converted = HashMultimap.create();
-        for (Map.Entry<String, List<String>> param: params) {
-            converted.putAll(param.getKey(), param.getValue());
-        }
-        return converted;
+        return HashMultimap.create(queryParams);
     }
 }
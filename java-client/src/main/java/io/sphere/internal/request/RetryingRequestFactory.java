@@ -0,0 +1,156 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.client.ClientMetrics;
+import io.sphere.client.HttpResponseHandler;
+import io.sphere.client.RetryPolicy;
+import io.sphere.internal.util.Log;
+import io.sphere.internal.util.TokenBucket;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/** Retries GET requests that failed with a connection error or a 5xx response.
+ *
+ *  <p>Other failures are not retried: requests rejected by an open circuit breaker or the concurrency limit,
+ *  requests that ran out of time, and responses that couldn't be parsed.
+ *  Cancelling a request aborts the attempt in flight and any scheduled retry.
+ *
+ *  <p>Retries are scheduled on a timer as decided by a {@link RetryPolicy}. All retries share a global
+ *  retry budget so that retries can't multiply the load on the backend during an outage.
+ *  POST requests are never retried. */
+@ThreadSafe
+public class RetryingRequestFactory implements BasicRequestFactory {
+    /** Number of retries sent. */
+    public static final String retries = "requests.retries";
+    /** Number of retries not sent because the retry budget was exhausted. */
+    public static final String retriesBudgetExhausted = "requests.retries.budgetExhausted";
+
+    private final BasicRequestFactory underlying;
+    private final RetryPolicy retryPolicy;
+    private final TokenBucket retryBudget;
+    private final ScheduledExecutorService scheduler;
+    private final ClientMetrics metrics;
+
+    public RetryingRequestFactory(
+            BasicRequestFactory underlying, RetryPolicy retryPolicy, TokenBucket retryBudget,
+            ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (underlying == null) throw new NullPointerException("underlying");
+        if (retryPolicy == null) throw new NullPointerException("retryPolicy");
+        if (retryBudget == null) throw new NullPointerException("retryBudget");
+        if (scheduler == null) throw new NullPointerException("scheduler");
+        if (metrics == null) throw new NullPointerException("metrics");
+        this.underlying = underlying;
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryBudget;
+        this.scheduler = scheduler;
+        this.metrics = metrics;
+    }
+
+    public <T> RequestHolder<T> createGet(String url) {
+        return new RetryingRequestHolder<T>(underlying.<T>createGet(url));
+    }
+
+    public <T> RequestHolder<T> createPost(String url) {
+        return underlying.createPost(url);
+    }
+
+    private class RetryingRequestHolder<T> extends ForwardingRequestHolder<T> {
+        RetryingRequestHolder(RequestHolder<T> delegate) {
+            super(delegate);
+        }
+
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+            final Attempts attempts = new Attempts(responseHandlers);
+            attempts.result.addListener(new Runnable() {
+                public void run() {
+                    if (attempts.result.isCancelled()) attempts.cancel();
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            // The first attempt fails synchronously, same as without retries.
+            attempts.attempt(delegate.executeRequest(responseHandlers), 1);
+            return attempts.result;
+        }
+
+        /** The attempts of a single execution of the request. */
+        private class Attempts {
+            final SettableFuture<SphereResultRaw<T>> result = SettableFuture.create();
+            private final Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers;
+            /** The attempt in flight, or the last one. */
+            private volatile ListenableFuture<SphereResultRaw<T>> current;
+            /** The next attempt, while it is waiting for its delay. */
+            private volatile ScheduledFuture<?> retryTimer;
+
+            Attempts(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) {
+                this.responseHandlers = responseHandlers;
+            }
+
+            /** Aborts the attempt in flight and the scheduled retry. */
+            void cancel() {
+                ScheduledFuture<?> timer = retryTimer;
+                if (timer != null) timer.cancel(false);
+                ListenableFuture<SphereResultRaw<T>> response = current;
+                if (response != null) response.cancel(true);
+            }
+
+            void attempt(ListenableFuture<SphereResultRaw<T>> response, final int attempt) {
+                current = response;
+                // cancelled while the attempt was being sent
+                if (result.isCancelled()) response.cancel(true);
+                Futures.addCallback(response, new FutureCallback<SphereResultRaw<T>>() {
+                    public void onSuccess(SphereResultRaw<T> response) {
+                        if (!(response.isError() && ServerErrors.isServerError(response.getError()) && scheduleRetry(attempt))) {
+                            result.set(response);
+                        }
+                    }
+                    public void onFailure(Throwable t) {
+                        if (!(ServerErrors.isTransportError(t) && scheduleRetry(attempt))) {
+                            result.setException(t);
+                        }
+                    }
+                });
+            }
+
+            /** Schedules the next attempt, if allowed by the retry policy and budget. */
+            private boolean scheduleRetry(final int attempt) {
+                if (result.isDone()) return false;
+                long delayMs = retryPolicy.getRetryDelayMs(attempt);
+                if (delayMs < 0) return false;
+                if (!retryBudget.tryAcquire()) {
+                    metrics.increment(retriesBudgetExhausted);
+                    Log.warn("[retry] Retry budget exhausted, not retrying " + getUrl());
+                    return false;
+                }
+                try {
+                    retryTimer = scheduler.schedule(new Runnable() {
+                        public void run() {
+                            if (result.isDone()) return;
+                            ListenableFuture<SphereResultRaw<T>> response;
+                            try {
+                                response = delegate.executeRequest(responseHandlers);
+                            } catch (Exception e) {
+                                response = Futures.immediateFailedFuture(e);
+                            }
+                            attempt(response, attempt + 1);
+                        }
+                    }, delayMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    return false;   // shutting down
+                }
+                // cancelled before the timer was stored
+                if (result.isCancelled()) retryTimer.cancel(false);
+                metrics.increment(retries);
+                Log.debug("[retry] Retry " + attempt + " in " + delayMs + "ms: " + getUrl());
+                return true;
+            }
+        }
+    }
+}
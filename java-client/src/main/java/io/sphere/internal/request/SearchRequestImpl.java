@@ -1,6 +1,7 @@
 package io.sphere.internal.request;
 
 import com.google.common.base.Function;
+import com.google.common.base.Supplier;
 import com.google.common.util.concurrent.Futures;
 import io.sphere.internal.Defaults;
 import io.sphere.internal.util.Log;
@@ -10,16 +11,21 @@ import io.sphere.internal.util.Util;
 import io.sphere.client.*;
 import io.sphere.client.facets.expressions.FacetExpression;
 import io.sphere.client.filters.expressions.FilterExpression;
+import io.sphere.client.model.QueryResult;
 import io.sphere.client.model.SearchResult;
+import org.reactivestreams.Publisher;
 import static io.sphere.internal.util.ListUtil.list;
 
 import com.google.common.util.concurrent.ListenableFuture;
 import org.codehaus.jackson.type.TypeReference;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 
 // dates:
@@ -30,13 +36,19 @@ import java.util.Locale;
 public class SearchRequestImpl<T> implements SearchRequest<T>, TestableRequest {
     private Iterable<FilterExpression> filters;
     private RequestHolder<SearchResult<T>> requestHolder;
+    /** Creates request holders for the pages fetched by {@link #fetchAll}. */
+    private final Supplier<RequestHolder<SearchResult<T>>> requestHolders;
+    /** Parameters added to the request, repeated for every page fetched by {@link #fetchAll}. */
+    private final List<QueryParam> queryParams = new ArrayList<QueryParam>();
     private TypeReference<SearchResult<T>> jsonParserTypeRef;
+    private long timeoutNanos = RequestExecutor.noTimeout;
     private int pageSize = Defaults.pageSize;
     private int page = 0;
     private Locale locale;
 
-    public SearchRequestImpl(RequestHolder<SearchResult<T>> requestHolder, TypeReference<SearchResult<T>> jsonParserTypeRef, Locale locale) {
-        this.requestHolder = requestHolder;
+    public SearchRequestImpl(Supplier<RequestHolder<SearchResult<T>>> requestHolders, TypeReference<SearchResult<T>> jsonParserTypeRef, Locale locale) {
+        this.requestHolders = requestHolders;
+        this.requestHolder = requestHolders.get();
         this.jsonParserTypeRef = jsonParserTypeRef;
         this.locale = locale;
     }
@@ -56,6 +68,7 @@ public class SearchRequestImpl<T> implements SearchRequest<T>, TestableRequest {
     private void addQueryParam(QueryParam qp) {
         if (qp != null) {
             requestHolder.addQueryParameter(qp.getName(), qp.getValue());
+            queryParams.add(qp);
         }
     }
 
@@ -104,10 +117,7 @@ public class SearchRequestImpl<T> implements SearchRequest<T>, TestableRequest {
     }
 
     @Override public ListenableFuture<SearchResult<T>> fetchAsync() {
-        requestHolder.addQueryParameter("limit", Integer.toString(this.pageSize));
-        requestHolder.addQueryParameter("offset", Integer.toString(this.page * this.pageSize));
-        requestHolder.addQueryParameter("lang", Util.toLanguageTag(this.locale));
-        return Futures.transform(RequestExecutor.executeAndThrowOnError(requestHolder, jsonParserTypeRef), new Function<SearchResult<T>, SearchResult<T>>() {
+        return Futures.transform(fetchPage(requestHolder, this.page), new Function<SearchResult<T>, SearchResult<T>>() {
             @Override public SearchResult<T> apply(@Nullable SearchResult<T> res) {
                 if (res == null) return null;
                 // fill in page size, keep results intact
@@ -116,6 +126,48 @@ public class SearchRequestImpl<T> implements SearchRequest<T>, TestableRequest {
         });
     }
 
+    private ListenableFuture<SearchResult<T>> fetchPage(RequestHolder<SearchResult<T>> requestHolder, int page) {
+        requestHolder.addQueryParameter("limit", Integer.toString(this.pageSize));
+        requestHolder.addQueryParameter("offset", Integer.toString(page * this.pageSize));
+        requestHolder.addQueryParameter("lang", Util.toLanguageTag(this.locale));
+        RequestExecutor.startTimeout(requestHolder, timeoutNanos);
+        return RequestExecutor.executeAndThrowOnError(requestHolder, jsonParserTypeRef);
+    }
+
+    @Override public Iterator<T> fetchAll() {
+        return fetchAll(Defaults.prefetchPages);
+    }
+
+    @Override public Iterator<T> fetchAll(int prefetchPages) {
+        return new PrefetchingPageIterator<T>(pages(), this.page, this.pageSize, prefetchPages);
+    }
+
+    @Override public Publisher<T> publisher() {
+        return new PagePublisher<T>(pages(), this.page, this.pageSize);
+    }
+
+    /** Fetches pages of this search, each with a new request. */
+    private Function<Integer, ListenableFuture<QueryResult<T>>> pages() {
+        return new Function<Integer, ListenableFuture<QueryResult<T>>>() {
+            public ListenableFuture<QueryResult<T>> apply(Integer page) {
+                RequestHolder<SearchResult<T>> pageRequestHolder = requestHolders.get();
+                for (QueryParam qp: queryParams) {
+                    pageRequestHolder.addQueryParameter(qp.getName(), qp.getValue());
+                }
+                return Futures.transform(fetchPage(pageRequestHolder, page), new Function<SearchResult<T>, QueryResult<T>>() {
+                    public QueryResult<T> apply(SearchResult<T> res) {
+                        return new QueryResult<T>(res.getOffset(), res.getCount(), res.getTotal(), res.getResults());
+                    }
+                });
+            }
+        };
+    }
+
+    @Override public SearchRequest<T> timeout(long timeout, TimeUnit unit) {
+        this.timeoutNanos = RequestExecutor.timeoutNanos(timeout, unit);
+        return this;
+    }
+
     // testing purposes
     @Override public TestableRequestHolder getRequestHolder() {
         return requestHolder;
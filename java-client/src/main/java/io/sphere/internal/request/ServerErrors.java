@@ -0,0 +1,30 @@
+package io.sphere.internal.request;
+
+import io.sphere.client.SphereError;
+import io.sphere.client.exceptions.SphereBackendException;
+import org.codehaus.jackson.JsonProcessingException;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+/** Classifies error responses of the backend. */
+final class ServerErrors {
+    private ServerErrors() {}
+
+    /** True for errors caused by the backend being unavailable or overloaded, as opposed to errors
+     *  caused by the request itself. Such requests might succeed when sent again later. */
+    static boolean isServerError(SphereBackendException e) {
+        if (e.getStatusCode() / 100 == 5) return true;
+        for (SphereError error: e.getErrors()) {
+            if (error instanceof SphereError.OverCapacity) return true;
+        }
+        return false;
+    }
+
+    /** True for failures of the connection to the backend, such as a refused connection, a reset connection or
+     *  a transport timeout. Failures raised while handling the response, e.g. unparseable JSON, are not included. */
+    static boolean isTransportError(Throwable t) {
+        if (t instanceof JsonProcessingException) return false;
+        return t instanceof IOException || t instanceof TimeoutException;
+    }
+}
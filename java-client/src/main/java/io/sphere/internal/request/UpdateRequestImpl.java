@@ -0,0 +1,72 @@
+package io.sphere.internal.request;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.RetryPolicy;
+import io.sphere.client.SphereResult;
+import io.sphere.client.UpdateRequest;
+import io.sphere.client.exceptions.SphereBackendException;
+import io.sphere.client.exceptions.SphereException;
+import io.sphere.internal.command.UpdateCommand;
+import net.jcip.annotations.Immutable;
+import org.codehaus.jackson.type.TypeReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+@Immutable
+public class UpdateRequestImpl<T> extends CommandRequestImpl<T> implements UpdateRequest<T> {
+    final ConflictRecovery<T> conflictRecovery;
+    final @Nullable RetryPolicy conflictRetryPolicy;
+
+    public UpdateRequestImpl(
+            @Nonnull RequestHolder<T> requestHolder,
+            @Nonnull UpdateCommand<?> command,
+            @Nonnull TypeReference<T> jsonParserTypeRef,
+            @Nonnull ConflictRecovery<T> conflictRecovery)
+    {
+        this(requestHolder, command, jsonParserTypeRef, null, RequestExecutor.noTimeout, conflictRecovery, null);
+    }
+
+    private UpdateRequestImpl(
+            @Nonnull RequestHolder<T> requestHolder,
+            @Nonnull UpdateCommand<?> command,
+            @Nonnull TypeReference<T> jsonParserTypeRef,
+            Function<SphereBackendException, SphereException> transformError,
+            long timeoutNanos,
+            @Nonnull ConflictRecovery<T> conflictRecovery,
+            RetryPolicy conflictRetryPolicy)
+    {
+        super(requestHolder, command, jsonParserTypeRef, transformError, timeoutNanos);
+        if (conflictRecovery == null) throw new NullPointerException("conflictRecovery");
+        this.conflictRecovery = conflictRecovery;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+    }
+
+    @Override public ListenableFuture<SphereResult<T>> executeAsync() {
+        if (conflictRetryPolicy == null) return super.executeAsync();
+        long deadlineNanos = timeoutNanos == RequestExecutor.noTimeout ? RequestExecutor.noTimeout : System.nanoTime() + timeoutNanos;
+        return withSpecificError(conflictRecovery.execute(requestHolder, jsonParserTypeRef, conflictRetryPolicy, deadlineNanos));
+    }
+
+    @Override public UpdateRequest<T> withErrorHandling(@Nonnull Function<SphereBackendException, SphereException> transformError) {
+        if (transformError == null) throw new NullPointerException("transformError");
+        return new UpdateRequestImpl<T>(
+                this.requestHolder, (UpdateCommand<?>)this.command, this.jsonParserTypeRef, transformError, this.timeoutNanos,
+                this.conflictRecovery, this.conflictRetryPolicy);
+    }
+
+    @Override public UpdateRequest<T> timeout(long timeout, TimeUnit unit) {
+        return new UpdateRequestImpl<T>(
+                this.requestHolder, (UpdateCommand<?>)this.command, this.jsonParserTypeRef, this.transformError,
+                RequestExecutor.timeoutNanos(timeout, unit), this.conflictRecovery, this.conflictRetryPolicy);
+    }
+
+    @Override public UpdateRequest<T> retryOnConflict(RetryPolicy retryPolicy) {
+        if (retryPolicy == null) throw new NullPointerException("retryPolicy");
+        return new UpdateRequestImpl<T>(
+                this.requestHolder, (UpdateCommand<?>)this.command, this.jsonParserTypeRef, this.transformError,
+                this.timeoutNanos, this.conflictRecovery, retryPolicy);
+    }
+}
@@ -1,24 +1,78 @@
 package io.sphere.internal.util;
 
+import com.google.common.base.Supplier;
+import io.sphere.client.ClientMetrics;
+
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public final class Concurrent {
+    /** Number of tasks waiting in the queue of the scheduler, including delayed tasks that are not due yet. */
+    public static final String schedulerQueuedTasks = "scheduler.queuedTasks";
+    /** Number of scheduler threads currently running a task. */
+    public static final String schedulerActiveThreads = "scheduler.activeThreads";
+    /** Number of tasks run by the scheduler. */
+    public static final String schedulerCompletedTasks = "scheduler.completedTasks";
+
     /** Creates a thread factory.
      *  @param poolName Name of created threads (an auto-incrementing suffix is appended). */
     public static ThreadFactory namedThreadFactory(final String poolName) {
+        return namedThreadFactory(poolName, false);
+    }
+
+    /** Creates a thread factory.
+     *  @param poolName Name of created threads (an auto-incrementing suffix is appended).
+     *  @param daemon If true, the created threads don't prevent the JVM from exiting. */
+    public static ThreadFactory namedThreadFactory(final String poolName, final boolean daemon) {
         return new ThreadFactory() {
             final AtomicInteger count = new AtomicInteger(0);
             @Override public Thread newThread(Runnable r) {
                 Thread newThread = new Thread(r, poolName + "-" + count.incrementAndGet());
+                newThread.setDaemon(daemon);
                 return newThread;
             }
         };
     }
 
-    /** Creates an executor that only allows execution of a single task at a time. */
-    public static ThreadPoolExecutor singleTaskExecutor(String poolName) {
-        return new ThreadPoolExecutor(
-                1, 1, 30, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), namedThreadFactory(poolName));
+    /** Creates a scheduler for short background tasks, running on given number of named daemon threads. */
+    public static ScheduledThreadPoolExecutor scheduler(String poolName, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Number of scheduler threads must be positive: " + threads);
+        return new ScheduledThreadPoolExecutor(threads, namedThreadFactory(poolName, true));
+    }
+
+    /** Creates a thread pool for parsing responses and running callbacks, with given number of named daemon threads. */
+    public static ExecutorService callbackExecutor(String poolName, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Number of callback threads must be positive: " + threads);
+        return Executors.newFixedThreadPool(threads, namedThreadFactory(poolName, true));
+    }
+
+    /** Runs tasks on given executor, or in the calling thread if the executor rejects them, e.g. after shutdown.
+     *  Callbacks are never dropped this way, as dropping them would leave futures incomplete forever. */
+    public static Executor orCallerThread(final Executor executor) {
+        return new Executor() {
+            public void execute(Runnable task) {
+                try {
+                    executor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+        };
+    }
+
+    /** Reports the task queue and threads of given scheduler to given metrics.
+     *  Does nothing for schedulers that are not a {@link ThreadPoolExecutor}, as their queue can't be inspected. */
+    public static void registerSchedulerMetrics(ScheduledExecutorService scheduler, ClientMetrics metrics) {
+        if (!(scheduler instanceof ThreadPoolExecutor)) return;
+        final ThreadPoolExecutor pool = (ThreadPoolExecutor)scheduler;
+        metrics.registerGauge(schedulerQueuedTasks, new Supplier<Long>() {
+            public Long get() { return (long)pool.getQueue().size(); }
+        });
+        metrics.registerGauge(schedulerActiveThreads, new Supplier<Long>() {
+            public Long get() { return (long)pool.getActiveCount(); }
+        });
+        metrics.registerGauge(schedulerCompletedTasks, new Supplier<Long>() {
+            public Long get() { return pool.getCompletedTaskCount(); }
+        });
     }
 }
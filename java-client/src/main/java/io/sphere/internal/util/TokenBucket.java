@@ -0,0 +1,46 @@
+package io.sphere.internal.util;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+/** Allows a limited rate of operations, with short bursts.
+ *  Tokens are refilled continuously at a fixed rate, up to a maximum. */
+@ThreadSafe
+public final class TokenBucket {
+    private final double tokensPerNano;
+    private final double maxTokens;
+
+    @GuardedBy("this") private double tokens;
+    @GuardedBy("this") private long lastRefillNanos;
+
+    /** @param tokensPerSecond Rate at which tokens are refilled.
+     *  @param maxTokens Maximum number of tokens, i.e. the maximum burst. The bucket starts full. */
+    public TokenBucket(double tokensPerSecond, int maxTokens) {
+        this(tokensPerSecond, maxTokens, maxTokens);
+    }
+
+    /** @param initialTokens Number of tokens available right away. */
+    public TokenBucket(double tokensPerSecond, int maxTokens, int initialTokens) {
+        if (tokensPerSecond < 0) throw new IllegalArgumentException("tokensPerSecond must not be negative.");
+        if (maxTokens < 0) throw new IllegalArgumentException("maxTokens must not be negative.");
+        this.tokensPerNano = tokensPerSecond / 1e9;
+        this.maxTokens = maxTokens;
+        this.tokens = Math.min(initialTokens, maxTokens);
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /** Adds tokens, in addition to the continuous refill. */
+    public synchronized void deposit(double amount) {
+        tokens = Math.min(maxTokens, tokens + amount);
+    }
+
+    /** Takes a token if one is available. */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+        if (tokens < 1) return false;
+        tokens -= 1;
+        return true;
+    }
+}
@@ -6,6 +6,7 @@ import java.math.BigDecimal;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -21,6 +22,8 @@ import com.google.common.collect.Ranges;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.ning.http.client.Request;
 import com.ning.http.client.Response;
+import io.sphere.client.HttpRequest;
+import io.sphere.client.QueryParam;
 import io.sphere.client.SphereClientException;
 import io.sphere.client.SphereError;
 import io.sphere.client.SphereResult;
@@ -56,6 +59,25 @@ public class Util {
         }
     }
 
+    /** Encodes a query parameter name or value with UTF-8, spaces as %20. */
+    public static String encodeQueryParam(String s) {
+        try {
+            return URLEncoder.encode(s, "UTF-8").replace("+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);   // UTF-8 is always supported
+        }
+    }
+
+    /** Encodes query parameters as a query string, without the leading '?'. */
+    public static String encodeQueryString(Iterable<QueryParam> queryParams) {
+        StringBuilder sb = new StringBuilder();
+        for (QueryParam qp: queryParams) {
+            if (sb.length() > 0) sb.append('&');
+            sb.append(encodeQueryParam(qp.getName())).append('=').append(encodeQueryParam(qp.getValue()));
+        }
+        return sb.toString();
+    }
+
     /**
      * Encodes a Locale to a BCP-47-conformant language tag. Emulates Java 7's Locale#toLanguageTag.
      * Note that the separator is the hyphen (-) not the underscore.
@@ -177,7 +199,21 @@ public class Util {
 
     /** Gets full decoded URL including query string. */
     public static String getDecodedUrl(Request request) {
-        String encoded = request.getUrl(); // getRawUrl() broken
+        return decodeUrl(request.getUrl()); // getRawUrl() broken
+    }
+
+    /** Gets full decoded URL including query string. */
+    public static String getDecodedUrl(HttpRequest request) {
+        return decodeUrl(request.getEncodedUrl());
+    }
+
+    /** Gets the first value of a response header, or null if there is none. */
+    public static String getFirstHeader(Map<String, List<String>> headers, String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static String decodeUrl(String encoded) {
         try {
             return URLDecoder.decode(encoded, "UTF-8");
         } catch (UnsupportedEncodingException e) {
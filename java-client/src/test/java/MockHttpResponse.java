@@ -1,9 +1,11 @@
 package io.sphere.client;
 
+import com.google.common.base.Charsets;
 import com.ning.http.client.Cookie;
 import com.ning.http.client.FluentCaseInsensitiveStringsMap;
 import com.ning.http.client.Response;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
@@ -32,6 +34,14 @@ public class MockHttpResponse implements Response {
     public String getResponseBody() throws IOException {
         return body;
     }
+    @Override
+    public byte[] getResponseBodyAsBytes() throws IOException {
+        return body.getBytes(Charsets.UTF_8.name());
+    }
+    @Override
+    public InputStream getResponseBodyAsStream() throws IOException {
+        return new ByteArrayInputStream(getResponseBodyAsBytes());
+    }
 
     // everything else is unimplemented
 
@@ -44,15 +54,6 @@ public class MockHttpResponse implements Response {
         throw new UnsupportedOperationException();
     }
     @Override
-    public byte[] getResponseBodyAsBytes() throws IOException {
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public InputStream getResponseBodyAsStream() throws IOException {
-        throw new UnsupportedOperationException();
-    }
-    @Override
     public String getResponseBodyExcerpt(int maxLength, String charset) throws IOException {
         throw new UnsupportedOperationException();
     }
@@ -0,0 +1,34 @@
+package io.sphere.client;
+
+import com.google.common.base.Charsets;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** Fake HTTP response fed to an {@link HttpResponseHandler} in small chunks, the way the HTTP client does it. */
+public class MockHttpResponseParts {
+    /** Chunks are deliberately small so that parsing across chunk boundaries is exercised by all tests. */
+    private static final int chunkSize = 64;
+
+    /** Feeds status, headers and body to given handler and returns the result of {@code onCompleted}. */
+    public static <T> T feed(HttpResponseHandler<T> handler, int statusCode, String body) throws Exception {
+        return feed(handler, statusCode, Collections.<String, List<String>>emptyMap(), body);
+    }
+
+    /** Feeds status, headers and body to given handler and returns the result of {@code onCompleted}. */
+    public static <T> T feed(HttpResponseHandler<T> handler, int statusCode, Map<String, List<String>> headers, String body) throws Exception {
+        return feed(handler, statusCode, headers, body == null ? new byte[0] : body.getBytes(Charsets.UTF_8.name()));
+    }
+
+    /** Feeds status, headers and raw body bytes to given handler and returns the result of {@code onCompleted}. */
+    public static <T> T feed(HttpResponseHandler<T> handler, int statusCode, Map<String, List<String>> headers, byte[] bytes) throws Exception {
+        handler.onStatusReceived(statusCode);
+        handler.onHeadersReceived(headers);
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            handler.onBodyPartReceived(Arrays.copyOfRange(bytes, offset, Math.min(offset + chunkSize, bytes.length)));
+        }
+        return handler.onCompleted();
+    }
+}
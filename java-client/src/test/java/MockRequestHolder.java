@@ -1,22 +1,30 @@
 package io.sphere.client;
 
+import com.google.common.base.Charsets;
 import com.google.common.base.Strings;
-import io.sphere.internal.ListenableFutureAdapter;
+import com.google.common.base.Supplier;
 import io.sphere.internal.request.RequestHolder;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
-import com.ning.http.client.AsyncCompletionHandler;
 import io.sphere.internal.request.SphereResultRaw;
 import io.sphere.internal.util.QueryStringConstruction;
 import io.sphere.internal.util.Util;
 
-/** Request that just returns a prepared response instead of doing real HTTP communication. */
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/** Request that is answered with a prepared response instead of talking to Sphere.
+ *  The request is sent through the transport selected by {@link MockTransports}. */
 public class MockRequestHolder<T> implements RequestHolder<T> {
     private String baseUrl;
     private String method;
     private Multimap<String, String> queryParams = HashMultimap.create();
     private String requestBody;
+    private Map<String, String> headers = new HashMap<String, String>();
+    private long deadlineNanos;
 
     private int statusCode;
     private String responseBody;
@@ -29,9 +37,23 @@ public class MockRequestHolder<T> implements RequestHolder<T> {
     }
 
     /** Simulate a request to a server - just return prepared response. */
-    public ListenableFuture<SphereResultRaw<T>> executeRequest(AsyncCompletionHandler<SphereResultRaw<T>> onResponse) throws Exception {
-        return new ListenableFutureAdapter<SphereResultRaw<T>>(
-                MockListenableFuture.completed(onResponse.onCompleted(new MockHttpResponse(statusCode, responseBody))));
+    public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) throws Exception {
+        return respondWith(responseHandlers, statusCode, responseBody);
+    }
+
+    /** Sends this request through the {@linkplain MockTransports current transport}, which answers it with given response.
+     *  For subclasses that compute the response from the request. */
+    protected ListenableFuture<SphereResultRaw<T>> respondWith(
+            Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers, int statusCode, String responseBody) throws IOException {
+        int query = baseUrl.indexOf('?');
+        HttpRequest request = new HttpRequest(method,
+                query < 0 ? baseUrl : baseUrl.substring(0, query),
+                query < 0 ? "" : baseUrl.substring(query + 1),
+                ArrayListMultimap.create(queryParams),
+                headers,
+                requestBody == null ? null : requestBody.getBytes(Charsets.UTF_8.name()),
+                HttpRequest.defaultTimeout);
+        return MockTransports.send(request, statusCode, responseBody, responseHandlers.get());
     }
 
     /** Remembers the query parameter, for test assertions. */
@@ -46,6 +68,24 @@ public class MockRequestHolder<T> implements RequestHolder<T> {
         return this;
     }
 
+    /** Remembers the header, for test assertions. */
+    public MockRequestHolder<T> setHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /** Remembers the deadline, for test assertions. */
+    public MockRequestHolder<T> setDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        return this;
+    }
+
+    /** The deadline in terms of System.nanoTime(), or 0 if not set, for test assertions. */
+    public long getDeadline() { return deadlineNanos; }
+
+    /** Value of a request header, for test assertions. */
+    public String getHeader(String name) { return headers.get(name); }
+
     /** The HTTP method (GET, POST), for test assertions. */
     @Override public String getMethod() { return method; }
 
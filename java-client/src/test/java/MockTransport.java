@@ -0,0 +1,26 @@
+package io.sphere.client;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/** Transport that answers every request with a prepared response, fed to the response handler in memory. */
+public class MockTransport implements HttpTransport {
+    private final int statusCode;
+    private final String responseBody;
+
+    public MockTransport(int statusCode, String responseBody) {
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    @Override public <T> ListenableFuture<T> execute(HttpRequest request, HttpResponseHandler<T> responseHandler) {
+        try {
+            return Futures.immediateFuture(MockHttpResponseParts.feed(responseHandler, statusCode, responseBody));
+        } catch (Exception e) {
+            responseHandler.onThrowable(e);
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    @Override public void close() {}
+}
@@ -0,0 +1,115 @@
+package io.sphere.client;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.sphere.internal.request.AsyncHttpClientTransport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Sends the requests of {@link MockRequestHolder}, which are answered with prepared responses.
+ *
+ *  <p>By default, responses are fed to the response handler in memory by a {@link MockTransport}.
+ *  After {@link #useAsyncHttpClient}, requests are sent by an {@link AsyncHttpClientTransport} to a local server
+ *  that answers with the prepared response, so that the same specs also run through a real HTTP stack. */
+public final class MockTransports {
+    private MockTransports() {}
+
+    private static volatile FixtureServer server;
+
+    /** Sends all requests through AsyncHttpClient to a local server, until {@link #useInMemory} is called. */
+    public static synchronized void useAsyncHttpClient() throws IOException {
+        if (server == null) server = new FixtureServer();
+    }
+
+    /** Feeds prepared responses to the response handlers in memory, which is the default. */
+    public static synchronized void useInMemory() {
+        if (server == null) return;
+        server.close();
+        server = null;
+    }
+
+    /** Sends given request through the current transport, which answers it with given response. */
+    public static <T> ListenableFuture<T> send(HttpRequest request, int statusCode, String responseBody,
+                                               HttpResponseHandler<T> responseHandler) throws IOException {
+        FixtureServer current = server;
+        if (current == null) return new MockTransport(statusCode, responseBody).execute(request, responseHandler);
+        return current.send(request, statusCode, responseBody, responseHandler);
+    }
+
+    /** Local server answering requests to {@code /fixture/<id>/...} with the response registered under the id. */
+    private static final class FixtureServer implements HttpHandler {
+        private final ConcurrentMap<String, Fixture> fixtures = new ConcurrentHashMap<String, Fixture>();
+        private final AtomicLong nextId = new AtomicLong();
+        private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+        private final HttpServer httpServer;
+        private final HttpTransport transport = new AsyncHttpClientTransport(
+                new AsyncHttpClient(new AsyncHttpClientConfig.Builder().setUseRawUrl(true).build()));
+
+        FixtureServer() throws IOException {
+            httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.createContext("/fixture/", this);
+            httpServer.setExecutor(serverThreads);
+            httpServer.start();
+        }
+
+        <T> ListenableFuture<T> send(HttpRequest request, int statusCode, String responseBody,
+                                     HttpResponseHandler<T> responseHandler) throws IOException {
+            String id = Long.toString(nextId.incrementAndGet());
+            fixtures.put(id, new Fixture(statusCode, responseBody));
+            String url = "http://localhost:" + httpServer.getAddress().getPort() + "/fixture/" + id + pathOf(request.getUrl());
+            return transport.execute(new HttpRequest(request.getMethod(), url, request.getRawQuery(), request.getQueryParams(),
+                    request.getHeaders(), request.getBody(), request.getTimeoutMs()), responseHandler);
+        }
+
+        public void handle(HttpExchange exchange) throws IOException {
+            ByteStreams.toByteArray(exchange.getRequestBody());
+            String id = exchange.getRequestURI().getRawPath().split("/")[2];
+            Fixture response = fixtures.remove(id);
+            byte[] body = response == null ?
+                    ("[tests] No response prepared for " + exchange.getRequestURI()).getBytes(Charsets.UTF_8.name()) :
+                    response.body.getBytes(Charsets.UTF_8.name());
+            // a length of 0 means a chunked response, -1 means no body
+            exchange.sendResponseHeaders(response == null ? 500 : response.statusCode, body.length == 0 ? -1 : body.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.close();
+        }
+
+        void close() {
+            transport.close();
+            httpServer.stop(0);
+            serverThreads.shutdownNow();
+        }
+
+        /** The path of given URL, which can be relative. */
+        private static String pathOf(String url) {
+            int scheme = url.indexOf("://");
+            if (scheme < 0) return url.startsWith("/") ? url : "/" + url;
+            int path = url.indexOf('/', scheme + 3);
+            return path < 0 ? "/" : url.substring(path);
+        }
+    }
+
+    private static final class Fixture {
+        final int statusCode;
+        final String body;
+
+        Fixture(int statusCode, String body) {
+            this.statusCode = statusCode;
+            this.body = body == null ? "" : body;
+        }
+    }
+}
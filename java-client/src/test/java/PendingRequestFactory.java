@@ -0,0 +1,95 @@
+package io.sphere.client;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.sphere.internal.request.BasicRequestFactory;
+import io.sphere.internal.request.RequestHolder;
+import io.sphere.internal.request.SphereResultRaw;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Creates fake requests that stay in flight until the test completes them, and records all requests sent.
+ *  Override {@link #onRequest} to respond to requests as they are sent. */
+public class PendingRequestFactory implements BasicRequestFactory {
+    private final List<SentRequest> requests = new CopyOnWriteArrayList<SentRequest>();
+
+    @Override public <T> RequestHolder<T> createGet(String url) {
+        return new PendingRequestHolder<T>(url, "GET");
+    }
+
+    @Override public <T> RequestHolder<T> createPost(String url) {
+        return new PendingRequestHolder<T>(url, "POST");
+    }
+
+    /** Called for each request sent, after it has been recorded. Leaves the request in flight by default. */
+    protected void onRequest(SentRequest request) {}
+
+    /** All requests sent so far, in the order they were sent. */
+    public List<SentRequest> getRequests() { return requests; }
+
+    /** The request sent with given index. */
+    public SentRequest get(int index) { return requests.get(index); }
+
+    /** Number of requests sent so far. */
+    public int size() { return requests.size(); }
+
+    private class PendingRequestHolder<T> extends MockRequestHolder<T> {
+        PendingRequestHolder(String url, String method) {
+            super(url, method, 200, "");
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override public ListenableFuture<SphereResultRaw<T>> executeRequest(Supplier<HttpResponseHandler<SphereResultRaw<T>>> responseHandlers) {
+            SentRequest request = new SentRequest(this, (Supplier)responseHandlers);
+            requests.add(request);
+            onRequest(request);
+            return (ListenableFuture)request.response;
+        }
+    }
+
+    /** A request sent through the factory, with the means to complete it. */
+    public static class SentRequest {
+        private final MockRequestHolder<?> holder;
+        private final Supplier<HttpResponseHandler<SphereResultRaw<Object>>> responseHandlers;
+        private final SettableFuture<SphereResultRaw<Object>> response = SettableFuture.create();
+
+        SentRequest(MockRequestHolder<?> holder, Supplier<HttpResponseHandler<SphereResultRaw<Object>>> responseHandlers) {
+            this.holder = holder;
+            this.responseHandlers = responseHandlers;
+        }
+
+        public String getUrl() { return holder.getUrl(); }
+        public String getMethod() { return holder.getMethod(); }
+        public String getBody() { return holder.getBody(); }
+        public String getHeader(String name) { return holder.getHeader(name); }
+        public boolean isCancelled() { return response.isCancelled(); }
+
+        /** Completes the request with the parsed result, without going through the response handlers. */
+        public void succeed(Object value) {
+            response.set(SphereResultRaw.success(value));
+        }
+
+        /** Fails the request, e.g. with an IO error of the transport. */
+        public void fail(Throwable t) {
+            response.setException(t);
+        }
+
+        /** Feeds given HTTP response to the response handlers of the request and completes it with their result. */
+        public void respond(int statusCode, String body) {
+            respond(statusCode, Collections.<String, List<String>>emptyMap(), body);
+        }
+
+        /** Feeds given HTTP response to the response handlers of the request and completes it with their result. */
+        public void respond(int statusCode, Map<String, List<String>> headers, String body) {
+            try {
+                response.set(MockHttpResponseParts.feed(responseHandlers.get(), statusCode, headers, body));
+            } catch (Exception e) {
+                response.setException(e);
+            }
+        }
+    }
+}
@@ -2,10 +2,11 @@ package io.sphere.client.oauth;
 
 import com.ning.http.client.AsyncHttpClient;
 import com.ning.http.client.Response;
+import io.sphere.client.HttpTransport;
 
 public class MockOAuthClient extends OAuthClient {
     public MockOAuthClient() {
-        super(null);
+        super((HttpTransport)null);
     }
 
     /** Exposes OAuthClient's protected method for testing purposes. */
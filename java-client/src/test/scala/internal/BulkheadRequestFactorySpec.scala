@@ -0,0 +1,50 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.util.concurrent.ExecutionException
+import io.sphere.client._
+import io.sphere.client.shop.ServiceGroup
+
+class BulkheadRequestFactorySpec extends WordSpec with MustMatchers {
+  val endpoints = new ProjectEndpoints("http://sphere/project")
+
+  def fetch(factory: BasicRequestFactory, url: String) = factory.createGet[String](url).executeRequest(null)
+
+  def fixedLimit(limit: Int) =
+    new ConcurrencyLimitConfig.Builder().setInitialLimit(limit).setMinLimit(limit).setMaxLimit(limit).setMaxQueueSize(0).build
+
+  "Route requests by service group" in {
+    val default = new PendingRequestFactory
+    val checkout = new PendingRequestFactory
+    val groups = new java.util.HashMap[ServiceGroup, BasicRequestFactory]()
+    groups.put(ServiceGroup.Checkout, checkout)
+    val factory = new BulkheadRequestFactory(default, groups, endpoints)
+    fetch(factory, "http://sphere/project/carts/c1")
+    factory.createPost[String]("http://sphere/project/orders").executeRequest(null)
+    fetch(factory, "http://sphere/project/product-projections/p1")
+    fetch(factory, "http://sphere/project/unknown")
+    checkout.size must be (2)
+    default.size must be (2)
+    factory.serviceGroup("http://sphere/project/login") must be (ServiceGroup.Customers)
+    factory.serviceGroup("http://sphere/project/categories?limit=500") must be (ServiceGroup.Background)
+    factory.serviceGroup("http://sphere/project/unknown") must be (null)
+  }
+
+  "A saturated group does not affect other groups" in {
+    val default = new PendingRequestFactory
+    val catalog = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val groups = new java.util.HashMap[ServiceGroup, BasicRequestFactory]()
+    groups.put(ServiceGroup.Catalog,
+      new ConcurrencyLimitingRequestFactory(catalog, fixedLimit(1), metrics, "bulkhead.catalog"))
+    val factory = new BulkheadRequestFactory(default, groups, endpoints)
+    fetch(factory, "http://sphere/project/product-projections/p1")
+    val e = intercept[ExecutionException] { fetch(factory, "http://sphere/project/product-projections/p2").get }
+    e.getCause.isInstanceOf[ConcurrencyLimitExceededException] must be (true)
+    metrics.getCount("bulkhead.catalog.rejected") must be (1)
+    metrics.getGauge("bulkhead.catalog.inFlight") must be (1)
+
+    fetch(factory, "http://sphere/project/carts/c1")
+    default.size must be (1)
+  }
+}
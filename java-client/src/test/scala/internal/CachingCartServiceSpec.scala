@@ -0,0 +1,91 @@
+package io.sphere.internal
+
+import org.scalatest._
+import java.util.concurrent.atomic.AtomicInteger
+import com.google.common.base.Supplier
+import com.google.common.util.concurrent.ListenableFuture
+import io.sphere.client._
+import io.sphere.client.model.VersionedId
+import io.sphere.client.shop.JsonResponses
+import io.sphere.client.shop.model.{Cart, CartUpdate}
+import io.sphere.internal.request.{BasicRequestFactory, RequestFactoryImpl, RequestHolder, SphereResultRaw}
+
+class CachingCartServiceSpec extends WordSpec with MustMatchers {
+  val cartId = JsonResponses.cartId
+  val otherCartId = "7e4d5a4b-0b1c-4e0a-9c1f-0c6f3b7a2d10"
+
+  /** A cart that gets a new version on each update. The version can also be changed behind the client's back. */
+  class CartBackend extends BasicRequestFactory {
+    val version = new AtomicInteger(1)
+    val gets = new AtomicInteger()
+    def cartJson = JsonResponses.cartJson.replace("\"version\":1", "\"version\":" + version.get)
+    def cartJson(id: String): String = cartJson.replace(cartId, id)
+
+    def createGet[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "GET", 200, "") {
+      override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] = {
+        gets.incrementAndGet()
+        respondWith(responseHandlers, 200, cartJson)
+      }
+    }
+    def createPost[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "POST", 200, "") {
+      override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] = {
+        if (url.endsWith(cartId)) version.incrementAndGet()
+        respondWith(responseHandlers, 200, if (url.endsWith(otherCartId)) cartJson(otherCartId) else cartJson)
+      }
+    }
+  }
+
+  def withCarts(maxSize: Int)(test: (CartBackend, CachingCartService, ClientMetrics) => Unit) {
+    val backend = new CartBackend
+    val metrics = new ClientMetrics
+    val carts = new CartServiceImpl(new RequestFactoryImpl(backend), new ProjectEndpoints(""))
+    test(backend, new CachingCartService(carts, maxSize, metrics), metrics)
+  }
+
+  def v(version: Int) = VersionedId.create(cartId, version)
+
+  "Serve a created cart from memory" in withCarts(10) { (backend, carts, metrics) =>
+    val created = carts.createCart(java.util.Currency.getInstance("EUR"), Cart.InventoryMode.None).execute()
+    carts.byId(created.getIdAndVersion).fetch.get must be theSameInstanceAs (created)
+    backend.gets.get must be (0)
+    metrics.getCount(CachingCartService.cacheHits) must be (1)
+  }
+
+  "Serve the version returned by the last update" in withCarts(10) { (backend, carts, metrics) =>
+    val updated = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).execute()
+    updated.getIdAndVersion must be (v(2))
+    carts.byId(v(2)).fetch.get must be theSameInstanceAs (updated)
+    backend.gets.get must be (0)
+  }
+
+  "Fetch a cart whose version is not cached" in withCarts(10) { (backend, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).execute()
+    backend.version.set(5)
+    carts.byId(v(5)).fetch.get.getIdAndVersion must be (v(5))
+    backend.gets.get must be (1)
+    metrics.getCount(CachingCartService.cacheMisses) must be (1)
+
+    // the fetched cart is cached as well
+    carts.byId(v(5)).fetch
+    backend.gets.get must be (1)
+    // older versions are gone
+    carts.byId(v(2)).fetch
+    backend.gets.get must be (2)
+  }
+
+  "Not cache carts with expanded references" in withCarts(10) { (backend, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).execute()
+    carts.byId(v(2)).expand("lineItems[*].productType").fetch
+    backend.gets.get must be (1)
+  }
+
+  "Evict carts beyond the maximum size" in withCarts(1) { (backend, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).execute()
+    val other = carts.updateCart(VersionedId.create(otherCartId, 1), new CartUpdate().addLineItem(1, "p1")).execute()
+    metrics.getGauge(CachingCartService.cacheSize) must be (1)
+    carts.byId(other.getIdAndVersion).fetch
+    backend.gets.get must be (0)
+    carts.byId(v(2)).fetch
+    backend.gets.get must be (1)
+  }
+}
@@ -0,0 +1,46 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import com.ning.http.client.FluentCaseInsensitiveStringsMap
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client.{ClientMetrics, PendingRequestFactory}
+import io.sphere.client.PendingRequestFactory.SentRequest
+
+class CachingRequestFactorySpec extends WordSpec with MustMatchers {
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+
+  /** Answers 200 with an ETag, or 304 if the request carries the current ETag. */
+  class ETagRequestFactory(etag: String) extends PendingRequestFactory {
+    override def onRequest(request: SentRequest) {
+      val headers = new FluentCaseInsensitiveStringsMap().add("ETag", etag)
+      if (request.getHeader("If-None-Match") == etag) request.respond(304, headers, "")
+      else request.respond(200, headers, """{"id":"p1"}""")
+    }
+  }
+
+  def fetch(factory: BasicRequestFactory, url: String) =
+    RequestExecutor.executeAndThrowOnError(factory.createGet[java.util.Map[String, String]](url), typeRef).get
+
+  "Return the cached result when not modified" in {
+    val underlying = new ETagRequestFactory("\"v1\"")
+    val metrics = new ClientMetrics
+    val factory = new CachingRequestFactory(underlying, 1024 * 1024, metrics)
+    val first = fetch(factory, "/products/p1")
+    val second = fetch(factory, "/products/p1")
+    first.get("id") must be ("p1")
+    second must be theSameInstanceAs (first)
+    underlying.size must be (2)
+    metrics.getCount(CachingRequestFactory.cacheMisses) must be (1)
+    metrics.getCount(CachingRequestFactory.cacheRevalidations) must be (1)
+    metrics.getCount(CachingRequestFactory.cacheHits) must be (1)
+  }
+
+  "Not cache more than the configured size" in {
+    val metrics = new ClientMetrics
+    val factory = new CachingRequestFactory(new ETagRequestFactory("\"v1\""), 5, metrics)
+    fetch(factory, "/products/p1")
+    fetch(factory, "/products/p1")
+    metrics.getCount(CachingRequestFactory.cacheMisses) must be (2)
+    metrics.getCount(CachingRequestFactory.cacheHits) must be (0)
+  }
+}
@@ -0,0 +1,73 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.net.InetSocketAddress
+import java.util.concurrent.{ExecutionException, Executor, Executors, TimeUnit}
+import com.sun.net.httpserver.{HttpExchange, HttpHandler, HttpServer}
+import com.google.common.base.Supplier
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client.{HttpResponseHandler, HttpTransport}
+import io.sphere.internal.util.Concurrent
+
+class CallbackExecutorSpec extends WordSpec with MustMatchers with BeforeAndAfterAll {
+  val server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+  server.createContext("/", new HttpHandler {
+    def handle(exchange: HttpExchange) {
+      val body = (if (exchange.getRequestURI.getPath == "/broken") "{\"name\": " else "{\"name\": \"value\"}").getBytes("UTF-8")
+      exchange.sendResponseHeaders(200, body.length)
+      exchange.getResponseBody.write(body)
+      exchange.close()
+    }
+  })
+  server.start()
+  val transports = TestTransports.create()
+  val callbackExecutor = Concurrent.callbackExecutor("test-callback", 2)
+  def url(path: String) = "http://localhost:" + server.getAddress.getPort + path
+
+  override def afterAll() {
+    transports.foreach(_._2.close())
+    callbackExecutor.shutdownNow()
+    server.stop(0)
+  }
+
+  /** Returns the response and the name of the thread that parsed it. */
+  def fetch(transport: HttpTransport, path: String, executor: Executor) = {
+    val holder = new RequestHolderImpl[java.util.Map[String, String]](
+      transport, "GET", url(path), RequestHolderImpl.noRequestCompression, executor)
+    var parsedOn: String = null
+    val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+    val result = holder.executeRequest(new Supplier[HttpResponseHandler[SphereResultRaw[java.util.Map[String, String]]]] {
+      def get() = new JsonResponseHandler(holder, typeRef) {
+        override def onCompleted() = { parsedOn = Thread.currentThread.getName; super.onCompleted() }
+      }
+    })
+    (result, () => parsedOn)
+  }
+
+  for ((backend, transport) <- transports) {
+    (backend + ": Parse responses on the callback executor") in {
+      val (result, parsedOn) = fetch(transport, "/products", callbackExecutor)
+      result.get(5, TimeUnit.SECONDS).getValue.get("name") must be ("value")
+      parsedOn() must startWith ("test-callback-")
+    }
+
+    (backend + ": Parse responses on the IO threads without a callback executor") in {
+      val (result, parsedOn) = fetch(transport, "/products", null)
+      result.get(5, TimeUnit.SECONDS).getValue.get("name") must be ("value")
+      parsedOn() must not startWith ("test-callback-")
+    }
+
+    (backend + ": Fail the future if the response can't be parsed") in {
+      val (result, _) = fetch(transport, "/broken", callbackExecutor)
+      intercept[ExecutionException] { result.get(5, TimeUnit.SECONDS) }
+    }
+
+    (backend + ": Parse responses in the calling thread once the callback executor is shut down") in {
+      val executor = Executors.newSingleThreadExecutor()
+      executor.shutdown()
+      val (result, parsedOn) = fetch(transport, "/products", Concurrent.orCallerThread(executor))
+      result.get(5, TimeUnit.SECONDS).getValue.get("name") must be ("value")
+      parsedOn() must not be (null)
+    }
+  }
+}
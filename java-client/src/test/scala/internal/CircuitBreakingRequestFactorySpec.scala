@@ -0,0 +1,104 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.net.ConnectException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
+import org.codehaus.jackson.{JsonLocation, JsonParseException}
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+import io.sphere.client.PendingRequestFactory.SentRequest
+
+class CircuitBreakingRequestFactorySpec extends WordSpec with MustMatchers {
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+  val serverError = """{"statusCode": 500, "message": "Internal error", "errors": []}"""
+  val endpoints = new ProjectEndpoints("http://sphere/project")
+
+  class SwitchableRequestFactory extends PendingRequestFactory {
+    val failing = new AtomicBoolean(true)
+    override def onRequest(request: SentRequest) {
+      if (failing.get) request.respond(500, serverError)
+      else request.respond(200, """{"id":"p1"}""")
+    }
+  }
+
+  val config = new CircuitBreakerConfig.Builder()
+    .setWindowSize(4).setMinimumRequests(4).setFailureRatePercent(50).setOpenDurationMs(50).setHalfOpenProbes(1)
+    .build
+
+  def fetch(factory: BasicRequestFactory, url: String) =
+    RequestExecutor.execute(factory.createGet[java.util.Map[String, String]](url), typeRef)
+
+  "Fail fast while open, then recover after a successful probe" in {
+    val underlying = new SwitchableRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CircuitBreakingRequestFactory(underlying, endpoints, config, metrics)
+    for (i <- 1 to 4) fetch(factory, "http://sphere/project/product-projections/p1").get.isError must be (true)
+    metrics.getGauge("circuitBreaker.product-projections.state") must be (1)
+    metrics.getCount("circuitBreaker.product-projections.opened") must be (1)
+
+    val e = intercept[ExecutionException] { fetch(factory, "http://sphere/project/product-projections/p1").get }
+    e.getCause.asInstanceOf[CircuitBreakerOpenException].getEndpointGroup must be ("product-projections")
+    underlying.size must be (4)
+    // other endpoint groups are not affected
+    fetch(factory, "http://sphere/project/carts/c1").get.isError must be (true)
+    underlying.size must be (5)
+
+    Thread.sleep(60)
+    underlying.failing.set(false)
+    fetch(factory, "http://sphere/project/product-projections/p1").get.isSuccess must be (true)
+    metrics.getGauge("circuitBreaker.product-projections.state") must be (0)
+  }
+
+  "Open again when a probe fails" in {
+    val underlying = new SwitchableRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CircuitBreakingRequestFactory(underlying, endpoints, config, metrics)
+    for (i <- 1 to 4) fetch(factory, "http://sphere/project/carts/c1").get
+    Thread.sleep(60)
+    fetch(factory, "http://sphere/project/carts/c1").get.isError must be (true)
+    metrics.getGauge("circuitBreaker.carts.state") must be (1)
+    metrics.getCount("circuitBreaker.carts.opened") must be (2)
+  }
+
+  "Not count cancelled probes as successes" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CircuitBreakingRequestFactory(underlying, endpoints, config, metrics)
+    for (i <- 1 to 4) fetch(factory, "http://sphere/project/carts/c1")
+    for (i <- 0 to 3) underlying.get(i).respond(500, serverError)
+    Thread.sleep(60)
+    fetch(factory, "http://sphere/project/carts/c1").cancel(true)
+    metrics.getGauge("circuitBreaker.carts.state") must be (2)
+    // the slot of the cancelled probe is free again
+    fetch(factory, "http://sphere/project/carts/c1")
+    underlying.size must be (6)
+  }
+
+  "Count only connection failures and timeouts as failures" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CircuitBreakingRequestFactory(underlying, endpoints, config, metrics)
+    for (i <- 1 to 4) fetch(factory, "http://sphere/project/carts/c1")
+    underlying.get(0).fail(new JsonParseException("Unexpected end of input", JsonLocation.NA))
+    underlying.get(1).fail(new ConcurrencyLimitExceededException(2, 0))
+    underlying.get(2).fail(new IllegalStateException("bug"))
+    underlying.get(3).respond(200, """{"id":"c1"}""")
+    metrics.getGauge("circuitBreaker.carts.state") must be (0)
+
+    for (i <- 4 to 7) fetch(factory, "http://sphere/project/carts/c1")
+    underlying.get(4).fail(new ConnectException("Connection refused"))
+    underlying.get(5).fail(new RequestTimeoutException("carts/c1", 100))
+    // only the outcomes counted fill the window: 2 failures out of 4
+    underlying.get(6).respond(200, """{"id":"c1"}""")
+    metrics.getGauge("circuitBreaker.carts.state") must be (1)
+  }
+
+  "Determine the endpoint group of a URL" in {
+    endpoints.endpointGroup(endpoints.products.byId("p1")) must be ("product-projections")
+    endpoints.endpointGroup(endpoints.products.search()) must be ("product-projections")
+    endpoints.endpointGroup(endpoints.carts.root()) must be ("carts")
+    endpoints.endpointGroup(endpoints.login()) must be ("login")
+    endpoints.endpointGroup("http://elsewhere/carts") must be ("other")
+  }
+}
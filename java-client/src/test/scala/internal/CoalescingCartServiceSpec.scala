@@ -0,0 +1,172 @@
+package io.sphere.internal
+
+import org.scalatest._
+import scala.collection.JavaConverters._
+import java.util.Currency
+import java.util.concurrent.{CopyOnWriteArrayList, TimeUnit}
+import com.google.common.base.Function
+import com.google.common.util.concurrent.{ListenableFuture, SettableFuture}
+import com.neovisionaries.i18n.CountryCode
+import org.codehaus.jackson.map.{DeserializationConfig, ObjectMapper}
+import io.sphere.client._
+import io.sphere.client.exceptions._
+import io.sphere.client.model.VersionedId
+import io.sphere.client.shop.CartService
+import io.sphere.client.shop.JsonResponses
+import io.sphere.client.shop.model.{Cart, CartUpdate}
+import io.sphere.internal.command.CartCommands._
+import io.sphere.internal.command.UpdateCommand
+import io.sphere.internal.errors.SphereErrorResponse
+import io.sphere.internal.request.SphereResultRaw
+import io.sphere.internal.util.Concurrent
+
+class CoalescingCartServiceSpec extends WordSpec with MustMatchers {
+  val cartId = JsonResponses.cartId
+
+  def cart(version: Int): Cart = new ObjectMapper().configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false).readValue(
+    JsonResponses.cartJson.replace("\"version\":1", "\"version\":" + version), classOf[Cart])
+
+  case class SentUpdate(cartId: VersionedId, actions: List[CartUpdateAction], timeoutNanos: Long,
+                        result: SettableFuture[SphereResult[Cart]])
+
+  /** Update requests stay in flight until their result is set. */
+  class PendingCartService extends CartService {
+    val sent = new CopyOnWriteArrayList[SentUpdate]()
+    def updateCart(id: VersionedId, update: CartUpdate): UpdateRequest[Cart] = new UpdateRequest[Cart] {
+      var timeoutNanos = -1L
+      def execute() = throw new UnsupportedOperationException
+      def executeAsync(): ListenableFuture[SphereResult[Cart]] = {
+        val result = SettableFuture.create[SphereResult[Cart]]()
+        sent.add(SentUpdate(id, new UpdateCommand[CartUpdateAction](id.getVersion, update).getActions.asScala.toList, timeoutNanos, result))
+        result
+      }
+      def withErrorHandling(transformError: Function[SphereBackendException, SphereException]) = this
+      def timeout(timeout: Long, unit: TimeUnit) = { timeoutNanos = unit.toNanos(timeout); this }
+      def retryOnConflict(retryPolicy: RetryPolicy) = this
+    }
+    def byId(id: String) = throw new UnsupportedOperationException
+    def byId(id: VersionedId) = throw new UnsupportedOperationException
+    def forCustomer(customerId: String) = throw new UnsupportedOperationException
+    def all() = throw new UnsupportedOperationException
+    def createCart(c: Currency, customerId: String, m: Cart.InventoryMode) = throw new UnsupportedOperationException
+    def createCart(c: Currency, customerId: String, country: CountryCode, m: Cart.InventoryMode) = throw new UnsupportedOperationException
+    def createCart(c: Currency, country: CountryCode, m: Cart.InventoryMode) = throw new UnsupportedOperationException
+    def createCart(c: Currency, m: Cart.InventoryMode) = throw new UnsupportedOperationException
+    def createCart(c: Currency, customerId: String, country: CountryCode, m: Cart.InventoryMode, u: CartUpdate) = throw new UnsupportedOperationException
+
+    def awaitSent(count: Int): SentUpdate = {
+      val deadline = System.currentTimeMillis + 2000
+      while (sent.size < count && System.currentTimeMillis < deadline) Thread.sleep(5)
+      sent.size must be (count)
+      sent.get(count - 1)
+    }
+  }
+
+  def withService(windowMs: Long)(test: (PendingCartService, CoalescingCartService, ClientMetrics) => Unit) {
+    val scheduler = Concurrent.scheduler("test-scheduler", 1)
+    try {
+      val underlying = new PendingCartService
+      val metrics = new ClientMetrics
+      test(underlying, new CoalescingCartService(underlying, windowMs, scheduler, metrics), metrics)
+    } finally {
+      scheduler.shutdownNow()
+    }
+  }
+
+  val conflict = new ObjectMapper().readValue(
+    """{"statusCode":409,"message":"Version mismatch.","errors":[]}""", classOf[SphereErrorResponse])
+
+  def v(version: Int) = VersionedId.create(cartId, version)
+
+  "Send updates arriving within the window as one update" in withService(100) { (underlying, carts, metrics) =>
+    val first = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync()
+    val second = carts.updateCart(v(1), new CartUpdate().addLineItem(2, "p2").recalculate()).executeAsync()
+    val sent = underlying.awaitSent(1)
+    sent.cartId must be (v(1))
+    sent.actions.map(_.getClass) must be (List(classOf[AddLineItemFromMasterVariant], classOf[AddLineItemFromMasterVariant], classOf[RecalculateCartPrices]))
+    sent.actions(1).asInstanceOf[AddLineItemFromMasterVariant].getProductId must be ("p2")
+    first.isDone must be (false)
+
+    sent.result.set(SphereResult.success(cart(2)))
+    first.get.getValue.getIdAndVersion.getVersion must be (2)
+    second.get.getValue.getIdAndVersion.getVersion must be (2)
+    metrics.getCount(CoalescingCartService.updateRequests) must be (1)
+    metrics.getCount(CoalescingCartService.coalescedUpdates) must be (2)
+  }
+
+  "Send updates arriving while an update is in flight with the returned version" in withService(0) { (underlying, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync()
+    val first = underlying.awaitSent(1)
+    val second = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p2")).executeAsync()
+    val third = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p3")).timeout(1, TimeUnit.SECONDS).executeAsync()
+    Thread.sleep(20)
+    underlying.sent.size must be (1)
+
+    first.result.set(SphereResult.success(cart(2)))
+    val next = underlying.awaitSent(2)
+    next.cartId must be (v(2))
+    next.actions.map(_.asInstanceOf[AddLineItemFromMasterVariant].getProductId) must be (List("p2", "p3"))
+    // the time spent waiting for the first update counts towards the timeout
+    next.timeoutNanos must (be > (0L) and be < (TimeUnit.SECONDS.toNanos(1) - TimeUnit.MILLISECONDS.toNanos(20)))
+    next.result.set(SphereResult.success(cart(3)))
+    second.get.getValue.getIdAndVersion.getVersion must be (3)
+    third.get.getValue.getIdAndVersion.getVersion must be (3)
+  }
+
+  "Fail all updates sent together" in withService(50) { (underlying, carts, metrics) =>
+    val first = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync()
+    val second = carts.updateCart(v(1), new CartUpdate().removeLineItem("li1")).executeAsync()
+    underlying.awaitSent(1).result.set(SphereResult.withSpecificError(
+      SphereResultRaw.error[Cart](new SphereBackendException("/carts", conflict)), null))
+    first.get.isError must be (true)
+    second.get.getGenericError.getStatusCode must be (409)
+
+    // the failed update doesn't affect later updates of the cart
+    carts.updateCart(v(2), new CartUpdate().recalculate()).executeAsync()
+    underlying.awaitSent(2).cartId must be (v(2))
+  }
+
+  "Fail updates that run out of time while waiting" in withService(0) { (underlying, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync()
+    val first = underlying.awaitSent(1)
+    val waiting = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p2")).timeout(30, TimeUnit.MILLISECONDS).executeAsync()
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p3")).executeAsync()
+    val e = intercept[java.util.concurrent.ExecutionException] { waiting.get(2, TimeUnit.SECONDS) }
+    e.getCause.isInstanceOf[RequestTimeoutException] must be (true)
+
+    // the expired update is not sent
+    first.result.set(SphereResult.success(cart(2)))
+    underlying.awaitSent(2).actions.map(_.asInstanceOf[AddLineItemFromMasterVariant].getProductId) must be (List("p3"))
+  }
+
+  "Not send updates cancelled while waiting" in withService(0) { (underlying, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync()
+    val first = underlying.awaitSent(1)
+    val cancelled = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p2")).executeAsync()
+    val third = carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p3")).executeAsync()
+    cancelled.cancel(true)
+
+    first.result.set(SphereResult.success(cart(2)))
+    val next = underlying.awaitSent(2)
+    next.actions.map(_.asInstanceOf[AddLineItemFromMasterVariant].getProductId) must be (List("p3"))
+    next.result.set(SphereResult.success(cart(3)))
+    third.get.getValue.getIdAndVersion.getVersion must be (3)
+  }
+
+  "Send nothing when all updates of the window were cancelled" in withService(50) { (underlying, carts, metrics) =>
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p1")).executeAsync().cancel(true)
+    Thread.sleep(100)
+    underlying.sent.size must be (0)
+
+    carts.updateCart(v(1), new CartUpdate().addLineItem(1, "p2")).executeAsync()
+    underlying.awaitSent(1).actions.map(_.asInstanceOf[AddLineItemFromMasterVariant].getProductId) must be (List("p2"))
+  }
+
+  "Keep updates of different carts apart" in withService(50) { (underlying, carts, metrics) =>
+    carts.updateCart(VersionedId.create("c1", 1), new CartUpdate().recalculate()).executeAsync()
+    carts.updateCart(VersionedId.create("c2", 4), new CartUpdate().recalculate()).executeAsync()
+    underlying.awaitSent(2)
+    underlying.sent.asScala.map(_.cartId).toSet must be (Set(VersionedId.create("c1", 1), VersionedId.create("c2", 4)))
+    metrics.getCount(CoalescingCartService.coalescedUpdates) must be (0)
+  }
+}
@@ -0,0 +1,94 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.util.concurrent.{ExecutionException, Executors, TimeUnit}
+import io.sphere.client.{ClientMetrics, PendingRequestFactory, RequestTimeoutException}
+
+class CoalescingRequestFactorySpec extends WordSpec with MustMatchers {
+  val scheduler = Executors.newSingleThreadScheduledExecutor
+
+  def get(factory: BasicRequestFactory, url: String, staged: String = "false") =
+    factory.createGet[String](url).addQueryParameter("staged", staged).executeRequest(null)
+
+  def getWithTimeout(factory: BasicRequestFactory, url: String, timeoutMs: Long) =
+    factory.createGet[String](url).addQueryParameter("staged", "false")
+      .setDeadline(System.nanoTime + TimeUnit.MILLISECONDS.toNanos(timeoutMs)).executeRequest(null)
+
+  "Share identical GET requests in flight" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CoalescingRequestFactory(underlying, scheduler, metrics)
+    val first = get(factory, "/products/p1")
+    val second = get(factory, "/products/p1")
+    underlying.size must be (1)
+    metrics.getCount(CoalescingRequestFactory.coalescedRequests) must be (1)
+    metrics.getGauge(CoalescingRequestFactory.inFlightRequests) must be (1)
+
+    underlying.get(0).succeed("p1")
+    first.get.getValue must be ("p1")
+    second.get.getValue must be ("p1")
+    metrics.getGauge(CoalescingRequestFactory.inFlightRequests) must be (0)
+
+    get(factory, "/products/p1")
+    underlying.size must be (2)
+  }
+
+  "Not share requests with different query parameters" in {
+    val underlying = new PendingRequestFactory
+    val factory = new CoalescingRequestFactory(underlying, scheduler, new ClientMetrics)
+    get(factory, "/products/p1", staged = "false")
+    get(factory, "/products/p1", staged = "true")
+    get(factory, "/products/p2")
+    underlying.size must be (3)
+  }
+
+  "Not affect other callers when one cancels" in {
+    val underlying = new PendingRequestFactory
+    val factory = new CoalescingRequestFactory(underlying, scheduler, new ClientMetrics)
+    val first = get(factory, "/products/p1")
+    val second = get(factory, "/products/p1")
+    first.cancel(true)
+    underlying.get(0).isCancelled must be (false)
+    underlying.get(0).succeed("p1")
+    second.get.getValue must be ("p1")
+  }
+
+  "Abort the shared request when all callers cancel" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new CoalescingRequestFactory(underlying, scheduler, metrics)
+    val first = get(factory, "/products/p1")
+    val second = get(factory, "/products/p1")
+    second.cancel(true)
+    first.cancel(true)
+    underlying.get(0).isCancelled must be (true)
+    metrics.getGauge(CoalescingRequestFactory.inFlightRequests) must be (0)
+
+    get(factory, "/products/p1")
+    underlying.size must be (2)
+  }
+
+  "Time out a caller that joined a request in flight at its own deadline" in {
+    val underlying = new PendingRequestFactory
+    val factory = new CoalescingRequestFactory(underlying, scheduler, new ClientMetrics)
+    val first = get(factory, "/products/p1")
+    val second = getWithTimeout(factory, "/products/p1", 50)
+    underlying.size must be (1)
+    val e = intercept[ExecutionException] { second.get(5, TimeUnit.SECONDS) }
+    e.getCause.getClass must be (classOf[RequestTimeoutException])
+    underlying.get(0).isCancelled must be (false)
+    underlying.get(0).succeed("p1")
+    first.get.getValue must be ("p1")
+  }
+
+  "Not join a request in flight that can time out first" in {
+    val underlying = new PendingRequestFactory
+    val factory = new CoalescingRequestFactory(underlying, scheduler, new ClientMetrics)
+    getWithTimeout(factory, "/products/p1", 1000)
+    get(factory, "/products/p1")
+    getWithTimeout(factory, "/products/p1", 5000)
+    underlying.size must be (3)
+    getWithTimeout(factory, "/products/p1", 500)
+    underlying.size must be (3)
+  }
+}
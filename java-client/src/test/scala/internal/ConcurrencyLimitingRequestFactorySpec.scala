@@ -0,0 +1,65 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.util.concurrent.ExecutionException
+import io.sphere.client._
+
+class ConcurrencyLimitingRequestFactorySpec extends WordSpec with MustMatchers {
+  def fetch(factory: BasicRequestFactory) = factory.createGet[String]("/products").executeRequest(null)
+
+  val config = new ConcurrencyLimitConfig.Builder().setInitialLimit(2).setMinLimit(1).setMaxQueueSize(1).build
+
+  "Queue requests over the limit and reject requests when the queue is full" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new ConcurrencyLimitingRequestFactory(underlying, config, metrics)
+    val first = fetch(factory)
+    fetch(factory)
+    val queued = fetch(factory)
+    underlying.size must be (2)
+    metrics.getGauge(ConcurrencyLimitingRequestFactory.concurrencyQueued) must be (1)
+
+    val e = intercept[ExecutionException] { fetch(factory).get }
+    e.getCause.isInstanceOf[ConcurrencyLimitExceededException] must be (true)
+    metrics.getCount(ConcurrencyLimitingRequestFactory.concurrencyRejected) must be (1)
+
+    underlying.get(0).succeed("first")
+    first.get.getValue must be ("first")
+    underlying.size must be (3)
+    underlying.get(2).succeed("queued")
+    queued.get.getValue must be ("queued")
+  }
+
+  "Decrease the limit on failures" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new ConcurrencyLimitingRequestFactory(underlying, config, metrics)
+    fetch(factory)
+    underlying.get(0).fail(new java.io.IOException("connection reset"))
+    metrics.getGauge(ConcurrencyLimitingRequestFactory.concurrencyLimit) must be (1)
+  }
+
+  "Abort the request when cancelled" in {
+    val underlying = new PendingRequestFactory
+    val factory = new ConcurrencyLimitingRequestFactory(underlying, config, new ClientMetrics)
+    fetch(factory).cancel(true)
+    underlying.get(0).isCancelled must be (true)
+  }
+
+  "Free the place in the queue when a queued request is cancelled" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val factory = new ConcurrencyLimitingRequestFactory(underlying, config, metrics)
+    fetch(factory)
+    fetch(factory)
+    fetch(factory).cancel(true)
+    metrics.getGauge(ConcurrencyLimitingRequestFactory.concurrencyQueued) must be (0)
+    val queued = fetch(factory)
+    metrics.getCount(ConcurrencyLimitingRequestFactory.concurrencyRejected) must be (0)
+
+    underlying.get(0).succeed("first")
+    underlying.size must be (3)
+    underlying.get(2).succeed("queued")
+    queued.get.getValue must be ("queued")
+  }
+}
@@ -0,0 +1,115 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{CopyOnWriteArrayList, CountDownLatch, TimeUnit}
+import com.google.common.base.Supplier
+import com.google.common.util.concurrent.ListenableFuture
+import io.sphere.client._
+import io.sphere.client.model.VersionedId
+import io.sphere.client.shop.JsonResponses
+import io.sphere.client.shop.model.{Cart, CartUpdate}
+import io.sphere.internal.CartServiceImpl
+import io.sphere.internal.util.Concurrent
+
+class ConflictRecoverySpec extends WordSpec with MustMatchers {
+  val cartId = JsonResponses.cartId
+  val conflictJson = """{"statusCode":409,"message":"Version mismatch.","errors":[{"code":"ConcurrentModification","message":"Version mismatch."}]}"""
+
+  /** A cart whose version is checked on update. Each update increments the version. */
+  class VersionedCartBackend(initialVersion: Int) extends BasicRequestFactory {
+    val version = new AtomicInteger(initialVersion)
+    val sentVersions = new CopyOnWriteArrayList[Int]()
+    /** Fails updates of any version with a conflict while positive. */
+    val conflictsToSimulate = new AtomicInteger(0)
+    def cartJson = JsonResponses.cartJson.replace("\"version\":1", "\"version\":" + version.get)
+
+    def createGet[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "GET", 200, "") {
+      override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] =
+        respondWith(responseHandlers, 200, cartJson)
+    }
+    def createPost[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "POST", 200, "") {
+      override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] = {
+        val sent = "\"version\":(\\d+)".r.findFirstMatchIn(getBody).get.group(1).toInt
+        sentVersions.add(sent)
+        if (conflictsToSimulate.getAndDecrement > 0 || !version.compareAndSet(sent, sent + 1)) {
+          respondWith(responseHandlers, 409, conflictJson)
+        } else {
+          respondWith(responseHandlers, 200, cartJson)
+        }
+      }
+    }
+  }
+
+  def withCarts(backend: VersionedCartBackend)(test: (CartServiceImpl, ClientMetrics) => Unit) {
+    val scheduler = Concurrent.scheduler("test-scheduler", 1)
+    try {
+      val metrics = new ClientMetrics
+      test(new CartServiceImpl(new RequestFactoryImpl(backend, scheduler, metrics), new ProjectEndpoints("")), metrics)
+    } finally {
+      scheduler.shutdownNow()
+    }
+  }
+
+  def update = new CartUpdate().addLineItem(1, "p1")
+
+  "Send the update again with the latest version after a conflict" in {
+    val backend = new VersionedCartBackend(3)
+    withCarts(backend) { (carts, metrics) =>
+      val result = carts.updateCart(VersionedId.create(cartId, 1), update)
+        .retryOnConflict(new ExponentialBackoffRetryPolicy(3, 1, 10)).executeAsync().get
+      result.isSuccess must be (true)
+      result.getValue.getIdAndVersion.getVersion must be (4)
+      backend.sentVersions.toArray.toList must be (List(1, 3))
+      metrics.getCount(ConflictRecovery.conflictRetries) must be (1)
+      metrics.getCount(ConflictRecovery.conflictsRecovered) must be (1)
+    }
+  }
+
+  "Give up as decided by the retry policy" in {
+    val backend = new VersionedCartBackend(1)
+    backend.conflictsToSimulate.set(10)
+    withCarts(backend) { (carts, metrics) =>
+      val result = carts.updateCart(VersionedId.create(cartId, 1), update)
+        .retryOnConflict(new ExponentialBackoffRetryPolicy(3, 1, 10)).executeAsync().get
+      result.isError must be (true)
+      result.getGenericError.getStatusCode must be (409)
+      backend.sentVersions.size must be (3)
+      metrics.getCount(ConflictRecovery.conflictRetries) must be (2)
+      metrics.getCount(ConflictRecovery.conflictsExhausted) must be (1)
+    }
+  }
+
+  "Not retry unless asked to" in {
+    val backend = new VersionedCartBackend(3)
+    withCarts(backend) { (carts, metrics) =>
+      val result = carts.updateCart(VersionedId.create(cartId, 1), update).executeAsync().get
+      result.getGenericError.getStatusCode must be (409)
+      backend.sentVersions.size must be (1)
+    }
+  }
+
+  "Not send the update again once the result is cancelled" in {
+    val backend = new VersionedCartBackend(3)
+    val scheduled = new CountDownLatch(1)
+    val policy = new RetryPolicy {
+      def getRetryDelayMs(retry: Int) = { scheduled.countDown(); 200 }
+    }
+    withCarts(backend) { (carts, metrics) =>
+      val result = carts.updateCart(VersionedId.create(cartId, 1), update).retryOnConflict(policy).executeAsync()
+      scheduled.await(5, TimeUnit.SECONDS) must be (true)
+      result.cancel(true)
+      Thread.sleep(400)
+      backend.sentVersions.toArray.toList must be (List(1))
+    }
+  }
+
+  "Send the update again right away when there is no timer" in {
+    val backend = new VersionedCartBackend(3)
+    val carts = new CartServiceImpl(new RequestFactoryImpl(backend), new ProjectEndpoints(""))
+    val result = carts.updateCart(VersionedId.create(cartId, 1), update)
+      .retryOnConflict(new ExponentialBackoffRetryPolicy(3, 1000, 10000)).executeAsync().get(5, TimeUnit.SECONDS)
+    result.isSuccess must be (true)
+    backend.sentVersions.toArray.toList must be (List(1, 3))
+  }
+}
@@ -0,0 +1,93 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.io.IOException
+import java.util.concurrent.Executors
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+import io.sphere.client.PendingRequestFactory.SentRequest
+
+class HedgingRequestFactorySpec extends WordSpec with MustMatchers {
+  val endpoints = new ProjectEndpoints("http://sphere/project")
+
+  /** The first request never responds, all further requests respond right away. */
+  class SlowFirstRequestFactory extends PendingRequestFactory {
+    override def onRequest(request: SentRequest) {
+      if (size > 1) request.succeed("response " + size)
+    }
+  }
+
+  def hedging(underlying: BasicRequestFactory, maxRatePercent: Int, metrics: ClientMetrics) = new HedgingRequestFactory(
+    underlying, endpoints,
+    new HedgingConfig.Builder().setMinDelayMs(10).setMaxDelayMs(10).setMaxHedgeRatePercent(maxRatePercent).build,
+    Executors.newSingleThreadScheduledExecutor, metrics)
+
+  def fetch(factory: BasicRequestFactory) =
+    factory.createGet[String]("http://sphere/project/product-projections/search").executeRequest(null)
+
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+  val serverError = """{"statusCode": 503, "message": "Service unavailable", "errors": []}"""
+
+  def fetchParsed(factory: BasicRequestFactory) =
+    RequestExecutor.execute(factory.createGet[java.util.Map[String, String]]("http://sphere/project/product-projections/search"), typeRef)
+
+  def awaitUntil(condition: => Boolean) {
+    val deadline = System.currentTimeMillis + 2000
+    while (!condition && System.currentTimeMillis < deadline) Thread.sleep(5)
+    condition must be (true)
+  }
+
+  "Use the hedged response and cancel the slow request" in {
+    val underlying = new SlowFirstRequestFactory
+    val metrics = new ClientMetrics
+    fetch(hedging(underlying, 100, metrics)).get.getValue must be ("response 2")
+    underlying.get(0).isCancelled must be (true)
+    metrics.getCount(HedgingRequestFactory.hedgedRequests) must be (1)
+    metrics.getCount(HedgingRequestFactory.hedgedRequestsWon) must be (1)
+  }
+
+  "Not hedge more than the maximum hedge rate" in {
+    val underlying = new SlowFirstRequestFactory
+    val metrics = new ClientMetrics
+    val result = fetch(hedging(underlying, 10, metrics))
+    Thread.sleep(50)
+    result.isDone must be (false)
+    underlying.size must be (1)
+    metrics.getCount(HedgingRequestFactory.hedgedRequestsRateLimited) must be (1)
+  }
+
+  "Abort the original and the hedged request when cancelled" in {
+    val underlying = new PendingRequestFactory
+    val metrics = new ClientMetrics
+    val result = fetch(hedging(underlying, 100, metrics))
+    awaitUntil(underlying.size == 2)
+    result.cancel(true)
+    underlying.get(0).isCancelled must be (true)
+    // the hedged request may be recorded before it joins the race, which then cancels it right away
+    awaitUntil(underlying.get(1).isCancelled)
+  }
+
+  "Wait for the other request when one responds with a server error" in {
+    val underlying = new PendingRequestFactory
+    val result = fetchParsed(hedging(underlying, 100, new ClientMetrics))
+    awaitUntil(underlying.size == 2)
+    underlying.get(0).respond(503, serverError)
+    result.isDone must be (false)
+    underlying.get(1).respond(200, """{"id":"p1"}""")
+    result.get.getValue.get("id") must be ("p1")
+  }
+
+  "Use a server error if the other request fails as well" in {
+    val underlying = new PendingRequestFactory
+    val result = fetchParsed(hedging(underlying, 100, new ClientMetrics))
+    awaitUntil(underlying.size == 2)
+    underlying.get(1).respond(503, serverError)
+    underlying.get(0).fail(new IOException("Connection reset"))
+    result.get.getError.getStatusCode must be (503)
+  }
+
+  "Reject a hedge rate that is not a percentage" in {
+    intercept[IllegalArgumentException] { new HedgingConfig.Builder().setMaxHedgeRatePercent(101).build }
+    intercept[IllegalArgumentException] { new HedgingConfig.Builder().setMaxHedgeRatePercent(-1).build }
+  }
+}
@@ -0,0 +1,37 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.io.ByteArrayOutputStream
+import java.util.zip.GZIPOutputStream
+import com.ning.http.client.FluentCaseInsensitiveStringsMap
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client.{MockHttpResponseParts, MockRequestHolder}
+
+class JsonResponseHandlerSpec extends WordSpec with MustMatchers {
+  val json = """{"id":"p1","name":"""" + ("x" * 500) + """"}"""
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+
+  def gzip(s: String): Array[Byte] = {
+    val bytes = new ByteArrayOutputStream()
+    val out = new GZIPOutputStream(bytes)
+    out.write(s.getBytes("UTF-8"))
+    out.close()
+    bytes.toByteArray
+  }
+
+  def handle(headers: FluentCaseInsensitiveStringsMap, body: Array[Byte]) = {
+    val requestHolder = new MockRequestHolder[java.util.Map[String, String]]("http://localhost/products", "GET", 200, "")
+    MockHttpResponseParts.feed(new JsonResponseHandler(requestHolder, typeRef), 200, headers, body).getValue
+  }
+
+  "Parse a plain response" in {
+    handle(new FluentCaseInsensitiveStringsMap(), json.getBytes("UTF-8")).get("id") must be ("p1")
+  }
+
+  "Decompress a gzip encoded response" in {
+    val headers = new FluentCaseInsensitiveStringsMap().add("Content-Encoding", "gzip")
+    val result = handle(headers, gzip(json))
+    result.get("id") must be ("p1")
+    result.get("name").length must be (500)
+  }
+}
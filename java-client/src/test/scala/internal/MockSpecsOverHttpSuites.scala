@@ -0,0 +1,28 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import io.sphere.client.{CommandRequestSpec, FilterExpressionSpec, MockTransports}
+import io.sphere.client.shop._
+import io.sphere.internal.CachingCartServiceSpec
+
+/** Runs the specs based on prepared responses again, sending their requests through AsyncHttpClient
+ *  to a local server instead of feeding the responses in memory. */
+class MockSpecsOverHttpSuites extends Suites(
+  new CartServiceSpec,
+  new CategoryTreeSpec,
+  new CommentServiceSpec,
+  new CustomerServiceSpec,
+  new InventoryServiceSpec,
+  new OrderServiceSpec,
+  new ProductServiceSpec,
+  new ReviewServiceSpec,
+  new ShippingMethodServiceSpec,
+  new CommandRequestSpec,
+  new FilterExpressionSpec,
+  new CachingCartServiceSpec,
+  new ConflictRecoverySpec,
+  new QueryCursorSpec) with BeforeAndAfterAll {
+
+  override def beforeAll() { MockTransports.useAsyncHttpClient() }
+  override def afterAll() { MockTransports.useInMemory() }
+}
@@ -0,0 +1,127 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import scala.collection.JavaConverters._
+import java.util.concurrent.CopyOnWriteArrayList
+import com.google.common.base.Function
+import com.google.common.util.concurrent.{ListenableFuture, SettableFuture}
+import io.sphere.client.SphereClientException
+import io.sphere.client.model.QueryResult
+import org.reactivestreams.{Subscriber, Subscription}
+
+class PagePublisherSpec extends WordSpec with MustMatchers {
+  /** Pages of given total number of results, completed by the test unless completed right away. */
+  class Pages(total: Int, pageSize: Int, completeRightAway: Boolean = false) extends Function[Integer, ListenableFuture[QueryResult[Int]]] {
+    val requested = new CopyOnWriteArrayList[(Int, SettableFuture[QueryResult[Int]])]()
+    def apply(page: Integer) = {
+      val future = SettableFuture.create[QueryResult[Int]]()
+      requested.add((page.intValue, future))
+      if (completeRightAway) complete(page)
+      future
+    }
+    def complete(page: Int) {
+      val results = (page * pageSize until math.min(total, (page + 1) * pageSize)).map(Int.box)
+      requested.asScala.find(_._1 == page).get._2.set(
+        new QueryResult[Int](page * pageSize, results.size, total, results.asJava.asInstanceOf[java.util.List[Int]]))
+    }
+    def numbers = requested.asScala.map(_._1).toList
+  }
+
+  class RecordingSubscriber extends Subscriber[Int] {
+    var subscription: Subscription = null
+    val elements = new CopyOnWriteArrayList[Int]()
+    @volatile var error: Throwable = null
+    @volatile var completed = false
+    def onSubscribe(s: Subscription) { subscription = s }
+    def onNext(element: Int) { elements.add(element) }
+    def onError(t: Throwable) { error = t }
+    def onComplete() { completed = true }
+    def received = elements.asScala.toList
+  }
+
+  def subscribe(pages: Pages, firstPage: Int = 0) = {
+    val subscriber = new RecordingSubscriber
+    new PagePublisher[Int](pages, firstPage, 10).subscribe(subscriber)
+    subscriber
+  }
+
+  "Fetch pages only as results are requested" in {
+    val pages = new Pages(total = 30, pageSize = 10)
+    val subscriber = subscribe(pages)
+    pages.numbers must be (Nil)
+    subscriber.subscription.request(1)
+    pages.numbers must be (List(0))
+    pages.complete(0)
+    subscriber.received must be (List(0))
+    subscriber.subscription.request(9)
+    subscriber.received must be ((0 until 10).toList)
+    pages.numbers must be (List(0))
+    subscriber.subscription.request(5)
+    pages.numbers must be (List(0, 1))
+    pages.complete(1)
+    subscriber.received must be ((0 until 15).toList)
+    subscriber.completed must be (false)
+  }
+
+  "Complete after the last page" in {
+    val pages = new Pages(total = 25, pageSize = 10, completeRightAway = true)
+    val subscriber = subscribe(pages)
+    subscriber.subscription.request(Long.MaxValue)
+    subscriber.received must be ((0 until 25).toList)
+    subscriber.completed must be (true)
+    pages.numbers must be (List(0, 1, 2))
+  }
+
+  "Start at the given page" in {
+    val pages = new Pages(total = 25, pageSize = 10, completeRightAway = true)
+    val subscriber = subscribe(pages, firstPage = 1)
+    subscriber.subscription.request(100)
+    subscriber.received must be ((10 until 25).toList)
+    subscriber.completed must be (true)
+  }
+
+  "Complete an empty result set" in {
+    val pages = new Pages(total = 0, pageSize = 10, completeRightAway = true)
+    val subscriber = subscribe(pages)
+    subscriber.subscription.request(1)
+    subscriber.completed must be (true)
+    subscriber.received must be (Nil)
+  }
+
+  "Cancel the page in flight and stop emitting when cancelled" in {
+    val pages = new Pages(total = 30, pageSize = 10)
+    val subscriber = subscribe(pages)
+    subscriber.subscription.request(20)
+    subscriber.subscription.cancel()
+    pages.requested.get(0)._2.isCancelled must be (true)
+    subscriber.received must be (Nil)
+    subscriber.completed must be (false)
+    subscriber.error must be (null)
+  }
+
+  "Fail the subscription when fetching a page fails" in {
+    val pages = new Pages(total = 30, pageSize = 10)
+    val subscriber = subscribe(pages)
+    subscriber.subscription.request(1)
+    pages.requested.get(0)._2.setException(new RuntimeException("failed"))
+    subscriber.error.isInstanceOf[SphereClientException] must be (true)
+  }
+
+  "Fail the subscription when a page can't be requested" in {
+    val subscriber = new RecordingSubscriber
+    val failingPages = new Function[Integer, ListenableFuture[QueryResult[Int]]] {
+      def apply(page: Integer): ListenableFuture[QueryResult[Int]] = throw new IllegalStateException("client shut down")
+    }
+    new PagePublisher[Int](failingPages, 0, 10).subscribe(subscriber)
+    subscriber.subscription.request(1)
+    subscriber.error.isInstanceOf[SphereClientException] must be (true)
+    subscriber.error.getCause.isInstanceOf[IllegalStateException] must be (true)
+    subscriber.completed must be (false)
+  }
+
+  "Fail the subscription when the requested number is not positive" in {
+    val subscriber = subscribe(new Pages(total = 30, pageSize = 10))
+    subscriber.subscription.request(0)
+    subscriber.error.isInstanceOf[IllegalArgumentException] must be (true)
+  }
+}
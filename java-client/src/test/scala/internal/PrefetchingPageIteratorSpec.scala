@@ -0,0 +1,99 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import scala.collection.JavaConverters._
+import java.util.concurrent.CopyOnWriteArrayList
+import com.google.common.base.{Function, Optional, Supplier}
+import com.google.common.util.concurrent.{Futures, ListenableFuture, SettableFuture}
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+import io.sphere.client.model.QueryResult
+
+class PrefetchingPageIteratorSpec extends WordSpec with MustMatchers {
+  /** Pages of given total number of results, completed by the test. */
+  class Pages(total: Int, pageSize: Int) extends Function[Integer, ListenableFuture[QueryResult[Int]]] {
+    val requested = new CopyOnWriteArrayList[(Int, SettableFuture[QueryResult[Int]])]()
+    def apply(page: Integer) = {
+      val future = SettableFuture.create[QueryResult[Int]]()
+      requested.add((page.intValue, future))
+      future
+    }
+    def complete(page: Int) {
+      val results = (page * pageSize until math.min(total, (page + 1) * pageSize)).map(Int.box)
+      requested.asScala.find(_._1 == page).get._2.set(
+        new QueryResult[Int](page * pageSize, results.size, total, results.asJava.asInstanceOf[java.util.List[Int]]))
+    }
+    def inFlight = requested.asScala.filter(!_._2.isDone).map(_._1).toList
+  }
+
+  "Request only the first page until its total is known" in {
+    val pages = new Pages(total = 100, pageSize = 10)
+    new PrefetchingPageIterator[Int](pages, 0, 10, 3)
+    pages.inFlight must be (List(0))
+  }
+
+  "Prefetch a bounded number of pages and return results in order" in {
+    val pages = new Pages(total = 45, pageSize = 10)
+    val iterator = new PrefetchingPageIterator[Int](pages, 0, 10, 3)
+    pages.complete(0)
+    iterator.next must be (0)
+    pages.inFlight must be (List(1, 2, 3))
+    // later pages arriving first don't change the order
+    pages.complete(3)
+    pages.complete(2)
+    pages.complete(1)
+    (1 to 19).map(_ => iterator.next) must be (1 to 19)
+    pages.inFlight must be (List(4))
+    pages.complete(4)
+    iterator.asScala.toList must be ((20 until 45).toList)
+    pages.requested.size must be (5)
+  }
+
+  "Start at the given page" in {
+    val pages = new Pages(total = 30, pageSize = 10)
+    val iterator = new PrefetchingPageIterator[Int](pages, 1, 10, 4)
+    pages.complete(1)
+    iterator.next must be (10)
+    pages.inFlight must be (List(2))
+  }
+
+  "Return no results for an empty result set" in {
+    val pages = new Pages(total = 0, pageSize = 10)
+    val iterator = new PrefetchingPageIterator[Int](pages, 0, 10, 4)
+    pages.complete(0)
+    iterator.hasNext must be (false)
+    pages.requested.size must be (1)
+  }
+
+  "Cancel prefetched pages when fetching a page fails" in {
+    val pages = new Pages(total = 100, pageSize = 10)
+    val iterator = new PrefetchingPageIterator[Int](pages, 0, 10, 2)
+    pages.complete(0)
+    (0 until 10).foreach(_ => iterator.next)
+    pages.requested.get(1)._2.setException(new RuntimeException("failed"))
+    intercept[SphereClientException] { iterator.next }
+    pages.requested.get(2)._2.isCancelled must be (true)
+  }
+
+  "Send every page of QueryRequest.fetchAll with its own request" in {
+    val urls = new CopyOnWriteArrayList[String]()
+    val basic = new BasicRequestFactory {
+      def createGet[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "GET", 200, "") {
+        override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] = {
+          urls.add(getUrl)
+          val offset = "offset=(\\d+)".r.findFirstMatchIn(getUrl).get.group(1).toInt
+          val results = (offset until math.min(5, offset + 2)).map("result " + _).asJava
+          Futures.immediateFuture(SphereResultRaw.success(
+            new QueryResult[String](offset, results.size, 5, results).asInstanceOf[T]))
+        }
+      }
+      def createPost[T](url: String): RequestHolder[T] = createGet(url)
+    }
+    val query = new RequestFactoryImpl(basic).createQueryRequest(
+      "/customers", Optional.absent(), new TypeReference[QueryResult[String]]() {}).expand("customerGroup").pageSize(2)
+    query.fetchAll().asScala.toList must be ((0 until 5).map("result " + _).toList)
+    urls.size must be (3)
+    urls.asScala.foreach { url => url must include ("expand=customerGroup"); url must include ("limit=2") }
+    urls.asScala.map(url => "offset=\\d+".r.findFirstIn(url).get).toSet must be (Set("offset=0", "offset=2", "offset=4"))
+  }
+}
@@ -0,0 +1,71 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import scala.collection.JavaConverters._
+import java.net.URLDecoder
+import java.util.concurrent.CopyOnWriteArrayList
+import com.google.common.base.{Optional, Supplier}
+import com.google.common.util.concurrent.ListenableFuture
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+import io.sphere.client.model.QueryResult
+import io.sphere.internal.util.Util
+
+class QueryCursorSpec extends WordSpec with MustMatchers {
+  type Obj = java.util.Map[String, String]
+
+  /** Answers queries sorted by id over given ids, honoring `where id > "..."` and `limit`. */
+  class IdQueryRequestFactory(ids: Seq[String]) extends BasicRequestFactory {
+    val urls = new CopyOnWriteArrayList[String]()
+    def createGet[T](url: String): RequestHolder[T] = new MockRequestHolder[T](url, "GET", 200, "") {
+      override def executeRequest(responseHandlers: Supplier[HttpResponseHandler[SphereResultRaw[T]]]): ListenableFuture[SphereResultRaw[T]] = {
+        val decoded = URLDecoder.decode(getUrl, "UTF-8")
+        urls.add(decoded)
+        val after = "id > \"([^\"]+)\"".r.findFirstMatchIn(decoded).map(_.group(1))
+        val limit = "limit=(\\d+)".r.findFirstMatchIn(decoded).get.group(1).toInt
+        val remaining = ids.sorted.filter(id => after.forall(id > _))
+        val page = remaining.take(limit)
+        val json = """{"offset":0,"count":%d,"total":%d,"results":[%s]}""".format(
+          page.size, remaining.size, page.map(id => """{"id":"%s"}""".format(id)).mkString(","))
+        respondWith(responseHandlers, 200, json)
+      }
+    }
+    def createPost[T](url: String): RequestHolder[T] = createGet(url)
+  }
+
+  def query(factory: BasicRequestFactory) = new RequestFactoryImpl(factory).createQueryRequest(
+    "/orders?where=" + Util.urlEncode("customerId=\"c1\""), Optional.absent(), new TypeReference[QueryResult[Obj]]() {}).pageSize(2)
+
+  "Page through all results by id" in {
+    val factory = new IdQueryRequestFactory(Seq("e", "a", "d", "b", "c"))
+    val first = query(factory).fetchAfter(QueryCursor.start())
+    first.getResults.asScala.map(_.get("id")) must be (Seq("a", "b"))
+    first.getNextCursor must be (QueryCursor.after("b"))
+    first.isLast must be (false)
+    val second = query(factory).fetchAfter(first.getNextCursor)
+    second.getResults.asScala.map(_.get("id")) must be (Seq("c", "d"))
+    val third = query(factory).fetchAfter(second.getNextCursor)
+    third.getResults.asScala.map(_.get("id")) must be (Seq("e"))
+    third.isLast must be (true)
+    factory.urls.get(0) must not include ("id >")
+    factory.urls.asScala.foreach { url =>
+      url must include ("sort=id asc")
+      url must include ("customerId=\"c1\"")
+      url must not include ("offset")
+    }
+    factory.urls.get(2) must include ("where=id > \"d\"")
+  }
+
+  "Keep the cursor when there are no further results" in {
+    val page = query(new IdQueryRequestFactory(Seq("a"))).fetchAfter(QueryCursor.after("a"))
+    page.getResults.isEmpty must be (true)
+    page.isLast must be (true)
+    page.getNextCursor must be (QueryCursor.after("a"))
+  }
+
+  "Resume from a persisted id" in {
+    val persisted = QueryCursor.after("b").getLastId.get
+    val page = query(new IdQueryRequestFactory(Seq("a", "b", "c"))).fetchAfter(QueryCursor.after(persisted))
+    page.getResults.asScala.map(_.get("id")) must be (Seq("c"))
+  }
+}
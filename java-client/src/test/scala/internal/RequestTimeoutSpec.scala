@@ -0,0 +1,52 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.net.InetSocketAddress
+import java.util.concurrent.{CountDownLatch, ExecutionException, TimeUnit}
+import com.sun.net.httpserver.{HttpExchange, HttpHandler, HttpServer}
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+
+class RequestTimeoutSpec extends WordSpec with MustMatchers with BeforeAndAfterAll {
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+  val released = new CountDownLatch(1)
+  val server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+  server.createContext("/", new HttpHandler {
+    def handle(exchange: HttpExchange) {
+      // never respond in time
+      released.await(5, TimeUnit.SECONDS)
+      exchange.close()
+    }
+  })
+  server.start()
+  val transports = TestTransports.create()
+  val url = "http://localhost:" + server.getAddress.getPort + "/products"
+
+  override def afterAll() {
+    released.countDown()
+    transports.foreach(_._2.close())
+    server.stop(0)
+  }
+
+  for ((backend, transport) <- transports) {
+    def request = new RequestHolderImpl[java.util.Map[String, String]](transport, "GET", url)
+
+    (backend + ": Fail with RequestTimeoutException when the deadline passes") in {
+      val fetch = new FetchRequestImpl(request, typeRef).timeout(100, TimeUnit.MILLISECONDS)
+      val start = System.currentTimeMillis
+      val e = intercept[ExecutionException] { fetch.fetchAsync().get(5, TimeUnit.SECONDS) }
+      (System.currentTimeMillis - start) must be < 2000L
+      e.getCause.asInstanceOf[RequestTimeoutException].getTimeoutMs must be <= 100L
+    }
+
+    (backend + ": Fail without sending the request when the deadline has already passed") in {
+      val holder = request.setDeadline(System.nanoTime - 1)
+      val e = intercept[ExecutionException] { RequestExecutor.execute(holder, typeRef).get(1, TimeUnit.SECONDS) }
+      e.getCause.isInstanceOf[RequestTimeoutException] must be (true)
+    }
+
+    (backend + ": Reject negative timeouts") in {
+      intercept[IllegalArgumentException] { new FetchRequestImpl(request, typeRef).timeout(-1, TimeUnit.SECONDS) }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.util.concurrent.Executors
+import org.codehaus.jackson.`type`.TypeReference
+import io.sphere.client._
+import io.sphere.client.PendingRequestFactory.SentRequest
+import io.sphere.internal.util.TokenBucket
+
+class RetryingRequestFactorySpec extends WordSpec with MustMatchers {
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+  val overCapacity = """{"statusCode": 503, "message": "Over capacity", "errors": [{"code": "OverCapacity", "message": "Over capacity"}]}"""
+  val invalidInput = """{"statusCode": 400, "message": "Invalid", "errors": [{"code": "InvalidInput", "message": "Invalid"}]}"""
+
+  /** Responds with given error a number of times, then succeeds. */
+  class FailingRequestFactory(failures: Int, error: String) extends PendingRequestFactory {
+    override def onRequest(request: SentRequest) {
+      if (size <= failures) request.respond(503, error)
+      else request.respond(200, """{"id":"p1"}""")
+    }
+  }
+
+  def retrying(underlying: BasicRequestFactory, maxAttempts: Int, metrics: ClientMetrics, budget: TokenBucket = new TokenBucket(10, 20)) =
+    new RetryingRequestFactory(
+      underlying, new ExponentialBackoffRetryPolicy(maxAttempts, 1, 10), budget, Executors.newSingleThreadScheduledExecutor, metrics)
+
+  def fetch(factory: BasicRequestFactory) =
+    RequestExecutor.execute(factory.createGet[java.util.Map[String, String]]("/products/p1"), typeRef).get
+
+  "Retry 5xx responses" in {
+    val underlying = new FailingRequestFactory(2, overCapacity)
+    val metrics = new ClientMetrics
+    fetch(retrying(underlying, 3, metrics)).getValue.get("id") must be ("p1")
+    underlying.size must be (3)
+    metrics.getCount(RetryingRequestFactory.retries) must be (2)
+  }
+
+  "Give up after max attempts" in {
+    val underlying = new FailingRequestFactory(5, overCapacity)
+    fetch(retrying(underlying, 3, new ClientMetrics)).getError.getStatusCode must be (503)
+    underlying.size must be (3)
+  }
+
+  "Not retry client errors" in {
+    val underlying = new FailingRequestFactory(1, invalidInput)
+    fetch(retrying(underlying, 3, new ClientMetrics)).isError must be (true)
+    underlying.size must be (1)
+  }
+
+  "Stop retrying when the retry budget is exhausted" in {
+    val underlying = new FailingRequestFactory(5, overCapacity)
+    val metrics = new ClientMetrics
+    fetch(retrying(underlying, 5, metrics, new TokenBucket(0, 1))).isError must be (true)
+    underlying.size must be (2)
+    metrics.getCount(RetryingRequestFactory.retriesBudgetExhausted) must be (1)
+  }
+
+  "Retry connection errors" in {
+    val underlying = new PendingRequestFactory {
+      override def onRequest(request: SentRequest) {
+        if (size == 1) request.fail(new java.net.ConnectException("Connection refused"))
+        else request.respond(200, """{"id":"p1"}""")
+      }
+    }
+    fetch(retrying(underlying, 3, new ClientMetrics)).getValue.get("id") must be ("p1")
+    underlying.size must be (2)
+  }
+
+  "Not retry responses that can't be parsed" in {
+    val underlying = new PendingRequestFactory {
+      override def onRequest(request: SentRequest) { request.respond(200, "{not json") }
+    }
+    intercept[java.util.concurrent.ExecutionException] { fetch(retrying(underlying, 3, new ClientMetrics)) }
+    underlying.size must be (1)
+  }
+
+  "Abort the attempt in flight when cancelled" in {
+    val underlying = new PendingRequestFactory
+    val result = retrying(underlying, 3, new ClientMetrics).createGet[String]("/products/p1").executeRequest(null)
+    result.cancel(true)
+    underlying.get(0).isCancelled must be (true)
+  }
+
+  "Not send a scheduled retry when cancelled" in {
+    val underlying = new FailingRequestFactory(5, overCapacity)
+    val metrics = new ClientMetrics
+    val factory = new RetryingRequestFactory(
+      underlying, new RetryPolicy { def getRetryDelayMs(retry: Int) = 100L },
+      new TokenBucket(10, 20), Executors.newSingleThreadScheduledExecutor, metrics)
+    val result = RequestExecutor.execute(factory.createGet[java.util.Map[String, String]]("/products/p1"), typeRef)
+    metrics.getCount(RetryingRequestFactory.retries) must be (1)
+    result.cancel(true)
+    Thread.sleep(150)
+    underlying.size must be (1)
+  }
+
+  "Grow the retry delay exponentially" in {
+    val policy = new ExponentialBackoffRetryPolicy(4, 100, 250)
+    for (i <- 1 to 100) {
+      policy.getRetryDelayMs(1) must (be >= (0L) and be <= (100L))
+      policy.getRetryDelayMs(3) must (be >= (0L) and be <= (250L))
+    }
+    policy.getRetryDelayMs(4) must be (-1)
+  }
+}
@@ -0,0 +1,113 @@
+package io.sphere.internal.oauth
+
+import org.scalatest._
+import java.io.IOException
+import java.util.Locale
+import java.util.concurrent.atomic.AtomicInteger
+import com.google.common.base.Optional
+import com.google.common.util.concurrent.{Futures, ListenableFuture, SettableFuture}
+import io.sphere.client.{ClientMetrics, HttpTransport, SphereClientException}
+import io.sphere.client.oauth.{OAuthClient, Tokens}
+import io.sphere.client.shop.SphereClientConfig
+import io.sphere.internal.util.Concurrent
+
+class SphereClientCredentialsSpec extends WordSpec with MustMatchers {
+  def config(waitTimeoutMs: Long = 1000, refreshFraction: Double = 0.5) =
+    new SphereClientConfig.Builder("project", "clientId", "clientSecret", Locale.ENGLISH)
+      .setTokenRefreshFraction(refreshFraction)
+      .setTokenWaitTimeoutMs(waitTimeoutMs)
+      .build
+
+  /** Returns the first token as soon as the test releases it. */
+  class PendingOAuthClient(expiresInSeconds: Long) extends OAuthClient(null: HttpTransport) {
+    val requests = new AtomicInteger()
+    val pending = SettableFuture.create[Tokens]()
+    @volatile var response: ListenableFuture[Tokens] = pending
+    override def getTokensForClient(tokenEndpoint: String, clientId: String, clientSecret: String, scope: String): ListenableFuture[Tokens] = {
+      requests.incrementAndGet()
+      response
+    }
+    def release() {
+      pending.set(new Tokens("token1", null, Optional.of(expiresInSeconds)))
+    }
+  }
+
+  "Wait for the first token, then return it without waiting" in {
+    val oauthClient = new PendingOAuthClient(3600)
+    val metrics = new ClientMetrics
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(config(), oauthClient, metrics)
+    new Thread(new Runnable { def run() { Thread.sleep(50); oauthClient.release() } }).start()
+    credentials.getAccessToken must be ("token1")
+    credentials.getAccessToken must be ("token1")
+    metrics.getCount(SphereClientCredentials.tokenWaits) must be (1)
+    metrics.getCount(SphereClientCredentials.tokenWaitMs) must be >= 40L
+    credentials.shutdown()
+  }
+
+  "Give up waiting for the first token after the wait timeout" in {
+    val oauthClient = new PendingOAuthClient(3600)
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(config(waitTimeoutMs = 50), oauthClient, new ClientMetrics)
+    intercept[SphereClientException] { credentials.getAccessToken }
+    credentials.shutdown()
+  }
+
+  "Refresh the token in the background after a fraction of its lifetime" in {
+    val oauthClient = new PendingOAuthClient(5)
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(
+      config(refreshFraction = 0.1), oauthClient, new ClientMetrics)
+    oauthClient.release()
+    credentials.getAccessToken must be ("token1")
+    oauthClient.response = Futures.immediateFuture(new Tokens("token2", null, Optional.of(3600L)))
+    Thread.sleep(700)
+    oauthClient.requests.get must be (2)
+    credentials.getAccessToken must be ("token2")
+    credentials.shutdown()
+  }
+
+  "Keep the current token when a refresh fails and retry the refresh later" in {
+    val oauthClient = new PendingOAuthClient(5)
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(
+      config(refreshFraction = 0.1), oauthClient, new ClientMetrics)
+    oauthClient.release()
+    credentials.getAccessToken must be ("token1")
+    oauthClient.response = Futures.immediateFailedFuture(new IOException("connection refused"))
+    Thread.sleep(700)
+    oauthClient.requests.get must be (2)
+    credentials.getAccessToken must be ("token1")
+    credentials.getAccessToken must be ("token1")
+    oauthClient.requests.get must be (2)   // no refresh before the retry delay
+    oauthClient.response = Futures.immediateFuture(new Tokens("token2", null, Optional.of(3600L)))
+    Thread.sleep(1300)
+    oauthClient.requests.get must be (3)
+    credentials.getAccessToken must be ("token2")
+    credentials.shutdown()
+  }
+
+  "Fail requests when there is no token and retry the refresh later" in {
+    val oauthClient = new PendingOAuthClient(3600)
+    oauthClient.response = Futures.immediateFailedFuture(new IOException("connection refused"))
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(config(), oauthClient, new ClientMetrics)
+    intercept[SphereClientException] { credentials.getAccessToken }
+    intercept[SphereClientException] { credentials.getAccessToken }
+    oauthClient.requests.get must be (1)
+    oauthClient.response = Futures.immediateFuture(new Tokens("token2", null, Optional.of(3600L)))
+    Thread.sleep(1300)
+    oauthClient.requests.get must be (2)
+    credentials.getAccessToken must be ("token2")
+    credentials.shutdown()
+  }
+
+  "Schedule token refreshes on a provided scheduler and leave it running on shutdown" in {
+    val scheduler = Concurrent.scheduler("test-scheduler", 1)
+    val metrics = new ClientMetrics
+    Concurrent.registerSchedulerMetrics(scheduler, metrics)
+    val oauthClient = new PendingOAuthClient(3600)
+    val credentials = SphereClientCredentials.createAndBeginRefreshInBackground(config(), oauthClient, metrics, scheduler)
+    oauthClient.release()
+    credentials.getAccessToken must be ("token1")
+    metrics.getGauge(Concurrent.schedulerQueuedTasks) must be (1)   // the next refresh
+    credentials.shutdown()
+    scheduler.isShutdown must be (false)
+    scheduler.shutdownNow()
+  }
+}
@@ -0,0 +1,11 @@
+package io.sphere.internal.request
+
+import com.ning.http.client.{AsyncHttpClient, AsyncHttpClientConfig}
+import io.sphere.client.HttpTransport
+
+/** Transports run by the specs that talk to a local HTTP server. */
+object TestTransports {
+  /** Creates one transport per HTTP stack, to be closed by the caller. */
+  def create(): Seq[(String, HttpTransport)] = Seq(
+    "AsyncHttpClient" -> new AsyncHttpClientTransport(new AsyncHttpClient(new AsyncHttpClientConfig.Builder().setUseRawUrl(true).build())))
+}
@@ -0,0 +1,89 @@
+package io.sphere.internal.request
+
+import org.scalatest._
+import java.net.{InetSocketAddress, URLDecoder}
+import java.util.concurrent.{CancellationException, CountDownLatch, Executors, TimeUnit}
+import com.google.common.io.ByteStreams
+import com.sun.net.httpserver.{HttpExchange, HttpHandler, HttpServer}
+import org.codehaus.jackson.`type`.TypeReference
+
+class TransportSpec extends WordSpec with MustMatchers with BeforeAndAfterAll {
+  val typeRef = new TypeReference[java.util.Map[String, String]]() {}
+  val released = new CountDownLatch(1)
+  val server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+  server.createContext("/", new HttpHandler {
+    def handle(exchange: HttpExchange) {
+      val path = exchange.getRequestURI.getPath
+      if (path == "/slow") released.await(5, TimeUnit.SECONDS)
+      val status = if (path == "/missing") 404 else 200
+      val body =
+        if (status == 404) """{"statusCode":404,"message":"Not found.","errors":[]}"""
+        else """{"method":"%s","query":"%s","rawQuery":"%s","body":"%s","auth":"%s"}""".format(
+          exchange.getRequestMethod,
+          URLDecoder.decode(Option(exchange.getRequestURI.getRawQuery).getOrElse(""), "UTF-8").replace("\"", "'"),
+          Option(exchange.getRequestURI.getRawQuery).getOrElse(""),
+          new String(ByteStreams.toByteArray(exchange.getRequestBody), "UTF-8").replace("\"", "'"),
+          exchange.getRequestHeaders.getFirst("Authorization"))
+      val bytes = body.getBytes("UTF-8")
+      exchange.sendResponseHeaders(status, bytes.length)
+      exchange.getResponseBody.write(bytes)
+      exchange.close()
+    }
+  })
+  // a blocked /slow request must not hold up the requests of other tests
+  val serverThreads = Executors.newCachedThreadPool()
+  server.setExecutor(serverThreads)
+  server.start()
+  val transports = TestTransports.create()
+  def url(path: String) = "http://localhost:" + server.getAddress.getPort + path
+
+  override def afterAll() {
+    released.countDown()
+    transports.foreach(_._2.close())
+    server.stop(0)
+    serverThreads.shutdownNow()
+  }
+
+  for ((backend, transport) <- transports) {
+    def request(method: String, path: String) =
+      new RequestHolderImpl[java.util.Map[String, String]](transport, method, url(path))
+
+    (backend + ": Send a GET request with encoded query parameters and headers") in {
+      val holder = request("GET", "/products?where=" + java.net.URLEncoder.encode("id=\"1\"", "UTF-8"))
+        .addQueryParameter("sort", "name asc")
+        .addQueryParameter("text", "Grüße & more")
+        .setHeader("Authorization", "Bearer token")
+      val result = RequestExecutor.execute(holder, typeRef).get(5, TimeUnit.SECONDS).getValue
+      result.get("method") must be ("GET")
+      result.get("query") must be ("where=id='1'&sort=name asc&text=Grüße & more")
+      result.get("auth") must be ("Bearer token")
+    }
+
+    (backend + ": Send the encoded query string of the URL as is") in {
+      // encoded differently than the client would, so that encoding it again would change it
+      val holder = request("GET", "/product-projections/search?filter=size%3a%22XL%22&text.en=shirt%7E")
+        .addQueryParameter("staged", "a b")
+      val result = RequestExecutor.execute(holder, typeRef).get(5, TimeUnit.SECONDS).getValue
+      result.get("rawQuery") must be ("filter=size%3a%22XL%22&text.en=shirt%7E&staged=a%20b")
+    }
+
+    (backend + ": Send a POST request with a body") in {
+      val holder = request("POST", "/carts").setBody("""{"currency":"EUR"}""")
+      val result = RequestExecutor.execute(holder, typeRef).get(5, TimeUnit.SECONDS).getValue
+      result.get("method") must be ("POST")
+      result.get("body") must be ("{'currency':'EUR'}")
+    }
+
+    (backend + ": Pass error responses to the response handler") in {
+      val result = RequestExecutor.execute(request("GET", "/missing"), typeRef).get(5, TimeUnit.SECONDS)
+      result.isError must be (true)
+      result.getError.getStatusCode must be (404)
+    }
+
+    (backend + ": Abort the request when the future is cancelled") in {
+      val response = RequestExecutor.execute(request("GET", "/slow"), typeRef)
+      response.cancel(true)
+      intercept[CancellationException] { response.get(5, TimeUnit.SECONDS) }
+    }
+  }
+}
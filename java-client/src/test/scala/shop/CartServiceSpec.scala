@@ -59,6 +59,29 @@ class CartServiceSpec extends WordSpec with MustMatchers  {
     cart.getId must be(cartId)
   }
 
+  "Create cart with initial update" in {
+    val address = new Address(CountryCode.DE)
+    val update = new CartUpdate().addLineItem(1, "product1", 2).addLineItem(3, "product2").setShippingAddress(address).setCountry(CountryCode.AT)
+    update.isApplicableOnCreate must be (true)
+    val req = asImpl(sphere.carts.createCart(EUR, null, CountryCode.DE, Cart.InventoryMode.None, update))
+    req.getRequestHolder.getUrl must be("/carts")
+    val cmd = req.getCommand.asInstanceOf[CartCommands.CreateCart]
+    cmd.getCurrency must be (EUR)
+    cmd.getCountry must be (CountryCode.AT)
+    cmd.getShippingAddress must be (address)
+    val lineItems = scala.collection.JavaConversions.asScalaBuffer(cmd.getLineItems).toList
+    lineItems.map(li => (li.getProductId, li.getVariantId, li.getQuantity)) must be (List(("product1", 2, 1), ("product2", null, 3)))
+    req.execute().getId must be(cartId)
+  }
+
+  "Reject initial updates that can't be applied on creation" in {
+    val update = new CartUpdate().addLineItem(1, "product1").recalculate()
+    update.isApplicableOnCreate must be (false)
+    intercept[IllegalArgumentException] {
+      sphere.carts.createCart(EUR, null, null, Cart.InventoryMode.None, update)
+    }
+  }
+
   "Update" in {
     val address = new Address(CountryCode.DE)
     val update = new CartUpdate()
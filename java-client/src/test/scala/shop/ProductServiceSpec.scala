@@ -175,6 +175,37 @@ class ProductServiceSpec extends WordSpec with MustMatchers {
       "filter.query" -> "variants.price.centAmount%3Arange%282550+to+*%29", "sort" -> "price+asc", "staged" -> "true"))
   }
 
+  "Prepare searches with pre-encoded static params" in {
+    val prepared = noProductsClient.products.prepareSearch(new SearchTemplate().
+      filter(FilterExpr.price.atLeast(new java.math.BigDecimal(25.5))).
+      sort(ProductSort.price.asc).
+      pageSize(24))
+    prepared.getQueryString must be ("filter.query=variants.price.centAmount%3Arange%282550%20to%20*%29&sort=price%20asc")
+    val searchRequest = prepared.search(EN).filter(FilterExpr.price.atMost(new java.math.BigDecimal(100)))
+    asImpl(searchRequest).getUrl must startWith ("/product-projections/search?" + prepared.getQueryString)
+    params(asImpl(searchRequest)) must be (Map(
+      "filter.query" -> "variants.price.centAmount%3Arange%28*+to+10000%29", "sort" -> "price%20asc", "staged" -> "true"))
+    searchRequest.fetch.getPageSize must be (24)
+  }
+
+  "Fetch products by ids" in {
+    val products = twoProductsClient.products.byIds(lst("prod222", "missing", "prod111", "prod222")).fetch
+    products.keySet.asScala.toList must be (List("prod222", "prod111"))
+    products.get("prod111").getCategories.size must be (2)
+    Option(products.get("missing")) must be (None)
+  }
+
+  "Query products by ids in chunks" in {
+    val ids = (1 to 120).map("id-" + _)
+    val request = noProductsClient.products.byIds(lst(ids: _*)).asInstanceOf[ProductFetchByIdsRequest]
+    val queries = request.getUnderlyingRequests.asScala.map(q => getRequestHolder(q))
+    queries.size must be (3)
+    queries.foreach(_.getUrl must startWith ("/product-projections?where=id+in+%28%22id-"))
+    params(queries(2))("where") must be (java.net.URLEncoder.encode(ids.drop(100).mkString("id in (\"", "\", \"", "\")"), "UTF-8"))
+    params(queries(2))("staged") must be ("true")
+    noProductsClient.products.byIds(lst()).fetch.isEmpty must be (true)
+  }
+
   "Set API mode" in {
     val reqStagingSearch = MockSphereClient.create(apiMode = ApiMode.Staged).products.all(EN)
     asImpl(reqStagingSearch).getUrl must startWith ("/product-projections")
@@ -3,6 +3,8 @@ package shop
 
 import org.scalatest._
 import java.util.Locale
+import java.util.concurrent.{LinkedBlockingQueue, TimeUnit}
+import com.google.common.util.concurrent.{ListenableFuture, SettableFuture}
 
 class TestSpec extends WordSpec with MustMatchers {
   "Constructing immutable instances using a nested static builder" in {
@@ -14,4 +16,48 @@ class TestSpec extends WordSpec with MustMatchers {
     config.getCoreHttpServiceUrl must equal ("http://localhost:1234")
     config.getAuthHttpServiceUrl must equal ("http://localhost:4321")
   }
+
+  "Configure the HTTP connection pool and timeouts" in {
+    val config = new SphereClientConfig.Builder("projectKey", "clientId", "clientSecret", Locale.ENGLISH)
+      .setMaxConnectionsTotal(50)
+      .setMaxConnectionsPerHost(20)
+      .setConnectTimeoutMs(1000)
+      .setRequestTimeoutMs(5000)
+      .build
+
+    config.getMaxConnectionsTotal must equal (50)
+    config.getMaxConnectionsPerHost must equal (20)
+    config.getConnectTimeoutMs must equal (1000)
+    config.getRequestTimeoutMs must equal (5000)
+    config.getIdleConnectionInPoolTimeoutMs must equal (io.sphere.internal.Defaults.idleConnectionInPoolTimeoutMs)
+  }
+
+  "Send all requests through a provided transport, which the application closes" in {
+    val requests = new LinkedBlockingQueue[HttpRequest]()
+    @volatile var closed = false
+    val transport = new HttpTransport {
+      def execute[T](request: HttpRequest, responseHandler: HttpResponseHandler[T]): ListenableFuture[T] = {
+        requests.add(request)
+        val response = SettableFuture.create[T]()
+        if (request.getUrl.endsWith("/oauth/token"))
+          response.set(MockHttpResponseParts.feed(responseHandler, 200, """{"access_token":"token","expires_in":3600}"""))
+        response
+      }
+      def close() { closed = true }
+    }
+    val config = new SphereClientConfig.Builder("projectKey", "clientId", "clientSecret", Locale.ENGLISH)
+      .setAuthHttpServiceUrl("http://localhost:4321")
+      .setBulkhead(ServiceGroup.Background, 2, 2)
+      .setTransport(transport)
+      .build
+    config.getTransport.get must be theSameInstanceAs (transport)
+
+    val client = SphereClient.create(config)
+    // the token request goes to the background bulkhead, which shares the transport
+    requests.poll(5, TimeUnit.SECONDS).getUrl must equal ("http://localhost:4321/oauth/token")
+    // the category tree is loaded with the token
+    requests.poll(5, TimeUnit.SECONDS).getHeaders.get("Authorization") must equal ("Bearer token")
+    client.shutdown()
+    closed must be (false)
+  }
 }
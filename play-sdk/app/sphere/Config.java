@@ -1,5 +1,6 @@
 package sphere;
 
+import io.sphere.client.RetryPolicy;
 import io.sphere.client.shop.model.Cart;
 
 import java.util.Currency;
@@ -11,4 +12,8 @@ public interface Config {
 
     /** The inventory mode of the shopping cart. */
     public Cart.InventoryMode cartInventoryMode();
+
+    /** Retries of cart and customer updates that failed with a ConcurrentModification error.
+     *  Null means such updates fail. */
+    public RetryPolicy conflictRetryPolicy();
 }
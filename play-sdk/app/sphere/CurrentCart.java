@@ -1,10 +1,13 @@
 package sphere;
 
 import java.util.Currency;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 import io.sphere.client.CommandRequest;
+import io.sphere.client.RetryPolicy;
+import io.sphere.client.UpdateRequest;
 import io.sphere.client.exceptions.SphereBackendException;
 import io.sphere.client.exceptions.OutOfStockException;
 import io.sphere.client.exceptions.PriceChangedException;
@@ -40,13 +43,25 @@ public class CurrentCart {
     private final OrderService orderService;
     private Currency cartCurrency;
     private Cart.InventoryMode inventoryMode;
+    @Nullable private final RetryPolicy conflictRetryPolicy;
+    /** Deadline of the Sphere requests, taken on the HTTP request's thread because many of them are sent from callbacks. */
+    private final long deadlineMs;
 
     public CurrentCart(CartService cartService, OrderService orderService, Currency cartCurrency, Cart.InventoryMode inventoryMode) {
+        this(cartService, orderService, cartCurrency, inventoryMode, null);
+    }
+
+    /** @param conflictRetryPolicy Retries of updates that failed with a ConcurrentModification error,
+     *                             null if the cart is repaired without applying the update instead. */
+    public CurrentCart(CartService cartService, OrderService orderService, Currency cartCurrency, Cart.InventoryMode inventoryMode,
+                       @Nullable RetryPolicy conflictRetryPolicy) {
         this.session = Session.current();
         this.cartService = cartService;
         this.orderService = orderService;
         this.cartCurrency = cartCurrency;
         this.inventoryMode = inventoryMode;
+        this.conflictRetryPolicy = conflictRetryPolicy;
+        this.deadlineMs = Async.budgetDeadlineMs();
     }
 
     private Cart emptyCart() {
@@ -63,13 +78,16 @@ public class CurrentCart {
     }
 
     /** Fetches the cart object for the current session asynchronously.
+     *
+     * <p>If {@code sphere.cart.cacheSize} is configured and the cart didn't change since it was last returned
+     * by the backend, the cart is served from memory.
      *
      * @see #fetch() fetch. */
     public Promise<Cart> fetchAsync() {
         final VersionedId cartId = session.getCartId();
         if (cartId != null) {
-            Log.trace("[cart] Fetch: found cart id in session, fetching cart from the backend: " + cartId);
-            return Async.asPlayPromise(Futures.transform(cartService.byId(cartId.getId()).fetchAsync(), new Function<Optional<Cart>, Cart>() {
+            Log.trace("[cart] Fetch: found cart id in session, fetching cart: " + cartId);
+            return Async.asPlayPromise(Futures.transform(cartService.byId(cartId).timeout(remainingMs(), TimeUnit.MILLISECONDS).fetchAsync(), new Function<Optional<Cart>, Cart>() {
                 @Nullable @Override public Cart apply(@Nullable Optional<Cart> cart) {
                     if (cart.isPresent()) {
                         return cart.get();
@@ -392,7 +410,7 @@ public class CurrentCart {
         // which is what we want.
         CartSnapshotId checkoutId = CartSnapshotId.parse(cartSnapshotId);
         Log.debug(String.format("Ordering cart %s using payment state %s.", checkoutId, paymentState));
-        return Async.asPlayPromise(Futures.transform(orderService.createOrder(checkoutId.cartId,paymentState).executeAsync(),
+        return Async.asPlayPromise(Futures.transform(withBudget(orderService.createOrder(checkoutId.cartId,paymentState)).executeAsync(),
                 new Function<SphereResult<Order>, SphereResult<Order>>() {
                     public SphereResult<Order> apply(@Nullable SphereResult<Order> order) {
                         session.clearCart(); // cart does not exist anymore
@@ -410,8 +428,17 @@ public class CurrentCart {
         return Async.awaitResult(updateAsync(update));
     }
 
-    /** Updates the cart asynchronously. */
+    /** Updates the cart asynchronously.
+     *
+     *  <p>If {@code sphere.cart.coalesceUpdatesMs} is configured, concurrent updates of the cart, e.g. caused by
+     *  a double click, are sent as a single update and all of them get the resulting cart.
+     *
+     *  <p>If there is no cart yet and the update only adds line items or sets the customer email, the addresses
+     *  or the country, the cart is created with the update applied in a single request. */
     public Promise<SphereResult<Cart>> updateAsync(final CartUpdate update) {
+        if (session.getCartId() == null && update.isApplicableOnCreate()) {
+            return Async.asPlayPromise(createWithUpdate(update));
+        }
         return Async.asPlayPromise(Futures.transform(ensureCart(), new AsyncFunction<SphereResult<VersionedId>, SphereResult<Cart>>() {
             public ListenableFuture<SphereResult<Cart>> apply(SphereResult<VersionedId> cartIdResult) {
                 if (cartIdResult.isError()) {
@@ -423,11 +450,22 @@ public class CurrentCart {
         }));
     }
 
-    // helper
+    // helpers
+    private long remainingMs() {
+        return Async.remainingMs(deadlineMs);
+    }
+
+    private <T> CommandRequest<T> withBudget(CommandRequest<T> commandRequest) {
+        return commandRequest.timeout(remainingMs(), TimeUnit.MILLISECONDS);
+    }
+
     private ListenableFuture<SphereResult<Cart>> executeAsync(@Nonnull final VersionedId currentCartId, @Nonnull final CartUpdate update) {
         Log.trace("[cart] Updating cart " + currentCartId);
-        final CommandRequest<Cart> commandRequest = cartService.updateCart(currentCartId, update);
-        return Futures.transform(commandRequest.executeAsync(), new AsyncFunction<SphereResult<Cart>, SphereResult<Cart>>() {
+        UpdateRequest<Cart> updateRequest = cartService.updateCart(currentCartId, update);
+        final CommandRequest<Cart> commandRequest = conflictRetryPolicy == null ?
+                updateRequest :
+                updateRequest.retryOnConflict(conflictRetryPolicy);
+        return Futures.transform(withBudget(commandRequest).executeAsync(), new AsyncFunction<SphereResult<Cart>, SphereResult<Cart>>() {
             @Nullable @Override public ListenableFuture<SphereResult<Cart>> apply(@Nullable SphereResult<Cart> cartResult) {
                 if (cartResult.isSuccess()) {
                     session.putCart(cartResult.getValue());
@@ -449,7 +487,7 @@ public class CurrentCart {
                         }
                         Log.warn("[cart] ConcurrentModification error when modifying the cart " + cartId + ". " +
                                  "Ignoring the modification and repairing session state. " + e.getMessage());
-                        return Futures.transform(cartService.byId(cartId.getId()).fetchAsync(), new Function<Optional<Cart>, SphereResult<Cart>>() {
+                        return Futures.transform(cartService.byId(cartId.getId()).timeout(remainingMs(), TimeUnit.MILLISECONDS).fetchAsync(), new Function<Optional<Cart>, SphereResult<Cart>>() {
                             @Nullable @Override public SphereResult<Cart> apply(Optional<Cart> existingCart) {
                                 if (!existingCart.isPresent()) {
                                     return clearCartOnNotFound(cartId.toString());
@@ -501,21 +539,50 @@ public class CurrentCart {
 
     /** Gets customer's cart, or creates a new one if the customer has no cart or the customer is null. */
     private ListenableFuture<SphereResult<Cart>> getExistingCartOrCreateNew(final VersionedId customerId) {
-        ListenableFuture<Optional<Cart>> getFuture =
-                customerId == null ?
-                        Futures.immediateFuture(Optional.<Cart>absent()) :
-                        cartService.forCustomer(customerId.getId()).fetchAsync();
-        return Futures.transform(getFuture, new AsyncFunction<Optional<Cart>, SphereResult<Cart>>() {
+        return Futures.transform(fetchCustomerCart(customerId), new AsyncFunction<Optional<Cart>, SphereResult<Cart>>() {
             @Override
             public ListenableFuture<SphereResult<Cart>> apply(Optional<Cart> existingCart) throws Exception {
                 if (existingCart.isPresent()) {
                     return Futures.immediateFuture(SphereResult.success(existingCart.get()));
                 } else {
                     return customerId != null ?
-                            cartService.createCart(cartCurrency, customerId.getId(), inventoryMode).executeAsync() :
-                            cartService.createCart(cartCurrency, inventoryMode).executeAsync();
+                            withBudget(cartService.createCart(cartCurrency, customerId.getId(), inventoryMode)).executeAsync() :
+                            withBudget(cartService.createCart(cartCurrency, inventoryMode)).executeAsync();
                 }
             }
         });
     }
+
+    /** Applies the update to customer's cart, or creates a new cart with the update applied
+     *  if the customer has no cart or no customer is logged in. */
+    private ListenableFuture<SphereResult<Cart>> createWithUpdate(final CartUpdate update) {
+        final VersionedId customerId = session.getCustomerId();
+        return Futures.transform(fetchCustomerCart(customerId), new AsyncFunction<Optional<Cart>, SphereResult<Cart>>() {
+            @Override
+            public ListenableFuture<SphereResult<Cart>> apply(Optional<Cart> existingCart) throws Exception {
+                if (existingCart.isPresent()) {
+                    session.putCart(existingCart.get());
+                    return executeAsync(existingCart.get().getIdAndVersion(), update);
+                }
+                Log.trace("[cart] Creating cart with the initial update");
+                String cartCustomerId = customerId != null ? customerId.getId() : null;
+                return Futures.transform(
+                        withBudget(cartService.createCart(cartCurrency, cartCustomerId, null, inventoryMode, update)).executeAsync(),
+                        new Function<SphereResult<Cart>, SphereResult<Cart>>() {
+                            @Nullable @Override public SphereResult<Cart> apply(@Nullable SphereResult<Cart> cartResult) {
+                                if (cartResult.isSuccess()) {
+                                    session.putCart(cartResult.getValue());
+                                }
+                                return cartResult;
+                            }
+                        });
+            }
+        });
+    }
+
+    private ListenableFuture<Optional<Cart>> fetchCustomerCart(@Nullable VersionedId customerId) {
+        return customerId == null ?
+                Futures.immediateFuture(Optional.<Cart>absent()) :
+                cartService.forCustomer(customerId.getId()).timeout(remainingMs(), TimeUnit.MILLISECONDS).fetchAsync();
+    }
 }
@@ -4,6 +4,7 @@ import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.sphere.client.RetryPolicy;
 import io.sphere.client.SphereClientException;
 import io.sphere.client.SphereResult;
 import io.sphere.client.model.VersionedId;
@@ -19,6 +20,7 @@ import play.libs.F.Promise;
 import sphere.util.Async;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
 
 /** Project customer service that automatically accesses the customer associated to the current HTTP session.
  *
@@ -35,17 +37,20 @@ public class CurrentCustomer {
     private final OrderService orderService;
     private final CommentService commentService;
     private final ReviewService reviewService;
+    @Nullable private final RetryPolicy conflictRetryPolicy;
 
     private CurrentCustomer(Session session,
                             CustomerService customerService,
                             OrderService orderService,
                             CommentService commentService,
-                            ReviewService reviewService) {
+                            ReviewService reviewService,
+                            @Nullable RetryPolicy conflictRetryPolicy) {
         this.session = session;
         this.customerService = customerService;
         this.orderService = orderService;
         this.commentService = commentService;
         this.reviewService = reviewService;
+        this.conflictRetryPolicy = conflictRetryPolicy;
     }
 
     private VersionedId getIdAndVersion() {
@@ -63,12 +68,22 @@ public class CurrentCustomer {
                                                     OrderService orderService,
                                                     CommentService commentService,
                                                     ReviewService reviewService) {
+        return createFromSession(customerService, orderService, commentService, reviewService, null);
+    }
+
+    /** If a customer is logged in, returns a {@link CurrentCustomer} instance. If no customer is logged in, returns null.
+     *  @param conflictRetryPolicy Retries of updates that failed with a ConcurrentModification error, null for no retries. */
+    public static CurrentCustomer createFromSession(CustomerService customerService,
+                                                    OrderService orderService,
+                                                    CommentService commentService,
+                                                    ReviewService reviewService,
+                                                    @Nullable RetryPolicy conflictRetryPolicy) {
         final Session session = Session.current();
         final VersionedId sessionCustomerId = session.getCustomerId();
         if (sessionCustomerId == null) {
             return null;
         }
-        return new CurrentCustomer(session, customerService, orderService, commentService, reviewService);
+        return new CurrentCustomer(session, customerService, orderService, commentService, reviewService, conflictRetryPolicy);
     }
 
     /** Fetches the currently authenticated {@link Customer}.
@@ -82,7 +97,7 @@ public class CurrentCustomer {
     public Promise<Customer> fetchAsync() {
         final VersionedId customerId = getIdAndVersion();
         Log.trace(String.format("[customer] Fetching customer %s.", customerId.getId()));
-        return Async.asPlayPromise(Futures.transform(customerService.byId(customerId.getId()).fetchAsync(), new Function<Optional<Customer>, Customer>() {
+        return Async.asPlayPromise(Futures.transform(customerService.byId(customerId.getId()).timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).fetchAsync(), new Function<Optional<Customer>, Customer>() {
             public Customer apply(@Nullable Optional<Customer> customer) {
                 assert customer != null;
                 if (!customer.isPresent()) {
@@ -122,8 +137,9 @@ public class CurrentCustomer {
     /** Updates the currently authenticated customer asynchronously. */
     public Promise<SphereResult<Customer>> updateAsync(CustomerUpdate update){
         final VersionedId idV = getIdAndVersion();
+        io.sphere.client.UpdateRequest<Customer> updateRequest = customerService.update(idV, update);
         return Async.asPlayPromise(executeAsync(
-                customerService.update(idV, update),
+                conflictRetryPolicy == null ? updateRequest : updateRequest.retryOnConflict(conflictRetryPolicy),
                 String.format("[customer] Updating customer %s.", idV.getId())));
     }
 
@@ -230,6 +246,7 @@ public class CurrentCustomer {
     private ListenableFuture<SphereResult<Customer>> executeAsync(io.sphere.client.CommandRequest<Customer> commandRequest, String logMessage) {
         Log.trace(logMessage);
         // update version in session
-        return Session.withCustomerIdAndVersion(commandRequest.executeAsync(), session);
+        return Session.withCustomerIdAndVersion(
+                commandRequest.timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync(), session);
     }
 }
@@ -0,0 +1,28 @@
+package sphere;
+
+import play.libs.F.Promise;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Request that fetches multiple objects by their ids.
+ *  <p>Use {@link #fetch} or {@link #fetchAsync} to execute the request. */
+public interface FetchByIdsRequest<T> {
+    /** Executes the request and returns the found objects by id, in the order of the requested ids.
+     *  Ids of objects that were not found are not contained in the result. */
+    Map<String, T> fetch();
+
+    /** Executes the request asynchronously and returns a promise providing the found objects by id.
+     *  Ids of objects that were not found are not contained in the result. */
+    Promise<Map<String, T>> fetchAsync();
+
+    /** Requests {@linkplain io.sphere.client.model.Reference Reference fields} to be expanded in the returned objects.
+     *  See {@link FetchRequest#expand}.
+     *
+     *  @param paths The paths to be expanded, such as 'categories[*]'. */
+    FetchByIdsRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link io.sphere.client.RequestTimeoutException} if it doesn't complete within given
+     *  time. When not set, the time left of the budget of the current HTTP request is used. */
+    FetchByIdsRequest<T> timeout(long timeout, TimeUnit unit);
+}
@@ -3,6 +3,8 @@ package sphere;
 import com.google.common.base.Optional;
 import play.libs.F.Promise;
 
+import java.util.concurrent.TimeUnit;
+
 /** Request that fetches a single object.
  *  <p>Use {@link #fetch} or {@link #fetchAsync} to execute the request. */
 public interface FetchRequest<T> {
@@ -43,4 +45,8 @@ public interface FetchRequest<T> {
      *
      *  @param paths The paths to be expanded, such as 'customerGroup'. */
     FetchRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link io.sphere.client.RequestTimeoutException} if it doesn't complete within given
+     *  time. When not set, the time left of the budget of the current HTTP request is used. */
+    FetchRequest<T> timeout(long timeout, TimeUnit unit);
 }
@@ -0,0 +1,18 @@
+package sphere;
+
+import java.util.Locale;
+
+/** A search whose static filters, facets, sort and page size were encoded once.
+ *  See {@link io.sphere.client.PreparedSearch}. */
+
+// An exact copy of io.sphere.client.PreparedSearch whose SearchRequests use Play's Promises rather than Guava's Futures
+public interface PreparedSearch<T> {
+    /** Creates a search request with the prepared parameters. */
+    SearchRequest<T> search(Locale locale);
+
+    /** Creates a search request with the prepared parameters, using the default locale of the Sphere client. */
+    SearchRequest<T> search();
+
+    /** The encoded query string of the prepared parameters, for debugging purposes. */
+    String getQueryString();
+}
@@ -1,8 +1,10 @@
 package sphere;
 
+import io.sphere.client.SearchTemplate;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.shop.model.Product;
 
+import java.util.Collection;
 import java.util.Locale;
 
 /** Sphere HTTP API for working with products in a given project. */
@@ -13,6 +15,10 @@ public interface ProductService {
     /** Finds a product by id. */
     FetchRequest<Product> byId(String id);
 
+    /** Finds multiple products by id, using one query per chunk of ids instead of one request per product.
+     *  The queries are sent in parallel. */
+    FetchByIdsRequest<Product> byIds(Collection<String> ids);
+
     /** Finds a product by slug. */
     FetchRequest<Product> bySlug(Locale locale, String slug);
 
@@ -56,4 +62,8 @@ public interface ProductService {
      * @see #filter(java.util.Locale, Iterable)
      */
     SearchRequest<Product> filter(Iterable<FilterExpression> filters);
+
+    /** Encodes the static filters, facets, sort and page size of a search once, so that they can be reused
+     *  by many requests, e.g. one for every view of a listing page. */
+    PreparedSearch<Product> prepareSearch(SearchTemplate template);
 }
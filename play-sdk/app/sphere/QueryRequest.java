@@ -1,8 +1,14 @@
 package sphere;
 
+import io.sphere.client.QueryCursor;
+import io.sphere.client.model.CursorPage;
 import io.sphere.client.model.QueryResult;
+import org.reactivestreams.Publisher;
 import play.libs.F.Promise;
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
 /** Request that uses a Sphere query API to fetch objects satisfying some conditions. */
 public interface QueryRequest<T> {
     /** Executes the request and returns the result. */
@@ -11,6 +17,26 @@ public interface QueryRequest<T> {
     /** Executes the request asynchronously and returns a future providing the result. */
     Promise<QueryResult<T>> fetchAsync();
 
+    /** Fetches all results, starting at the {@linkplain #page page} set on this request, and returns them
+     *  in order as a lazy iterator. Pages are requested in parallel ahead of the iteration, up to 4 at a time.
+     *  See {@link io.sphere.client.QueryRequest#fetchAll()}. */
+    Iterator<T> fetchAll();
+
+    /** Fetches all results as a lazy iterator, see {@link #fetchAll()}.
+     *  @param prefetchPages Maximum number of pages requested in parallel ahead of the iteration. */
+    Iterator<T> fetchAll(int prefetchPages);
+
+    /** Fetches the page of results after given cursor, sorted by id.
+     *  See {@link io.sphere.client.QueryRequest#fetchAfter}. */
+    CursorPage<T> fetchAfter(QueryCursor cursor);
+
+    /** Fetches the page of results after given cursor asynchronously, see {@link #fetchAfter}. */
+    Promise<CursorPage<T>> fetchAfterAsync(QueryCursor cursor);
+
+    /** Publishes all results, starting at the {@linkplain #page page} set on this request, in order,
+     *  fetching pages as the subscriber requests more results. See {@link io.sphere.client.QueryRequest#publisher()}. */
+    Publisher<T> publisher();
+
     /** Sets the page number for paging through results. Page numbers start at zero. */
     QueryRequest<T> page(int page);
 
@@ -47,4 +73,8 @@ public interface QueryRequest<T> {
      *
      *  @param paths The paths to be expanded, such as 'customerGroup'. */
     QueryRequest<T> expand(String... paths);
+
+    /** Fails the request with {@link io.sphere.client.RequestTimeoutException} if it doesn't complete within given
+     *  time. When not set, the time left of the budget of the current HTTP request is used. */
+    QueryRequest<T> timeout(long timeout, TimeUnit unit);
 }
\ No newline at end of file
@@ -4,8 +4,12 @@ import io.sphere.client.ProductSort;
 import io.sphere.client.facets.expressions.FacetExpression;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.model.SearchResult;
+import org.reactivestreams.Publisher;
 import play.libs.F.Promise;
 
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
 /** Request that uses a Sphere search API to fetch objects satisfying some conditions (including fulltext search)
  * and provide faceting functionality. Search is currently only supported for products. */
 public interface SearchRequest<T> {
@@ -15,6 +19,19 @@ public interface SearchRequest<T> {
     /** Executes the request asynchronously and returns a future providing the result. */
     Promise<SearchResult<T>> fetchAsync();
 
+    /** Fetches all results, starting at the {@linkplain #page page} set on this request, and returns them
+     *  in order as a lazy iterator. Pages are requested in parallel ahead of the iteration, up to 4 at a time.
+     *  See {@link io.sphere.client.SearchRequest#fetchAll()}. */
+    Iterator<T> fetchAll();
+
+    /** Fetches all results as a lazy iterator, see {@link #fetchAll()}.
+     *  @param prefetchPages Maximum number of pages requested in parallel ahead of the iteration. */
+    Iterator<T> fetchAll(int prefetchPages);
+
+    /** Publishes all results, starting at the {@linkplain #page page} set on this request, in order,
+     *  fetching pages as the subscriber requests more results. See {@link io.sphere.client.SearchRequest#publisher()}. */
+    Publisher<T> publisher();
+
     /** Sets the page number for paging through results. Page numbers start at zero. */
     SearchRequest<T> page(int page);
 
@@ -39,4 +56,8 @@ public interface SearchRequest<T> {
      *
      * @param sort Specifies how products should be sorted.. */
     SearchRequest<T> sort(ProductSort sort);
+
+    /** Fails the request with {@link io.sphere.client.RequestTimeoutException} if it doesn't complete within given
+     *  time. When not set, the time left of the budget of the current HTTP request is used. */
+    SearchRequest<T> timeout(long timeout, TimeUnit unit);
 }
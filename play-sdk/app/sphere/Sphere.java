@@ -1,8 +1,10 @@
 package sphere;
 
 import java.util.Currency;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import io.sphere.client.RetryPolicy;
 import io.sphere.client.SphereResult;
 import io.sphere.client.model.VersionedId;
 import io.sphere.client.shop.CategoryTree;
@@ -35,6 +37,7 @@ public class Sphere {
     private final SphereClient sphereClient;
     private final Currency cartCurrency;
     private final Cart.InventoryMode cartInventoryMode;
+    private final RetryPolicy conflictRetryPolicy;
 
     private final sphere.ProductService products;
     private final CategoryTree categories;
@@ -67,6 +70,7 @@ public class Sphere {
     Sphere(Config sphereConfig, SphereClient sphereClient) {
         cartCurrency = sphereConfig.cartCurrency();
         cartInventoryMode = sphereConfig.cartInventoryMode();
+        conflictRetryPolicy = sphereConfig.conflictRetryPolicy();
         this.sphereClient = sphereClient;
         categories = this.sphereClient.categories();
         products = new ProductServiceAdapter(this.sphereClient.products(), sphereClient.getConfig().getDefaultLocale());
@@ -93,7 +97,7 @@ public class Sphere {
      *
      *  @return A cart API object. This method never returns null. */
     @Nonnull public CurrentCart currentCart() {
-        return new CurrentCart(sphereClient.carts(), sphereClient.orders(), cartCurrency, cartInventoryMode);
+        return new CurrentCart(sphereClient.carts(), sphereClient.orders(), cartCurrency, cartInventoryMode, conflictRetryPolicy);
     }
 
     // ---------------------------
@@ -114,6 +118,7 @@ public class Sphere {
                 if (result == null) {
                     instance = result = create();
                     initChaosLevel();
+                    initRequestBudget();
                 }
             }
         }
@@ -140,6 +145,11 @@ public class Sphere {
         ChaosMode.setChaosLevel(SphereConfig.root().chaosLevel());
     }
 
+    /** Initializes the time budget for Sphere requests made while handling a single HTTP request. */
+    private static void initRequestBudget() {
+        Async.setRequestBudgetMs(SphereConfig.root().requestBudgetMs());
+    }
+
     // ---------------------------
     // Business logic
     // ---------------------------
@@ -155,7 +165,7 @@ public class Sphere {
     public CurrentCustomer currentCustomer() {
        return CurrentCustomer.createFromSession(
                sphereClient.customers(), sphereClient.orders(),
-               sphereClient.comments(), sphereClient.reviews());
+               sphereClient.comments(), sphereClient.reviews(), conflictRetryPolicy);
     }
 
     // This could return:
@@ -179,8 +189,8 @@ public class Sphere {
         Session session = Session.current();
         VersionedId sessionCartId = session.getCartId();
         ListenableFuture<SphereResult<SignInResult>> loginFuture = sessionCartId == null ?
-                sphereClient.customers().signIn(email, password).executeAsync() :
-                sphereClient.customers().signIn(email, password, sessionCartId.getId()).executeAsync();
+                sphereClient.customers().signIn(email, password).timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync() :
+                sphereClient.customers().signIn(email, password, sessionCartId.getId()).timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync();
         return Async.asPlayPromise(Session.withCustomerAndCart(loginFuture, session));
     }
 
@@ -204,8 +214,8 @@ public class Sphere {
         Session session = Session.current();
         VersionedId sessionCartId = session.getCartId();
         ListenableFuture<SphereResult<SignInResult>> signupFuture = sessionCartId == null ?
-                sphereClient.customers().signUp(email, password, customerName).executeAsync() :
-                sphereClient.customers().signUp(email, password, customerName, sessionCartId.getId()).executeAsync();
+                sphereClient.customers().signUp(email, password, customerName).timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync() :
+                sphereClient.customers().signUp(email, password, customerName, sessionCartId.getId()).timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync();
         return Async.asPlayPromise(Session.withCustomerAndCart(signupFuture, session));
     }
 
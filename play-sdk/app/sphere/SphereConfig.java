@@ -4,10 +4,17 @@ import java.util.Currency;
 import java.util.Locale;
 
 import com.google.common.base.Joiner;
+import io.sphere.client.BulkheadConfig;
+import io.sphere.client.CircuitBreakerConfig;
+import io.sphere.client.ConcurrencyLimitConfig;
+import io.sphere.client.ExponentialBackoffRetryPolicy;
+import io.sphere.client.HedgingConfig;
+import io.sphere.client.RetryPolicy;
 import io.sphere.client.SphereClientException;
 import io.sphere.client.shop.SphereClientConfig;
 import io.sphere.internal.ChaosMode;
 import io.sphere.client.shop.ApiMode;
+import io.sphere.client.shop.ServiceGroup;
 import io.sphere.client.shop.model.Cart;
 import io.sphere.internal.Defaults;
 import io.sphere.internal.util.Util;
@@ -16,16 +23,54 @@ import io.sphere.internal.util.Util;
  *  Use {@link #root()} to get the configured object. */
 class SphereConfig implements Config {
     private static class Keys {
-        private static final String core              = "sphere.core";
-        private static final String auth              = "sphere.auth";
-        private static final String project           = "sphere.project";
-        private static final String clientId          = "sphere.clientId";
-        private static final String clientSecret      = "sphere.clientSecret";
-        private static final String apiMode           = "sphere.products.mode";
-        private static final String defaultLocale     = "sphere.defaultLocale";
-        private static final String cartCurrency      = "sphere.cart.currency";
-        private static final String cartInventoryMode = "sphere.cart.inventoryMode";
-        private static final String chaosLevel        = "sphere.chaosLevel";
+        private static final String core                      = "sphere.core";
+        private static final String auth                      = "sphere.auth";
+        private static final String project                   = "sphere.project";
+        private static final String clientId                  = "sphere.clientId";
+        private static final String clientSecret              = "sphere.clientSecret";
+        private static final String apiMode                   = "sphere.products.mode";
+        private static final String defaultLocale             = "sphere.defaultLocale";
+        private static final String cartCurrency              = "sphere.cart.currency";
+        private static final String cartInventoryMode         = "sphere.cart.inventoryMode";
+        private static final String cartCoalesceUpdatesMs     = "sphere.cart.coalesceUpdatesMs";
+        private static final String cartCacheSize             = "sphere.cart.cacheSize";
+        private static final String conflictRetryMaxAttempts  = "sphere.conflictRetry.maxAttempts";
+        private static final String conflictRetryBaseDelayMs  = "sphere.conflictRetry.baseDelayMs";
+        private static final String conflictRetryMaxDelayMs   = "sphere.conflictRetry.maxDelayMs";
+        private static final String chaosLevel                = "sphere.chaosLevel";
+        private static final String requestBudgetMs           = "sphere.requestBudgetMs";
+        private static final String tokenRefreshPercent       = "sphere.oauth.refreshAtPercentOfLifetime";
+        private static final String tokenWaitTimeoutMs        = "sphere.oauth.waitTimeoutMs";
+        private static final String httpMaxConnections        = "sphere.http.maxConnections";
+        private static final String httpMaxConnectionsPerHost = "sphere.http.maxConnectionsPerHost";
+        private static final String httpConnectTimeoutMs      = "sphere.http.connectTimeoutMs";
+        private static final String httpRequestTimeoutMs      = "sphere.http.requestTimeoutMs";
+        private static final String httpIdleTimeoutMs         = "sphere.http.idleTimeoutMs";
+        private static final String httpPooledIdleTimeoutMs   = "sphere.http.pooledIdleTimeoutMs";
+        private static final String httpIoThreadMultiplier    = "sphere.http.ioThreadMultiplier";
+        private static final String schedulerThreads          = "sphere.scheduler.threads";
+        private static final String callbackThreads           = "sphere.callback.threads";
+        private static final String httpCompression           = "sphere.http.compression";
+        private static final String httpCompressionThreshold  = "sphere.http.requestCompressionThreshold";
+        private static final String httpCoalesceRequests      = "sphere.http.coalesceRequests";
+        private static final String httpResponseCacheMaxBytes = "sphere.http.responseCacheMaxBytes";
+        private static final String httpRetryMaxAttempts      = "sphere.http.retry.maxAttempts";
+        private static final String httpRetryBaseDelayMs      = "sphere.http.retry.baseDelayMs";
+        private static final String httpRetryMaxDelayMs       = "sphere.http.retry.maxDelayMs";
+        private static final String httpRetryBudgetPerSecond  = "sphere.http.retry.budgetPerSecond";
+        private static final String httpRetryBudgetBurst      = "sphere.http.retry.budgetBurst";
+        private static final String circuitBreakerEnabled     = "sphere.http.circuitBreaker.enabled";
+        private static final String circuitBreakerFailureRate = "sphere.http.circuitBreaker.failureRatePercent";
+        private static final String circuitBreakerSlowMs      = "sphere.http.circuitBreaker.slowRequestThresholdMs";
+        private static final String circuitBreakerOpenMs      = "sphere.http.circuitBreaker.openDurationMs";
+        private static final String hedgingEnabled            = "sphere.http.hedging.enabled";
+        private static final String hedgingPercentile         = "sphere.http.hedging.percentile";
+        private static final String hedgingMaxRatePercent     = "sphere.http.hedging.maxRatePercent";
+        private static final String concurrencyLimitEnabled   = "sphere.http.concurrencyLimit.enabled";
+        private static final String concurrencyMaxLimit       = "sphere.http.concurrencyLimit.max";
+        private static final String concurrencyMaxQueueSize   = "sphere.http.concurrencyLimit.maxQueueSize";
+        /** Followed by the lower case service group, e.g. 'sphere.http.bulkhead.checkout.maxConnections'. */
+        private static final String bulkhead                  = "sphere.http.bulkhead.";
     }
 
     private final play.Configuration playConfig;
@@ -37,11 +82,38 @@ class SphereConfig implements Config {
     public SphereClientConfig createSphereClientConfig() {
         String localeString = playConfig.getString(Keys.defaultLocale, "en");
         Locale locale = Util.fromLanguageTag(localeString);
-        return new SphereClientConfig.Builder(project(), clientId(), clientSecret(), locale)
+        SphereClientConfig.Builder builder = new SphereClientConfig.Builder(project(), clientId(), clientSecret(), locale)
             .setCoreHttpServiceUrl(coreEndpoint())
             .setAuthHttpServiceUrl(authEndpoint())
             .setApiMode(apiMode())
-            .build();
+            .setTokenRefreshFraction(getInt(Keys.tokenRefreshPercent, (int)(Defaults.tokenRefreshFraction * 100)) / 100.0)
+            .setTokenWaitTimeoutMs(getInt(Keys.tokenWaitTimeoutMs, (int)Defaults.tokenWaitTimeoutMs))
+            .setMaxConnectionsTotal(getInt(Keys.httpMaxConnections, Defaults.maxConnectionsTotal))
+            .setMaxConnectionsPerHost(getInt(Keys.httpMaxConnectionsPerHost, Defaults.maxConnectionsPerHost))
+            .setConnectTimeoutMs(getInt(Keys.httpConnectTimeoutMs, Defaults.connectTimeoutMs))
+            .setRequestTimeoutMs(getInt(Keys.httpRequestTimeoutMs, Defaults.requestTimeoutMs))
+            .setIdleConnectionTimeoutMs(getInt(Keys.httpIdleTimeoutMs, Defaults.idleConnectionTimeoutMs))
+            .setIdleConnectionInPoolTimeoutMs(getInt(Keys.httpPooledIdleTimeoutMs, Defaults.idleConnectionInPoolTimeoutMs))
+            .setIoThreadMultiplier(getInt(Keys.httpIoThreadMultiplier, Defaults.ioThreadMultiplier))
+            .setSchedulerThreads(getInt(Keys.schedulerThreads, Defaults.schedulerThreads))
+            .setCallbackThreads(getInt(Keys.callbackThreads, Defaults.callbackThreads))
+            .setCompressionEnabled(getBoolean(Keys.httpCompression, Defaults.compressionEnabled))
+            .setRequestCompressionThreshold(getInt(Keys.httpCompressionThreshold, Defaults.requestCompressionThreshold))
+            .setRequestCoalescingEnabled(getBoolean(Keys.httpCoalesceRequests, Defaults.requestCoalescingEnabled))
+            .setResponseCacheMaxBytes(getInt(Keys.httpResponseCacheMaxBytes, Defaults.responseCacheMaxBytes))
+            .setCartUpdateCoalescingWindowMs(getInt(Keys.cartCoalesceUpdatesMs, (int)Defaults.cartUpdateCoalescingWindowMs))
+            .setCartCacheMaxSize(getInt(Keys.cartCacheSize, Defaults.cartCacheMaxSize))
+            .setRetryPolicy(retryPolicy())
+            .setCircuitBreakerConfig(circuitBreakerConfig())
+            .setHedgingConfig(hedgingConfig())
+            .setConcurrencyLimitConfig(concurrencyLimitConfig())
+            .setRetryBudget(
+                    getDouble(Keys.httpRetryBudgetPerSecond, Defaults.retryBudgetPerSecond),
+                    getInt(Keys.httpRetryBudgetBurst, Defaults.retryBudgetBurst));
+        for (ServiceGroup group: ServiceGroup.values()) {
+            builder.setBulkhead(group, bulkheadConfig(group));
+        }
+        return builder.build();
     }
 
     /** Creates a new instance of config. */
@@ -82,6 +154,11 @@ class SphereConfig implements Config {
        return value == null ? 0 : Math.min(Math.max(value, ChaosMode.minLevel), ChaosMode.maxLevel);
     }
 
+    /** Total time the Sphere requests made while handling a single HTTP request can take, in milliseconds. */
+    public long requestBudgetMs() {
+        return getInt(Keys.requestBudgetMs, 30*1000);
+    }
+
     /** Specifies whether {@linkplain ApiMode staging or live} data is accessed by the shop client. */
     public ApiMode apiMode() {
         String value = playConfig.getString(Keys.apiMode);
@@ -113,6 +190,17 @@ class SphereConfig implements Config {
         }
     }
 
+    /** Retries of cart and customer updates that failed with a ConcurrentModification error,
+     *  configured by the number of attempts. Null means no retries. */
+    public RetryPolicy conflictRetryPolicy() {
+        int maxAttempts = getInt(Keys.conflictRetryMaxAttempts, 1);
+        if (maxAttempts <= 1) return null;
+        return new ExponentialBackoffRetryPolicy(
+                maxAttempts,
+                getInt(Keys.conflictRetryBaseDelayMs, (int)Defaults.conflictRetryBaseDelayMs),
+                getInt(Keys.conflictRetryMaxDelayMs, (int)Defaults.conflictRetryMaxDelayMs));
+    }
+
     // -----------------------------
     // Helpers
     // -----------------------------
@@ -130,4 +218,77 @@ class SphereConfig implements Config {
             return value;
         }
     }
+
+    /** Retries of failed read requests, configured by the number of attempts. Null means no retries. */
+    private RetryPolicy retryPolicy() {
+        int maxAttempts = getInt(Keys.httpRetryMaxAttempts, 1);
+        if (maxAttempts <= 1) return null;
+        return new ExponentialBackoffRetryPolicy(
+                maxAttempts,
+                getInt(Keys.httpRetryBaseDelayMs, (int)Defaults.retryBaseDelayMs),
+                getInt(Keys.httpRetryMaxDelayMs, (int)Defaults.retryMaxDelayMs));
+    }
+
+    /** Circuit breakers per group of endpoints. Null means no circuit breakers. */
+    private CircuitBreakerConfig circuitBreakerConfig() {
+        if (!getBoolean(Keys.circuitBreakerEnabled, false)) return null;
+        return new CircuitBreakerConfig.Builder()
+                .setFailureRatePercent(getInt(Keys.circuitBreakerFailureRate, Defaults.circuitBreakerFailureRatePercent))
+                .setSlowRequestThresholdMs(getInt(Keys.circuitBreakerSlowMs, (int)Defaults.circuitBreakerSlowRequestThresholdMs))
+                .setOpenDurationMs(getInt(Keys.circuitBreakerOpenMs, (int)Defaults.circuitBreakerOpenDurationMs))
+                .build();
+    }
+
+    /** Hedging of slow read requests. Null means no hedging. */
+    private HedgingConfig hedgingConfig() {
+        if (!getBoolean(Keys.hedgingEnabled, false)) return null;
+        return new HedgingConfig.Builder()
+                .setPercentile(getInt(Keys.hedgingPercentile, Defaults.hedgingPercentile))
+                .setMaxHedgeRatePercent(getInt(Keys.hedgingMaxRatePercent, Defaults.hedgingMaxRatePercent))
+                .build();
+    }
+
+    /** Adaptive limit of concurrent requests. Null means no limit. */
+    private ConcurrencyLimitConfig concurrencyLimitConfig() {
+        if (!getBoolean(Keys.concurrencyLimitEnabled, false)) return null;
+        return new ConcurrencyLimitConfig.Builder()
+                .setMaxLimit(getInt(Keys.concurrencyMaxLimit, Defaults.concurrencyMaxLimit))
+                .setMaxQueueSize(getInt(Keys.concurrencyMaxQueueSize, Defaults.concurrencyMaxQueueSize))
+                .build();
+    }
+
+    /** Resources reserved for given group of services, configured by the number of connections.
+     *  Null means the group shares the default connection pool. */
+    private BulkheadConfig bulkheadConfig(ServiceGroup group) {
+        String prefix = Keys.bulkhead + group.name().toLowerCase() + ".";
+        int maxConnections = getInt(prefix + "maxConnections", 0);
+        if (maxConnections <= 0) return null;
+        return new BulkheadConfig(
+                maxConnections,
+                getInt(prefix + "maxConcurrentRequests", maxConnections),
+                getInt(prefix + "maxQueueSize", Defaults.bulkheadMaxQueueSize));
+    }
+
+    /** Returns the configured integer value, or the default if the key is not present. */
+    private int getInt(String key, int defaultValue) {
+        Integer value = playConfig.getInt(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /** Returns the configured decimal value, or the default if the key is not present. */
+    private double getDouble(String key, double defaultValue) {
+        String value = playConfig.getString(key);
+        if (value == null) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw playConfig.reportError(key, "Path '" + key + "' must be a number, was '" + value + "'.", e);
+        }
+    }
+
+    /** Returns the configured boolean value, or the default if the key is not present. */
+    private boolean getBoolean(String key, boolean defaultValue) {
+        Boolean value = playConfig.getBoolean(key);
+        return value == null ? defaultValue : value;
+    }
 }
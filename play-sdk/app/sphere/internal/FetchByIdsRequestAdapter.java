@@ -0,0 +1,44 @@
+package sphere.internal;
+
+import play.libs.F.Promise;
+import sphere.FetchByIdsRequest;
+import sphere.util.Async;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** FetchByIdsRequest with Play-specific async methods. */
+public class FetchByIdsRequestAdapter<T> implements FetchByIdsRequest<T> {
+    private final io.sphere.client.FetchByIdsRequest<T> request;
+    private boolean hasTimeout;
+    public FetchByIdsRequestAdapter(@Nonnull io.sphere.client.FetchByIdsRequest<T> request) {
+        if (request == null) throw new NullPointerException("request");
+        this.request = request;
+    }
+
+    /** The request with its timeout set, defaulting to the time left of the current HTTP request. */
+    private io.sphere.client.FetchByIdsRequest<T> withTimeout() {
+        if (!hasTimeout) request.timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS);
+        return request;
+    }
+
+    @Override public Map<String, T> fetch() {
+        return withTimeout().fetch();
+    }
+
+    @Override public Promise<Map<String, T>> fetchAsync() {
+        return Async.asPlayPromise(withTimeout().fetchAsync());
+    }
+
+    @Override public FetchByIdsRequest<T> expand(String... paths) {
+        request.expand(paths);
+        return this;
+    }
+
+    @Override public FetchByIdsRequest<T> timeout(long timeout, TimeUnit unit) {
+        request.timeout(timeout, unit);
+        hasTimeout = true;
+        return this;
+    }
+}
@@ -6,25 +6,39 @@ import sphere.FetchRequest;
 import sphere.util.Async;
 
 import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
 
 /** FetchRequest with Play-specific async methods. */
 public class FetchRequestAdapter<T> implements FetchRequest<T> {
     private final io.sphere.client.FetchRequest<T> request;
+    private boolean hasTimeout;
     public FetchRequestAdapter(@Nonnull io.sphere.client.FetchRequest<T> request) {
         if (request == null) throw new NullPointerException("request");
         this.request = request;
     }
 
+    /** The request with its timeout set, defaulting to the time left of the current HTTP request. */
+    private io.sphere.client.FetchRequest<T> withTimeout() {
+        if (!hasTimeout) request.timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS);
+        return request;
+    }
+
     @Override public Optional<T> fetch() {
-        return request.fetch();
+        return withTimeout().fetch();
     }
 
     @Override public Promise<Optional<T>> fetchAsync() {
-        return Async.asPlayPromise(request.fetchAsync());
+        return Async.asPlayPromise(withTimeout().fetchAsync());
     }
 
     @Override public FetchRequest<T> expand(String... paths) {
         request.expand(paths);
         return this;
     }
+
+    @Override public FetchRequest<T> timeout(long timeout, TimeUnit unit) {
+        request.timeout(timeout, unit);
+        hasTimeout = true;
+        return this;
+    }
 }
@@ -1,14 +1,18 @@
 package sphere.internal;
 
+import io.sphere.client.SearchTemplate;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.shop.model.Product;
 import net.jcip.annotations.Immutable;
+import sphere.FetchByIdsRequest;
 import sphere.FetchRequest;
+import sphere.PreparedSearch;
 import sphere.ProductService;
 import sphere.SearchRequest;
 import sphere.util.Async;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
 import java.util.Locale;
 
 /** ProductService with Play-specific async methods. */
@@ -28,6 +32,10 @@ public class ProductServiceAdapter implements ProductService {
         return Async.adapt(service.byId(id));
     }
 
+    @Override public FetchByIdsRequest<Product> byIds(Collection<String> ids) {
+        return Async.adapt(service.byIds(ids));
+    }
+
     @Override public FetchRequest<Product> bySlug(Locale locale, String slug) {
         return Async.adapt(service.bySlug(locale, slug));
     }
@@ -58,4 +66,13 @@ public class ProductServiceAdapter implements ProductService {
 
     @Override
     public SearchRequest<Product> filter(Iterable<FilterExpression> filters) { return filter(defaultLocale, filters); }
+
+    @Override public PreparedSearch<Product> prepareSearch(SearchTemplate template) {
+        final io.sphere.client.PreparedSearch<Product> prepared = service.prepareSearch(template);
+        return new PreparedSearch<Product>() {
+            @Override public SearchRequest<Product> search(Locale locale) { return Async.adapt(prepared.search(locale)); }
+            @Override public SearchRequest<Product> search() { return Async.adapt(prepared.search()); }
+            @Override public String getQueryString() { return prepared.getQueryString(); }
+        };
+    }
 }
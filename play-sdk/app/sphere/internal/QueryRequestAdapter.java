@@ -1,26 +1,58 @@
 package sphere.internal;
 
+import io.sphere.client.QueryCursor;
+import io.sphere.client.model.CursorPage;
 import io.sphere.client.model.QueryResult;
+import org.reactivestreams.Publisher;
 import play.libs.F.Promise;
 import sphere.QueryRequest;
 import sphere.util.Async;
 
 import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /** QueryRequest with Play-specific async methods. */
 public class QueryRequestAdapter<T> implements QueryRequest<T> {
     private final io.sphere.client.QueryRequest<T> request;
+    private boolean hasTimeout;
     public QueryRequestAdapter(@Nonnull io.sphere.client.QueryRequest<T> request) {
         if (request == null) throw new NullPointerException("request");
         this.request = request;
     }
 
+    /** The request with its timeout set, defaulting to the time left of the current HTTP request. */
+    private io.sphere.client.QueryRequest<T> withTimeout() {
+        if (!hasTimeout) request.timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS);
+        return request;
+    }
+
     @Override public QueryResult<T> fetch() {
-        return request.fetch();
+        return withTimeout().fetch();
     }
 
     @Override public Promise<QueryResult<T>> fetchAsync() {
-        return Async.asPlayPromise(request.fetchAsync());
+        return Async.asPlayPromise(withTimeout().fetchAsync());
+    }
+
+    @Override public Iterator<T> fetchAll() {
+        return withTimeout().fetchAll();
+    }
+
+    @Override public Iterator<T> fetchAll(int prefetchPages) {
+        return withTimeout().fetchAll(prefetchPages);
+    }
+
+    @Override public CursorPage<T> fetchAfter(QueryCursor cursor) {
+        return withTimeout().fetchAfter(cursor);
+    }
+
+    @Override public Promise<CursorPage<T>> fetchAfterAsync(QueryCursor cursor) {
+        return Async.asPlayPromise(withTimeout().fetchAfterAsync(cursor));
+    }
+
+    @Override public Publisher<T> publisher() {
+        return withTimeout().publisher();
     }
 
     @Override public QueryRequest<T> page(int page) {
@@ -37,4 +69,10 @@ public class QueryRequestAdapter<T> implements QueryRequest<T> {
         request.expand(paths);
         return this;
     }
+
+    @Override public QueryRequest<T> timeout(long timeout, TimeUnit unit) {
+        request.timeout(timeout, unit);
+        hasTimeout = true;
+        return this;
+    }
 }
@@ -4,26 +4,48 @@ import io.sphere.client.ProductSort;
 import io.sphere.client.facets.expressions.FacetExpression;
 import io.sphere.client.filters.expressions.FilterExpression;
 import io.sphere.client.model.SearchResult;
+import org.reactivestreams.Publisher;
 import sphere.SearchRequest;
 import sphere.util.Async;
 import play.libs.F.Promise;
 
 import javax.annotation.Nonnull;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
 
 /** SearchRequest with Play-specific async methods. */
 public class SearchRequestAdapter<T> implements SearchRequest<T> {
     private final io.sphere.client.SearchRequest<T> request;
+    private boolean hasTimeout;
     public SearchRequestAdapter(@Nonnull io.sphere.client.SearchRequest<T> request) {
         if (request == null) throw new NullPointerException("request");
         this.request = request;
     }
 
+    /** The request with its timeout set, defaulting to the time left of the current HTTP request. */
+    private io.sphere.client.SearchRequest<T> withTimeout() {
+        if (!hasTimeout) request.timeout(Async.remainingBudgetMs(), TimeUnit.MILLISECONDS);
+        return request;
+    }
+
     @Override public SearchResult<T> fetch() {
-        return request.fetch();
+        return withTimeout().fetch();
     }
 
     @Override public Promise<SearchResult<T>> fetchAsync() {
-        return Async.asPlayPromise(request.fetchAsync());
+        return Async.asPlayPromise(withTimeout().fetchAsync());
+    }
+
+    @Override public Iterator<T> fetchAll() {
+        return withTimeout().fetchAll();
+    }
+
+    @Override public Iterator<T> fetchAll(int prefetchPages) {
+        return withTimeout().fetchAll(prefetchPages);
+    }
+
+    @Override public Publisher<T> publisher() {
+        return withTimeout().publisher();
     }
 
     @Override public SearchRequest<T> page(int page) {
@@ -60,4 +82,10 @@ public class SearchRequestAdapter<T> implements SearchRequest<T> {
         request.sort(sort);
         return this;
     }
+
+    @Override public SearchRequest<T> timeout(long timeout, TimeUnit unit) {
+        request.timeout(timeout, unit);
+        hasTimeout = true;
+        return this;
+    }
 }
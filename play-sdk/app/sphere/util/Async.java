@@ -8,14 +8,54 @@ import io.sphere.internal.util.Util;
 import play.api.libs.concurrent.Promise;
 import play.libs.Akka;
 import play.libs.F;
+import play.mvc.Http;
 import play.mvc.Result;
 import play.mvc.Results;
 import scala.concurrent.Future;
 
+import java.util.concurrent.TimeUnit;
+
 /** Static helpers for asynchronous programming. */
 public final class Async {
     private Async() {}
 
+    /** Key of the deadline of the current HTTP request in {@link Http.Context#args}. */
+    private static final String deadlineKey = "sphere.deadline";
+
+    private static volatile long requestBudgetMs = 30*1000;  // 30 seconds
+
+    /** Sets the total time the Sphere requests made while handling a single HTTP request can take. */
+    public static void setRequestBudgetMs(long budgetMs) {
+        if (budgetMs <= 0) throw new IllegalArgumentException("Request budget must be positive: " + budgetMs);
+        requestBudgetMs = budgetMs;
+    }
+
+    /** Time left for Sphere requests made while handling the current HTTP request, in milliseconds.
+     *  The budget starts running with the first Sphere request. Outside of an HTTP request, returns the whole budget. */
+    public static long remainingBudgetMs() {
+        Http.Context context = Http.Context.current.get();
+        if (context == null) return requestBudgetMs;
+        long now = System.currentTimeMillis();
+        Long deadline = (Long)context.args.get(deadlineKey);
+        if (deadline == null) {
+            context.args.put(deadlineKey, now + requestBudgetMs);
+            return requestBudgetMs;
+        }
+        return Math.max(0, deadline - now);
+    }
+
+    /** The time at which the budget of the current HTTP request runs out, as in {@link System#currentTimeMillis}.
+     *  Requests sent from callbacks run outside of the HTTP request's thread, where {@link #remainingBudgetMs}
+     *  returns the whole budget, so they have to use a deadline taken on that thread with {@link #remainingMs}. */
+    public static long budgetDeadlineMs() {
+        return System.currentTimeMillis() + remainingBudgetMs();
+    }
+
+    /** Time left until a deadline returned by {@link #budgetDeadlineMs}, in milliseconds. */
+    public static long remainingMs(long deadlineMs) {
+        return Math.max(0, deadlineMs - System.currentTimeMillis());
+    }
+
     /** Creates Play's AsyncResult based on Guava's ListenableFuture. */
     public static Results.AsyncResult asyncResult(ListenableFuture<Result> resultFuture) {
         return Results.async(asPlayPromise(resultFuture));
@@ -40,10 +80,10 @@ public final class Async {
         return promise.future();
     }
 
-    /** Blocks on a promise. */
+    /** Blocks on a promise, at most for the time left of the current HTTP request. */
     public static <T> T await(F.Promise<T> promise) {
         try {
-            return promise.get(30L, java.util.concurrent.TimeUnit.SECONDS);
+            return promise.get(remainingBudgetMs(), TimeUnit.MILLISECONDS);
         } catch (Exception e) {
             throw Util.toSphereException(e);
         }
@@ -55,9 +95,9 @@ public final class Async {
         return Util.getValueOrThrow(result);
     }
 
-    /** Executes a CommandRequest. */
+    /** Executes a CommandRequest, with the time left of the current HTTP request as the timeout. */
     public static <T> F.Promise<SphereResult<T>> execute(io.sphere.client.CommandRequest<T> req) {
-        return asPlayPromise(req.executeAsync());
+        return asPlayPromise(req.timeout(remainingBudgetMs(), TimeUnit.MILLISECONDS).executeAsync());
     }
 
     // ------------------------------------------------------------
@@ -68,6 +108,10 @@ public final class Async {
         return new sphere.internal.FetchRequestAdapter<T>(req);
     }
 
+    public static <T> sphere.FetchByIdsRequest<T> adapt(io.sphere.client.FetchByIdsRequest<T> req) {
+        return new sphere.internal.FetchByIdsRequestAdapter<T>(req);
+    }
+
     public static <T> sphere.QueryRequest<T> adapt(io.sphere.client.QueryRequest<T> req) {
         return new sphere.internal.QueryRequestAdapter<T>(req);
     }
@@ -43,7 +43,8 @@ object PlaySDKBuild extends Build {
         libraryDependencies ++= Seq(
           Libs.asyncHttpClient, Libs.guava, Libs.jodaTime, Libs.jodaConvert,
           Libs.jackson, Libs.jacksonMapper, Libs.jcip,
-          Libs.nvI18n        // CountryCode
+          Libs.nvI18n,       // CountryCode
+          Libs.reactiveStreams
         )))
 
   // ----------------------
@@ -105,6 +106,7 @@ object PlaySDKBuild extends Build {
     lazy val jacksonMapper   = "org.codehaus.jackson" % "jackson-mapper-asl" % "1.9.10"
     lazy val jcip            = "net.jcip" % "jcip-annotations" % "1.0"
     lazy val nvI18n          = "com.neovisionaries" % "nv-i18n" % "1.4"
+    lazy val reactiveStreams = "org.reactivestreams" % "reactive-streams" % "1.0.0"
 
     lazy val scalatest       = "org.scalatest" % "scalatest_2.10.0" % "2.0.M5" % "test"
   }